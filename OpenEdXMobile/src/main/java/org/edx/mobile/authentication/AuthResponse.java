@@ -22,6 +22,9 @@ public class AuthResponse implements Serializable {
     
     // non-api field
     public ProfileModel profile;
+
+    // non-api field, the time in milliseconds at which the response was stored
+    public long issuedAt;
     
     @Override
     public String toString() {
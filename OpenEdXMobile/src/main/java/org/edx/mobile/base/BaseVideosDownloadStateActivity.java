@@ -1,85 +1,100 @@
 package org.edx.mobile.base;
 
-import android.text.format.DateUtils;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 
+import com.google.inject.Inject;
+
 import org.edx.mobile.R;
-import org.edx.mobile.module.db.DataCallback;
+import org.edx.mobile.module.download.DownloadProgressPoller;
+import org.edx.mobile.module.download.DownloadProgressSnapshot;
 import org.edx.mobile.util.NetworkUtil;
+import org.edx.mobile.util.observer.Observer;
+import org.edx.mobile.util.observer.Subscription;
 import org.edx.mobile.view.custom.ProgressWheel;
 
 public abstract class BaseVideosDownloadStateActivity extends BaseFragmentActivity {
+    @Inject
+    private DownloadProgressPoller downloadProgressPoller;
     private ProgressWheel progressWheel;
     private MenuItem progressMenuItem;
-    private Runnable updateDownloadProgressRunnable;
+    @NonNull
+    private DownloadProgressSnapshot downloadProgress = DownloadProgressSnapshot.EMPTY;
+    @Nullable
+    private Subscription downloadProgressSubscription;
 
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         super.onCreateOptionsMenu(menu);
         getMenuInflater().inflate(R.menu.download_state, menu);
-        MenuItem newProgressMenuItem = menu.findItem(R.id.download_progress);
-        View progressView = newProgressMenuItem.getActionView();
-        ProgressWheel newProgressWheel = (ProgressWheel)
-                progressView.findViewById(R.id.progress_wheel);
-        if (progressMenuItem != null) {
-            newProgressMenuItem.setVisible(progressMenuItem.isVisible());
-            newProgressWheel.setProgress(progressWheel.getProgress());
-        }
-        progressMenuItem = newProgressMenuItem;
-        progressWheel = newProgressWheel;
+        progressMenuItem = menu.findItem(R.id.download_progress);
+        View progressView = progressMenuItem.getActionView();
+        progressWheel = (ProgressWheel) progressView.findViewById(R.id.progress_wheel);
         progressView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
                 environment.getRouter().showDownloads(BaseVideosDownloadStateActivity.this);
             }
         });
-        if (updateDownloadProgressRunnable == null) {
-            updateDownloadProgressRunnable = new Runnable() {
-                @Override
-                public void run() {
-                    if (!NetworkUtil.isConnected(BaseVideosDownloadStateActivity.this) ||
-                            !environment.getDatabase().isAnyVideoDownloading(null)) {
-                        progressMenuItem.setVisible(false);
-                    } else {
-                        progressMenuItem.setVisible(true);
-                        environment.getStorage().getAverageDownloadProgress(
-                                new DataCallback<Integer>() {
-                            @Override
-                            public void onResult(Integer result) {
-                                int progressPercent = result;
-                                if (progressPercent >= 0 && progressPercent <= 100) {
-                                    progressWheel.setProgressPercent(progressPercent);
-                                }
-                            }
-                            @Override
-                            public void onFail(Exception ex) {
-                                logger.error(ex);
-                            }
-                        });
-                    }
-                    progressWheel.postDelayed(this, DateUtils.SECOND_IN_MILLIS);
-                }
-            };
-            updateDownloadProgressRunnable.run();
-        }
+        updateDownloadProgress();
         return true;
     }
 
     @Override
     protected void onStart() {
         super.onStart();
-        if (updateDownloadProgressRunnable != null) {
-            updateDownloadProgressRunnable.run();
-        }
+        downloadProgressSubscription = downloadProgressPoller.subscribe(
+                new Observer<DownloadProgressSnapshot>() {
+                    @Override
+                    public void onData(@NonNull DownloadProgressSnapshot data) {
+                        downloadProgress = data;
+                        updateDownloadProgress();
+                    }
+
+                    @Override
+                    public void onError(@NonNull Throwable error) {
+                        logger.error(error);
+                    }
+                });
     }
 
     @Override
     protected void onStop() {
         super.onStop();
-        if (updateDownloadProgressRunnable != null) {
-            progressWheel.removeCallbacks(updateDownloadProgressRunnable);
+        if (downloadProgressSubscription != null) {
+            downloadProgressSubscription.unsubscribe();
+            downloadProgressSubscription = null;
+        }
+    }
+
+    @Override
+    protected void onOnline() {
+        super.onOnline();
+        updateDownloadProgress();
+    }
+
+    @Override
+    protected void onOffline() {
+        super.onOffline();
+        updateDownloadProgress();
+    }
+
+    private void updateDownloadProgress() {
+        if (progressMenuItem == null) {
+            // The options menu hasn't been created yet
+            return;
+        }
+        if (!NetworkUtil.isConnected(this) || downloadProgress.isEmpty()) {
+            progressMenuItem.setVisible(false);
+        } else {
+            progressMenuItem.setVisible(true);
+            int progressPercent = downloadProgress.getAverageProgress();
+            if (progressPercent >= 0 && progressPercent <= 100) {
+                progressWheel.setProgressPercent(progressPercent);
+            }
         }
     }
 }
@@ -22,6 +22,7 @@ import org.edx.mobile.core.EdxDefaultModule;
 import org.edx.mobile.core.IEdxEnvironment;
 import org.edx.mobile.event.AppUpdatedEvent;
 import org.edx.mobile.event.NewRelicEvent;
+import org.edx.mobile.http.metrics.NetworkMetrics;
 import org.edx.mobile.logger.Logger;
 import org.edx.mobile.module.analytics.AnalyticsRegistry;
 import org.edx.mobile.module.analytics.FirebaseAnalytics;
@@ -31,6 +32,9 @@ import org.edx.mobile.module.storage.IStorage;
 import org.edx.mobile.receivers.NetworkConnectivityReceiver;
 import org.edx.mobile.util.Config;
 import org.edx.mobile.util.NetworkUtil;
+import org.edx.mobile.view.ExtensionRegistry;
+import org.edx.mobile.view.NetworkMetricsSettingsExtension;
+import org.edx.mobile.view.SettingsExtension;
 
 import javax.inject.Inject;
 
@@ -108,6 +112,13 @@ public abstract class MainApplication extends MultiDexApplication {
             analyticsRegistry.addAnalyticsProvider(injector.getInstance(FirebaseAnalytics.class));
         }
 
+        // Show the network metrics in the settings of debug builds
+        if (BuildConfig.DEBUG) {
+            injector.getInstance(ExtensionRegistry.class).forType(SettingsExtension.class)
+                    .add(new NetworkMetricsSettingsExtension(
+                            injector.getInstance(NetworkMetrics.class)));
+        }
+
         registerReceiver(new NetworkConnectivityReceiver(), new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
         registerReceiver(new NetworkConnectivityReceiver(), new IntentFilter(WifiManager.WIFI_STATE_CHANGED_ACTION));
 
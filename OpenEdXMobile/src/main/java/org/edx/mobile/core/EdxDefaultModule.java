@@ -20,12 +20,13 @@ import org.edx.mobile.http.serialization.ISO8601DateTypeAdapter;
 import org.edx.mobile.http.serialization.JsonPageDeserializer;
 import org.edx.mobile.model.Page;
 import org.edx.mobile.model.course.BlockData;
-import org.edx.mobile.model.course.BlockList;
+import org.edx.mobile.model.course.BlockListTypeAdapter;
 import org.edx.mobile.model.course.BlockType;
 import org.edx.mobile.module.db.IDatabase;
 import org.edx.mobile.module.db.impl.IDatabaseImpl;
 import org.edx.mobile.module.download.IDownloadManager;
 import org.edx.mobile.module.download.IDownloadManagerImpl;
+import org.edx.mobile.module.download.OkHttpDownloadManager;
 import org.edx.mobile.module.notification.DummyNotificationDelegate;
 import org.edx.mobile.module.notification.NotificationDelegate;
 import org.edx.mobile.module.storage.IStorage;
@@ -54,7 +55,11 @@ public class EdxDefaultModule extends AbstractModule {
         Config config = new Config(context);
 
         bind(IDatabase.class).to(IDatabaseImpl.class);
-        bind(IDownloadManager.class).to(IDownloadManagerImpl.class);
+        if (config.getVideoDownloadConfig().isInAppEngineEnabled()) {
+            bind(IDownloadManager.class).to(OkHttpDownloadManager.class);
+        } else {
+            bind(IDownloadManager.class).to(IDownloadManagerImpl.class);
+        }
 
         bind(NotificationDelegate.class).to(DummyNotificationDelegate.class);
 
@@ -70,7 +75,7 @@ public class EdxDefaultModule extends AbstractModule {
                 .registerTypeAdapter(Page.class, new JsonPageDeserializer())
                 .registerTypeAdapter(BlockData.class, new BlockData.Deserializer())
                 .registerTypeAdapter(BlockType.class, new BlockType.Deserializer())
-                .registerTypeAdapter(BlockList.class, new BlockList.Deserializer())
+                .registerTypeAdapterFactory(BlockListTypeAdapter.FACTORY)
                 .serializeNulls()
                 .create());
 
@@ -5,9 +5,11 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
+import com.google.gson.Gson;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
+import org.edx.mobile.http.HttpStatusException;
 import org.edx.mobile.http.callback.ErrorHandlingCallback;
 import org.edx.mobile.http.notifications.ErrorNotification;
 import org.edx.mobile.http.notifications.SnackbarErrorNotification;
@@ -17,7 +19,6 @@ import org.edx.mobile.model.Filter;
 import org.edx.mobile.model.Page;
 import org.edx.mobile.model.api.ChapterModel;
 import org.edx.mobile.model.api.EnrolledCoursesResponse;
-import org.edx.mobile.model.api.IPathNode;
 import org.edx.mobile.model.api.LectureModel;
 import org.edx.mobile.model.api.ProfileModel;
 import org.edx.mobile.model.api.SectionEntry;
@@ -43,12 +44,15 @@ import org.edx.mobile.util.Config;
 import org.edx.mobile.view.common.TaskProgressCallback;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
+import retrofit2.Response;
 
 import static org.edx.mobile.http.util.CallUtil.executeStrict;
 
@@ -63,6 +67,11 @@ public class CourseAPI {
     @NonNull
     private final UserPrefs userPrefs;
 
+    @Inject
+    private Gson gson;
+
+    @Inject
+    private CourseStructureSnapshotStore snapshotStore;
 
     @Inject
     public CourseAPI(@NonNull CourseService courseService, @NonNull UserPrefs userPrefs) {
@@ -165,11 +174,41 @@ public class CourseAPI {
         return courseService.getCourseStructure(getUsername(), courseId);
     }
 
+    /**
+     * Loads the course structure from the HTTP cache. The normalized structure is kept in a
+     * {@link CourseStructureSnapshotStore} snapshot, which is used instead of parsing the cached
+     * response again for as long as the response stays the same.
+     */
     @NonNull
     public CourseComponent getCourseStructureFromCache(@NonNull final String courseId)
             throws Exception {
-        CourseStructureV1Model model = executeStrict(courseService.getCourseStructureFromCache(getUsername(), courseId));
-        return (CourseComponent) normalizeCourseStructure(model, courseId);
+        final String username = getUsername();
+        final Response<ResponseBody> response = courseService
+                .getCourseStructureResponseFromCache(username, courseId).execute();
+        if (!response.isSuccessful()) {
+            throw new HttpStatusException(response);
+        }
+        final ResponseBody body = response.body();
+        try {
+            final String validator = username == null ? null :
+                    CourseStructureSnapshotStore.getValidator(response.headers());
+            if (validator != null) {
+                final CourseComponent course = snapshotStore.read(username, courseId, validator);
+                if (course != null) {
+                    return course;
+                }
+            }
+            final CourseStructureV1Model model =
+                    gson.fromJson(body.charStream(), CourseStructureV1Model.class);
+            final CourseComponent course =
+                    (CourseComponent) normalizeCourseStructure(model, courseId);
+            if (validator != null) {
+                snapshotStore.write(username, courseId, validator, course);
+            }
+            return course;
+        } finally {
+            body.close();
+        }
     }
 
     public static abstract class GetCourseStructureCallback
@@ -317,7 +356,7 @@ public class CourseAPI {
                                            @NonNull final String videoId)
             throws Exception {
         CourseComponent course = this.getCourseStructureFromCache(courseId);
-        if (course == null) {
+        if (course != null) {
             return getVideoById(course, videoId);
         }
 
@@ -368,18 +407,15 @@ public class CourseAPI {
                                    @NonNull final String lectureName,
                                    @NonNull final String lectureId)
             throws Exception {
-        //TODO - we may use a generic filter to fetch the data?
-        for(IBlock chapter : courseComponent.getChildren()){
-            if ( chapter.getId().equals(chapterId) ){
-                for(IBlock lecture : chapter.getChildren() ){
-                    //TODO - check to see if need to compare id or not
-                    if ( lecture.getId().equals(lectureId) ){
-                        LectureModel lm = new LectureModel();
-                        lm.name = lecture.getDisplayName();
-                        lm.videos = (ArrayList) mappingAllVideoResponseModelFrom((CourseComponent)lecture, null );
-                        return lm;
-                    }
-                }
+        final CourseComponent lecture = courseComponent.findById(lectureId);
+        if (lecture != null) {
+            final CourseComponent chapter = lecture.getParent();
+            if (chapter != null && chapter.getId().equals(chapterId)
+                    && courseComponent.equals(chapter.getParent())) {
+                LectureModel lm = new LectureModel();
+                lm.name = lecture.getDisplayName();
+                lm.videos = (ArrayList) mappingAllVideoResponseModelFrom(lecture, null);
+                return lm;
             }
         }
         //if we can not find object by id, try to get by name.
@@ -404,10 +440,9 @@ public class CourseAPI {
     public VideoResponseModel getVideoById(@NonNull final CourseComponent courseComponent,
                                            @NonNull final String videoId)
             throws Exception {
-        for(HasDownloadEntry item : courseComponent.getVideos()) {
-            VideoBlockModel model = (VideoBlockModel)item;
-            if (model.getId().equals(videoId))
-                return mappingVideoResponseModelFrom((VideoBlockModel) item);
+        final CourseComponent component = courseComponent.findById(videoId);
+        if (component instanceof VideoBlockModel && component.getType() == BlockType.VIDEO) {
+            return mappingVideoResponseModelFrom((VideoBlockModel) component);
         }
         return null;
     }
@@ -421,20 +456,15 @@ public class CourseAPI {
     @Nullable
     public VideoResponseModel getSubsectionById(@NonNull final CourseComponent courseComponent,
                                                 @NonNull final String subsectionId) {
-        ////TODO - we may use a generic filter to fetch the data?
-        Map<String, SectionEntry> map = mappingCourseHierarchyFrom(courseComponent);
-        for (Map.Entry<String, SectionEntry> chapterentry : map.entrySet()) {
-            // iterate lectures
-            for (Map.Entry<String, ArrayList<VideoResponseModel>> entry :
-                    chapterentry.getValue().sections.entrySet()) {
-                // iterate videos
-                for (VideoResponseModel v : entry.getValue()) {
-                    // identify the subsection (module) if id matches
-                    IPathNode node = v.getSection();
-                    if (node != null  && subsectionId.equals(node.getId())) {
-                        return v;
-                    }
-                }
+        final CourseComponent subsection = courseComponent.findById(subsectionId);
+        if (subsection == null) {
+            return null;
+        }
+        // return the first video which has this subsection as its section
+        final EnumSet<BlockType> sectionTypes = EnumSet.of(BlockType.SECTION, BlockType.SEQUENTIAL);
+        for (VideoBlockModel video : subsection.getVideos()) {
+            if (subsection.equals(video.getAncestor(sectionTypes))) {
+                return mappingVideoResponseModelFrom(video);
             }
         }
         return null;
@@ -458,12 +488,30 @@ public class CourseAPI {
         BlockModel topBlock = courseStructureV1Model.getBlockById(courseStructureV1Model.root);
         CourseComponent course = new CourseComponent(topBlock, null);
         course.setCourseId(courseId);
-        for (BlockModel m : courseStructureV1Model.getDescendants(topBlock)) {
-            normalizeCourseStructure(courseStructureV1Model,m,course);
-        }
+        normalizeDescendants(courseStructureV1Model, topBlock, course);
+        course.buildIndex();
         return course;
     }
 
+    /**
+     * Adds the descendants of the given block to its component. Looks the descendants up by id
+     * directly rather than through {@link CourseStructureV1Model#getDescendants(BlockModel)}, to
+     * avoid allocating a list for every container in the course.
+     */
+    private static void normalizeDescendants(
+            @NonNull final CourseStructureV1Model courseStructureV1Model,
+            @NonNull final BlockModel block,
+            @NonNull final CourseComponent component) {
+        if (!block.isContainer() || block.descendants == null)
+            return;
+        for (String id : block.descendants) {
+            BlockModel m = courseStructureV1Model.getBlockById(id);
+            if (m != null) {
+                normalizeCourseStructure(courseStructureV1Model, m, component);
+            }
+        }
+    }
+
     private static void normalizeCourseStructure(
             @NonNull final CourseStructureV1Model courseStructureV1Model,
             @NonNull final BlockModel block,
@@ -471,9 +519,7 @@ public class CourseAPI {
 
         if (block.isContainer()) {
             CourseComponent child = new CourseComponent(block, parent);
-            for (BlockModel m : courseStructureV1Model.getDescendants(block)) {
-                normalizeCourseStructure(courseStructureV1Model, m, child);
-            }
+            normalizeDescendants(courseStructureV1Model, block, child);
         } else {
             if (BlockType.VIDEO == block.type && block.data instanceof VideoData) {
                 new VideoBlockModel(block, parent);
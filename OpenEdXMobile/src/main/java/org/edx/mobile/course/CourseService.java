@@ -8,6 +8,7 @@ import com.google.inject.Inject;
 
 import org.edx.mobile.event.EnrolledInCourseEvent;
 import org.edx.mobile.http.callback.ErrorHandlingCallback;
+import org.edx.mobile.http.interceptor.RequestCoalescingInterceptor;
 import org.edx.mobile.http.provider.RetrofitProvider;
 import org.edx.mobile.model.Page;
 import org.edx.mobile.model.api.EnrolledCoursesResponse;
@@ -29,6 +30,7 @@ import retrofit2.http.PATCH;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 import static org.edx.mobile.http.constants.TimeInterval.HOUR;
 
@@ -138,6 +140,25 @@ public interface CourseService {
             @Query("username") final String username,
             @Query("course_id") final String courseId);
 
+    /**
+     * The same request as {@link #getCourseStructureFromCache(String, String)}, with the response
+     * body left unread, so that the response headers can be checked before deciding whether to
+     * parse it. It's never merged with an identical request, which would read the body into
+     * memory.
+     */
+    @Streaming
+    @Headers({"Cache-Control: only-if-cached, max-stale",
+            RequestCoalescingInterceptor.NO_COALESCING_HEADER + ": true"})
+    @GET("/api/courses/v1/blocks/?" +
+            "depth=all&" +
+            "requested_fields=graded,format,student_view_multi_device&" +
+            "student_view_data=video,discussion&" +
+            "block_counts=video&" +
+            "nav_depth=3")
+    Call<ResponseBody> getCourseStructureResponseFromCache(
+            @Query("username") final String username,
+            @Query("course_id") final String courseId);
+
     final class SyncLastAccessedSubsectionBody {
         @NonNull
         private final String lastVisitedModuleId;
@@ -0,0 +1,553 @@
+package org.edx.mobile.course;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.model.api.TranscriptModel;
+import org.edx.mobile.model.course.BlockCount;
+import org.edx.mobile.model.course.BlockData;
+import org.edx.mobile.model.course.BlockModel;
+import org.edx.mobile.model.course.BlockType;
+import org.edx.mobile.model.course.CourseComponent;
+import org.edx.mobile.model.course.DiscussionBlockModel;
+import org.edx.mobile.model.course.DiscussionData;
+import org.edx.mobile.model.course.EncodedVideos;
+import org.edx.mobile.model.course.HtmlBlockModel;
+import org.edx.mobile.model.course.IBlock;
+import org.edx.mobile.model.course.VideoBlockModel;
+import org.edx.mobile.model.course.VideoData;
+import org.edx.mobile.model.course.VideoInfo;
+import org.edx.mobile.util.Sha1Util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Headers;
+
+/**
+ * Persists normalized course structures in a compact binary format, so that opening a course
+ * offline is a single sequential file read instead of parsing the cached JSON response again.
+ * <p>
+ * Each snapshot records the validator of the HTTP response it was built from (see
+ * {@link #getValidator(Headers)}), and is only used while the cached response still has the
+ * same validator.
+ */
+/* Layout of a snapshot file, where all the integers except the magic number are unsigned
+ * varints, and the strings are referred to by their 1-based index in the string table, with 0
+ * standing for null:
+ *
+ *   magic, format version, validator, course ID
+ *   string table: count, then the length and UTF-8 bytes of each string
+ *   the root component, where a component is:
+ *     kind, block type ordinal + 1, flags, id, block ID, name, block URL, web URL, format,
+ *     video count, data kind and data (leaves only), child count, then the children
+ *
+ * The block type is stored by ordinal, so FORMAT_VERSION must be bumped whenever the
+ * BlockType constants or this layout change; snapshots of other versions are discarded.
+ */
+@Singleton
+public class CourseStructureSnapshotStore {
+    private static final Logger logger = new Logger(CourseStructureSnapshotStore.class.getName());
+
+    private static final int MAGIC = 0x45445843; // "EDXC"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int KIND_CONTAINER = 0;
+    private static final int KIND_VIDEO = 1;
+    private static final int KIND_DISCUSSION = 2;
+    private static final int KIND_HTML = 3;
+
+    private static final int DATA_NONE = 0;
+    private static final int DATA_BLOCK = 1;
+    private static final int DATA_VIDEO = 2;
+    private static final int DATA_DISCUSSION = 3;
+
+    private static final int FLAG_GRADED = 1;
+    private static final int FLAG_MULTI_DEVICE = 1 << 1;
+
+    @NonNull
+    private final File directory;
+
+    @Inject
+    public CourseStructureSnapshotStore(@NonNull Context context) {
+        // Kept next to the HTTP cache that the snapshots are derived from
+        directory = new File(context.getFilesDir(), "course-snapshots");
+    }
+
+    /**
+     * @return The validator identifying the content of a response, i.e. its ETag, or its
+     * Last-Modified or Date header if it doesn't have one, or null if it has none of these.
+     */
+    @Nullable
+    public static String getValidator(@NonNull Headers headers) {
+        String validator = headers.get("ETag");
+        if (validator == null) {
+            validator = headers.get("Last-Modified");
+        }
+        if (validator == null) {
+            validator = headers.get("Date");
+        }
+        return validator;
+    }
+
+    /**
+     * @param validator The validator of the currently cached course structure response.
+     * @return The course structure from the snapshot, or null if there is no snapshot built from
+     * a response with the same validator.
+     */
+    @Nullable
+    public CourseComponent read(@NonNull String username, @NonNull String courseId,
+                                @NonNull String validator) {
+        final File file = getFile(username, courseId);
+        final byte[] bytes;
+        try {
+            bytes = readFully(file);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            logger.error(e);
+            return null;
+        }
+        try {
+            final Input in = new Input(bytes);
+            if (in.readInt() != MAGIC || in.readVarint() != FORMAT_VERSION
+                    || !validator.equals(in.readRawString())
+                    || !courseId.equals(in.readRawString())) {
+                logger.debug("Discarding stale course snapshot for " + courseId);
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                return null;
+            }
+            in.readStringTable();
+            final CourseComponent course = in.readComponent(null, new BlockModel());
+            course.setCourseId(courseId);
+            course.buildIndex();
+            return course;
+        } catch (IOException | RuntimeException e) {
+            logger.error(e, true);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Stores a snapshot of the course structure, replacing any previous one of the course.
+     *
+     * @param validator The validator of the response the course structure was built from.
+     */
+    public void write(@NonNull String username, @NonNull String courseId,
+                      @NonNull String validator, @NonNull CourseComponent course) {
+        if (!directory.mkdirs() && !directory.isDirectory()) {
+            logger.warn("Unable to create the course snapshots directory");
+            return;
+        }
+        final Output out = new Output();
+        out.writeInt(MAGIC);
+        out.writeVarint(FORMAT_VERSION);
+        out.writeRawString(validator);
+        out.writeRawString(courseId);
+        out.writeStringTable(course);
+        out.writeComponent(course);
+
+        final File file = getFile(username, courseId);
+        final File tempFile = new File(directory, file.getName() + ".tmp");
+        OutputStream stream = null;
+        try {
+            stream = new FileOutputStream(tempFile);
+            out.writeTo(stream);
+            stream.close();
+            stream = null;
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Unable to rename " + tempFile + " to " + file);
+            }
+        } catch (IOException e) {
+            logger.error(e);
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    // Nothing to do
+                }
+            }
+        }
+    }
+
+    @NonNull
+    private File getFile(@NonNull String username, @NonNull String courseId) {
+        return new File(directory, Sha1Util.SHA1(username + "/" + courseId));
+    }
+
+    @NonNull
+    private static byte[] readFully(@NonNull File file) throws IOException {
+        final DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            final byte[] bytes = new byte[(int) file.length()];
+            in.readFully(bytes);
+            return bytes;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static int getKind(@NonNull CourseComponent component) {
+        if (component instanceof VideoBlockModel) {
+            return KIND_VIDEO;
+        } else if (component instanceof DiscussionBlockModel) {
+            return KIND_DISCUSSION;
+        } else if (component instanceof HtmlBlockModel) {
+            return KIND_HTML;
+        }
+        return KIND_CONTAINER;
+    }
+
+    @Nullable
+    private static BlockData getData(@NonNull CourseComponent component) {
+        if (component instanceof VideoBlockModel) {
+            return ((VideoBlockModel) component).getData();
+        } else if (component instanceof DiscussionBlockModel) {
+            return ((DiscussionBlockModel) component).getData();
+        } else if (component instanceof HtmlBlockModel) {
+            return ((HtmlBlockModel) component).getData();
+        }
+        return null;
+    }
+
+    private static class Output extends ByteArrayOutputStream {
+        @NonNull
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        @NonNull
+        private final List<String> strings = new ArrayList<>();
+
+        Output() {
+            super(64 * 1024);
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeRawString(@NonNull String string) {
+            final byte[] bytes = string.getBytes(UTF_8);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeString(@Nullable String string) {
+            writeVarint(string == null ? 0 : stringIndexes.get(string) + 1);
+        }
+
+        void writeStringTable(@NonNull CourseComponent course) {
+            collectStrings(course);
+            writeVarint(strings.size());
+            for (String string : strings) {
+                writeRawString(string);
+            }
+        }
+
+        private void addString(@Nullable String string) {
+            if (string != null && !stringIndexes.containsKey(string)) {
+                stringIndexes.put(string, strings.size());
+                strings.add(string);
+            }
+        }
+
+        private void collectStrings(@NonNull CourseComponent component) {
+            addString(component.getId());
+            addString(component.getBlockId());
+            addString(component.getInternalName());
+            addString(component.getBlockUrl());
+            addString(component.getWebUrl());
+            addString(component.getFormat());
+            final BlockData data = getData(component);
+            if (data instanceof VideoData) {
+                final VideoData videoData = (VideoData) data;
+                if (videoData.transcripts != null) {
+                    for (String url : getTranscriptUrls(videoData.transcripts)) {
+                        addString(url);
+                    }
+                }
+                if (videoData.encodedVideos != null) {
+                    for (VideoInfo info : getVideoInfos(videoData.encodedVideos)) {
+                        if (info != null) {
+                            addString(info.url);
+                        }
+                    }
+                }
+            } else if (data instanceof DiscussionData) {
+                addString(((DiscussionData) data).topicId);
+            }
+            for (IBlock child : component.getChildren()) {
+                collectStrings((CourseComponent) child);
+            }
+        }
+
+        void writeComponent(@NonNull CourseComponent component) {
+            final int kind = getKind(component);
+            write(kind);
+            writeVarint(component.getType() == null ? 0 : component.getType().ordinal() + 1);
+            write((component.isGraded() ? FLAG_GRADED : 0)
+                    | (component.isMultiDevice() ? FLAG_MULTI_DEVICE : 0));
+            writeString(component.getId());
+            writeString(component.getBlockId());
+            writeString(component.getInternalName());
+            writeString(component.getBlockUrl());
+            writeString(component.getWebUrl());
+            writeString(component.getFormat());
+            final BlockCount blockCount = component.getBlockCount();
+            writeVarint(blockCount == null ? 0 : blockCount.videoCount);
+            if (kind != KIND_CONTAINER) {
+                writeData(getData(component));
+            }
+            final List<IBlock> children = component.getChildren();
+            writeVarint(children.size());
+            for (IBlock child : children) {
+                writeComponent((CourseComponent) child);
+            }
+        }
+
+        private void writeData(@Nullable BlockData data) {
+            if (data instanceof VideoData) {
+                final VideoData videoData = (VideoData) data;
+                write(DATA_VIDEO);
+                writeVarint(videoData.duration);
+                write(videoData.onlyOnWeb ? 1 : 0);
+                if (videoData.transcripts == null) {
+                    write(0);
+                } else {
+                    write(1);
+                    for (String url : getTranscriptUrls(videoData.transcripts)) {
+                        writeString(url);
+                    }
+                }
+                if (videoData.encodedVideos == null) {
+                    write(0);
+                } else {
+                    write(1);
+                    for (VideoInfo info : getVideoInfos(videoData.encodedVideos)) {
+                        if (info == null) {
+                            write(0);
+                        } else {
+                            write(1);
+                            writeString(info.url);
+                            writeVarint(info.fileSize);
+                        }
+                    }
+                }
+            } else if (data instanceof DiscussionData) {
+                write(DATA_DISCUSSION);
+                writeString(((DiscussionData) data).topicId);
+            } else {
+                write(data == null ? DATA_NONE : DATA_BLOCK);
+            }
+        }
+
+        @NonNull
+        private static String[] getTranscriptUrls(@NonNull TranscriptModel transcripts) {
+            return new String[]{transcripts.englishUrl, transcripts.spanishUrl,
+                    transcripts.germanUrl, transcripts.portugueseUrl, transcripts.chineseUrl,
+                    transcripts.frenchUrl, transcripts.arabicUrl};
+        }
+
+        @NonNull
+        private static VideoInfo[] getVideoInfos(@NonNull EncodedVideos encodedVideos) {
+            return new VideoInfo[]{encodedVideos.mobileHigh, encodedVideos.mobileLow,
+                    encodedVideos.youtube};
+        }
+    }
+
+    private static class Input {
+        @NonNull
+        private final byte[] bytes;
+        private int position;
+        private String[] strings;
+
+        Input(@NonNull byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() throws EOFException {
+            if (position >= bytes.length) {
+                throw new EOFException();
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        int readInt() throws EOFException {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        int readVarint() throws IOException {
+            return (int) readVarLong();
+        }
+
+        @NonNull
+        String readRawString() throws IOException {
+            final int length = readVarint();
+            if (length < 0 || position + length > bytes.length) {
+                throw new EOFException();
+            }
+            final String string = new String(bytes, position, length, UTF_8);
+            position += length;
+            return string;
+        }
+
+        @Nullable
+        String readString() throws IOException {
+            final int index = readVarint();
+            return index == 0 ? null : strings[index - 1];
+        }
+
+        void readStringTable() throws IOException {
+            strings = new String[readVarint()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readRawString();
+            }
+        }
+
+        /**
+         * @param blockModel Scratch model to read the component's fields into; the component
+         *                   constructors only copy its values, so it is reused for all of them.
+         */
+        @NonNull
+        CourseComponent readComponent(@Nullable CourseComponent parent,
+                                      @NonNull BlockModel blockModel) throws IOException {
+            final int kind = readByte();
+            final int type = readVarint();
+            blockModel.type = type == 0 ? null : BlockType.values()[type - 1];
+            final int flags = readByte();
+            blockModel.graded = (flags & FLAG_GRADED) != 0;
+            blockModel.studentViewMultiDevice = (flags & FLAG_MULTI_DEVICE) != 0;
+            blockModel.id = readString();
+            blockModel.blockId = readString();
+            blockModel.displayName = readString();
+            blockModel.studentViewUrl = readString();
+            blockModel.lmsWebUrl = readString();
+            blockModel.format = readString();
+            blockModel.blockCounts = new BlockCount();
+            blockModel.blockCounts.videoCount = readVarint();
+            blockModel.data = kind == KIND_CONTAINER ? null : readData();
+
+            final CourseComponent component;
+            switch (kind) {
+                case KIND_CONTAINER:
+                    component = new CourseComponent(blockModel, parent);
+                    break;
+                case KIND_VIDEO:
+                    component = new VideoBlockModel(blockModel, parent);
+                    break;
+                case KIND_DISCUSSION:
+                    component = new DiscussionBlockModel(blockModel, parent);
+                    break;
+                case KIND_HTML:
+                    component = new HtmlBlockModel(blockModel, parent);
+                    break;
+                default:
+                    throw new IOException("Unknown component kind " + kind);
+            }
+            final int childCount = readVarint();
+            for (int i = 0; i < childCount; i++) {
+                readComponent(component, blockModel);
+            }
+            return component;
+        }
+
+        @Nullable
+        private BlockData readData() throws IOException {
+            final int dataKind = readByte();
+            switch (dataKind) {
+                case DATA_NONE:
+                    return null;
+                case DATA_BLOCK:
+                    return new BlockData();
+                case DATA_VIDEO: {
+                    final VideoData data = new VideoData();
+                    data.duration = readVarLong();
+                    data.onlyOnWeb = readByte() != 0;
+                    if (readByte() != 0) {
+                        final TranscriptModel transcripts = new TranscriptModel();
+                        transcripts.englishUrl = readString();
+                        transcripts.spanishUrl = readString();
+                        transcripts.germanUrl = readString();
+                        transcripts.portugueseUrl = readString();
+                        transcripts.chineseUrl = readString();
+                        transcripts.frenchUrl = readString();
+                        transcripts.arabicUrl = readString();
+                        data.transcripts = transcripts;
+                    }
+                    if (readByte() != 0) {
+                        final EncodedVideos encodedVideos = new EncodedVideos();
+                        encodedVideos.mobileHigh = readVideoInfo();
+                        encodedVideos.mobileLow = readVideoInfo();
+                        encodedVideos.youtube = readVideoInfo();
+                        data.encodedVideos = encodedVideos;
+                    }
+                    return data;
+                }
+                case DATA_DISCUSSION: {
+                    final DiscussionData data = new DiscussionData();
+                    data.topicId = readString();
+                    return data;
+                }
+                default:
+                    throw new IOException("Unknown block data kind " + dataKind);
+            }
+        }
+
+        @Nullable
+        private VideoInfo readVideoInfo() throws IOException {
+            if (readByte() == 0) {
+                return null;
+            }
+            final VideoInfo info = new VideoInfo();
+            info.url = readString();
+            info.fileSize = readVarLong();
+            return info;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.edx.mobile.discussion;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.Spanned;
+import android.util.LruCache;
+import android.widget.TextView;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Renders the HTML bodies of discussion threads, responses and comments on a background
+ * thread when their pages arrive, and caches the results, so that binding them to the list
+ * rows only has to set the text.
+ * <p>
+ * The results are keyed by the id and the last update time of the thread or comment, so an
+ * edited body is rendered again. They're evicted in least recently used order when they exceed
+ * {@link #MAX_CACHED_CHARS} characters in total.
+ */
+@Singleton
+public class DiscussionHtmlRenderer {
+    private static final int MAX_CACHED_CHARS = 512 * 1024;
+
+    @NonNull
+    private final Executor renderExecutor;
+
+    @NonNull
+    private final Executor mainThreadExecutor;
+
+    @NonNull
+    private final LruCache<String, Spanned> cache = new LruCache<String, Spanned>(MAX_CACHED_CHARS) {
+        @Override
+        protected int sizeOf(String key, Spanned renderedHtml) {
+            return renderedHtml.length() + 1;
+        }
+    };
+
+    @Inject
+    public DiscussionHtmlRenderer() {
+        this(Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                final Thread thread = new Thread(runnable, "edx-discussion-renderer");
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        }), new Executor() {
+            private final Handler handler = new Handler(Looper.getMainLooper());
+
+            @Override
+            public void execute(@NonNull Runnable command) {
+                handler.post(command);
+            }
+        });
+    }
+
+    public DiscussionHtmlRenderer(@NonNull Executor renderExecutor,
+                                  @NonNull Executor mainThreadExecutor) {
+        this.renderExecutor = renderExecutor;
+        this.mainThreadExecutor = mainThreadExecutor;
+    }
+
+    /**
+     * Renders the bodies of the given threads in the background.
+     */
+    public void prerenderThreads(@NonNull List<DiscussionThread> threads) {
+        final List<Body> bodies = new ArrayList<>(threads.size());
+        for (DiscussionThread thread : threads) {
+            bodies.add(Body.of(thread));
+        }
+        prerender(bodies, null);
+    }
+
+    /**
+     * Renders the bodies of the given responses or comments in the background.
+     *
+     * @param onRendered Called on the main thread once they're all rendered.
+     */
+    public void prerenderComments(@NonNull List<DiscussionComment> comments,
+                                  @Nullable Runnable onRendered) {
+        final List<Body> bodies = new ArrayList<>(comments.size());
+        for (DiscussionComment comment : comments) {
+            bodies.add(Body.of(comment));
+        }
+        prerender(bodies, onRendered);
+    }
+
+    /**
+     * Shows the rendered body of the given thread, rendering it now if it isn't cached.
+     */
+    public void setText(@NonNull TextView textView, @NonNull DiscussionThread thread) {
+        DiscussionTextUtils.setRenderedHtml(textView, get(Body.of(thread)));
+    }
+
+    /**
+     * Shows the rendered body of the given response or comment, rendering it now if it isn't
+     * cached.
+     */
+    public void setText(@NonNull TextView textView, @NonNull DiscussionComment comment) {
+        DiscussionTextUtils.setRenderedHtml(textView, get(Body.of(comment)));
+    }
+
+    private void prerender(@NonNull final List<Body> bodies, @Nullable final Runnable onRendered) {
+        renderExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Body body : bodies) {
+                    if (cache.get(body.key) == null) {
+                        cache.put(body.key, DiscussionTextUtils.renderHtml(body.html));
+                    }
+                }
+                if (onRendered != null) {
+                    mainThreadExecutor.execute(onRendered);
+                }
+            }
+        });
+    }
+
+    @NonNull
+    private Spanned get(@NonNull Body body) {
+        Spanned renderedHtml = cache.get(body.key);
+        if (renderedHtml == null) {
+            renderedHtml = DiscussionTextUtils.renderHtml(body.html);
+            cache.put(body.key, renderedHtml);
+        }
+        return renderedHtml;
+    }
+
+    private static final class Body {
+        @NonNull
+        final String key;
+        @NonNull
+        final String html;
+
+        private Body(@NonNull String type, @NonNull String id, @Nullable Date updatedAt,
+                     @Nullable String html) {
+            this.html = html == null ? "" : html;
+            // Without an update time, the body itself tells whether it's been edited
+            this.key = type + ':' + id + ':' +
+                    (updatedAt != null ? updatedAt.getTime() : "#" + this.html.hashCode());
+        }
+
+        @NonNull
+        static Body of(@NonNull DiscussionThread thread) {
+            return new Body("thread", thread.getIdentifier(), thread.getUpdatedAt(),
+                    thread.getRenderedBody());
+        }
+
+        @NonNull
+        static Body of(@NonNull DiscussionComment comment) {
+            return new Body("comment", comment.getIdentifier(), comment.getUpdatedAt(),
+                    comment.getRenderedBody());
+        }
+    }
+}
@@ -204,18 +204,42 @@ public abstract class DiscussionTextUtils {
      * @param html     The HTML to render.
      */
     public static void renderHtml(@NonNull TextView textView, @NonNull String html) {
-        Spanned spannedHtml = DiscussionTextUtils.parseHtml(html);
-        URLSpan[] urlSpans = spannedHtml.getSpans(0, spannedHtml.length(), URLSpan.class);
-        textView.setAutoLinkMask(Linkify.ALL);
-        textView.setMovementMethod(LinkMovementMethod.getInstance());
-        textView.setText(spannedHtml);
+        setRenderedHtml(textView, renderHtml(html));
+    }
 
-        SpannableString viewText = (SpannableString) textView.getText();
+    /**
+     * Renders various HTML elements and plain hyperlinks in the given HTML to clickable items.
+     * This doesn't touch any views, so it may be called on a background thread.
+     *
+     * @param html The HTML to render.
+     * @return The rendered HTML, to be applied with {@link #setRenderedHtml(TextView, Spanned)}.
+     */
+    @NonNull
+    public static Spanned renderHtml(@NonNull String html) {
+        final Spanned spannedHtml = DiscussionTextUtils.parseHtml(html);
+        final SpannableString renderedHtml = new SpannableString(spannedHtml);
+        // Linking the plain hyperlinks removes the existing links, so they're added back after
+        Linkify.addLinks(renderedHtml, Linkify.ALL);
+        final URLSpan[] urlSpans = spannedHtml.getSpans(0, spannedHtml.length(), URLSpan.class);
         for (final URLSpan spanObj : urlSpans) {
             final int start = spannedHtml.getSpanStart(spanObj);
             final int end = spannedHtml.getSpanEnd(spanObj);
             final int flags = spannedHtml.getSpanFlags(spanObj);
-            viewText.setSpan(spanObj, start, end, flags);
+            renderedHtml.setSpan(spanObj, start, end, flags);
         }
+        return renderedHtml;
+    }
+
+    /**
+     * Applies HTML rendered by {@link #renderHtml(String)} on the given {@link TextView}.
+     *
+     * @param textView     The {@link TextView} which will show the rendered HTML.
+     * @param renderedHtml The rendered HTML.
+     */
+    public static void setRenderedHtml(@NonNull TextView textView, @NonNull Spanned renderedHtml) {
+        // The links are added already, and linking again would remove the ones from the HTML
+        textView.setAutoLinkMask(0);
+        textView.setMovementMethod(LinkMovementMethod.getInstance());
+        textView.setText(renderedHtml);
     }
 }
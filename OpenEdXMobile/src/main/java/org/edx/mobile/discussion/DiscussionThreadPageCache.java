@@ -0,0 +1,446 @@
+package org.edx.mobile.discussion;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.event.LogoutEvent;
+import org.edx.mobile.http.callback.Callback;
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.model.Page;
+import org.edx.mobile.util.Sha1Util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.greenrobot.event.EventBus;
+import retrofit2.Call;
+
+/**
+ * A cache of the pages of discussion threads lists, kept in memory and on disk, so that a list
+ * can be shown right away when the user comes back to it or switches back to a filter or sort
+ * order, while it's being revalidated from the server.
+ * <p>
+ * Pages are considered stale {@link #FRESH_MILLIS} after they've been fetched. Stale pages can
+ * still be shown, but should be fetched again in the background, up to {@link #MAX_AGE_MILLIS}
+ * after they've been fetched, after which they aren't returned at all. When a page is fetched,
+ * the cached pages after it in the same list are dropped, so that the cached pages of a list
+ * are always from the same snapshot of it. The pages of a course are dropped when a thread is
+ * posted in it, and all of them are dropped on logout, since they hold the read and following
+ * states of the user.
+ */
+@Singleton
+public class DiscussionThreadPageCache {
+    public static final long FRESH_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    public static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String DIRECTORY_NAME = "discussion_threads";
+    private static final int MAX_MEMORY_PAGES = 32;
+    private static final int MAX_DISK_PAGES_PER_COURSE = 50;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Type PAGE_TYPE = new TypeToken<Page<DiscussionThread>>() {
+    }.getType();
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @NonNull
+    private final Gson gson;
+
+    @NonNull
+    private final File directory;
+
+    /**
+     * Writes and deletes the files in order, on a background thread.
+     */
+    @NonNull
+    private final Executor diskExecutor;
+
+    @NonNull
+    private final LruCache<Key, Entry> memoryCache = new LruCache<>(MAX_MEMORY_PAGES);
+
+    @NonNull
+    private final Set<Key> revalidatingKeys =
+            Collections.newSetFromMap(new ConcurrentHashMap<Key, Boolean>());
+
+    /**
+     * Incremented whenever pages are dropped, so that the pages requested before that aren't
+     * cached after it.
+     */
+    @NonNull
+    private final AtomicInteger generation = new AtomicInteger();
+
+    @Inject
+    public DiscussionThreadPageCache(@NonNull Context context, @NonNull Gson gson) {
+        this(gson, new File(context.getCacheDir(), DIRECTORY_NAME),
+                Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(@NonNull Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "edx-discussion-cache");
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    }
+                }));
+        EventBus.getDefault().register(this);
+    }
+
+    public DiscussionThreadPageCache(@NonNull Gson gson, @NonNull File directory,
+                                     @NonNull Executor diskExecutor) {
+        this.gson = gson;
+        this.directory = directory;
+        this.diskExecutor = diskExecutor;
+    }
+
+    /**
+     * Returns the cached page for the given key from memory, or reads it from disk if it's not
+     * in memory. The disk entries are small, so this may be called on the main thread.
+     *
+     * @return The cached page, or null if it isn't cached, or it's too old to be shown.
+     */
+    @Nullable
+    public Entry get(@NonNull Key key) {
+        Entry entry = memoryCache.get(key);
+        if (entry != null) {
+            return entry.isExpired() ? null : entry;
+        }
+        final File file = getFile(key);
+        final long time = file.lastModified();
+        if (time == 0 || System.currentTimeMillis() - time > MAX_AGE_MILLIS) {
+            return null;
+        }
+        try {
+            final Reader reader = new InputStreamReader(new FileInputStream(file), UTF_8);
+            try {
+                final Page<DiscussionThread> page = gson.fromJson(reader, PAGE_TYPE);
+                if (page == null) {
+                    return null;
+                }
+                entry = new Entry(page, time);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | JsonParseException e) {
+            logger.error(e);
+            return null;
+        }
+        memoryCache.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * @return The current generation of the cache, to pass to
+     * {@link #put(Key, Page, int)} when the page that's being requested is fetched.
+     */
+    public int getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a page that's just been fetched, writing it to disk in the background, and drops
+     * the cached pages after it in the same list, which may be from an older snapshot of it.
+     * The page is ignored if pages have been dropped since it was requested.
+     *
+     * @param generation The generation of the cache when the page was requested.
+     */
+    public void put(@NonNull final Key key, @NonNull final Page<DiscussionThread> page,
+                    int generation) {
+        if (generation != this.generation.get()) {
+            return;
+        }
+        memoryCache.put(key, new Entry(page, System.currentTimeMillis()));
+        for (Key cachedKey : memoryCache.snapshot().keySet()) {
+            if (cachedKey.isAfter(key)) {
+                memoryCache.remove(cachedKey);
+            }
+        }
+        // Serialized now, since the threads may be changed on the main thread
+        final String json = gson.toJson(page, PAGE_TYPE);
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(getFile(key), json);
+                    // Only the pages that are kept on disk can be after it
+                    for (int i = 1; i <= MAX_DISK_PAGES_PER_COURSE; i++) {
+                        getFile(key.withPage(key.page + i)).delete();
+                    }
+                    trim(getCourseDirectory(key.courseId));
+                } catch (IOException e) {
+                    logger.error(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Fetches a stale page again in the background, and caches it, unless it's being fetched
+     * already. Failures are ignored, since the stale page is still shown.
+     *
+     * @param call The call that fetches the page.
+     */
+    public void revalidate(@NonNull final Key key, @NonNull Call<Page<DiscussionThread>> call) {
+        if (!revalidatingKeys.add(key)) {
+            return;
+        }
+        final int generation = getGeneration();
+        call.enqueue(new Callback<Page<DiscussionThread>>() {
+            @Override
+            protected void onResponse(@NonNull Page<DiscussionThread> page) {
+                revalidatingKeys.remove(key);
+                put(key, page, generation);
+            }
+
+            @Override
+            protected void onFailure(@NonNull Throwable error) {
+                revalidatingKeys.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Drops the cached pages of the given course.
+     */
+    public void invalidate(@NonNull final String courseId) {
+        generation.incrementAndGet();
+        for (Key key : memoryCache.snapshot().keySet()) {
+            if (key.courseId.equals(courseId)) {
+                memoryCache.remove(key);
+            }
+        }
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                deleteDirectory(getCourseDirectory(courseId));
+            }
+        });
+    }
+
+    /**
+     * Drops all the cached pages.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        memoryCache.evictAll();
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final File[] courseDirectories = directory.listFiles();
+                if (courseDirectories != null) {
+                    for (File courseDirectory : courseDirectories) {
+                        deleteDirectory(courseDirectory);
+                    }
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("unused")
+    public void onEvent(LogoutEvent event) {
+        clear();
+    }
+
+    @SuppressWarnings("unused")
+    public void onEvent(DiscussionThreadPostedEvent event) {
+        final String courseId = event.getDiscussionThread().getCourseId();
+        if (courseId != null) {
+            invalidate(courseId);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public void onEventMainThread(DiscussionThreadUpdatedEvent event) {
+        // Keeps the read and following states of the thread that the user has just seen, until
+        // the pages are fetched again
+        final DiscussionThread thread = event.getDiscussionThread();
+        for (Entry entry : memoryCache.snapshot().values()) {
+            final List<DiscussionThread> threads = entry.page.getResults();
+            for (int i = 0; i < threads.size(); i++) {
+                if (threads.get(i).hasSameId(thread)) {
+                    threads.set(i, thread);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes to a temporary file first, so that a failed write never leaves a partial page.
+     */
+    private static void write(@NonNull File file, @NonNull String json) throws IOException {
+        final File parent = file.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        final File tempFile = new File(file.getPath() + ".tmp");
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), UTF_8);
+        try {
+            writer.write(json);
+        } finally {
+            writer.close();
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Cannot write " + file);
+        }
+    }
+
+    /**
+     * Deletes the oldest pages of a course beyond {@link #MAX_DISK_PAGES_PER_COURSE}.
+     */
+    private static void trim(@NonNull File courseDirectory) {
+        final File[] pageFiles = courseDirectory.listFiles();
+        if (pageFiles == null || pageFiles.length <= MAX_DISK_PAGES_PER_COURSE) {
+            return;
+        }
+        final List<File> files = new ArrayList<>(Arrays.asList(pageFiles));
+        Collections.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                final long lhsModified = lhs.lastModified();
+                final long rhsModified = rhs.lastModified();
+                return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+            }
+        });
+        for (File file : files.subList(0, files.size() - MAX_DISK_PAGES_PER_COURSE)) {
+            file.delete();
+        }
+    }
+
+    private static void deleteDirectory(@NonNull File directory) {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @NonNull
+    private File getCourseDirectory(@NonNull String courseId) {
+        return new File(directory, Sha1Util.SHA1(courseId));
+    }
+
+    @NonNull
+    private File getFile(@NonNull Key key) {
+        return new File(getCourseDirectory(key.courseId), Sha1Util.SHA1(key.toString()));
+    }
+
+    /**
+     * Identifies a page of a threads list.
+     */
+    public static final class Key {
+        @NonNull
+        private final String courseId;
+        /**
+         * Identifies the list that the page is of.
+         */
+        @NonNull
+        private final String query;
+        private final int page;
+
+        /**
+         * @param courseId    The id of the course.
+         * @param topicIds    The ids of the topics, or an empty list for all topics.
+         * @param isFollowing Whether the list is of the threads that the user follows.
+         * @param filter      The filter of the list.
+         * @param sort        The sort order of the list.
+         * @param page        The number of the page, starting from 1.
+         */
+        public Key(@NonNull String courseId, @NonNull List<String> topicIds,
+                   boolean isFollowing, @NonNull DiscussionPostsFilter filter,
+                   @NonNull DiscussionPostsSort sort, int page) {
+            this(courseId, (isFollowing ? "following" : topicIds.toString()) + '|' +
+                    filter.name() + '|' + sort.name(), page);
+        }
+
+        private Key(@NonNull String courseId, @NonNull String query, int page) {
+            this.courseId = courseId;
+            this.query = query;
+            this.page = page;
+        }
+
+        @NonNull
+        Key withPage(int page) {
+            return new Key(courseId, query, page);
+        }
+
+        /**
+         * @return Whether this is the key of a later page of the same list as the given key.
+         */
+        boolean isAfter(@NonNull Key key) {
+            return courseId.equals(key.courseId) && query.equals(key.query) && page > key.page;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Key key = (Key) o;
+            return courseId.equals(key.courseId) && query.equals(key.query) && page == key.page;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * courseId.hashCode() + query.hashCode()) + page;
+        }
+
+        @Override
+        public String toString() {
+            return courseId + '|' + query + '|' + page;
+        }
+    }
+
+    /**
+     * A cached page, and when it was fetched.
+     */
+    public static final class Entry {
+        @NonNull
+        public final Page<DiscussionThread> page;
+        public final long time;
+
+        Entry(@NonNull Page<DiscussionThread> page, long time) {
+            this.page = page;
+            this.time = time;
+        }
+
+        /**
+         * @return Whether the page should be fetched again.
+         */
+        public boolean isStale() {
+            return System.currentTimeMillis() - time > FRESH_MILLIS;
+        }
+
+        /**
+         * @return Whether the page is too old to be shown before it's fetched again.
+         */
+        boolean isExpired() {
+            return System.currentTimeMillis() - time > MAX_AGE_MILLIS;
+        }
+    }
+}
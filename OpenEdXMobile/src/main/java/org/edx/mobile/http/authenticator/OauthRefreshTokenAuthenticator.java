@@ -1,19 +1,13 @@
 package org.edx.mobile.http.authenticator;
 
 import android.content.Context;
-import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.google.inject.Inject;
 
-import org.edx.mobile.authentication.LoginService;
-
 import org.edx.mobile.authentication.AuthResponse;
-import org.edx.mobile.http.provider.RetrofitProvider;
-import org.edx.mobile.http.HttpStatusException;
 import org.edx.mobile.logger.Logger;
 import org.edx.mobile.module.prefs.LoginPrefs;
-import org.edx.mobile.util.Config;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -25,14 +19,15 @@ import okhttp3.Response;
 import okhttp3.Route;
 import roboguice.RoboGuice;
 
-import static org.edx.mobile.http.util.CallUtil.executeStrict;
-
 /**
  * Authenticator for 401 responses for refreshing oauth tokens. Checks for
  * the expired oauth token case and then uses the refresh token to retrieve a
  * new access token. Using the new access token, the original http request
  * that received the 401 will be attempted again. If no refresh_token is
  * present, no authentication attempt is made.
+ * <p>
+ * The refresh itself is done by {@link OauthTokenManager}, which shares a single refresh among
+ * all the requests that fail while it's in flight.
  */
 public class OauthRefreshTokenAuthenticator implements Authenticator {
 
@@ -40,22 +35,20 @@ public class OauthRefreshTokenAuthenticator implements Authenticator {
     private final static String TOKEN_EXPIRED_ERROR_MESSAGE = "token_expired";
     private final static String TOKEN_NONEXISTENT_ERROR_MESSAGE = "token_nonexistent";
     private final static String TOKEN_INVALID_GRANT_ERROR_MESSAGE = "invalid_grant";
-    private Context context;
 
     @Inject
-    Config config;
+    LoginPrefs loginPrefs;
 
     @Inject
-    LoginPrefs loginPrefs;
+    OauthTokenManager tokenManager;
 
 
     public OauthRefreshTokenAuthenticator(Context context) {
-        this.context = context;
         RoboGuice.injectMembers(context, this);
     }
 
     @Override
-    public synchronized Request authenticate(Route route, final Response response) throws IOException {
+    public Request authenticate(Route route, final Response response) throws IOException {
         logger.warn(response.toString());
 
         final AuthResponse currentAuth = loginPrefs.getCurrentAuth();
@@ -66,16 +59,16 @@ public class OauthRefreshTokenAuthenticator implements Authenticator {
         String errorCode = getErrorCode(response.peekBody(200).string());
 
         if (errorCode != null) {
+            final String failedAuthorization = response.request().header("Authorization");
             switch (errorCode) {
                 case TOKEN_EXPIRED_ERROR_MESSAGE:
-                    final AuthResponse refreshedAuth;
-                    try {
-                        refreshedAuth = refreshAccessToken(currentAuth);
-                    } catch (HttpStatusException e) {
+                    final String refreshedAuthorization =
+                            tokenManager.refreshAfterExpiry(failedAuthorization);
+                    if (refreshedAuthorization == null) {
                         return null;
                     }
                     return response.request().newBuilder()
-                            .header("Authorization", refreshedAuth.token_type + " " + refreshedAuth.access_token)
+                            .header("Authorization", refreshedAuthorization)
                             .build();
                 case TOKEN_NONEXISTENT_ERROR_MESSAGE:
                 case TOKEN_INVALID_GRANT_ERROR_MESSAGE:
@@ -83,9 +76,10 @@ public class OauthRefreshTokenAuthenticator implements Authenticator {
                     // request does not match the current access_token. This case can occur when
                     // asynchronous calls are made and are attempting to refresh the access_token where
                     // one call succeeds but the other fails. https://github.com/edx/edx-app-android/pull/834
-                    if (!response.request().headers().get("Authorization").split(" ")[1].equals(currentAuth.access_token)) {
+                    final String currentAuthorization = currentAuth.token_type + " " + currentAuth.access_token;
+                    if (!currentAuthorization.equals(failedAuthorization)) {
                         return response.request().newBuilder()
-                                .header("Authorization", currentAuth.token_type + " " + currentAuth.access_token)
+                                .header("Authorization", currentAuthorization)
                                 .build();
                     }
             }
@@ -93,20 +87,6 @@ public class OauthRefreshTokenAuthenticator implements Authenticator {
         return null;
     }
 
-    @NonNull
-    private AuthResponse refreshAccessToken(AuthResponse currentAuth)
-            throws IOException, HttpStatusException {
-        // RoboGuice doesn't seem to allow this to be injected via annotation at initialization
-        // time. TODO: Investigate whether this is a bug in RoboGuice.
-        LoginService loginService = RoboGuice.getInjector(context)
-                .getInstance(RetrofitProvider.class).getNonOAuthBased().create(LoginService.class);
-
-        AuthResponse refreshTokenData = executeStrict(loginService.refreshAccessToken(
-                "refresh_token", config.getOAuthClientId(), currentAuth.refresh_token));
-        loginPrefs.storeRefreshTokenResponse(refreshTokenData);
-        return refreshTokenData;
-    }
-
     @Nullable
     private String getErrorCode(String responseBody) {
         try {
@@ -0,0 +1,281 @@
+package org.edx.mobile.http.authenticator;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.format.DateUtils;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.authentication.AuthResponse;
+import org.edx.mobile.authentication.LoginService;
+import org.edx.mobile.http.HttpStatusException;
+import org.edx.mobile.http.provider.RetrofitProvider;
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.module.prefs.LoginPrefs;
+import org.edx.mobile.util.Config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import roboguice.RoboGuice;
+
+import static org.edx.mobile.http.util.CallUtil.executeStrict;
+
+/**
+ * Refreshes the OAuth access token using the refresh token, making sure that only one refresh is
+ * in flight at a time. All the callers asking for a refresh while one is running share its
+ * result, instead of each making their own refresh request.
+ * <p>
+ * The token is refreshed ahead of its expiry when a request is about to be made with it, so
+ * that requests don't fail with a 401 in the first place; requests made in the last
+ * {@link #EXPIRY_MARGIN_MS} before the expiry wait for the new token. After a failed refresh,
+ * the token isn't refreshed ahead of its expiry again until a backoff has passed, which doubles
+ * with every consecutive failure; a request that fails with a 401 still refreshes it.
+ */
+@Singleton
+public class OauthTokenManager {
+    /**
+     * How long before the expiry of the access token it's refreshed in the background.
+     */
+    private static final long REFRESH_AHEAD_MS = 5 * DateUtils.MINUTE_IN_MILLIS;
+    /**
+     * How long before the expiry of the access token requests wait for it to be refreshed.
+     */
+    private static final long EXPIRY_MARGIN_MS = 30 * DateUtils.SECOND_IN_MILLIS;
+    private static final long REFRESH_TIMEOUT_SECONDS = 30;
+    private static final long MIN_REFRESH_BACKOFF_MS = 30 * DateUtils.SECOND_IN_MILLIS;
+    private static final long MAX_REFRESH_BACKOFF_MS = 10 * DateUtils.MINUTE_IN_MILLIS;
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @Inject
+    private Context context;
+
+    @Inject
+    private Config config;
+
+    @Inject
+    private LoginPrefs loginPrefs;
+
+    @NonNull
+    private final Executor executor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "edx-token-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    @Nullable
+    private FutureTask<AuthResponse> inFlightRefresh;
+    /**
+     * The Authorization header that was replaced by the last successful refresh, for recognizing
+     * requests that failed because they were made with it.
+     */
+    @Nullable
+    private String replacedAuthorizationHeader;
+    private int refreshCount;
+    private int failedRefreshCount;
+    private int consecutiveFailedRefreshCount;
+    /**
+     * The {@link SystemClock#elapsedRealtime()} until which the token isn't refreshed ahead of
+     * its expiry, after a failed refresh.
+     */
+    private long refreshBackoffEndMillis;
+    /**
+     * The number of requests that used a refresh made for another request, instead of making
+     * their own.
+     */
+    private int coalescedCount;
+    private long totalRefreshMillis;
+    private long lastRefreshMillis;
+
+    /**
+     * Returns the Authorization header to make a request with. If the access token is about to
+     * expire, it's refreshed first.
+     */
+    @Nullable
+    public String getAuthorizationHeader() {
+        final AuthResponse auth = loginPrefs.getCurrentAuth();
+        if (auth != null && auth.isSuccess() && auth.refresh_token != null) {
+            final long timeToExpiry = getExpiryTime(auth) - System.currentTimeMillis();
+            if (timeToExpiry < REFRESH_AHEAD_MS && !isRefreshBackingOff()) {
+                final boolean isWaiting = timeToExpiry < EXPIRY_MARGIN_MS;
+                final Future<AuthResponse> refresh = refresh(isWaiting);
+                if (refresh != null && isWaiting) {
+                    // The token has expired or is about to, so wait for the new one
+                    await(refresh);
+                }
+            }
+        }
+        return loginPrefs.getAuthorizationHeader();
+    }
+
+    /**
+     * Gets a new access token after a request made with the given Authorization header failed
+     * because its token had expired. If the token has been refreshed since that request was
+     * made, the current one is returned without refreshing it again.
+     *
+     * @return The new Authorization header, or null if the token couldn't be refreshed.
+     */
+    @Nullable
+    public String refreshAfterExpiry(@Nullable String failedAuthorizationHeader) {
+        synchronized (lock) {
+            if (failedAuthorizationHeader != null
+                    && failedAuthorizationHeader.equals(replacedAuthorizationHeader)) {
+                coalescedCount++;
+                return loginPrefs.getAuthorizationHeader();
+            }
+        }
+        final Future<AuthResponse> refresh = refresh(true);
+        if (refresh == null) {
+            return null;
+        }
+        final AuthResponse refreshedAuth = await(refresh);
+        if (refreshedAuth == null) {
+            return null;
+        }
+        return refreshedAuth.token_type + " " + refreshedAuth.access_token;
+    }
+
+    /**
+     * @return A summary of the refreshes made so far, for debugging.
+     */
+    @NonNull
+    public String getRefreshStats() {
+        synchronized (lock) {
+            return "refreshes=" + refreshCount + " failed=" + failedRefreshCount
+                    + " coalesced=" + coalescedCount + " lastMillis=" + lastRefreshMillis
+                    + " averageMillis=" + (refreshCount == 0 ? 0 : totalRefreshMillis / refreshCount);
+        }
+    }
+
+    private boolean isRefreshBackingOff() {
+        synchronized (lock) {
+            return SystemClock.elapsedRealtime() < refreshBackoffEndMillis;
+        }
+    }
+
+    /**
+     * Starts a refresh of the access token, or joins the one in flight.
+     *
+     * @param isWaiting Whether the caller waits for the refresh, which is counted as coalesced
+     *                  if it joins the one in flight.
+     * @return The refresh, or null if there's no refresh token to make it with.
+     */
+    @Nullable
+    private Future<AuthResponse> refresh(boolean isWaiting) {
+        synchronized (lock) {
+            if (inFlightRefresh != null) {
+                if (isWaiting) {
+                    coalescedCount++;
+                }
+                return inFlightRefresh;
+            }
+            final AuthResponse currentAuth = loginPrefs.getCurrentAuth();
+            if (currentAuth == null || currentAuth.refresh_token == null) {
+                return null;
+            }
+            final String currentAuthorizationHeader = loginPrefs.getAuthorizationHeader();
+            final FutureTask<AuthResponse> refresh = new FutureTask<>(new Callable<AuthResponse>() {
+                @Override
+                public AuthResponse call() throws Exception {
+                    final long startTime = SystemClock.elapsedRealtime();
+                    boolean success = false;
+                    try {
+                        final AuthResponse refreshedAuth = refreshAccessToken(currentAuth);
+                        success = true;
+                        return refreshedAuth;
+                    } finally {
+                        onRefreshFinished(currentAuthorizationHeader, success,
+                                SystemClock.elapsedRealtime() - startTime);
+                    }
+                }
+            });
+            inFlightRefresh = refresh;
+            executor.execute(refresh);
+            return refresh;
+        }
+    }
+
+    private void onRefreshFinished(@Nullable String replacedAuthorizationHeader, boolean success,
+                                   long durationMillis) {
+        synchronized (lock) {
+            inFlightRefresh = null;
+            if (success) {
+                this.replacedAuthorizationHeader = replacedAuthorizationHeader;
+                refreshCount++;
+                totalRefreshMillis += durationMillis;
+                lastRefreshMillis = durationMillis;
+                consecutiveFailedRefreshCount = 0;
+                refreshBackoffEndMillis = 0;
+            } else {
+                failedRefreshCount++;
+                final long backoffMillis = Math.min(MAX_REFRESH_BACKOFF_MS,
+                        MIN_REFRESH_BACKOFF_MS << Math.min(consecutiveFailedRefreshCount, 16));
+                consecutiveFailedRefreshCount++;
+                refreshBackoffEndMillis = SystemClock.elapsedRealtime() + backoffMillis;
+            }
+            logger.debug("Access token refresh finished: " + getRefreshStats());
+        }
+    }
+
+    @NonNull
+    private AuthResponse refreshAccessToken(@NonNull AuthResponse currentAuth)
+            throws Exception {
+        // RoboGuice doesn't seem to allow this to be injected via annotation at initialization
+        // time. TODO: Investigate whether this is a bug in RoboGuice.
+        LoginService loginService = RoboGuice.getInjector(context)
+                .getInstance(RetrofitProvider.class).getNonOAuthBased().create(LoginService.class);
+
+        AuthResponse refreshTokenData = executeStrict(loginService.refreshAccessToken(
+                "refresh_token", config.getOAuthClientId(), currentAuth.refresh_token));
+        loginPrefs.storeRefreshTokenResponse(refreshTokenData);
+        return refreshTokenData;
+    }
+
+    @Nullable
+    private AuthResponse await(@NonNull Future<AuthResponse> refresh) {
+        try {
+            return refresh.get(REFRESH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof HttpStatusException) {
+                logger.warn("Unable to refresh the access token: " + e.getCause().getMessage());
+            } else {
+                logger.error(e.getCause());
+            }
+        } catch (TimeoutException e) {
+            logger.warn("Timed out waiting for the access token to be refreshed");
+        }
+        return null;
+    }
+
+    /**
+     * @return The time in milliseconds at which the access token expires, or
+     * {@link Long#MAX_VALUE} if it isn't known.
+     */
+    private static long getExpiryTime(@NonNull AuthResponse auth) {
+        if (auth.issuedAt <= 0 || auth.expires_in <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return auth.issuedAt + auth.expires_in * DateUtils.SECOND_IN_MILLIS;
+    }
+}
@@ -110,7 +110,7 @@ public class CacheManager {
      * @return The cache file, or null if the cache directory couldn't be created.
      */
     @Nullable
-    private File getFile(@NonNull String url) {
+    File getFile(@NonNull String url) {
         // Convert the URL to the original formats.
         url = convert(url);
         final File cacheDir = new File(context.getFilesDir(), "http-cache");
@@ -0,0 +1,88 @@
+package org.edx.mobile.http.cache;
+
+import android.support.annotation.NonNull;
+
+import org.edx.mobile.util.Config;
+
+import okhttp3.HttpUrl;
+
+/**
+ * The partitions of the HTTP response cache, each with its own directory and size budget, so
+ * that the large responses of one kind don't evict the small responses of another.
+ */
+public enum HttpCachePartition {
+    /**
+     * The course block and video outline responses, which can be several MiB each for large
+     * courses.
+     */
+    COURSE_STRUCTURE("http-cache-course-structure",
+            "/api/courses/v1/blocks/",
+            "/api/mobile/v0.5/video_outlines/") {
+        @Override
+        int getMaxSizeMb(@NonNull Config.HttpCacheConfig config) {
+            return config.getCourseStructureMaxSizeMb();
+        }
+    },
+    /**
+     * The pages of discussion threads and comments.
+     */
+    DISCUSSION("http-cache-discussion",
+            "/api/discussion/v1/threads",
+            "/api/discussion/v1/comments") {
+        @Override
+        int getMaxSizeMb(@NonNull Config.HttpCacheConfig config) {
+            return config.getDiscussionMaxSizeMb();
+        }
+    },
+    /**
+     * All the other responses, such as the enrollments, discussion topics and transcripts. This
+     * partition uses the directory of the cache from before it was partitioned, so that the
+     * responses stored there are still found.
+     */
+    METADATA("http-cache") {
+        @Override
+        int getMaxSizeMb(@NonNull Config.HttpCacheConfig config) {
+            return config.getMetadataMaxSizeMb();
+        }
+    };
+
+    @NonNull
+    private final String directoryName;
+
+    @NonNull
+    private final String[] pathPrefixes;
+
+    HttpCachePartition(@NonNull String directoryName, @NonNull String... pathPrefixes) {
+        this.directoryName = directoryName;
+        this.pathPrefixes = pathPrefixes;
+    }
+
+    /**
+     * @return The name of the directory of this partition, within the files directory.
+     */
+    @NonNull
+    public String getDirectoryName() {
+        return directoryName;
+    }
+
+    /**
+     * @return The configured maximum size of this partition, in MiB.
+     */
+    abstract int getMaxSizeMb(@NonNull Config.HttpCacheConfig config);
+
+    /**
+     * @return The partition that the response for the given URL is cached in.
+     */
+    @NonNull
+    public static HttpCachePartition forUrl(@NonNull HttpUrl url) {
+        final String path = url.encodedPath();
+        for (HttpCachePartition partition : values()) {
+            for (String pathPrefix : partition.pathPrefixes) {
+                if (path.startsWith(pathPrefix)) {
+                    return partition;
+                }
+            }
+        }
+        return METADATA;
+    }
+}
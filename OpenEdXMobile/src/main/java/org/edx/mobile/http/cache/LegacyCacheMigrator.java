@@ -0,0 +1,260 @@
+package org.edx.mobile.http.cache;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.course.CourseService;
+import org.edx.mobile.http.HttpStatus;
+import org.edx.mobile.http.provider.RetrofitProvider;
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.model.api.EnrolledCoursesResponse;
+import org.edx.mobile.module.prefs.LoginPrefs;
+import org.edx.mobile.module.prefs.PrefManager;
+import org.edx.mobile.util.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.regex.Pattern;
+
+import okhttp3.CipherSuite;
+import okhttp3.Handshake;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.TlsVersion;
+import okhttp3.internal.Internal;
+import okhttp3.internal.InternalCache;
+import okhttp3.internal.http.CacheRequest;
+import okhttp3.internal.http.HttpDate;
+import okhttp3.internal.http.OkHeaders;
+import okio.BufferedSink;
+import okio.Okio;
+import roboguice.RoboGuice;
+
+/**
+ * Imports the response bodies stored by the deprecated {@link CacheManager} into the cache of
+ * the OkHttp client with the offline cache, once, and then deletes them. Until it's done, the
+ * {@link org.edx.mobile.http.interceptor.CustomCacheQueryInterceptor} keeps querying the legacy
+ * cache; after that, it's left out of the client.
+ * <p>
+ * The legacy cache files are named by the hash of their URL, so only the responses whose URLs
+ * can be rebuilt are imported: the enrolled courses of the logged in user, and the structure of
+ * each of those courses. These are the ones that are read from the cache when offline.
+ */
+@Singleton
+public class LegacyCacheMigrator {
+    /**
+     * The legacy cache files are named by the hex SHA-1 hash of the URL, unlike the OkHttp cache
+     * files in the same directory.
+     */
+    private static final Pattern LEGACY_FILE_NAME_PATTERN = Pattern.compile("[0-9a-f]{40}");
+
+    /**
+     * A dummy TLS handshake to add to the imported responses for HTTPS requests, since the OkHttp
+     * cache requires one for them.
+     */
+    private static final Handshake DUMMY_HANDSHAKE = Handshake.get(
+            TlsVersion.TLS_1_2,
+            CipherSuite.TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256,
+            Collections.EMPTY_LIST,
+            Collections.EMPTY_LIST);
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @NonNull
+    private final Context context;
+
+    @NonNull
+    private final PrefManager.AppInfoPrefManager appInfoPrefManager;
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    private LoginPrefs loginPrefs;
+
+    @Inject
+    private Config config;
+
+    @Inject
+    private Gson gson;
+
+    private volatile boolean migrated;
+
+    private boolean started;
+
+    @Inject
+    public LegacyCacheMigrator(@NonNull Context context) {
+        this.context = context;
+        appInfoPrefManager = new PrefManager.AppInfoPrefManager(context);
+        migrated = appInfoPrefManager.isLegacyHttpCacheMigrated();
+    }
+
+    /**
+     * @return Whether the legacy cache has been imported, and doesn't need to be queried anymore.
+     */
+    public boolean isMigrated() {
+        return migrated;
+    }
+
+    /**
+     * Starts importing the legacy cache into the cache of the given client on a background
+     * thread, unless it's been done already.
+     */
+    public synchronized void migrateInBackground(@NonNull final OkHttpClient client) {
+        if (migrated || started) {
+            return;
+        }
+        started = true;
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    migrate(client);
+                } catch (Exception e) {
+                    // It will be attempted again on the next launch
+                    logger.error(e, true);
+                }
+            }
+        }, "edx-cache-migration");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private void migrate(@NonNull OkHttpClient client) throws IOException {
+        final File[] legacyFiles = getLegacyFiles();
+        final InternalCache cache = Internal.instance.internalCache(client);
+        final String username = loginPrefs.getUsername();
+        if (legacyFiles.length > 0 && cache != null && username != null) {
+            final CourseService courseService = RoboGuice.getInjector(context)
+                    .getInstance(RetrofitProvider.class).getWithOfflineCache()
+                    .create(CourseService.class);
+            // The calls are only used for building the requests, they're never executed
+            final String enrolledCoursesJson = importResponse(cache, courseService
+                    .getEnrolledCourses(username, config.getOrganizationCode()).request());
+            int importedCount = enrolledCoursesJson == null ? 0 : 1;
+            for (String courseId : getCourseIds(enrolledCoursesJson)) {
+                if (importResponse(cache, courseService
+                        .getCourseStructure(username, courseId).request()) != null) {
+                    importedCount++;
+                }
+            }
+            logger.debug("Imported " + importedCount + " of " + legacyFiles.length
+                    + " legacy cache entries");
+        }
+        for (File file : legacyFiles) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+        appInfoPrefManager.setLegacyHttpCacheMigrated(true);
+        migrated = true;
+    }
+
+    @NonNull
+    private File[] getLegacyFiles() {
+        final File[] files = new File(context.getFilesDir(), "http-cache").listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        int count = 0;
+        for (File file : files) {
+            if (LEGACY_FILE_NAME_PATTERN.matcher(file.getName()).matches()) {
+                files[count++] = file;
+            }
+        }
+        final File[] legacyFiles = new File[count];
+        System.arraycopy(files, 0, legacyFiles, 0, count);
+        return legacyFiles;
+    }
+
+    @NonNull
+    private String[] getCourseIds(@Nullable String enrolledCoursesJson) {
+        if (enrolledCoursesJson == null) {
+            return new String[0];
+        }
+        final EnrolledCoursesResponse[] enrolledCourses;
+        try {
+            enrolledCourses = gson.fromJson(enrolledCoursesJson, EnrolledCoursesResponse[].class);
+        } catch (JsonParseException e) {
+            logger.error(e);
+            return new String[0];
+        }
+        if (enrolledCourses == null) {
+            return new String[0];
+        }
+        final String[] courseIds = new String[enrolledCourses.length];
+        for (int i = 0; i < enrolledCourses.length; i++) {
+            courseIds[i] = enrolledCourses[i].getCourse().getId();
+        }
+        return courseIds;
+    }
+
+    /**
+     * Stores the legacy cached body for the given request in the OkHttp cache, unless it already
+     * has a response for it.
+     *
+     * @return The legacy cached body, or null if there isn't one.
+     */
+    @Nullable
+    private String importResponse(@NonNull InternalCache cache, @NonNull Request request)
+            throws IOException {
+        final String url = request.url().toString();
+        final File file = cacheManager.getFile(url);
+        final String body = cacheManager.get(url);
+        if (file == null || body == null) {
+            return null;
+        }
+        final Response cachedResponse = cache.get(request);
+        if (cachedResponse != null) {
+            cachedResponse.body().close();
+            return body;
+        }
+
+        // Since the metadata wasn't cached, the response is built as a 200 response received
+        // when the cache file was last written.
+        final long receivedAt = file.lastModified();
+        final Request cacheRequest = request.newBuilder()
+                .removeHeader("Cache-Control")
+                .build();
+        final Response networkResponse = new Response.Builder()
+                .request(cacheRequest)
+                .protocol(Protocol.HTTP_1_1)
+                .code(HttpStatus.OK)
+                .message("OK")
+                .handshake(cacheRequest.isHttps() ? DUMMY_HANDSHAKE : null)
+                .header("Content-Type", "application/json")
+                .header("Date", HttpDate.format(new Date(receivedAt)))
+                .header(OkHeaders.SENT_MILLIS, Long.toString(receivedAt))
+                .header(OkHeaders.RECEIVED_MILLIS, Long.toString(receivedAt))
+                .build();
+        final Response response = networkResponse.newBuilder()
+                .networkResponse(networkResponse)
+                .body(ResponseBody.create(MediaType.parse("application/json"), body))
+                .build();
+        final CacheRequest cacheWrite = cache.put(response);
+        if (cacheWrite == null) {
+            return body;
+        }
+        final BufferedSink sink = Okio.buffer(cacheWrite.body());
+        try {
+            sink.writeUtf8(body);
+            sink.close();
+        } catch (IOException e) {
+            cacheWrite.abort();
+            throw e;
+        }
+        return body;
+    }
+}
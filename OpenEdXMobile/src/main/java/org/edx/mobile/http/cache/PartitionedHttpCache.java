@@ -0,0 +1,382 @@
+package org.edx.mobile.http.cache;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.util.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.internal.Internal;
+import okhttp3.internal.InternalCache;
+import okhttp3.internal.http.CacheRequest;
+import okhttp3.internal.http.CacheStrategy;
+import okio.Buffer;
+import okio.ForwardingSink;
+import okio.Sink;
+
+/**
+ * An HTTP response cache made up of a separate OkHttp {@link Cache} for each
+ * {@link HttpCachePartition}, with the requests routed to them by their URL. It's set on an
+ * OkHttp client with {@link #setOn(OkHttpClient.Builder)}.
+ * <p>
+ * The sizes of the partitions are configured in {@link Config.HttpCacheConfig}, and are scaled
+ * down together when they would take up more than the configured share of the free disk space.
+ * The hits, misses, evictions and bytes of each partition are counted, and can be queried with
+ * {@link #getStats()}.
+ */
+public class PartitionedHttpCache implements InternalCache {
+    private static final long MIB = 1024 * 1024;
+
+    /**
+     * The minimum size of a partition, however little free disk space there is.
+     */
+    private static final long MIN_PARTITION_SIZE = MIB;
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @NonNull
+    private final Map<HttpCachePartition, Partition> partitions =
+            new EnumMap<>(HttpCachePartition.class);
+
+    /**
+     * @param parentDirectory The directory to create the partition directories in.
+     * @param config          The configuration of the partition sizes.
+     */
+    public PartitionedHttpCache(@NonNull File parentDirectory,
+                                @NonNull Config.HttpCacheConfig config) {
+        long availableSpace = parentDirectory.getUsableSpace();
+        for (HttpCachePartition partition : HttpCachePartition.values()) {
+            // The space taken up by the partitions themselves is available to them
+            availableSpace += getDirectorySize(
+                    new File(parentDirectory, partition.getDirectoryName()));
+        }
+        final Map<HttpCachePartition, Long> maxSizes = getMaxSizes(config, availableSpace);
+        // Used only for getting at the internal cache interface of each Cache
+        final OkHttpClient client = new OkHttpClient();
+        for (HttpCachePartition partition : HttpCachePartition.values()) {
+            final Cache cache = new Cache(
+                    new File(parentDirectory, partition.getDirectoryName()),
+                    maxSizes.get(partition));
+            partitions.put(partition, new Partition(partition, cache,
+                    Internal.instance.internalCache(client.newBuilder().cache(cache).build())));
+        }
+        logger.debug("HTTP cache partition sizes: " + maxSizes);
+    }
+
+    /**
+     * Sets this cache as the response cache of the client being built.
+     */
+    public void setOn(@NonNull OkHttpClient.Builder builder) {
+        Internal.instance.setCache(builder, this);
+    }
+
+    /**
+     * @return The current statistics of each partition.
+     */
+    @NonNull
+    public List<Stats> getStats() {
+        final List<Stats> stats = new ArrayList<>(partitions.size());
+        for (Partition partition : partitions.values()) {
+            stats.add(partition.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Splits the space available to the cache between its partitions.
+     *
+     * @param config         The configuration of the partition sizes.
+     * @param availableSpace The disk space available to the cache, in bytes.
+     * @return The maximum size of each partition, in bytes.
+     */
+    @VisibleForTesting
+    @NonNull
+    public static Map<HttpCachePartition, Long> getMaxSizes(
+            @NonNull Config.HttpCacheConfig config, long availableSpace) {
+        long totalConfiguredSize = 0;
+        for (HttpCachePartition partition : HttpCachePartition.values()) {
+            totalConfiguredSize += partition.getMaxSizeMb(config) * MIB;
+        }
+        final long allowedSpace = availableSpace / 100 * config.getMaxFreeSpacePercent();
+        final double scale = allowedSpace >= totalConfiguredSize ?
+                1 : (double) allowedSpace / totalConfiguredSize;
+        final Map<HttpCachePartition, Long> maxSizes = new EnumMap<>(HttpCachePartition.class);
+        for (HttpCachePartition partition : HttpCachePartition.values()) {
+            maxSizes.put(partition, Math.max(MIN_PARTITION_SIZE,
+                    (long) (partition.getMaxSizeMb(config) * MIB * scale)));
+        }
+        return maxSizes;
+    }
+
+    private static long getDirectorySize(@NonNull File directory) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        long size = 0;
+        for (File file : files) {
+            if (file.isFile()) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    @NonNull
+    private Partition getPartition(@NonNull Request request) {
+        return partitions.get(HttpCachePartition.forUrl(request.url()));
+    }
+
+    @Override
+    @Nullable
+    public Response get(@NonNull Request request) throws IOException {
+        final Partition partition = getPartition(request);
+        Response response = partition.internalCache.get(request);
+        if (response == null && partition.partition != HttpCachePartition.METADATA) {
+            // It may have been cached before the cache was partitioned
+            response = partitions.get(HttpCachePartition.METADATA).internalCache.get(request);
+        }
+        partition.onLookup(request, response != null);
+        return response;
+    }
+
+    @Override
+    @Nullable
+    public CacheRequest put(@NonNull Response response) throws IOException {
+        final Request request = response.request();
+        final Partition partition = getPartition(request);
+        if (partition.partition != HttpCachePartition.METADATA) {
+            // Don't leave a copy from before the cache was partitioned to take up space
+            partitions.get(HttpCachePartition.METADATA).internalCache.remove(request);
+        }
+        final CacheRequest cacheRequest = partition.internalCache.put(response);
+        if (cacheRequest == null) {
+            return null;
+        }
+        return partition.trackWrite(request, cacheRequest);
+    }
+
+    @Override
+    public void remove(@NonNull Request request) throws IOException {
+        final Partition partition = getPartition(request);
+        partition.onRemove(request);
+        partition.internalCache.remove(request);
+        if (partition.partition != HttpCachePartition.METADATA) {
+            partitions.get(HttpCachePartition.METADATA).internalCache.remove(request);
+        }
+    }
+
+    @Override
+    public void update(@NonNull Response cached, @NonNull Response network) throws IOException {
+        // This is only called after the cached response has been validated with the server
+        final Partition partition = getPartition(cached.request());
+        partition.onConditionalHit();
+        partition.internalCache.trackConditionalCacheHit();
+        // The entry is updated in the cache that it was read from, whichever partition it's in
+        partition.internalCache.update(cached, network);
+    }
+
+    @Override
+    public void trackConditionalCacheHit() {
+        // The partition isn't known here, so this is tracked in update() instead
+    }
+
+    @Override
+    public void trackResponse(@NonNull CacheStrategy cacheStrategy) {
+        final Request request;
+        if (cacheStrategy.networkRequest != null) {
+            request = cacheStrategy.networkRequest;
+        } else if (cacheStrategy.cacheResponse != null) {
+            request = cacheStrategy.cacheResponse.request();
+        } else {
+            // An only-if-cached request that missed, which has no request to route by; the
+            // miss has already been counted in get()
+            return;
+        }
+        getPartition(request).internalCache.trackResponse(cacheStrategy);
+    }
+
+    private static class Partition {
+        @NonNull
+        private final HttpCachePartition partition;
+        @NonNull
+        private final Cache cache;
+        @NonNull
+        private final InternalCache internalCache;
+        /**
+         * The URLs of the responses written to this partition since it was created, for
+         * recognizing the lookups that miss because the response has been evicted.
+         */
+        @NonNull
+        private final Set<String> writtenUrls = new HashSet<>();
+        private int hitCount;
+        private int missCount;
+        private int conditionalHitCount;
+        private int evictionCount;
+        private int writeCount;
+        private int writeAbortCount;
+        private long bytesWritten;
+
+        Partition(@NonNull HttpCachePartition partition, @NonNull Cache cache,
+                  @NonNull InternalCache internalCache) {
+            this.partition = partition;
+            this.cache = cache;
+            this.internalCache = internalCache;
+        }
+
+        synchronized void onLookup(@NonNull Request request, boolean hit) {
+            if (hit) {
+                hitCount++;
+            } else {
+                missCount++;
+                if (writtenUrls.remove(request.url().toString())) {
+                    evictionCount++;
+                }
+            }
+        }
+
+        synchronized void onConditionalHit() {
+            conditionalHitCount++;
+        }
+
+        synchronized void onRemove(@NonNull Request request) {
+            writtenUrls.remove(request.url().toString());
+        }
+
+        synchronized void onWritten(@NonNull Request request, long byteCount) {
+            writtenUrls.add(request.url().toString());
+            writeCount++;
+            bytesWritten += byteCount;
+        }
+
+        synchronized void onWriteAborted() {
+            writeAbortCount++;
+        }
+
+        @NonNull
+        CacheRequest trackWrite(@NonNull final Request request,
+                                @NonNull final CacheRequest cacheRequest) {
+            return new CacheRequest() {
+                @Nullable
+                private Sink body;
+
+                @Override
+                public synchronized Sink body() throws IOException {
+                    if (body == null) {
+                        body = new ForwardingSink(cacheRequest.body()) {
+                            private long byteCount;
+
+                            @Override
+                            public void write(Buffer source, long byteCount) throws IOException {
+                                super.write(source, byteCount);
+                                this.byteCount += byteCount;
+                            }
+
+                            @Override
+                            public void close() throws IOException {
+                                super.close();
+                                onWritten(request, byteCount);
+                            }
+                        };
+                    }
+                    return body;
+                }
+
+                @Override
+                public void abort() {
+                    cacheRequest.abort();
+                    onWriteAborted();
+                }
+            };
+        }
+
+        @NonNull
+        Stats getStats() {
+            long size;
+            try {
+                size = cache.getSize();
+            } catch (IOException e) {
+                size = -1;
+            }
+            synchronized (this) {
+                return new Stats(partition, hitCount, missCount, conditionalHitCount,
+                        evictionCount, writeCount, writeAbortCount, bytesWritten, size,
+                        cache.getMaxSize());
+            }
+        }
+    }
+
+    /**
+     * The statistics of a cache partition at some point in time.
+     */
+    public static final class Stats {
+        @NonNull
+        public final HttpCachePartition partition;
+        /**
+         * The number of lookups that found a cached response, whether or not it was fresh.
+         */
+        public final int hitCount;
+        /**
+         * The number of lookups that didn't find a cached response.
+         */
+        public final int missCount;
+        /**
+         * The number of stale cached responses that were used after being validated with the
+         * server.
+         */
+        public final int conditionalHitCount;
+        /**
+         * The number of misses for responses that had been written to the partition since the
+         * app was started, which have been evicted to make room for others since then.
+         */
+        public final int evictionCount;
+        public final int writeCount;
+        public final int writeAbortCount;
+        /**
+         * The total size of the response bodies written to the partition, in bytes.
+         */
+        public final long bytesWritten;
+        /**
+         * The current size of the partition in bytes, or -1 if it couldn't be read.
+         */
+        public final long size;
+        public final long maxSize;
+
+        Stats(@NonNull HttpCachePartition partition, int hitCount, int missCount,
+              int conditionalHitCount, int evictionCount, int writeCount, int writeAbortCount,
+              long bytesWritten, long size, long maxSize) {
+            this.partition = partition;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.conditionalHitCount = conditionalHitCount;
+            this.evictionCount = evictionCount;
+            this.writeCount = writeCount;
+            this.writeAbortCount = writeAbortCount;
+            this.bytesWritten = bytesWritten;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public String toString() {
+            return partition + ": hits=" + hitCount + " misses=" + missCount
+                    + " conditionalHits=" + conditionalHitCount + " evictions=" + evictionCount
+                    + " writes=" + writeCount + " writeAborts=" + writeAbortCount
+                    + " bytesWritten=" + bytesWritten + " size=" + size + " maxSize=" + maxSize;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.google.inject.Inject;
 
 import org.edx.mobile.http.HttpStatus;
 import org.edx.mobile.http.cache.CacheManager;
+import org.edx.mobile.http.cache.LegacyCacheMigrator;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -27,7 +28,9 @@ import roboguice.RoboGuice;
 
 /**
  * An OkHttp interceptor that adds support for querying the deprecated {@link CacheManager}
- * initially, if the OkHttp client doesn't have the entry in it's own cache.
+ * initially, if the OkHttp client doesn't have the entry in it's own cache. It stops querying it
+ * once the {@link LegacyCacheMigrator} has imported it into the OkHttp cache, and isn't added to
+ * new clients after that.
  *
  * @deprecated This is only provided so that the transition from the Apache client to OkHttp can be
  * performed smoothly without any user-facing issues. After a significant percentage of the userbase
@@ -49,6 +52,9 @@ public class CustomCacheQueryInterceptor implements Interceptor {
     @Inject
     private CacheManager cacheManager;
 
+    @Inject
+    private LegacyCacheMigrator legacyCacheMigrator;
+
     public CustomCacheQueryInterceptor(@NonNull final Context context) {
         RoboGuice.getInjector(context).injectMembers(this);
     }
@@ -57,6 +63,9 @@ public class CustomCacheQueryInterceptor implements Interceptor {
     public Response intercept(@NonNull final Chain chain) throws IOException {
         final Request request = chain.request();
         Response response = chain.proceed(request);
+        if (legacyCacheMigrator.isMigrated()) {
+            return response;
+        }
         final String urlString = request.url().toString();
         // If the OkHttp client
         if (response.cacheResponse() != null) {
@@ -3,8 +3,8 @@ package org.edx.mobile.http.interceptor;
 import android.content.Context;
 import android.support.annotation.NonNull;
 
+import org.edx.mobile.http.authenticator.OauthTokenManager;
 import org.edx.mobile.logger.Logger;
-import org.edx.mobile.module.prefs.LoginPrefs;
 
 import java.io.IOException;
 
@@ -14,22 +14,23 @@ import okhttp3.Response;
 import roboguice.RoboGuice;
 
 /**
- * Injects OAuth token - if present - into Authorization header
+ * Injects OAuth token - if present - into Authorization header. The token is refreshed first if
+ * it's about to expire.
  **/
 public final class OauthHeaderRequestInterceptor implements Interceptor {
     protected final Logger logger = new Logger(getClass().getName());
 
     @NonNull
-    private final LoginPrefs loginPrefs;
+    private final OauthTokenManager tokenManager;
 
     public OauthHeaderRequestInterceptor(@NonNull Context context) {
-        loginPrefs = RoboGuice.getInjector(context).getInstance(LoginPrefs.class);
+        tokenManager = RoboGuice.getInjector(context).getInstance(OauthTokenManager.class);
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
         final Request.Builder builder = chain.request().newBuilder();
-        final String token = loginPrefs.getAuthorizationHeader();
+        final String token = tokenManager.getAuthorizationHeader();
         if (token != null) {
             builder.addHeader("Authorization", token);
         }
@@ -0,0 +1,248 @@
+package org.edx.mobile.http.interceptor;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * An OkHttp interceptor that merges identical GET and HEAD requests made while one of them is
+ * in flight into a single exchange. The first request proceeds down the chain, and the others
+ * wait for its response; if any did, its body is read into memory and each of them gets a copy
+ * of it. Requests made after the response headers have arrived proceed on their own. If the
+ * first request fails, which may be only because its call was cancelled, the waiting ones are
+ * made again, merged among themselves, and fail only if that fails too.
+ * <p>
+ * A waiting request can't see whether its own call has been cancelled, so it stops waiting
+ * after a timeout, and is made on its own. Requests with the {@link #NO_COALESCING_HEADER},
+ * such as those of the Retrofit methods that stream their responses, are never merged, since
+ * that would read their whole bodies into memory.
+ * <p>
+ * Requests are identical if they have the same method, URL and headers. This should be the
+ * first interceptor of a client, so that the requests are compared as they were made.
+ */
+public class RequestCoalescingInterceptor implements Interceptor {
+    /**
+     * The header that keeps a request from being merged with others. It's removed before the
+     * request proceeds.
+     */
+    public static final String NO_COALESCING_HEADER = "X-No-Coalescing";
+
+    private static final long DEFAULT_WAIT_TIMEOUT_SECONDS = 10;
+
+    @NonNull
+    private final Map<String, InFlightCall> inFlightCalls = new HashMap<>();
+
+    @NonNull
+    private final AtomicInteger mergedCallCount;
+
+    private final long waitTimeoutNanos;
+
+    public RequestCoalescingInterceptor() {
+        this(new AtomicInteger());
+    }
+
+    /**
+     * @param mergedCallCount The counter to increment for each request that's merged into
+     *                        another one, which can be shared by several interceptors.
+     */
+    public RequestCoalescingInterceptor(@NonNull AtomicInteger mergedCallCount) {
+        this(mergedCallCount, DEFAULT_WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param mergedCallCount The counter to increment for each request that's merged into
+     *                        another one, which can be shared by several interceptors.
+     * @param waitTimeout     How long a merged request waits for the response of the request
+     *                        that it's merged into, before it's made on its own.
+     */
+    public RequestCoalescingInterceptor(@NonNull AtomicInteger mergedCallCount,
+                                        long waitTimeout, @NonNull TimeUnit unit) {
+        this.mergedCallCount = mergedCallCount;
+        this.waitTimeoutNanos = unit.toNanos(waitTimeout);
+    }
+
+    /**
+     * @return The number of requests that were merged into another one instead of making their
+     * own exchange.
+     */
+    public int getMergedCallCount() {
+        return mergedCallCount.get();
+    }
+
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        return intercept(chain, false);
+    }
+
+    /**
+     * @param isRetry Whether the request was merged into one that failed, and is being made again.
+     */
+    @NonNull
+    private Response intercept(@NonNull Chain chain, boolean isRetry) throws IOException {
+        final Request request = chain.request();
+        if (request.header(NO_COALESCING_HEADER) != null) {
+            return chain.proceed(request.newBuilder().removeHeader(NO_COALESCING_HEADER).build());
+        }
+        final String method = request.method();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            return chain.proceed(request);
+        }
+        final String key = method + " " + request.url() + "\n" + request.headers();
+        InFlightCall call;
+        final boolean isMerged;
+        synchronized (inFlightCalls) {
+            call = inFlightCalls.get(key);
+            isMerged = call != null;
+            if (isMerged) {
+                call.waiterCount++;
+            } else {
+                call = new InFlightCall();
+                inFlightCalls.put(key, call);
+            }
+        }
+        if (isMerged) {
+            mergedCallCount.incrementAndGet();
+            if (!call.await(waitTimeoutNanos)) {
+                // The call of this request may have been cancelled, in which case proceeding
+                // fails right away
+                synchronized (inFlightCalls) {
+                    call.waiterCount--;
+                }
+                mergedCallCount.decrementAndGet();
+                return chain.proceed(request);
+            }
+            final Response response = call.getResponse(request);
+            if (response != null) {
+                return response;
+            }
+            if (isRetry) {
+                call.throwError();
+            }
+            // One of the waiting requests becomes the first one in its place
+            return intercept(chain, true);
+        }
+
+        final Response response;
+        final int waiterCount;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            synchronized (inFlightCalls) {
+                inFlightCalls.remove(key);
+            }
+            call.fail(e);
+            throw e;
+        }
+        synchronized (inFlightCalls) {
+            // Later requests will make their own exchange
+            inFlightCalls.remove(key);
+            waiterCount = call.waiterCount;
+        }
+        if (waiterCount == 0) {
+            return response;
+        }
+
+        final ResponseBody body = response.body();
+        final byte[] bytes;
+        try {
+            bytes = body == null ? null : body.bytes();
+        } catch (IOException | RuntimeException e) {
+            call.fail(e);
+            throw e;
+        }
+        final BufferedResponse bufferedResponse = new BufferedResponse(response,
+                body == null ? null : body.contentType(), bytes);
+        call.complete(bufferedResponse);
+        return bufferedResponse.newResponse(request);
+    }
+
+    private static class BufferedResponse {
+        @NonNull
+        private final Response response;
+        @Nullable
+        private final MediaType contentType;
+        @Nullable
+        private final byte[] body;
+
+        BufferedResponse(@NonNull Response response, @Nullable MediaType contentType,
+                         @Nullable byte[] body) {
+            this.response = response;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        @NonNull
+        Response newResponse(@NonNull Request request) {
+            final Response.Builder builder = response.newBuilder().request(request);
+            if (body != null) {
+                builder.body(ResponseBody.create(contentType, body));
+            }
+            return builder.build();
+        }
+    }
+
+    private static class InFlightCall {
+        @NonNull
+        private final CountDownLatch done = new CountDownLatch(1);
+        // Guarded by the in-flight calls map
+        int waiterCount;
+        @Nullable
+        private BufferedResponse response;
+        @Nullable
+        private Exception error;
+
+        void complete(@NonNull BufferedResponse response) {
+            this.response = response;
+            done.countDown();
+        }
+
+        void fail(@NonNull Exception error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        /**
+         * Waits for the first request to complete or fail.
+         *
+         * @return Whether it did before the timeout.
+         */
+        boolean await(long timeoutNanos) throws IOException {
+            try {
+                return done.await(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for an identical request", e);
+            }
+        }
+
+        /**
+         * @return The response for the given request, or null if the first request failed.
+         */
+        @Nullable
+        Response getResponse(@NonNull Request request) {
+            return response == null ? null : response.newResponse(request);
+        }
+
+        /**
+         * Throws the error of the first request, once it has failed.
+         */
+        void throwError() throws IOException {
+            if (error instanceof IOException) {
+                throw (IOException) error;
+            }
+            throw (RuntimeException) error;
+        }
+    }
+}
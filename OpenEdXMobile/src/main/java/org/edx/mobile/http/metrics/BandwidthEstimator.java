@@ -0,0 +1,205 @@
+package org.edx.mobile.http.metrics;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.format.DateUtils;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.module.prefs.PrefManager;
+import org.edx.mobile.util.NetworkUtil;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Estimates the download bandwidth of each type of network from the transfers that the app
+ * actually makes, such as API responses, transcripts and video downloads, over a sliding window
+ * of the most recent samples.
+ * <p>
+ * The estimate is the total size of the samples in the window divided by their total duration,
+ * so longer transfers weigh more than short ones. When there are no recent samples for a network
+ * type, the last estimate saved for it is used, or else the result of the last speed test.
+ */
+@Singleton
+public class BandwidthEstimator {
+    public enum NetworkType {
+        WIFI(PrefManager.Key.BANDWIDTH_WIFI_KBPS),
+        CELLULAR(PrefManager.Key.BANDWIDTH_CELLULAR_KBPS);
+
+        @NonNull
+        private final String prefKey;
+
+        NetworkType(@NonNull String prefKey) {
+            this.prefKey = prefKey;
+        }
+    }
+
+    /**
+     * Returned as the estimate when there's nothing to base it on.
+     */
+    public static final float UNKNOWN = -1;
+
+    private static final int WINDOW_SIZE = 20;
+    private static final long MAX_SAMPLE_AGE_MS = 10 * DateUtils.MINUTE_IN_MILLIS;
+    /**
+     * The minimum duration of a sample, below which the timing is too coarse to be useful.
+     */
+    private static final long MIN_SAMPLE_MILLIS = 100;
+    /**
+     * The minimum interval between saving the estimates to the preferences.
+     */
+    private static final long SAVE_INTERVAL_MS = DateUtils.MINUTE_IN_MILLIS;
+
+    @NonNull
+    private final Context context;
+
+    @NonNull
+    private final PrefManager prefManager;
+
+    // Guarded by this
+    @NonNull
+    private final Map<NetworkType, Window> windows = new EnumMap<>(NetworkType.class);
+
+    @Inject
+    public BandwidthEstimator(@NonNull Context context) {
+        this.context = context;
+        prefManager = new PrefManager(context, PrefManager.Pref.WIFI);
+        for (NetworkType networkType : NetworkType.values()) {
+            windows.put(networkType, new Window());
+        }
+    }
+
+    /**
+     * @return The type of the network that the device is connected to, or null if it isn't
+     * connected. Networks other than cellular ones are treated as Wi-Fi.
+     */
+    @Nullable
+    public NetworkType getCurrentNetworkType() {
+        final NetworkInfo info = NetworkUtil.getNetworkInfo(context);
+        if (info == null || !info.isConnected()) {
+            return null;
+        }
+        return info.getType() == ConnectivityManager.TYPE_MOBILE ?
+                NetworkType.CELLULAR : NetworkType.WIFI;
+    }
+
+    /**
+     * Adds a transfer made on the current network to the estimate.
+     *
+     * @param bytes  The number of bytes transferred.
+     * @param millis The time the transfer took.
+     */
+    public void addSample(long bytes, long millis) {
+        final NetworkType networkType = getCurrentNetworkType();
+        if (networkType != null) {
+            addSample(networkType, bytes, millis);
+        }
+    }
+
+    /**
+     * Adds a transfer made on the given type of network to the estimate.
+     *
+     * @param networkType The type of the network the transfer was made on.
+     * @param bytes       The number of bytes transferred.
+     * @param millis      The time the transfer took.
+     */
+    public void addSample(@NonNull NetworkType networkType, long bytes, long millis) {
+        if (bytes < 0 || millis < MIN_SAMPLE_MILLIS) {
+            return;
+        }
+        final long now = SystemClock.elapsedRealtime();
+        final float estimate;
+        synchronized (this) {
+            final Window window = windows.get(networkType);
+            window.add(new Sample(bytes, millis, now));
+            if (now - window.lastSaveTime < SAVE_INTERVAL_MS) {
+                return;
+            }
+            window.lastSaveTime = now;
+            estimate = window.getEstimatedKbps(now);
+        }
+        prefManager.put(networkType.prefKey, estimate);
+    }
+
+    /**
+     * @return The estimated bandwidth of the current network in KiB per second, or
+     * {@link #UNKNOWN} if there's no network or nothing to base the estimate on.
+     */
+    public float getEstimatedKbps() {
+        final NetworkType networkType = getCurrentNetworkType();
+        return networkType == null ? UNKNOWN : getEstimatedKbps(networkType);
+    }
+
+    /**
+     * @return The estimated bandwidth of the given type of network in KiB per second, or
+     * {@link #UNKNOWN} if there's nothing to base the estimate on.
+     */
+    public float getEstimatedKbps(@NonNull NetworkType networkType) {
+        final float estimate;
+        synchronized (this) {
+            estimate = windows.get(networkType).getEstimatedKbps(SystemClock.elapsedRealtime());
+        }
+        if (estimate != UNKNOWN) {
+            return estimate;
+        }
+        final float savedEstimate = prefManager.getFloat(networkType.prefKey, UNKNOWN);
+        if (savedEstimate != UNKNOWN) {
+            return savedEstimate;
+        }
+        final float speedTestKbps = prefManager.getFloat(PrefManager.Key.SPEED_TEST_KBPS, 0);
+        return speedTestKbps > 0 ? speedTestKbps : UNKNOWN;
+    }
+
+    private static class Sample {
+        final long bytes;
+        final long millis;
+        final long time;
+
+        Sample(long bytes, long millis, long time) {
+            this.bytes = bytes;
+            this.millis = millis;
+            this.time = time;
+        }
+    }
+
+    private static class Window {
+        @NonNull
+        private final Deque<Sample> samples = new ArrayDeque<>(WINDOW_SIZE);
+        private long totalBytes;
+        private long totalMillis;
+        long lastSaveTime = -SAVE_INTERVAL_MS;
+
+        void add(@NonNull Sample sample) {
+            if (samples.size() == WINDOW_SIZE) {
+                remove();
+            }
+            samples.addLast(sample);
+            totalBytes += sample.bytes;
+            totalMillis += sample.millis;
+        }
+
+        float getEstimatedKbps(long now) {
+            while (!samples.isEmpty() && now - samples.peekFirst().time > MAX_SAMPLE_AGE_MS) {
+                remove();
+            }
+            if (totalMillis == 0) {
+                return UNKNOWN;
+            }
+            return (float) totalBytes / 1024 / totalMillis * DateUtils.SECOND_IN_MILLIS;
+        }
+
+        private void remove() {
+            final Sample sample = samples.removeFirst();
+            totalBytes -= sample.bytes;
+            totalMillis -= sample.millis;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.edx.mobile.http.metrics;
+
+/**
+ * A histogram of durations in milliseconds with fixed, roughly logarithmic buckets, which takes
+ * constant space however many values are recorded. Percentiles are estimated as the upper bound
+ * of the bucket that they fall into.
+ * <p>
+ * This class isn't thread-safe.
+ */
+public class Histogram {
+    /**
+     * The upper bounds of the buckets, in milliseconds; the last bucket has no upper bound.
+     */
+    private static final long[] BUCKET_BOUNDS = {
+            10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000
+    };
+
+    private final int[] counts = new int[BUCKET_BOUNDS.length + 1];
+    private int count;
+    private long sum;
+    private long max;
+
+    public void record(long millis) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && millis > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        count++;
+        sum += millis;
+        max = Math.max(max, millis);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile The percentile to estimate, between 0 and 100.
+     * @return The estimated value at the given percentile, which is at most the maximum
+     * recorded value, or 0 if no values have been recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final double rank = count * percentile / 100;
+        int cumulativeCount = 0;
+        for (int bucket = 0; bucket < BUCKET_BOUNDS.length; bucket++) {
+            cumulativeCount += counts[bucket];
+            if (cumulativeCount >= rank) {
+                return Math.min(BUCKET_BOUNDS[bucket], max);
+            }
+        }
+        return max;
+    }
+
+    public void clear() {
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] = 0;
+        }
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
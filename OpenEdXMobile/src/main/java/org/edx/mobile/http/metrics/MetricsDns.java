@@ -0,0 +1,29 @@
+package org.edx.mobile.http.metrics;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+import okhttp3.Dns;
+
+/**
+ * Looks up host names with the system resolver, adding the time taken to the metrics of the
+ * call being made on the current thread.
+ */
+public class MetricsDns implements Dns {
+    @Override
+    public List<InetAddress> lookup(@NonNull String hostname) throws UnknownHostException {
+        final long startMillis = SystemClock.elapsedRealtime();
+        try {
+            return SYSTEM.lookup(hostname);
+        } finally {
+            final RequestMetrics metrics = RequestMetrics.current();
+            if (metrics != null) {
+                metrics.dnsMillis += SystemClock.elapsedRealtime() - startMillis;
+            }
+        }
+    }
+}
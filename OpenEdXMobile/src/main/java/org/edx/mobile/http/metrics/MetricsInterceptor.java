@@ -0,0 +1,132 @@
+package org.edx.mobile.http.metrics;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * An application interceptor that collects the {@link RequestMetrics} of each call, and records
+ * them in the {@link NetworkMetrics} once the response body has been read or closed, or the
+ * call has failed.
+ * <p>
+ * The {@link MetricsNetworkInterceptor} and the {@link MetricsDns} need to be set on the same
+ * client for the network timings to be collected.
+ */
+public class MetricsInterceptor implements Interceptor {
+    @NonNull
+    private final NetworkMetrics networkMetrics;
+
+    public MetricsInterceptor(@NonNull NetworkMetrics networkMetrics) {
+        this.networkMetrics = networkMetrics;
+    }
+
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        final Request request = chain.request();
+        final RequestMetrics metrics = new RequestMetrics(
+                NetworkMetrics.getRouteTemplate(request.url()));
+        final RequestMetrics previousMetrics = RequestMetrics.setCurrent(metrics);
+        final Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            metrics.failed = true;
+            finish(metrics);
+            throw e;
+        } finally {
+            RequestMetrics.setCurrent(previousMetrics);
+        }
+        metrics.source = RequestMetrics.Source.of(response);
+        metrics.failed = response.code() >= 500;
+        final ResponseBody body = response.body();
+        if (body == null) {
+            finish(metrics);
+            return response;
+        }
+        return response.newBuilder()
+                .body(new MetricsResponseBody(body, metrics))
+                .build();
+    }
+
+    private void finish(@NonNull RequestMetrics metrics) {
+        metrics.totalMillis = SystemClock.elapsedRealtime() - metrics.startMillis;
+        networkMetrics.record(metrics);
+    }
+
+    /**
+     * A response body that counts the bytes read from it, and finishes the metrics of its call
+     * when it's exhausted or closed.
+     */
+    private class MetricsResponseBody extends ResponseBody {
+        @NonNull
+        private final ResponseBody body;
+        @NonNull
+        private final RequestMetrics metrics;
+        @NonNull
+        private final BufferedSource source;
+        private boolean finished;
+
+        MetricsResponseBody(@NonNull ResponseBody body, @NonNull RequestMetrics metrics) {
+            this.body = body;
+            this.metrics = metrics;
+            source = Okio.buffer(new ForwardingSource(body.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    final long read;
+                    try {
+                        read = super.read(sink, byteCount);
+                    } catch (IOException e) {
+                        metrics.failed = true;
+                        finishOnce();
+                        throw e;
+                    }
+                    if (read == -1) {
+                        finishOnce();
+                    } else {
+                        metrics.bytesIn += read;
+                    }
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    finishOnce();
+                    super.close();
+                }
+            });
+        }
+
+        private void finishOnce() {
+            if (!finished) {
+                finished = true;
+                finish(metrics);
+            }
+        }
+
+        @Override
+        public MediaType contentType() {
+            return body.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return body.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.edx.mobile.http.metrics;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * A network interceptor that adds the time until the response headers arrived and the size of
+ * the request body of each network request to the metrics of the call it was made for.
+ */
+public class MetricsNetworkInterceptor implements Interceptor {
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        final RequestMetrics metrics = RequestMetrics.current();
+        if (metrics == null) {
+            return chain.proceed(chain.request());
+        }
+        final Request request = chain.request();
+        final long startMillis = SystemClock.elapsedRealtime();
+        if (metrics.networkStartMillis == 0) {
+            metrics.networkStartMillis = startMillis;
+        }
+        if (request.body() != null && request.body().contentLength() > 0) {
+            metrics.bytesOut += request.body().contentLength();
+        }
+        try {
+            return chain.proceed(request);
+        } finally {
+            metrics.timeToFirstByteMillis += SystemClock.elapsedRealtime() - startMillis;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package org.edx.mobile.http.metrics;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.text.format.DateUtils;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.module.analytics.AnalyticsRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Collects the latency and throughput of the calls made through the OkHttp clients, aggregated
+ * in histograms per route template, such as {@code /api/courses/v1/blocks/} or
+ * {@code /api/discussion/v1/threads/{id}/}.
+ * <p>
+ * The metrics since the app was started are available from {@link #getSnapshot()}. Every
+ * {@link #REPORT_INTERVAL_MS}, the metrics of the routes called in that interval are also
+ * reported to the {@link AnalyticsRegistry}.
+ */
+@Singleton
+public class NetworkMetrics {
+    private static final long REPORT_INTERVAL_MS = 15 * DateUtils.MINUTE_IN_MILLIS;
+
+    /**
+     * The maximum number of routes to keep metrics for, after which the calls to any other
+     * routes are counted under {@link #OTHER_ROUTE}.
+     */
+    private static final int MAX_ROUTES = 100;
+    private static final String OTHER_ROUTE = "{other}";
+
+    /**
+     * The minimum size of a response body for its transfer time to be a useful sample for the
+     * {@link BandwidthEstimator}, below which it's dominated by latency.
+     */
+    private static final long MIN_BANDWIDTH_SAMPLE_BYTES = 32 * 1024;
+
+    private static final Pattern VERSION_SEGMENT_PATTERN = Pattern.compile("v\\d+(\\.\\d+)*");
+
+    /**
+     * The path segments that are the same for all the calls to a route, such as
+     * {@code course_enrollments}; any other path segment is replaced with a placeholder, since
+     * it's an ID.
+     */
+    private static final Pattern CONSTANT_SEGMENT_PATTERN = Pattern.compile("[a-z_\\-]*");
+
+    /**
+     * The path segments that are followed by a username.
+     */
+    private static final List<String> USERNAME_PARENT_SEGMENTS =
+            Arrays.asList("users", "user", "accounts");
+
+    @NonNull
+    private final AnalyticsRegistry analyticsRegistry;
+
+    @NonNull
+    private final BandwidthEstimator bandwidthEstimator;
+
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    @NonNull
+    private final Map<String, RouteMetrics> totalMetrics = new HashMap<>();
+    @NonNull
+    private final Map<String, RouteMetrics> intervalMetrics = new HashMap<>();
+    private long intervalStartMillis = SystemClock.elapsedRealtime();
+
+    @Inject
+    public NetworkMetrics(@NonNull AnalyticsRegistry analyticsRegistry,
+                          @NonNull BandwidthEstimator bandwidthEstimator) {
+        this.analyticsRegistry = analyticsRegistry;
+        this.bandwidthEstimator = bandwidthEstimator;
+    }
+
+    /**
+     * @return The route template of the given URL, which is its path with the IDs replaced by
+     * placeholders.
+     */
+    @NonNull
+    public static String getRouteTemplate(@NonNull HttpUrl url) {
+        final StringBuilder route = new StringBuilder();
+        String previousSegment = null;
+        for (String segment : url.encodedPathSegments()) {
+            route.append('/');
+            if (VERSION_SEGMENT_PATTERN.matcher(segment).matches()) {
+                route.append(segment);
+            } else if (USERNAME_PARENT_SEGMENTS.contains(previousSegment)) {
+                route.append("{username}");
+            } else if (CONSTANT_SEGMENT_PATTERN.matcher(segment).matches()) {
+                route.append(segment);
+            } else {
+                route.append("{id}");
+            }
+            previousSegment = segment;
+        }
+        return route.toString();
+    }
+
+    void record(@NonNull RequestMetrics metrics) {
+        if (metrics.source == RequestMetrics.Source.NETWORK && !metrics.failed &&
+                metrics.networkStartMillis != 0 &&
+                metrics.bytesIn >= MIN_BANDWIDTH_SAMPLE_BYTES) {
+            bandwidthEstimator.addSample(metrics.bytesIn,
+                    metrics.startMillis + metrics.totalMillis - metrics.networkStartMillis);
+        }
+        final List<RouteStats> intervalStats;
+        synchronized (lock) {
+            getRouteMetrics(totalMetrics, metrics.route).record(metrics);
+            getRouteMetrics(intervalMetrics, metrics.route).record(metrics);
+            final long now = SystemClock.elapsedRealtime();
+            if (now - intervalStartMillis < REPORT_INTERVAL_MS) {
+                return;
+            }
+            intervalStats = getStats(intervalMetrics);
+            intervalMetrics.clear();
+            intervalStartMillis = now;
+        }
+        for (RouteStats stats : intervalStats) {
+            analyticsRegistry.trackNetworkRouteMetrics(stats.route, stats.requestCount,
+                    stats.failureCount, stats.cacheHitCount, stats.medianMillis, stats.p90Millis,
+                    stats.medianTimeToFirstByteMillis, stats.bytesIn);
+        }
+    }
+
+    /**
+     * @return The metrics of each route called since the app was started.
+     */
+    @NonNull
+    public List<RouteStats> getSnapshot() {
+        synchronized (lock) {
+            return getStats(totalMetrics);
+        }
+    }
+
+    @NonNull
+    private static RouteMetrics getRouteMetrics(@NonNull Map<String, RouteMetrics> metricsMap,
+                                                @NonNull String route) {
+        RouteMetrics routeMetrics = metricsMap.get(route);
+        if (routeMetrics == null) {
+            if (metricsMap.size() >= MAX_ROUTES) {
+                return getRouteMetrics(metricsMap, OTHER_ROUTE);
+            }
+            routeMetrics = new RouteMetrics();
+            metricsMap.put(route, routeMetrics);
+        }
+        return routeMetrics;
+    }
+
+    @NonNull
+    private static List<RouteStats> getStats(@NonNull Map<String, RouteMetrics> metricsMap) {
+        final List<RouteStats> stats = new ArrayList<>(metricsMap.size());
+        for (Map.Entry<String, RouteMetrics> entry : metricsMap.entrySet()) {
+            stats.add(entry.getValue().getStats(entry.getKey()));
+        }
+        return stats;
+    }
+
+    private static class RouteMetrics {
+        private final Histogram total = new Histogram();
+        private final Histogram timeToFirstByte = new Histogram();
+        private final Histogram dns = new Histogram();
+        private final Histogram connect = new Histogram();
+        private int failureCount;
+        private int cacheHitCount;
+        private int conditionalCacheHitCount;
+        private long bytesIn;
+        private long bytesOut;
+
+        void record(@NonNull RequestMetrics metrics) {
+            total.record(metrics.totalMillis);
+            if (metrics.networkStartMillis != 0) {
+                timeToFirstByte.record(metrics.timeToFirstByteMillis);
+                dns.record(metrics.dnsMillis);
+                connect.record(metrics.getConnectMillis());
+            }
+            if (metrics.failed) {
+                failureCount++;
+            }
+            if (metrics.source == RequestMetrics.Source.CACHE) {
+                cacheHitCount++;
+            } else if (metrics.source == RequestMetrics.Source.CONDITIONAL_CACHE) {
+                conditionalCacheHitCount++;
+            }
+            bytesIn += metrics.bytesIn;
+            bytesOut += metrics.bytesOut;
+        }
+
+        @NonNull
+        RouteStats getStats(@NonNull String route) {
+            return new RouteStats(route, total.getCount(), failureCount, cacheHitCount,
+                    conditionalCacheHitCount, total.getPercentile(50), total.getPercentile(90),
+                    total.getMax(), timeToFirstByte.getPercentile(50),
+                    timeToFirstByte.getPercentile(90), dns.getMean(), connect.getMean(),
+                    bytesIn, bytesOut);
+        }
+    }
+
+    /**
+     * The metrics of a route at some point in time. The durations are in milliseconds, and the
+     * percentiles are estimates.
+     */
+    public static final class RouteStats {
+        @NonNull
+        public final String route;
+        public final int requestCount;
+        /**
+         * The number of calls that failed with an I/O error or a server error.
+         */
+        public final int failureCount;
+        /**
+         * The number of calls that were answered from the cache without a network request.
+         */
+        public final int cacheHitCount;
+        /**
+         * The number of calls that were answered from the cache after validating it with the
+         * server.
+         */
+        public final int conditionalCacheHitCount;
+        public final long medianMillis;
+        public final long p90Millis;
+        public final long maxMillis;
+        /**
+         * The median time from making the network request until the response headers arrived,
+         * for the calls that made one.
+         */
+        public final long medianTimeToFirstByteMillis;
+        public final long p90TimeToFirstByteMillis;
+        public final long meanDnsMillis;
+        public final long meanConnectMillis;
+        /**
+         * The total size of the response bodies read, in bytes.
+         */
+        public final long bytesIn;
+        /**
+         * The total size of the request bodies sent, in bytes.
+         */
+        public final long bytesOut;
+
+        RouteStats(@NonNull String route, int requestCount, int failureCount, int cacheHitCount,
+                   int conditionalCacheHitCount, long medianMillis, long p90Millis,
+                   long maxMillis, long medianTimeToFirstByteMillis,
+                   long p90TimeToFirstByteMillis, long meanDnsMillis, long meanConnectMillis,
+                   long bytesIn, long bytesOut) {
+            this.route = route;
+            this.requestCount = requestCount;
+            this.failureCount = failureCount;
+            this.cacheHitCount = cacheHitCount;
+            this.conditionalCacheHitCount = conditionalCacheHitCount;
+            this.medianMillis = medianMillis;
+            this.p90Millis = p90Millis;
+            this.maxMillis = maxMillis;
+            this.medianTimeToFirstByteMillis = medianTimeToFirstByteMillis;
+            this.p90TimeToFirstByteMillis = p90TimeToFirstByteMillis;
+            this.meanDnsMillis = meanDnsMillis;
+            this.meanConnectMillis = meanConnectMillis;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+        }
+
+        @Override
+        public String toString() {
+            return route + "\n  calls=" + requestCount + " failures=" + failureCount
+                    + " cache=" + cacheHitCount + " conditional=" + conditionalCacheHitCount
+                    + "\n  total p50=" + medianMillis + " p90=" + p90Millis + " max=" + maxMillis
+                    + "\n  ttfb p50=" + medianTimeToFirstByteMillis
+                    + " p90=" + p90TimeToFirstByteMillis
+                    + " dns=" + meanDnsMillis + " connect=" + meanConnectMillis
+                    + "\n  in=" + bytesIn + " out=" + bytesOut;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.edx.mobile.http.metrics;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import okhttp3.Response;
+
+/**
+ * The timings and sizes of a single call, collected by the {@link MetricsInterceptor}, the
+ * {@link MetricsNetworkInterceptor} and the {@link MetricsDns} as it goes through the client.
+ * Since a call goes through all of them on the same thread, the metrics of the call being made
+ * on the current thread are available from {@link #current()}.
+ */
+public class RequestMetrics {
+    /**
+     * Where the response of a call came from.
+     */
+    public enum Source {
+        NETWORK,
+        CACHE,
+        CONDITIONAL_CACHE,
+        NONE;
+
+        @NonNull
+        static Source of(@Nullable Response response) {
+            if (response == null) {
+                return NONE;
+            }
+            if (response.cacheResponse() == null) {
+                return NETWORK;
+            }
+            return response.networkResponse() == null ? CACHE : CONDITIONAL_CACHE;
+        }
+    }
+
+    private static final ThreadLocal<RequestMetrics> current = new ThreadLocal<>();
+
+    @NonNull
+    final String route;
+    final long startMillis = SystemClock.elapsedRealtime();
+    long dnsMillis;
+    /**
+     * When the first network request of the call was made, or 0 if none has been made.
+     */
+    long networkStartMillis;
+    /**
+     * The total time from making the network requests until their response headers arrived.
+     */
+    long timeToFirstByteMillis;
+    long totalMillis;
+    long bytesOut;
+    long bytesIn;
+    @NonNull
+    Source source = Source.NONE;
+    boolean failed;
+
+    RequestMetrics(@NonNull String route) {
+        this.route = route;
+    }
+
+    /**
+     * @return The metrics of the call being made on the current thread, or null if there isn't
+     * one.
+     */
+    @Nullable
+    static RequestMetrics current() {
+        return current.get();
+    }
+
+    /**
+     * Sets the call being made on the current thread.
+     *
+     * @return The metrics of the call that was being made on the thread before, to restore when
+     * this one is done.
+     */
+    @Nullable
+    static RequestMetrics setCurrent(@Nullable RequestMetrics metrics) {
+        final RequestMetrics previous = current.get();
+        current.set(metrics);
+        return previous;
+    }
+
+    /**
+     * @return The time from the start of the call until its first network request was made,
+     * excluding the DNS lookup. This is mostly spent establishing the connection, so it's close
+     * to 0 if a pooled connection was reused.
+     */
+    long getConnectMillis() {
+        if (networkStartMillis == 0) {
+            return 0;
+        }
+        return Math.max(0, networkStartMillis - startMillis - dnsMillis);
+    }
+}
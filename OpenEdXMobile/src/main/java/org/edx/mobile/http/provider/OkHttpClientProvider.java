@@ -2,6 +2,7 @@ package org.edx.mobile.http.provider;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.google.inject.Inject;
 import com.google.inject.Provider;
@@ -9,20 +10,28 @@ import com.google.inject.Singleton;
 
 import org.edx.mobile.BuildConfig;
 import org.edx.mobile.R;
+import org.edx.mobile.http.cache.LegacyCacheMigrator;
+import org.edx.mobile.http.cache.PartitionedHttpCache;
 import org.edx.mobile.http.interceptor.CustomCacheQueryInterceptor;
 import org.edx.mobile.http.interceptor.JsonMergePatchInterceptor;
 import org.edx.mobile.http.interceptor.NewVersionBroadcastInterceptor;
 import org.edx.mobile.http.interceptor.NoCacheHeaderStrippingInterceptor;
 import org.edx.mobile.http.interceptor.OauthHeaderRequestInterceptor;
 import org.edx.mobile.http.authenticator.OauthRefreshTokenAuthenticator;
+import org.edx.mobile.http.interceptor.RequestCoalescingInterceptor;
 import org.edx.mobile.http.interceptor.StaleIfErrorHandlingInterceptor;
 import org.edx.mobile.http.interceptor.StaleIfErrorInterceptor;
 import org.edx.mobile.http.interceptor.UserAgentInterceptor;
+import org.edx.mobile.http.metrics.MetricsDns;
+import org.edx.mobile.http.metrics.MetricsInterceptor;
+import org.edx.mobile.http.metrics.MetricsNetworkInterceptor;
+import org.edx.mobile.http.metrics.NetworkMetrics;
+import org.edx.mobile.util.Config;
 
-import java.io.File;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import okhttp3.Cache;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -34,16 +43,33 @@ public interface OkHttpClientProvider extends Provider<OkHttpClient> {
 
     @Singleton
     class Impl implements OkHttpClientProvider {
-        private static final int cacheSize = 10 * 1024 * 1024; // 10 MiB
-
         private static final int FLAG_IS_OAUTH_BASED = 1;
         private static final int USES_OFFLINE_CACHE = 1 << 1;
 
         @Inject
         private Context context;
 
+        @Inject
+        private Config config;
+
+        @Inject
+        private LegacyCacheMigrator legacyCacheMigrator;
+
+        @Inject
+        private NetworkMetrics networkMetrics;
+
         private final OkHttpClient[] clients = new OkHttpClient[1 << 2];
 
+        /**
+         * The response cache shared by the clients with the offline cache, created along with
+         * the first of them.
+         */
+        @Nullable
+        private PartitionedHttpCache cache;
+
+        @NonNull
+        private final AtomicInteger mergedCallCount = new AtomicInteger();
+
         @NonNull
         @Override
         public OkHttpClient get() {
@@ -62,6 +88,26 @@ public interface OkHttpClientProvider extends Provider<OkHttpClient> {
             return get(false, false);
         }
 
+        /**
+         * @return The number of requests made through these clients that were merged into an
+         * identical request in flight, instead of making their own exchange.
+         */
+        public int getMergedCallCount() {
+            return mergedCallCount.get();
+        }
+
+        /**
+         * @return The current statistics of each partition of the response cache, or an empty
+         * list if no client with the offline cache has been created yet.
+         */
+        @NonNull
+        public synchronized List<PartitionedHttpCache.Stats> getCacheStats() {
+            if (cache == null) {
+                return Collections.emptyList();
+            }
+            return cache.getStats();
+        }
+
         @NonNull
         private synchronized OkHttpClient get(boolean isOAuthBased, boolean usesOfflineCache) {
             final int index = (isOAuthBased ? FLAG_IS_OAUTH_BASED : 0) |
@@ -70,16 +116,22 @@ public interface OkHttpClientProvider extends Provider<OkHttpClient> {
             if (client == null) {
                 final OkHttpClient.Builder builder = new OkHttpClient.Builder();
                 List<Interceptor> interceptors = builder.interceptors();
+                interceptors.add(new RequestCoalescingInterceptor(mergedCallCount));
+                // Merged requests share the metrics of the request they were merged into
+                interceptors.add(new MetricsInterceptor(networkMetrics));
+                builder.networkInterceptors().add(new MetricsNetworkInterceptor());
+                builder.dns(new MetricsDns());
                 if (usesOfflineCache) {
-                    final File cacheDirectory = new File(context.getFilesDir(), "http-cache");
-                    if (!cacheDirectory.exists()) {
-                        cacheDirectory.mkdirs();
+                    if (cache == null) {
+                        cache = new PartitionedHttpCache(context.getFilesDir(),
+                                config.getHttpCacheConfig());
                     }
-                    final Cache cache = new Cache(cacheDirectory, cacheSize);
-                    builder.cache(cache);
+                    cache.setOn(builder);
                     interceptors.add(new StaleIfErrorInterceptor());
                     interceptors.add(new StaleIfErrorHandlingInterceptor());
-                    interceptors.add(new CustomCacheQueryInterceptor(context));
+                    if (!legacyCacheMigrator.isMigrated()) {
+                        interceptors.add(new CustomCacheQueryInterceptor(context));
+                    }
                     builder.networkInterceptors().add(new NoCacheHeaderStrippingInterceptor());
                 }
                 interceptors.add(new JsonMergePatchInterceptor());
@@ -97,9 +149,14 @@ public interface OkHttpClientProvider extends Provider<OkHttpClient> {
                     loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
                     interceptors.add(loggingInterceptor);
                 }
-                builder.authenticator(new OauthRefreshTokenAuthenticator(context));
+                if (isOAuthBased) {
+                    builder.authenticator(new OauthRefreshTokenAuthenticator(context));
+                }
                 client = builder.build();
                 clients[index] = client;
+                if (usesOfflineCache) {
+                    legacyCacheMigrator.migrateInBackground(client);
+                }
             }
             return client;
         }
@@ -0,0 +1,208 @@
+package org.edx.mobile.model.course;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gson adapter that streams the "blocks" object of the course blocks API straight into a
+ * {@link BlockList}.
+ */
+/* The blocks can number in the thousands for large courses, so instead of first building a
+ * JsonObject tree and then binding it reflectively, the fields of each block are read from the
+ * stream into its BlockModel as they come. Only the block data of a block whose type hasn't been
+ * read yet is buffered as a JsonElement, since its class depends on the type, and so is the
+ * block data of a video, since whether it's read as VideoData depends on which of its keys are
+ * present, even with null values.
+ */
+public final class BlockListTypeAdapter extends TypeAdapter<BlockList> {
+    public static final TypeAdapterFactory FACTORY = new TypeAdapterFactory() {
+        @SuppressWarnings("unchecked") // Type equality is ensured at runtime.
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+            return typeToken.getRawType() != BlockList.class ? null :
+                    (TypeAdapter<T>) new BlockListTypeAdapter(gson).nullSafe();
+        }
+    };
+
+    @NonNull
+    private final TypeAdapter<BlockCount> blockCountAdapter;
+    @NonNull
+    private final TypeAdapter<VideoData> videoDataAdapter;
+    @NonNull
+    private final TypeAdapter<DiscussionData> discussionDataAdapter;
+    @NonNull
+    private final TypeAdapter<JsonElement> jsonElementAdapter;
+    @NonNull
+    private final TypeAdapter<Map<String, BlockModel>> mapAdapter;
+
+    // Only allow the factory to instantiate this, to ensure that it's always wrapped
+    // in a null-safe wrapper, which enables the removal of the boilerplate code.
+    private BlockListTypeAdapter(@NonNull Gson gson) {
+        blockCountAdapter = gson.getAdapter(BlockCount.class);
+        videoDataAdapter = gson.getAdapter(VideoData.class);
+        discussionDataAdapter = gson.getAdapter(DiscussionData.class);
+        jsonElementAdapter = gson.getAdapter(JsonElement.class);
+        mapAdapter = gson.getAdapter(new TypeToken<Map<String, BlockModel>>() {});
+    }
+
+    @Override
+    public void write(@NonNull JsonWriter out, @NonNull BlockList blockList) throws IOException {
+        mapAdapter.write(out, blockList);
+    }
+
+    @Override
+    @NonNull
+    public BlockList read(@NonNull JsonReader in) throws IOException {
+        final BlockList blockList = new BlockList();
+        in.beginObject();
+        while (in.hasNext()) {
+            final String id = in.nextName();
+            blockList.put(id, readBlock(in));
+        }
+        in.endObject();
+        return blockList;
+    }
+
+    @NonNull
+    private BlockModel readBlock(@NonNull JsonReader in) throws IOException {
+        final BlockModel block = new BlockModel();
+        JsonElement bufferedData = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            final String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    block.id = in.nextString();
+                    break;
+                case "block_id":
+                    block.blockId = in.nextString();
+                    break;
+                case "type":
+                    block.type = BlockType.fromString(in.nextString());
+                    break;
+                case "display_name":
+                    block.displayName = in.nextString();
+                    break;
+                case "graded":
+                    block.graded = in.nextBoolean();
+                    break;
+                case "student_view_multi_device":
+                    block.studentViewMultiDevice = in.nextBoolean();
+                    break;
+                case "student_view_url":
+                    block.studentViewUrl = in.nextString();
+                    break;
+                case "block_counts":
+                    block.blockCounts = blockCountAdapter.read(in);
+                    break;
+                case "lms_web_url":
+                    block.lmsWebUrl = in.nextString();
+                    break;
+                case "format":
+                    block.format = in.nextString();
+                    break;
+                case "descendants":
+                    block.descendants = readStrings(in);
+                    break;
+                case "student_view_data":
+                    if (block.type == null) {
+                        bufferedData = jsonElementAdapter.read(in);
+                    } else {
+                        block.data = readData(in, block.type);
+                    }
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        if (bufferedData != null) {
+            block.data = toData(bufferedData);
+            if (block.data != null && block.type == BlockType.VIDEO) {
+                block.data = withEncodedVideos(block.data);
+            }
+        }
+        return block;
+    }
+
+    @NonNull
+    private static List<String> readStrings(@NonNull JsonReader in) throws IOException {
+        final List<String> strings = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            strings.add(in.nextString());
+        }
+        in.endArray();
+        return strings;
+    }
+
+    /**
+     * Reads the block data of a block with the given type, matching the rules of
+     * {@link BlockData.Deserializer}.
+     */
+    @NonNull
+    private BlockData readData(@NonNull JsonReader in, @NonNull BlockType type)
+            throws IOException {
+        switch (type) {
+            case VIDEO: {
+                final BlockData data = toData(jsonElementAdapter.read(in));
+                return data != null ? withEncodedVideos(data) : new BlockData();
+            }
+            case DISCUSSION: {
+                final DiscussionData data = discussionDataAdapter.read(in);
+                if (data != null && data.topicId != null) {
+                    return data;
+                }
+                return new BlockData();
+            }
+            default:
+                in.skipValue();
+                return new BlockData();
+        }
+    }
+
+    /**
+     * Replaces null encoded videos of video data with empty ones, since the video blocks expect
+     * them to be there.
+     */
+    @NonNull
+    private static BlockData withEncodedVideos(@NonNull BlockData data) {
+        if (data instanceof VideoData && ((VideoData) data).encodedVideos == null) {
+            ((VideoData) data).encodedVideos = new EncodedVideos();
+        }
+        return data;
+    }
+
+    @Nullable
+    private BlockData toData(@NonNull JsonElement json) {
+        if (!json.isJsonObject()) {
+            return null;
+        }
+        final JsonObject jsonObject = json.getAsJsonObject();
+        if (jsonObject.has("encoded_videos") || jsonObject.has("transcripts")) {
+            return videoDataAdapter.fromJsonTree(jsonObject);
+        } else if (jsonObject.has("topic_id")) {
+            return discussionDataAdapter.fromJsonTree(jsonObject);
+        }
+        return new BlockData();
+    }
+}
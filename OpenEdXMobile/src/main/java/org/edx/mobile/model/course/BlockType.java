@@ -28,21 +28,28 @@ public enum  BlockType {
 
     abstract boolean isContainer();
 
-    public static class Deserializer implements JsonDeserializer<BlockType> {
-        private final Logger logger = new Logger(Deserializer.class.getName());
+    private static final Logger logger = new Logger(BlockType.class.getName());
+
+    /**
+     * @return The block type with the given name as returned by the server, or {@link #OTHERS}
+     * if it isn't known.
+     */
+    public static BlockType fromString(String value) {
+        try {
+            //we force the String.toUpperCase to use English local.
+            //as it is just a mapping from english string to constants.
+            return BlockType.valueOf(value.toUpperCase(Locale.US));
+        } catch (Exception ex) {
+            logger.debug(ex.getMessage());
+            return BlockType.OTHERS;
+        }
+    }
 
+    public static class Deserializer implements JsonDeserializer<BlockType> {
         @Override
         public BlockType deserialize(JsonElement json, Type typeOfT,
                                      JsonDeserializationContext context) throws JsonParseException {
-            String value = json.getAsString();
-            try {
-                //we force the String.toUpperCase to use English local.
-                //as it is just a mapping from english string to constants.
-                return BlockType.valueOf(value.toUpperCase(Locale.US));
-            } catch (Exception ex) {
-                logger.debug(ex.getMessage());
-                return BlockType.OTHERS;
-            }
+            return fromString(json.getAsString());
         }
     }
 }
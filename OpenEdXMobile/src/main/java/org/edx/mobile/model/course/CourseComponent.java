@@ -1,5 +1,7 @@
 package org.edx.mobile.model.course;
 
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
 import org.edx.mobile.R;
@@ -10,9 +12,11 @@ import org.edx.mobile.model.api.IPathNode;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Default implementation of IBlock
@@ -33,6 +37,12 @@ public class CourseComponent implements IBlock, IPathNode {
     protected List<CourseComponent> children = new ArrayList<>();
     private String courseId;
     private String format;
+    /* Index of the whole tree, only set on the root; see {@link #buildIndex()} */
+    private Map<String, CourseComponent> componentsById;
+    private List<CourseComponent> leaves;
+    private List<VideoBlockModel> videos;
+    /* Ranges of the leaves and videos below this node, in the lists of the root's index */
+    private int leavesStart, leavesEnd, videosStart, videosEnd;
 
     public CourseComponent(){}
 
@@ -59,6 +69,8 @@ public class CourseComponent implements IBlock, IPathNode {
             parent.getChildren().add(this);
             //we cache the root to improve the performance
             this.root = (CourseComponent)parent.getRoot();
+            //the tree has changed, so any index built before is stale
+            this.root.componentsById = null;
         }
     }
 
@@ -205,6 +217,51 @@ public class CourseComponent implements IBlock, IPathNode {
         return childLeafs;
     }
 
+    /**
+     * Builds an index of the whole tree this node belongs to, which makes
+     * {@link #findById(String)} an O(1) lookup, and lets {@link #getVideos()} and
+     * {@link #fetchAllLeafComponents(List, EnumSet)} read from precomputed ordered lists instead
+     * of walking the tree. Should be called once the tree is fully built; adding a node to the
+     * tree afterwards discards the index.
+     */
+    public void buildIndex() {
+        if (root != this) {
+            root.buildIndex();
+            return;
+        }
+        final Map<String, CourseComponent> componentsById = new HashMap<>();
+        leaves = new ArrayList<>();
+        videos = new ArrayList<>();
+        addToIndex(componentsById);
+        this.componentsById = componentsById;
+    }
+
+    private void addToIndex(Map<String, CourseComponent> componentsById) {
+        // keep the first node in depth first order for duplicated ids, like find() does
+        if (!componentsById.containsKey(id)) {
+            componentsById.put(id, this);
+        }
+        leavesStart = root.leaves.size();
+        videosStart = root.videos.size();
+        if (isContainer()) {
+            for (CourseComponent c : children) {
+                c.addToIndex(componentsById);
+            }
+        } else {
+            root.leaves.add(this);
+            // Only count the blocks that are actually VideoBlockModel instances, see getVideos()
+            if (type == BlockType.VIDEO && this instanceof VideoBlockModel) {
+                root.videos.add((VideoBlockModel) this);
+            }
+        }
+        leavesEnd = root.leaves.size();
+        videosEnd = root.videos.size();
+    }
+
+    private boolean isIndexed() {
+        return root != null && root.componentsById != null;
+    }
+
     /**
      * recursively find the first node by matcher. return null if get nothing.
      */
@@ -222,10 +279,37 @@ public class CourseComponent implements IBlock, IPathNode {
         return null;
     }
 
+    /**
+     * find the node with the given id in this node's subtree, including itself. uses the index
+     * if it has been built, see {@link #buildIndex()}. return null if get nothing.
+     */
+    @Nullable
+    public CourseComponent findById(@NonNull final String componentId) {
+        if (!isIndexed()) {
+            return find(new Filter<CourseComponent>() {
+                @Override
+                public boolean apply(CourseComponent courseComponent) {
+                    return componentId.equals(courseComponent.getId());
+                }
+            });
+        }
+        final CourseComponent found = root.componentsById.get(componentId);
+        // make sure that it's in this subtree
+        for (CourseComponent node = found; node != null; node = node.parent) {
+            if (node == this) {
+                return found;
+            }
+        }
+        return null;
+    }
+
     /**
      * return all videos blocks under this node
      */
     public List<VideoBlockModel> getVideos(){
+        if (isIndexed()) {
+            return new ArrayList<>(root.videos.subList(videosStart, videosEnd));
+        }
         List<CourseComponent> videos = new ArrayList<>();
         fetchAllLeafComponents(videos, EnumSet.of(BlockType.VIDEO));
         // Confirm that these are actually VideoBlockModel instances.
@@ -279,6 +363,14 @@ public class CourseComponent implements IBlock, IPathNode {
      * @param leaves
      */
     public void fetchAllLeafComponents(List<CourseComponent> leaves, EnumSet<BlockType> types){
+         if (isIndexed()) {
+             for (CourseComponent leaf : root.leaves.subList(leavesStart, leavesEnd)) {
+                 if (types.contains(leaf.type)) {
+                     leaves.add(leaf);
+                 }
+             }
+             return;
+         }
          if ( !isContainer() && types.contains(type)){
              leaves.add(this);
          } else {
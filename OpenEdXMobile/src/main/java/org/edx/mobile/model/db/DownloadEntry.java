@@ -2,22 +2,21 @@ package org.edx.mobile.model.db;
 
 import android.content.Context;
 import android.database.Cursor;
-import android.text.TextUtils;
 
 import com.google.inject.Inject;
 
-import org.edx.mobile.R;
 import org.edx.mobile.core.IEdxEnvironment;
 import org.edx.mobile.interfaces.SectionItemInterface;
 import org.edx.mobile.logger.Logger;
 import org.edx.mobile.model.VideoModel;
-import org.edx.mobile.model.api.EncodingsModel;
 import org.edx.mobile.model.api.TranscriptModel;
 import org.edx.mobile.model.download.NativeDownloadModel;
 import org.edx.mobile.module.db.DbStructure;
-import org.edx.mobile.module.prefs.PrefManager;
+import org.edx.mobile.module.download.VideoEncodingSelector;
 import org.edx.mobile.util.JavaUtil;
 
+import roboguice.RoboGuice;
+
 public class DownloadEntry implements SectionItemInterface, VideoModel {
 
     public static enum WatchedState { UNWATCHED, PARTIALLY_WATCHED, WATCHED}
@@ -237,28 +236,12 @@ public class DownloadEntry implements SectionItemInterface, VideoModel {
         duration = video.getDuration();
     }
     
+    /**
+     * @return The URL of the encoding to stream this video from on the current network, as
+     * chosen by the {@link VideoEncodingSelector}.
+     */
     public String getBestEncodingUrl(Context context){
-
-        PrefManager prefs = new PrefManager(context, PrefManager.Pref.WIFI);
-        float kbs = prefs.getFloat(PrefManager.Key.SPEED_TEST_KBPS, 0.0f);
-        float thresholdKps = (float)context.getResources().getInteger(R.integer.threshold_kbps_for_video);
-
-        EncodingsModel.EncodingLevel level = kbs > thresholdKps ?
-                EncodingsModel.EncodingLevel.HIGH : EncodingsModel.EncodingLevel.LOW;
-
-        switch (level) {
-            case HIGH:
-                if (!TextUtils.isEmpty(url_high_quality)){
-                    return url_high_quality;
-                }
-                break;
-            case LOW:
-                if (!TextUtils.isEmpty(url_low_quality)){
-                    return url_low_quality;
-                }
-                break;
-        }
-
-        return getVideoUrl();
+        return RoboGuice.getInjector(context).getInstance(VideoEncodingSelector.class)
+                .getStreamingUrl(this);
     }
 }
@@ -297,6 +297,23 @@ public interface Analytics {
      */
     void trackWhatsNewSeen(@NonNull String versionName, int totalScreens);
 
+    /**
+     * This function is used to track the aggregated latency and throughput of the calls made to
+     * an API route over a period of time.
+     *
+     * @param route                       The route template, such as /api/courses/v1/blocks/.
+     * @param requestCount                The number of calls made to the route.
+     * @param failureCount                The number of calls that failed.
+     * @param cacheHitCount               The number of calls answered from the cache.
+     * @param medianMillis                The median duration of the calls.
+     * @param p90Millis                   The 90th percentile duration of the calls.
+     * @param medianTimeToFirstByteMillis The median time until the response headers arrived.
+     * @param bytesIn                     The total size of the response bodies read.
+     */
+    void trackNetworkRouteMetrics(@NonNull String route, int requestCount, int failureCount,
+                                  int cacheHitCount, long medianMillis, long p90Millis,
+                                  long medianTimeToFirstByteMillis, long bytesIn);
+
     interface Keys {
         String NAME = "name";
         String OLD_TIME = "old_time";
@@ -349,6 +366,15 @@ public interface Analytics {
         String TOTAL_VIEWED = "total_viewed";
         String CURRENTLY_VIEWED = "currently_viewed";
         String TOTAL_SCREENS = "total_screens";
+        // Network route metrics keys
+        String ROUTE = "route";
+        String REQUEST_COUNT = "request_count";
+        String FAILURE_COUNT = "failure_count";
+        String CACHE_HIT_COUNT = "cache_hit_count";
+        String MEDIAN_DURATION = "median_duration_ms";
+        String P90_DURATION = "p90_duration_ms";
+        String MEDIAN_TIME_TO_FIRST_BYTE = "median_ttfb_ms";
+        String BYTES_IN = "bytes_in";
     }
 
     interface Values {
@@ -430,6 +456,9 @@ public interface Analytics {
         String WHATS_NEW_CATEGORY = "whats-new";
         String WHATS_NEW_CLOSE = "edx.bi.app.whats_new.close";
         String WHATS_NEW_DONE = "edx.bi.app.whats_new.done";
+        // Network event values
+        String NETWORK_CATEGORY = "network";
+        String NETWORK_ROUTE_METRICS = "edx.bi.app.network.route_metrics";
     }
 
     interface Screens {
@@ -511,6 +540,8 @@ public interface Analytics {
         // WhatsNew events
         String WHATS_NEW_CLOSE = "WhatsNew: Close";
         String WHATS_NEW_DONE = "WhatsNew: Done";
+        // Network events
+        String NETWORK_ROUTE_METRICS = "Network Route Metrics";
     }
 
     /**
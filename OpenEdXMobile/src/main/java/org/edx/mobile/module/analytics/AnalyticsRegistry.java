@@ -1,28 +1,87 @@
 package org.edx.mobile.module.analytics;
 
+import android.os.Process;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.google.inject.Singleton;
 
+import org.edx.mobile.logger.Logger;
 import org.edx.mobile.util.images.ShareUtils;
 
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A registry for enabled Analytics implementations, that delegates all methods to them.
+ * <p>
+ * The methods are delegated on a background thread, in the order in which they were called, so
+ * that building and sending the events doesn't block the caller, which is usually the UI thread.
+ * At most {@link #MAX_QUEUED_EVENTS} events may wait to be sent, after which any further events
+ * are dropped and counted in {@link #getDroppedEventCount()}.
+ * <p>
+ * High frequency events are coalesced within {@link #COALESCE_WINDOW_MS}: consecutive seeks in
+ * a video are sent as a single seek from the first position to the last one, and only the last
+ * of a series of play and pause toggles in a video is sent.
  */
 @Singleton
 public class AnalyticsRegistry implements Analytics {
+    private static final int MAX_QUEUED_EVENTS = 256;
+    private static final long COALESCE_WINDOW_MS = 500;
+
+    private static final String SEEK_KEY_PREFIX = "seek:";
+    private static final String PLAYBACK_KEY_PREFIX = "playback:";
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @NonNull
+    private final List<Analytics> services = new CopyOnWriteArrayList<>();
+
     @NonNull
-    private List<Analytics> services = new ArrayList<>();
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull final Runnable runnable) {
+                    return new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "edx-analytics");
+                }
+            });
+
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    @NonNull
+    private final Map<String, PendingEvent> pendingEvents = new LinkedHashMap<>();
+    private int queuedEventCount;
+    private int droppedEventCount;
 
     public void addAnalyticsProvider(@NonNull Analytics provider) {
         services.add(provider);
     }
 
+    /**
+     * @return The number of events that were dropped because too many events were waiting to be
+     * sent.
+     */
+    public int getDroppedEventCount() {
+        synchronized (lock) {
+            return droppedEventCount;
+        }
+    }
+
     public void trackScreenView(String screenName) {
         trackScreenView(screenName, null, null);
     }
@@ -33,247 +92,355 @@ public class AnalyticsRegistry implements Analytics {
     }
 
     @Override
-    public void trackScreenView(@NonNull String screenName, @Nullable String courseId,
-                                @Nullable String action, @Nullable Map<String, String> values) {
-        // Remove a key-value pair, if the value for a key is null
+    public void trackScreenView(@NonNull final String screenName, @Nullable final String courseId,
+                                @Nullable final String action,
+                                @Nullable Map<String, String> values) {
+        // Copy the key-value pairs whose values aren't null, since the map may be modified by
+        // the caller before the event is sent
+        final Map<String, String> nonNullValues;
         if (values != null) {
+            nonNullValues = new HashMap<>(values.size());
             for (Map.Entry<String, String> entry : values.entrySet()) {
-                if (entry.getValue() == null) {
-                    values.remove(entry.getKey());
+                if (entry.getValue() != null) {
+                    nonNullValues.put(entry.getKey(), entry.getValue());
                 }
             }
+        } else {
+            nonNullValues = null;
         }
 
-        for (Analytics service : services) {
-            service.trackScreenView(screenName, courseId, action, values);
-        }
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackScreenView(screenName, courseId, action, nonNullValues);
+            }
+        });
     }
 
     @Override
-    public void trackBrowserLaunched(String url) {
-        for (Analytics service : services) {
-            service.trackBrowserLaunched(url);
-        }
+    public void trackBrowserLaunched(final String url) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackBrowserLaunched(url);
+            }
+        });
     }
 
     @Override
-    public void trackOpenInBrowser(String blockId, String courseId, boolean isSupported,
-                                   String minifiedBlockId) {
-        for (Analytics service : services) {
-            service.trackOpenInBrowser(blockId, courseId, isSupported, minifiedBlockId);
-        }
+    public void trackOpenInBrowser(final String blockId, final String courseId,
+                                   final boolean isSupported, final String minifiedBlockId) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackOpenInBrowser(blockId, courseId, isSupported, minifiedBlockId);
+            }
+        });
     }
 
     @Override
-    public void trackDownloadComplete(String videoId, String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackDownloadComplete(videoId, courseId, unitUrl);
-        }
+    public void trackDownloadComplete(final String videoId, final String courseId,
+                                      final String unitUrl) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackDownloadComplete(videoId, courseId, unitUrl);
+            }
+        });
     }
 
     @Override
     public void trackUserFindsCourses() {
-        for (Analytics service : services) {
-            service.trackUserFindsCourses();
-        }
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackUserFindsCourses();
+            }
+        });
     }
 
     @Override
-    public void trackUserConnectionSpeed(String connectionType, float connectionSpeed) {
-        for (Analytics service : services) {
-            service.trackUserConnectionSpeed(connectionType, connectionSpeed);
-        }
+    public void trackUserConnectionSpeed(final String connectionType, final float connectionSpeed) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackUserConnectionSpeed(connectionType, connectionSpeed);
+            }
+        });
     }
 
     @Override
-    public void certificateShared(String courseId, String certificateURL,
-                                  ShareUtils.ShareType method) {
-        for (Analytics service : services) {
-            service.certificateShared(courseId, certificateURL, method);
-        }
+    public void certificateShared(final String courseId, final String certificateURL,
+                                  final ShareUtils.ShareType method) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.certificateShared(courseId, certificateURL, method);
+            }
+        });
     }
 
     @Override
-    public void courseDetailShared(String courseId, String aboutUrl, ShareUtils.ShareType method) {
-        for (Analytics service : services) {
-            service.courseDetailShared(courseId, aboutUrl, method);
-        }
+    public void courseDetailShared(final String courseId, final String aboutUrl,
+                                   final ShareUtils.ShareType method) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.courseDetailShared(courseId, aboutUrl, method);
+            }
+        });
     }
 
     @Override
-    public void trackUserLogin(String method) {
-        for (Analytics service : services) {
-            service.trackUserLogin(method);
-        }
+    public void trackUserLogin(final String method) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackUserLogin(method);
+            }
+        });
     }
 
     @Override
     public void trackUserLogout() {
-        for (Analytics service : services) {
-            service.trackUserLogout();
-        }
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackUserLogout();
+            }
+        });
     }
 
     @Override
-    public void trackEnrollClicked(String courseId, boolean email_opt_in) {
-        for (Analytics service : services) {
-            service.trackEnrollClicked(courseId, email_opt_in);
-        }
+    public void trackEnrollClicked(final String courseId, final boolean email_opt_in) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackEnrollClicked(courseId, email_opt_in);
+            }
+        });
     }
 
     @Override
-    public void trackNotificationReceived(@Nullable String courseId) {
-        for (Analytics service : services) {
-            service.trackNotificationReceived(courseId);
-        }
+    public void trackNotificationReceived(@Nullable final String courseId) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackNotificationReceived(courseId);
+            }
+        });
     }
 
     @Override
-    public void trackVideoPause(String videoId, Double currentTime,
-                                String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackVideoPause(videoId, currentTime, courseId, unitUrl);
-        }
+    public void trackVideoPause(final String videoId, final Double currentTime,
+                                final String courseId, final String unitUrl) {
+        dispatchCoalesced(PLAYBACK_KEY_PREFIX + videoId, new CoalescibleEvent() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackVideoPause(videoId, currentTime, courseId, unitUrl);
+            }
+        });
     }
 
     @Override
-    public void trackVideoLoading(String videoId, String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackVideoLoading(videoId, courseId, unitUrl);
-        }
+    public void trackVideoLoading(final String videoId, final String courseId,
+                                  final String unitUrl) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackVideoLoading(videoId, courseId, unitUrl);
+            }
+        });
     }
 
     @Override
-    public void trackVideoPlaying(String videoId, Double currentTime,
-                                  String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackVideoPlaying(videoId, currentTime, courseId, unitUrl);
-        }
+    public void trackVideoPlaying(final String videoId, final Double currentTime,
+                                  final String courseId, final String unitUrl) {
+        dispatchCoalesced(PLAYBACK_KEY_PREFIX + videoId, new CoalescibleEvent() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackVideoPlaying(videoId, currentTime, courseId, unitUrl);
+            }
+        });
     }
 
     @Override
-    public void trackVideoStop(String videoId, Double currentTime, String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackVideoStop(videoId, currentTime, courseId, unitUrl);
-        }
+    public void trackVideoStop(final String videoId, final Double currentTime,
+                               final String courseId, final String unitUrl) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackVideoStop(videoId, currentTime, courseId, unitUrl);
+            }
+        });
     }
 
     @Override
-    public void trackVideoOrientation(String videoId, Double currentTime, boolean isLandscape,
-                                      String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackVideoOrientation(videoId, currentTime, isLandscape, courseId, unitUrl);
-        }
+    public void trackVideoOrientation(final String videoId, final Double currentTime,
+                                      final boolean isLandscape, final String courseId,
+                                      final String unitUrl) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackVideoOrientation(videoId, currentTime, isLandscape, courseId,
+                        unitUrl);
+            }
+        });
     }
 
     @Override
-    public void trackTranscriptLanguage(String videoId, Double currentTime,
-                                        String lang, String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackTranscriptLanguage(videoId, currentTime, lang, courseId, unitUrl);
-        }
+    public void trackTranscriptLanguage(final String videoId, final Double currentTime,
+                                        final String lang, final String courseId,
+                                        final String unitUrl) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackTranscriptLanguage(videoId, currentTime, lang, courseId, unitUrl);
+            }
+        });
     }
 
     @Override
-    public void trackHideTranscript(String videoId, Double currentTime,
-                                    String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackHideTranscript(videoId, currentTime, courseId, unitUrl);
-        }
+    public void trackHideTranscript(final String videoId, final Double currentTime,
+                                    final String courseId, final String unitUrl) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackHideTranscript(videoId, currentTime, courseId, unitUrl);
+            }
+        });
     }
 
     @Override
-    public void trackShowTranscript(String videoId, Double currentTime,
-                                    String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackShowTranscript(videoId, currentTime, courseId, unitUrl);
-        }
+    public void trackShowTranscript(final String videoId, final Double currentTime,
+                                    final String courseId, final String unitUrl) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackShowTranscript(videoId, currentTime, courseId, unitUrl);
+            }
+        });
     }
 
     @Override
     public void trackVideoSeek(String videoId, Double oldTime, Double newTime,
                                String courseId, String unitUrl, Boolean skipSeek) {
-        for (Analytics service : services) {
-            service.trackVideoSeek(videoId, oldTime, newTime, courseId, unitUrl, skipSeek);
-        }
+        dispatchCoalesced(SEEK_KEY_PREFIX + videoId,
+                new SeekEvent(videoId, oldTime, newTime, courseId, unitUrl, skipSeek));
     }
 
     @Override
-    public void trackSingleVideoDownload(String videoId, String courseId, String unitUrl) {
-        for (Analytics service : services) {
-            service.trackSingleVideoDownload(videoId, courseId, unitUrl);
-        }
+    public void trackSingleVideoDownload(final String videoId, final String courseId,
+                                         final String unitUrl) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackSingleVideoDownload(videoId, courseId, unitUrl);
+            }
+        });
     }
 
     @Override
     public void trackUserSignUpForAccount() {
-        for (Analytics service : services) {
-            service.trackUserSignUpForAccount();
-        }
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackUserSignUpForAccount();
+            }
+        });
     }
 
     @Override
-    public void trackCourseComponentViewed(String blockId, String courseId, String minifiedBlockId) {
-        for (Analytics service : services) {
-            service.trackCourseComponentViewed(blockId, courseId, minifiedBlockId);
-        }
+    public void trackCourseComponentViewed(final String blockId, final String courseId,
+                                           final String minifiedBlockId) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackCourseComponentViewed(blockId, courseId, minifiedBlockId);
+            }
+        });
     }
 
     @Override
     public void trackDiscoverCoursesClicked() {
-        for (Analytics service : services) {
-            service.trackDiscoverCoursesClicked();
-        }
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackDiscoverCoursesClicked();
+            }
+        });
     }
 
     @Override
     public void trackExploreSubjectsClicked() {
-        for (Analytics service : services) {
-            service.trackExploreSubjectsClicked();
-        }
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackExploreSubjectsClicked();
+            }
+        });
     }
 
     @Override
-    public void trackCreateAccountClicked(String appVersion, String source) {
-        for (Analytics service : services) {
-            service.trackCreateAccountClicked(appVersion, source);
-        }
+    public void trackCreateAccountClicked(final String appVersion, final String source) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackCreateAccountClicked(appVersion, source);
+            }
+        });
     }
 
     @Override
-    public void trackNotificationTapped(@Nullable String courseId) {
-        for (Analytics service : services) {
-            service.trackNotificationTapped(courseId);
-        }
+    public void trackNotificationTapped(@Nullable final String courseId) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackNotificationTapped(courseId);
+            }
+        });
     }
 
     @Override
-    public void trackProfileViewed(@NonNull String username) {
-        for (Analytics service : services) {
-            service.trackProfileViewed(username);
-        }
+    public void trackProfileViewed(@NonNull final String username) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackProfileViewed(username);
+            }
+        });
     }
 
     @Override
-    public void trackSubSectionBulkVideoDownload(String section, String subSection,
-                                                 String enrollmentId, long videoCount) {
-        for (Analytics service : services) {
-            service.trackSubSectionBulkVideoDownload(section, subSection, enrollmentId, videoCount);
-        }
+    public void trackSubSectionBulkVideoDownload(final String section, final String subSection,
+                                                 final String enrollmentId, final long videoCount) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackSubSectionBulkVideoDownload(section, subSection, enrollmentId,
+                        videoCount);
+            }
+        });
     }
 
     @Override
-    public void trackProfilePhotoSet(boolean fromCamera) {
-        for (Analytics service : services) {
-            service.trackProfilePhotoSet(fromCamera);
-        }
+    public void trackProfilePhotoSet(final boolean fromCamera) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackProfilePhotoSet(fromCamera);
+            }
+        });
     }
 
     @Override
-    public void identifyUser(String userID, String email, String username) {
-        for (Analytics service : services) {
-            service.identifyUser(userID, email, username);
-        }
+    public void identifyUser(final String userID, final String email, final String username) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.identifyUser(userID, email, username);
+            }
+        });
     }
 
     /**
@@ -281,64 +448,260 @@ public class AnalyticsRegistry implements Analytics {
      */
     @Override
     public void resetIdentifyUser() {
-        for (Analytics service : services) {
-            service.resetIdentifyUser();
-        }
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.resetIdentifyUser();
+            }
+        });
     }
 
     @Override
-    public void trackAppRatingDialogViewed(String versionName) {
-        for (Analytics service : services) {
-            service.trackAppRatingDialogViewed(versionName);
-        }
+    public void trackAppRatingDialogViewed(final String versionName) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackAppRatingDialogViewed(versionName);
+            }
+        });
     }
 
     @Override
-    public void trackAppRatingDialogCancelled(String versionName) {
-        for (Analytics service : services) {
-            service.trackAppRatingDialogCancelled(versionName);
-        }
+    public void trackAppRatingDialogCancelled(final String versionName) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackAppRatingDialogCancelled(versionName);
+            }
+        });
     }
 
     @Override
-    public void trackUserSubmitRating(String versionName, int rating) {
-        for (Analytics service : services) {
-            service.trackUserSubmitRating(versionName, rating);
-        }
+    public void trackUserSubmitRating(final String versionName, final int rating) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackUserSubmitRating(versionName, rating);
+            }
+        });
     }
 
     @Override
-    public void trackUserSendFeedback(String versionName, int rating) {
-        for (Analytics service : services) {
-            service.trackUserSendFeedback(versionName, rating);
-        }
+    public void trackUserSendFeedback(final String versionName, final int rating) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackUserSendFeedback(versionName, rating);
+            }
+        });
     }
 
     @Override
-    public void trackUserMayReviewLater(String versionName, int rating) {
-        for (Analytics service : services) {
-            service.trackUserMayReviewLater(versionName, rating);
-        }
+    public void trackUserMayReviewLater(final String versionName, final int rating) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackUserMayReviewLater(versionName, rating);
+            }
+        });
     }
 
     @Override
-    public void trackRateTheAppClicked(String versionName, int rating) {
-        for (Analytics service : services) {
-            service.trackRateTheAppClicked(versionName, rating);
-        }
+    public void trackRateTheAppClicked(final String versionName, final int rating) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackRateTheAppClicked(versionName, rating);
+            }
+        });
     }
 
     @Override
-    public void trackWhatsNewClosed(@NonNull String versionName, int totalViewed, int currentlyViewed, int totalScreens) {
-        for (Analytics service : services) {
-            service.trackWhatsNewClosed(versionName, totalViewed, currentlyViewed, totalScreens);
-        }
+    public void trackWhatsNewClosed(@NonNull final String versionName, final int totalViewed,
+                                    final int currentlyViewed, final int totalScreens) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackWhatsNewClosed(versionName, totalViewed, currentlyViewed,
+                        totalScreens);
+            }
+        });
+    }
+
+    @Override
+    public void trackWhatsNewSeen(@NonNull final String versionName, final int totalScreens) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackWhatsNewSeen(versionName, totalScreens);
+            }
+        });
     }
 
     @Override
-    public void trackWhatsNewSeen(@NonNull String versionName, int totalScreens) {
-        for (Analytics service : services) {
-            service.trackWhatsNewSeen(versionName, totalScreens);
+    public void trackNetworkRouteMetrics(@NonNull final String route, final int requestCount,
+                                         final int failureCount, final int cacheHitCount,
+                                         final long medianMillis, final long p90Millis,
+                                         final long medianTimeToFirstByteMillis,
+                                         final long bytesIn) {
+        dispatch(new Event() {
+            @Override
+            void send(@NonNull Analytics service) {
+                service.trackNetworkRouteMetrics(route, requestCount, failureCount, cacheHitCount,
+                        medianMillis, p90Millis, medianTimeToFirstByteMillis, bytesIn);
+            }
+        });
+    }
+
+    /**
+     * Queues the given event to be sent after the events queued before it.
+     */
+    private void dispatch(@NonNull final Event event) {
+        synchronized (lock) {
+            // Keep the order of the events by sending the coalesced ones first
+            flushPendingEvents();
+            if (!reserveQueueSlot()) {
+                return;
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    send(event);
+                }
+            });
+        }
+    }
+
+    /**
+     * Queues the given event to be sent after {@link #COALESCE_WINDOW_MS}, unless another event
+     * with the same key is already waiting, in which case the two are coalesced instead.
+     */
+    private void dispatchCoalesced(@NonNull String key, @NonNull CoalescibleEvent event) {
+        synchronized (lock) {
+            final PendingEvent pendingEvent = pendingEvents.get(key);
+            if (pendingEvent != null) {
+                pendingEvent.event = pendingEvent.event.coalesce(event);
+                return;
+            }
+            if (!reserveQueueSlot()) {
+                return;
+            }
+            final PendingEvent newPendingEvent = new PendingEvent(key, event);
+            pendingEvents.put(key, newPendingEvent);
+            newPendingEvent.future = executor.schedule(newPendingEvent,
+                    COALESCE_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Guarded by lock
+    private void flushPendingEvents() {
+        for (PendingEvent pendingEvent : pendingEvents.values()) {
+            if (pendingEvent.future.cancel(false)) {
+                executor.execute(pendingEvent);
+            }
+        }
+        pendingEvents.clear();
+    }
+
+    // Guarded by lock
+    private boolean reserveQueueSlot() {
+        if (queuedEventCount >= MAX_QUEUED_EVENTS) {
+            droppedEventCount++;
+            return false;
+        }
+        queuedEventCount++;
+        return true;
+    }
+
+    private void send(@NonNull Event event) {
+        try {
+            for (Analytics service : services) {
+                try {
+                    event.send(service);
+                } catch (RuntimeException e) {
+                    logger.error(e);
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                queuedEventCount--;
+            }
+        }
+    }
+
+    private abstract static class Event {
+        abstract void send(@NonNull Analytics service);
+    }
+
+    private abstract static class CoalescibleEvent extends Event {
+        /**
+         * @return The event to send instead of this event and the given one that followed it,
+         * which is the later event by default.
+         */
+        @NonNull
+        CoalescibleEvent coalesce(@NonNull CoalescibleEvent later) {
+            return later;
+        }
+    }
+
+    private static class SeekEvent extends CoalescibleEvent {
+        private final String videoId;
+        private final Double oldTime;
+        private final Double newTime;
+        private final String courseId;
+        private final String unitUrl;
+        private final Boolean skipSeek;
+
+        SeekEvent(String videoId, Double oldTime, Double newTime, String courseId,
+                  String unitUrl, Boolean skipSeek) {
+            this.videoId = videoId;
+            this.oldTime = oldTime;
+            this.newTime = newTime;
+            this.courseId = courseId;
+            this.unitUrl = unitUrl;
+            this.skipSeek = skipSeek;
+        }
+
+        @Override
+        void send(@NonNull Analytics service) {
+            service.trackVideoSeek(videoId, oldTime, newTime, courseId, unitUrl, skipSeek);
+        }
+
+        @NonNull
+        @Override
+        CoalescibleEvent coalesce(@NonNull CoalescibleEvent later) {
+            if (!(later instanceof SeekEvent)) {
+                return later;
+            }
+            final SeekEvent laterSeek = (SeekEvent) later;
+            return new SeekEvent(videoId, oldTime, laterSeek.newTime, courseId, unitUrl,
+                    laterSeek.skipSeek);
+        }
+    }
+
+    private class PendingEvent implements Runnable {
+        @NonNull
+        private final String key;
+        // Guarded by lock
+        @NonNull
+        CoalescibleEvent event;
+        ScheduledFuture<?> future;
+
+        PendingEvent(@NonNull String key, @NonNull CoalescibleEvent event) {
+            this.key = key;
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            final Event event;
+            synchronized (lock) {
+                if (pendingEvents.get(key) == this) {
+                    pendingEvents.remove(key);
+                }
+                event = this.event;
+            }
+            send(event);
         }
     }
 }
@@ -9,6 +9,7 @@ import android.text.TextUtils;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
+import org.edx.mobile.BuildConfig;
 import org.edx.mobile.logger.Logger;
 import org.edx.mobile.util.JavaUtil;
 import org.edx.mobile.util.images.ShareUtils;
@@ -40,11 +41,14 @@ public class FirebaseAnalytics implements Analytics {
      * @param eventBundle   The Bundle for the event.
      */
     private void logFirebaseEvent(@NonNull String eventName, @NonNull Bundle eventBundle) {
-        String csv = eventName;
-        for (String parameterName : eventBundle.keySet()) {
-            csv += "," + parameterName + "," + eventBundle.get(parameterName);
+        if (BuildConfig.DEBUG) {
+            final StringBuilder csv = new StringBuilder(eventName);
+            for (String parameterName : eventBundle.keySet()) {
+                csv.append(',').append(parameterName)
+                        .append(',').append(eventBundle.get(parameterName));
+            }
+            logger.debug(csv.toString());
         }
-        logger.debug(csv);
         tracker.logEvent(eventName, eventBundle);
     }
 
@@ -471,4 +475,23 @@ public class FirebaseAnalytics implements Analytics {
         event.putInt(Keys.TOTAL_SCREENS, totalScreens);
         logFirebaseEvent(event.getName(), event.getBundle());
     }
+
+    @Override
+    public void trackNetworkRouteMetrics(@NonNull String route, int requestCount,
+                                         int failureCount, int cacheHitCount, long medianMillis,
+                                         long p90Millis, long medianTimeToFirstByteMillis,
+                                         long bytesIn) {
+        final FirebaseEvent event = new FirebaseEvent(Events.NETWORK_ROUTE_METRICS,
+                Values.NETWORK_ROUTE_METRICS);
+        event.putString(Keys.CATEGORY, Values.NETWORK_CATEGORY);
+        event.putString(Keys.ROUTE, route);
+        event.putInt(Keys.REQUEST_COUNT, requestCount);
+        event.putInt(Keys.FAILURE_COUNT, failureCount);
+        event.putInt(Keys.CACHE_HIT_COUNT, cacheHitCount);
+        event.putLong(Keys.MEDIAN_DURATION, medianMillis);
+        event.putLong(Keys.P90_DURATION, p90Millis);
+        event.putLong(Keys.MEDIAN_TIME_TO_FIRST_BYTE, medianTimeToFirstByteMillis);
+        event.putLong(Keys.BYTES_IN, bytesIn);
+        logFirebaseEvent(event.getName(), event.getBundle());
+    }
 }
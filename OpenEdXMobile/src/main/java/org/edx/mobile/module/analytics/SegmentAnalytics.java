@@ -707,4 +707,23 @@ public class SegmentAnalytics implements Analytics {
         aEvent.data.putValue(Keys.APP_VERSION, versionName);
         trackSegmentEvent(Events.WHATS_NEW_DONE, aEvent.properties);
     }
+
+    @Override
+    public void trackNetworkRouteMetrics(@NonNull String route, int requestCount,
+                                         int failureCount, int cacheHitCount, long medianMillis,
+                                         long p90Millis, long medianTimeToFirstByteMillis,
+                                         long bytesIn) {
+        final SegmentEvent aEvent = new SegmentEvent();
+        aEvent.properties.putValue(Keys.NAME, Values.NETWORK_ROUTE_METRICS);
+        aEvent.data.putValue(Keys.CATEGORY, Values.NETWORK_CATEGORY);
+        aEvent.data.putValue(Keys.ROUTE, route);
+        aEvent.data.putValue(Keys.REQUEST_COUNT, requestCount);
+        aEvent.data.putValue(Keys.FAILURE_COUNT, failureCount);
+        aEvent.data.putValue(Keys.CACHE_HIT_COUNT, cacheHitCount);
+        aEvent.data.putValue(Keys.MEDIAN_DURATION, medianMillis);
+        aEvent.data.putValue(Keys.P90_DURATION, p90Millis);
+        aEvent.data.putValue(Keys.MEDIAN_TIME_TO_FIRST_BYTE, medianTimeToFirstByteMillis);
+        aEvent.data.putValue(Keys.BYTES_IN, bytesIn);
+        trackSegmentEvent(Events.NETWORK_ROUTE_METRICS, aEvent.properties);
+    }
 }
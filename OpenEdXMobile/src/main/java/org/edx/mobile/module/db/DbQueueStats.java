@@ -0,0 +1,81 @@
+package org.edx.mobile.module.db;
+
+import android.support.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the counters kept by the background database operation queue.
+ * Used to get visibility into database contention in production.
+ */
+public final class DbQueueStats {
+
+    /**
+     * Number of operations currently waiting in the queue.
+     */
+    public final int queueDepth;
+
+    /**
+     * Highest queue depth observed since the process started.
+     */
+    public final int maxQueueDepth;
+
+    /**
+     * Number of operations that were enqueued while the queue was backed up.
+     */
+    public final long overflowCount;
+
+    /**
+     * Latency counters, keyed by the operation type.
+     */
+    @NonNull
+    public final Map<String, OperationLatency> latencies;
+
+    public DbQueueStats(int queueDepth, int maxQueueDepth, long overflowCount,
+                        @NonNull Map<String, OperationLatency> latencies) {
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.overflowCount = overflowCount;
+        this.latencies = Collections.unmodifiableMap(latencies);
+    }
+
+    @Override
+    public String toString() {
+        return "DbQueueStats{queueDepth=" + queueDepth + ", maxQueueDepth=" + maxQueueDepth
+                + ", overflowCount=" + overflowCount + ", latencies=" + latencies + "}";
+    }
+
+    /**
+     * Latency counters for a single type of database operation.
+     */
+    public static final class OperationLatency {
+        public final long count;
+        public final long totalWaitMillis;
+        public final long totalExecutionMillis;
+        public final long maxExecutionMillis;
+
+        public OperationLatency(long count, long totalWaitMillis, long totalExecutionMillis,
+                                long maxExecutionMillis) {
+            this.count = count;
+            this.totalWaitMillis = totalWaitMillis;
+            this.totalExecutionMillis = totalExecutionMillis;
+            this.maxExecutionMillis = maxExecutionMillis;
+        }
+
+        public long getAverageWaitMillis() {
+            return count == 0 ? 0 : totalWaitMillis / count;
+        }
+
+        public long getAverageExecutionMillis() {
+            return count == 0 ? 0 : totalExecutionMillis / count;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count + ", avgWait=" + getAverageWaitMillis()
+                    + "ms, avgExecution=" + getAverageExecutionMillis()
+                    + "ms, maxExecution=" + maxExecutionMillis + "ms}";
+        }
+    }
+}
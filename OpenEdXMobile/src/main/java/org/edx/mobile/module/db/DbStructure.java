@@ -11,11 +11,13 @@ public final class DbStructure {
     // Updated to Version 4 to add flag to indicate that video is only available for web
     // Updated to Version 5 to create a new table to record learning history for assessment
     // Updated to Version 6 to swap every occurrence of username field to its SHA1 hash
-    public static final int VERSION = 6;
+    // Updated to Version 7 to add indexes and a table of per-section download state counts
+    public static final int VERSION = 7;
 
     public static final class Table {
         public static final String DOWNLOADS = "downloads";
         public static final String ASSESSMENT = "assessment";
+        public static final String SECTION_DOWNLOADS = "section_downloads";
     }
 
     public static final class Column {
@@ -49,5 +51,10 @@ public final class DbStructure {
         public static final String ASSESSMENT_TB_USERNAME = "username";
         public static final String ASSESSMENT_TB_UNIT_ID = "unit_id";
         public static final String ASSESSMENT_TB_UNIT_WATCHED = "unit_watched";
+
+        //table for download state counts per section, maintained by triggers on the downloads
+        //table; keyed by the username, enrollment id, chapter and section columns
+        public static final String SECTION_DOWNLOADS_TB_DOWNLOADED_COUNT = "downloaded_count";
+        public static final String SECTION_DOWNLOADS_TB_DOWNLOADING_COUNT = "downloading_count";
     }
 }
@@ -8,6 +8,7 @@ import org.edx.mobile.model.db.DownloadEntry.WatchedState;
 import org.edx.mobile.module.db.impl.DatabaseFactory;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * This interface represents a database object. All the methods that are required by UI layer
@@ -22,6 +23,12 @@ public interface IDatabase {
      */
     void release();
 
+    /**
+     * Returns a snapshot of the background operation queue's depth and per-operation latency
+     * counters, to get visibility into database contention.
+     */
+    DbQueueStats getQueueStats();
+
     /**
      * Return true if any Video is marked as Downloading in the database for logged in user
      * Used to display the top downloading icon
@@ -229,12 +236,13 @@ public interface IDatabase {
 
 
     /**
-     * Update a Video's last watched time
+     * Update the last watched times of the given videos inside a single transaction
      *
-     * @param videoId - Id of video for which status needs to change
-     * @param offset  - Last Played offset
+     * @param offsets - Last Played offsets by the Ids of the videos
+     * @return - total number of rows updated
      */
-    Integer updateVideoLastPlayedOffset(String videoId, int offset, DataCallback<Integer> callback);
+    Integer updateVideosLastPlayedOffset(Map<String, Integer> offsets,
+                                         DataCallback<Integer> callback);
 
 
     /**
@@ -246,6 +254,19 @@ public interface IDatabase {
      */
     Long addVideoData(VideoModel de, DataCallback<Long> callback);
 
+    /**
+     * Inserts the given videos in the database, skipping the ones that are already present, and
+     * looks up the video which is already downloaded or being downloaded from each video's URL.
+     * All the lookups and inserts are done inside a single transaction.
+     *
+     * @param videos   - list of IVideoModel objects
+     * @param callback
+     * @return - a list of the same size as the given one, containing the downloaded or downloading
+     * video with the same URL as the video at the same position, or null if there is none
+     */
+    List<VideoModel> addVideosData(List<? extends VideoModel> videos,
+                                   DataCallback<List<VideoModel>> callback);
+
     /**
      * Returns VideoEntry for the passed VideoId
      *
@@ -309,6 +330,16 @@ public interface IDatabase {
      */
     Integer updateDownloadingVideoInfoByVideoId(VideoModel model, DataCallback<Integer> callback);
 
+    /**
+     * This method updates the downloading info of the given videos inside a single transaction
+     *
+     * @param videos
+     * @param callback
+     * @return - total number of rows updated
+     */
+    Integer updateDownloadingVideosInfoByVideoId(List<? extends VideoModel> videos,
+                                                 DataCallback<Integer> callback);
+
     /**
      * This method marks the Video as Downloading when enqueued for Download
      *
@@ -8,6 +8,7 @@ import android.database.sqlite.SQLiteOpenHelper;
 import android.os.Environment;
 
 import org.edx.mobile.logger.Logger;
+import org.edx.mobile.model.db.DownloadEntry.DownloadedState;
 import org.edx.mobile.module.db.DbStructure;
 import org.edx.mobile.util.AppConstants;
 import org.edx.mobile.util.FileUtil;
@@ -63,6 +64,8 @@ class DbHelper extends SQLiteOpenHelper {
         db.execSQL(sql);
 
         createAssessmentTable(db);
+        createDownloadsIndexes(db);
+        createSectionDownloadsTable(db);
 
         logger.debug("Database created");
     }
@@ -78,6 +81,108 @@ class DbHelper extends SQLiteOpenHelper {
         db.execSQL(sql);
     }
 
+    private void createDownloadsIndexes(SQLiteDatabase db) {
+        for (String column : new String[]{DbStructure.Column.VIDEO_ID, DbStructure.Column.URL,
+                DbStructure.Column.DM_ID}) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS " + DbStructure.Table.DOWNLOADS + "_" + column
+                    + "_index ON " + DbStructure.Table.DOWNLOADS + " (" + column + ")");
+        }
+    }
+
+    /**
+     * Creates the table holding the count of downloaded and downloading videos per section, and
+     * the triggers that keep it in sync with the downloads table. The triggers run as part of
+     * the statement changing the downloads table, so the counts are always updated in the same
+     * transaction as the download state.
+     */
+    private void createSectionDownloadsTable(SQLiteDatabase db) {
+        final String keyColumns = DbStructure.Column.USERNAME + ", "
+                + DbStructure.Column.EID + ", "
+                + DbStructure.Column.CHAPTER + ", "
+                + DbStructure.Column.SECTION;
+        db.execSQL("CREATE TABLE " + DbStructure.Table.SECTION_DOWNLOADS
+                + " ("
+                + DbStructure.Column.USERNAME                               + " TEXT NOT NULL, "
+                + DbStructure.Column.EID                                    + " TEXT NOT NULL, "
+                + DbStructure.Column.CHAPTER                                + " TEXT NOT NULL, "
+                + DbStructure.Column.SECTION                                + " TEXT NOT NULL, "
+                + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADED_COUNT  + " INTEGER NOT NULL DEFAULT 0, "
+                + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADING_COUNT + " INTEGER NOT NULL DEFAULT 0, "
+                + "PRIMARY KEY (" + keyColumns + ")"
+                + ")");
+
+        // Populate the counts from the existing downloads
+        db.execSQL("INSERT INTO " + DbStructure.Table.SECTION_DOWNLOADS
+                + " (" + keyColumns + ", "
+                + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADED_COUNT + ", "
+                + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADING_COUNT + ")"
+                + " SELECT " + getSectionKeyValues(null) + ", "
+                + "SUM(" + isInDownloadedState(null, DownloadedState.DOWNLOADED) + "), "
+                + "SUM(" + isInDownloadedState(null, DownloadedState.DOWNLOADING) + ")"
+                + " FROM " + DbStructure.Table.DOWNLOADS
+                + " GROUP BY " + getSectionKeyValues(null));
+
+        db.execSQL("CREATE TRIGGER " + DbStructure.Table.SECTION_DOWNLOADS + "_insert"
+                + " AFTER INSERT ON " + DbStructure.Table.DOWNLOADS
+                + " BEGIN "
+                + getAddSectionCountsStatement("NEW", 1)
+                + " END");
+        db.execSQL("CREATE TRIGGER " + DbStructure.Table.SECTION_DOWNLOADS + "_delete"
+                + " AFTER DELETE ON " + DbStructure.Table.DOWNLOADS
+                + " BEGIN "
+                + getAddSectionCountsStatement("OLD", -1)
+                + " END");
+        db.execSQL("CREATE TRIGGER " + DbStructure.Table.SECTION_DOWNLOADS + "_update"
+                + " AFTER UPDATE OF " + DbStructure.Column.DOWNLOADED + ", " + keyColumns
+                + " ON " + DbStructure.Table.DOWNLOADS
+                + " BEGIN "
+                + getAddSectionCountsStatement("OLD", -1)
+                + getAddSectionCountsStatement("NEW", 1)
+                + " END");
+    }
+
+    /**
+     * @param row  The row reference in a trigger, i.e. "NEW" or "OLD".
+     * @param sign 1 to add the row to the counts, -1 to remove it.
+     * @return Statements adding or removing a row of the downloads table to or from the counts
+     * of its section.
+     */
+    private static String getAddSectionCountsStatement(String row, int sign) {
+        return "INSERT OR IGNORE INTO " + DbStructure.Table.SECTION_DOWNLOADS
+                + " (" + DbStructure.Column.USERNAME + ", " + DbStructure.Column.EID + ", "
+                + DbStructure.Column.CHAPTER + ", " + DbStructure.Column.SECTION + ")"
+                + " VALUES (" + getSectionKeyValues(row) + "); "
+                + "UPDATE " + DbStructure.Table.SECTION_DOWNLOADS + " SET "
+                + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADED_COUNT + " = "
+                + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADED_COUNT + " + (" + sign + ") * "
+                + isInDownloadedState(row, DownloadedState.DOWNLOADED) + ", "
+                + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADING_COUNT + " = "
+                + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADING_COUNT + " + (" + sign + ") * "
+                + isInDownloadedState(row, DownloadedState.DOWNLOADING)
+                + " WHERE " + DbStructure.Column.USERNAME + " = " + getKeyValue(row, DbStructure.Column.USERNAME)
+                + " AND " + DbStructure.Column.EID + " = " + getKeyValue(row, DbStructure.Column.EID)
+                + " AND " + DbStructure.Column.CHAPTER + " = " + getKeyValue(row, DbStructure.Column.CHAPTER)
+                + " AND " + DbStructure.Column.SECTION + " = " + getKeyValue(row, DbStructure.Column.SECTION)
+                + "; ";
+    }
+
+    private static String getSectionKeyValues(String row) {
+        return getKeyValue(row, DbStructure.Column.USERNAME) + ", "
+                + getKeyValue(row, DbStructure.Column.EID) + ", "
+                + getKeyValue(row, DbStructure.Column.CHAPTER) + ", "
+                + getKeyValue(row, DbStructure.Column.SECTION);
+    }
+
+    private static String getKeyValue(String row, String column) {
+        // NULLs are distinct in primary keys, so they are mapped to empty strings
+        return "IFNULL(" + (row == null ? "" : row + ".") + column + ", '')";
+    }
+
+    private static String isInDownloadedState(String row, DownloadedState state) {
+        return "(IFNULL(" + (row == null ? "" : row + ".") + DbStructure.Column.DOWNLOADED
+                + ", -1) = " + state.ordinal() + ")";
+    }
+
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         String upgradeToV2 =
@@ -200,6 +305,11 @@ class DbHelper extends SQLiteOpenHelper {
                 db.endTransaction();
             }
         }
+
+        if (oldVersion < 7) {
+            createDownloadsIndexes(db);
+            createSectionDownloadsTable(db);
+        }
     }
 
     /**
@@ -0,0 +1,142 @@
+package org.edx.mobile.module.db.impl;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.edx.mobile.model.VideoModel;
+import org.edx.mobile.model.db.DownloadEntry.DownloadedState;
+import org.edx.mobile.module.db.DatabaseModelFactory;
+import org.edx.mobile.module.db.DbStructure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts a list of videos into the downloads table, skipping the ones that are already present,
+ * and looks up the existing download for each video URL, all inside a single transaction.
+ * Returns a list of the same size as the given one, containing the video that was already
+ * downloaded or downloading from the URL of the video at the same position, or null if there
+ * isn't any.
+ */
+class DbOperationAddVideos extends DbOperationBase<List<VideoModel>> {
+
+    private static final String SQL_COUNT_BY_VIDEO_ID = "SELECT COUNT(*) FROM "
+            + DbStructure.Table.DOWNLOADS + " WHERE "
+            + DbStructure.Column.VIDEO_ID + "=? AND " + DbStructure.Column.USERNAME + "=?";
+
+    private static final String SQL_INSERT = "INSERT INTO " + DbStructure.Table.DOWNLOADS + " ("
+            + DbStructure.Column.USERNAME + ", "
+            + DbStructure.Column.TITLE + ", "
+            + DbStructure.Column.VIDEO_ID + ", "
+            + DbStructure.Column.SIZE + ", "
+            + DbStructure.Column.DURATION + ", "
+            + DbStructure.Column.FILEPATH + ", "
+            + DbStructure.Column.URL + ", "
+            + DbStructure.Column.URL_HIGH_QUALITY + ", "
+            + DbStructure.Column.URL_LOW_QUALITY + ", "
+            + DbStructure.Column.URL_YOUTUBE + ", "
+            + DbStructure.Column.WATCHED + ", "
+            + DbStructure.Column.DOWNLOADED + ", "
+            + DbStructure.Column.DM_ID + ", "
+            + DbStructure.Column.EID + ", "
+            + DbStructure.Column.CHAPTER + ", "
+            + DbStructure.Column.SECTION + ", "
+            + DbStructure.Column.LAST_PLAYED_OFFSET + ", "
+            + DbStructure.Column.UNIT_URL + ", "
+            + DbStructure.Column.IS_COURSE_ACTIVE + ", "
+            + DbStructure.Column.VIDEO_FOR_WEB_ONLY
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Nullable
+    private final String username;
+    @NonNull
+    private final List<? extends VideoModel> videos;
+
+    DbOperationAddVideos(@Nullable String username, @NonNull List<? extends VideoModel> videos) {
+        this.username = username;
+        this.videos = videos;
+    }
+
+    @Override
+    public List<VideoModel> execute(SQLiteDatabase db) {
+        final List<VideoModel> downloadsByUrl = new ArrayList<>(videos.size());
+        final SQLiteStatement countStatement = db.compileStatement(SQL_COUNT_BY_VIDEO_ID);
+        final SQLiteStatement insertStatement = db.compileStatement(SQL_INSERT);
+        db.beginTransaction();
+        try {
+            for (VideoModel video : videos) {
+                downloadsByUrl.add(getDownloadByVideoUrl(db, video.getVideoUrl()));
+
+                bindNullableString(countStatement, 1, video.getVideoId());
+                bindNullableString(countStatement, 2, username);
+                if (countStatement.simpleQueryForLong() > 0) {
+                    logger.warn("Not inserting, this seems a duplicate record");
+                    continue;
+                }
+
+                bindNullableString(insertStatement, 1, username);
+                bindNullableString(insertStatement, 2, video.getTitle());
+                bindNullableString(insertStatement, 3, video.getVideoId());
+                insertStatement.bindLong(4, video.getSize());
+                insertStatement.bindLong(5, video.getDuration());
+                bindNullableString(insertStatement, 6, video.getFilePath());
+                bindNullableString(insertStatement, 7, video.getVideoUrl());
+                bindNullableString(insertStatement, 8, video.getHighQualityVideoUrl());
+                bindNullableString(insertStatement, 9, video.getLowQualityVideoUrl());
+                bindNullableString(insertStatement, 10, video.getYoutubeVideoUrl());
+                insertStatement.bindLong(11, video.getWatchedStateOrdinal());
+                insertStatement.bindLong(12, video.getDownloadedStateOrdinal());
+                insertStatement.bindLong(13, video.getDmId());
+                bindNullableString(insertStatement, 14, video.getEnrollmentId());
+                bindNullableString(insertStatement, 15, video.getChapterName());
+                bindNullableString(insertStatement, 16, video.getSectionName());
+                insertStatement.bindLong(17, video.getLastPlayedOffset());
+                bindNullableString(insertStatement, 18, video.getLmsUrl());
+                insertStatement.bindLong(19, video.isCourseActive() ? 1 : 0);
+                insertStatement.bindLong(20, video.isVideoForWebOnly() ? 1 : 0);
+                insertStatement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            countStatement.close();
+            insertStatement.close();
+        }
+        return downloadsByUrl;
+    }
+
+    @Nullable
+    private VideoModel getDownloadByVideoUrl(@NonNull SQLiteDatabase db,
+                                             @Nullable String videoUrl) {
+        if (videoUrl == null) {
+            return null;
+        }
+        final Cursor c = db.query(DbStructure.Table.DOWNLOADS, null,
+                DbStructure.Column.URL + "=? AND " + DbStructure.Column.DOWNLOADED + "!=? AND "
+                        + DbStructure.Column.USERNAME + "=?",
+                new String[]{videoUrl, String.valueOf(DownloadedState.ONLINE.ordinal()),
+                        username}, null, null, null, "1");
+        try {
+            return c.moveToFirst() ? DatabaseModelFactory.getModel(c) : null;
+        } finally {
+            c.close();
+        }
+    }
+
+    static void bindNullableString(@NonNull SQLiteStatement statement, int index,
+                                   @Nullable String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    @Override
+    public List<VideoModel> getDefaultValue() {
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,207 @@
+package org.edx.mobile.module.db.impl;
+
+import android.os.Process;
+import android.support.annotation.NonNull;
+
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.module.db.DbQueueStats;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * A single long-lived worker thread that processes the queued (non-blocking) database
+ * operations in sequence, so that there is only ever one writer on the database.
+ * <p>
+ * Operations are processed in FIFO order within a {@link Priority} lane, and the operations in
+ * the {@link Priority#UI} lane are processed before the ones in the {@link Priority#BACKGROUND}
+ * lane, except that an operation never overtakes one submitted earlier by the same thread, since
+ * it may depend on it. The queue is unbounded, so submitting never blocks, not even on the main
+ * thread or from a callback on the worker thread; a warning is logged when it grows beyond
+ * {@link #QUEUE_WARNING_DEPTH} operations.
+ */
+class DbOperationExecutor {
+    private static final Logger logger = new Logger(DbOperationExecutor.class.getName());
+
+    /**
+     * Number of waiting operations beyond which the queue is considered to be backed up.
+     */
+    static final int QUEUE_WARNING_DEPTH = 256;
+
+    /**
+     * Priority lanes of the operation queue.
+     */
+    enum Priority {
+        /**
+         * Operations whose results are awaited by the UI.
+         */
+        UI,
+        /**
+         * Maintenance operations, e.g. syncing course activation states, which can wait.
+         */
+        BACKGROUND
+    }
+
+    /**
+     * Performs the queued operations; implemented by the database that owns this executor.
+     */
+    interface OperationRunner {
+        void run(@NonNull IDbOperation<?> operation);
+    }
+
+    @NonNull
+    private final OperationRunner runner;
+    // The lanes and the counters below are guarded by this
+    @NonNull
+    private final Queue<QueuedOperation> uiLane = new ArrayDeque<>();
+    @NonNull
+    private final Queue<QueuedOperation> backgroundLane = new ArrayDeque<>();
+    /**
+     * The number of operations waiting in the background lane, keyed by the id of the thread
+     * that submitted them.
+     */
+    @NonNull
+    private final Map<Long, Integer> backgroundCountByThread = new HashMap<>();
+    private long overflowCount;
+    private int maxQueueDepth;
+    private Thread worker;
+    @NonNull
+    private final Map<String, LatencyCounter> latencies = new HashMap<>();
+
+    DbOperationExecutor(@NonNull OperationRunner runner) {
+        this.runner = runner;
+    }
+
+    /**
+     * Adds the operation to the queue in the given priority lane, starting the worker thread if
+     * it isn't running yet. Never blocks.
+     */
+    synchronized void submit(@NonNull IDbOperation<?> operation, @NonNull Priority priority) {
+        final long threadId = Thread.currentThread().getId();
+        final Integer backgroundCount = backgroundCountByThread.get(threadId);
+        if (priority == Priority.UI && backgroundCount == null) {
+            uiLane.add(new QueuedOperation(operation, threadId));
+        } else {
+            // Queued behind the earlier background operations of the same thread
+            backgroundLane.add(new QueuedOperation(operation, threadId));
+            backgroundCountByThread.put(threadId,
+                    backgroundCount == null ? 1 : backgroundCount + 1);
+        }
+        final int depth = uiLane.size() + backgroundLane.size();
+        if (depth > QUEUE_WARNING_DEPTH) {
+            overflowCount++;
+            if (depth == QUEUE_WARNING_DEPTH + 1) {
+                logger.warn("Database operation queue is backed up");
+            }
+        }
+        maxQueueDepth = Math.max(maxQueueDepth, depth);
+        if (worker == null) {
+            worker = new Thread(new Worker(), "edx-db-queue");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        notify();
+    }
+
+    /**
+     * Waits for the next operation to process.
+     */
+    @NonNull
+    private synchronized QueuedOperation take() throws InterruptedException {
+        while (uiLane.isEmpty() && backgroundLane.isEmpty()) {
+            wait();
+        }
+        if (!uiLane.isEmpty()) {
+            return uiLane.remove();
+        }
+        final QueuedOperation queued = backgroundLane.remove();
+        final int backgroundCount = backgroundCountByThread.get(queued.threadId);
+        if (backgroundCount == 1) {
+            backgroundCountByThread.remove(queued.threadId);
+        } else {
+            backgroundCountByThread.put(queued.threadId, backgroundCount - 1);
+        }
+        return queued;
+    }
+
+    /**
+     * @return A snapshot of the queue depth and latency counters.
+     */
+    @NonNull
+    DbQueueStats getStats() {
+        final Map<String, DbQueueStats.OperationLatency> snapshot = new HashMap<>();
+        synchronized (latencies) {
+            for (Map.Entry<String, LatencyCounter> entry : latencies.entrySet()) {
+                final LatencyCounter counter = entry.getValue();
+                snapshot.put(entry.getKey(), new DbQueueStats.OperationLatency(counter.count,
+                        counter.totalWaitNanos / 1000000, counter.totalExecutionNanos / 1000000,
+                        counter.maxExecutionNanos / 1000000));
+            }
+        }
+        synchronized (this) {
+            return new DbQueueStats(uiLane.size() + backgroundLane.size(), maxQueueDepth,
+                    overflowCount, snapshot);
+        }
+    }
+
+    private void record(@NonNull QueuedOperation queued, long startedAt, long finishedAt) {
+        final String key = queued.operation.getClass().getSimpleName();
+        synchronized (latencies) {
+            LatencyCounter counter = latencies.get(key);
+            if (counter == null) {
+                counter = new LatencyCounter();
+                latencies.put(key, counter);
+            }
+            final long executionNanos = finishedAt - startedAt;
+            counter.count++;
+            counter.totalWaitNanos += startedAt - queued.enqueuedAt;
+            counter.totalExecutionNanos += executionNanos;
+            counter.maxExecutionNanos = Math.max(counter.maxExecutionNanos, executionNanos);
+        }
+    }
+
+    private class Worker implements Runnable {
+        @Override
+        public void run() {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            while (true) {
+                final QueuedOperation queued;
+                try {
+                    queued = take();
+                } catch (InterruptedException e) {
+                    logger.error(e);
+                    continue;
+                }
+                final long startedAt = System.nanoTime();
+                try {
+                    runner.run(queued.operation);
+                } catch (RuntimeException e) {
+                    // Don't let a failing operation kill the worker.
+                    logger.error(e, true);
+                }
+                record(queued, startedAt, System.nanoTime());
+            }
+        }
+    }
+
+    private static class QueuedOperation {
+        @NonNull
+        final IDbOperation<?> operation;
+        final long threadId;
+        final long enqueuedAt = System.nanoTime();
+
+        QueuedOperation(@NonNull IDbOperation<?> operation, long threadId) {
+            this.operation = operation;
+            this.threadId = threadId;
+        }
+    }
+
+    private static class LatencyCounter {
+        long count;
+        long totalWaitNanos;
+        long totalExecutionNanos;
+        long maxExecutionNanos;
+    }
+}
@@ -0,0 +1,71 @@
+package org.edx.mobile.module.db.impl;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.edx.mobile.model.VideoModel;
+import org.edx.mobile.module.db.DbStructure;
+
+import java.util.List;
+
+import static org.edx.mobile.module.db.impl.DbOperationAddVideos.bindNullableString;
+
+/**
+ * Updates the downloading info of a list of videos inside a single transaction, using a single
+ * compiled statement. Returns the total number of rows updated.
+ */
+class DbOperationUpdateDownloadingVideos extends DbOperationBase<Integer> {
+
+    private static final String SQL_UPDATE = "UPDATE " + DbStructure.Table.DOWNLOADS + " SET "
+            + DbStructure.Column.DM_ID + "=?, "
+            + DbStructure.Column.DOWNLOADED + "=?, "
+            + DbStructure.Column.DURATION + "=?, "
+            + DbStructure.Column.FILEPATH + "=?, "
+            + DbStructure.Column.SIZE + "=?, "
+            + DbStructure.Column.IS_COURSE_ACTIVE + "=?"
+            + " WHERE " + DbStructure.Column.VIDEO_ID + "=? AND "
+            + DbStructure.Column.USERNAME + "=?";
+
+    @Nullable
+    private final String username;
+    @NonNull
+    private final List<? extends VideoModel> videos;
+
+    DbOperationUpdateDownloadingVideos(@Nullable String username,
+                                       @NonNull List<? extends VideoModel> videos) {
+        this.username = username;
+        this.videos = videos;
+    }
+
+    @Override
+    public Integer execute(SQLiteDatabase db) {
+        int count = 0;
+        final SQLiteStatement statement = db.compileStatement(SQL_UPDATE);
+        db.beginTransaction();
+        try {
+            for (VideoModel video : videos) {
+                statement.bindLong(1, video.getDmId());
+                statement.bindLong(2, video.getDownloadedStateOrdinal());
+                statement.bindLong(3, video.getDuration());
+                bindNullableString(statement, 4, video.getFilePath());
+                statement.bindLong(5, video.getSize());
+                statement.bindLong(6, video.isCourseActive() ? 1 : 0);
+                bindNullableString(statement, 7, video.getVideoId());
+                bindNullableString(statement, 8, username);
+                count += statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        return count;
+    }
+
+    @Override
+    public Integer getDefaultValue() {
+        return 0;
+    }
+}
@@ -0,0 +1,60 @@
+package org.edx.mobile.module.db.impl;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.edx.mobile.module.db.DbStructure;
+
+import java.util.Map;
+
+import static org.edx.mobile.module.db.impl.DbOperationAddVideos.bindNullableString;
+
+/**
+ * Updates the last played offsets of a set of videos inside a single transaction, using a single
+ * compiled statement. Returns the total number of rows updated.
+ */
+class DbOperationUpdateLastPlayedOffsets extends DbOperationBase<Integer> {
+
+    private static final String SQL_UPDATE = "UPDATE " + DbStructure.Table.DOWNLOADS + " SET "
+            + DbStructure.Column.LAST_PLAYED_OFFSET + "=?"
+            + " WHERE " + DbStructure.Column.VIDEO_ID + "=? AND "
+            + DbStructure.Column.USERNAME + "=?";
+
+    @Nullable
+    private final String username;
+    @NonNull
+    private final Map<String, Integer> offsets;
+
+    DbOperationUpdateLastPlayedOffsets(@Nullable String username,
+                                       @NonNull Map<String, Integer> offsets) {
+        this.username = username;
+        this.offsets = offsets;
+    }
+
+    @Override
+    public Integer execute(SQLiteDatabase db) {
+        int count = 0;
+        final SQLiteStatement statement = db.compileStatement(SQL_UPDATE);
+        db.beginTransaction();
+        try {
+            for (Map.Entry<String, Integer> entry : offsets.entrySet()) {
+                statement.bindLong(1, entry.getValue());
+                bindNullableString(statement, 2, entry.getKey());
+                bindNullableString(statement, 3, username);
+                count += statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        return count;
+    }
+
+    @Override
+    public Integer getDefaultValue() {
+        return 0;
+    }
+}
@@ -2,18 +2,16 @@ package org.edx.mobile.module.db.impl;
 
 import android.content.Context;
 import android.database.sqlite.SQLiteException;
+import android.support.annotation.NonNull;
 
 import org.edx.mobile.logger.Logger;
+import org.edx.mobile.module.db.DbQueueStats;
 
-import java.util.LinkedList;
-import java.util.Queue;
-
-class IDatabaseBaseImpl implements Runnable {
+class IDatabaseBaseImpl implements DbOperationExecutor.OperationRunner {
     protected static final Logger logger = new Logger(IDatabaseBaseImpl.class.getName());
     protected Context context;
     private DbHelper helper;
-    private Queue<IDbOperation<?>> opQueue = new LinkedList<IDbOperation<?>>();
-    private boolean isQueueProcessing = false;
+    private final DbOperationExecutor executor = new DbOperationExecutor(this);
 
     public IDatabaseBaseImpl(Context context) {
         this.context = context;
@@ -21,27 +19,8 @@ class IDatabaseBaseImpl implements Runnable {
     }
 
     @Override
-    public void run() {
-        if (isQueueProcessing) {
-            // queue is already being processed, so return
-            // this will NOT allow multiple threads to process operation queue
-            return;
-        }
-
-        do {
-            // mark queue being processed
-            isQueueProcessing = true;
-            IDbOperation<?> op = getNextQueuedOperation();
-            if (op == null) {
-                break;
-            }
-            // perform the database operation
-            execute(op);
-        } while (true);
-
-        // mark queue not being processed
-        isQueueProcessing = false;
-        // logger.debug("All database operations completed, queue is empty");
+    public void run(@NonNull IDbOperation<?> operation) {
+        execute(operation);
     }
 
     /**
@@ -72,44 +51,47 @@ class IDatabaseBaseImpl implements Runnable {
     }
 
     /**
-     * Enqueues given database operation to the operation queue and starts processing the queue,
-     * if not already started.
+     * Enqueues given database operation to the operation queue in the
+     * {@link DbOperationExecutor.Priority#UI} lane.
      * Operation is executed in a queue in background thread if callback is provided for the
      * operation and this method returns null. Otherwise this is a blocking call and returns
      * result object.
      *
      * @param operation
      */
-    public synchronized <T> T enqueue(IDbOperation<T> operation) {
+    public <T> T enqueue(IDbOperation<T> operation) {
+        return enqueue(operation, DbOperationExecutor.Priority.UI);
+    }
+
+    /**
+     * Enqueues given database operation to the operation queue in the given priority lane.
+     * Operation is executed in a queue in background thread if callback is provided for the
+     * operation and this method returns null. Otherwise this is a blocking call and returns
+     * result object.
+     *
+     * @param operation
+     * @param priority
+     */
+    public <T> T enqueue(IDbOperation<T> operation, DbOperationExecutor.Priority priority) {
         // execute right away if this operation doesn't have a callback to send back the result
         if (operation.getCallback() == null) {
             return execute(operation);
         }
 
-        // add non-blocking operations to the queue and process in sequence 
-        synchronized (opQueue) {
-            opQueue.add(operation);
-        }
-
-        // start processing the queue as we have a database operation to be processed
-        new Thread(this).start();
+        // add non-blocking operations to the queue, which is processed in sequence by a single
+        // worker thread
+        executor.submit(operation, priority);
 
         return null;
     }
 
     /**
-     * Returns and removes the next operation from the operation queue.
+     * Returns a snapshot of the queue depth and operation latency counters.
      *
      * @return
      */
-    private IDbOperation<?> getNextQueuedOperation() {
-        synchronized (opQueue) {
-            if (opQueue.isEmpty()) {
-                return null;
-            }
-
-            return opQueue.remove();
-        }
+    public DbQueueStats getQueueStats() {
+        return executor.getStats();
     }
 
     /**
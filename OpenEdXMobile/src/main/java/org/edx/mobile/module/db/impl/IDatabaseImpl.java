@@ -15,9 +15,9 @@ import org.edx.mobile.module.db.DataCallback;
 import org.edx.mobile.module.db.DbStructure;
 import org.edx.mobile.module.db.IDatabase;
 import org.edx.mobile.module.prefs.LoginPrefs;
-import org.edx.mobile.util.Sha1Util;
 
 import java.util.List;
+import java.util.Map;
 
 @Singleton
 public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
@@ -33,8 +33,7 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
 
     @Nullable
     private String username() {
-        final String username = loginPrefs.getUsername();
-        return (username != null) ? Sha1Util.SHA1(username) : null;
+        return loginPrefs.getHashedUsername();
     }
 
     @Override
@@ -66,7 +65,7 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
         DbOperationUpdate op = new DbOperationUpdate(DbStructure.Table.DOWNLOADS, values,
                 DbStructure.Column.USERNAME + "=?", new String[]{username()});
         op.setCallback(callback);
-        return enqueue(op);
+        return enqueue(op, DbOperationExecutor.Priority.BACKGROUND);
     }
 
 
@@ -80,7 +79,7 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
                 DbStructure.Column.EID + "=? AND " + DbStructure.Column.USERNAME + "=?",
                 new String[]{enrollmentId, username()});
         op.setCallback(callback);
-        return enqueue(op);
+        return enqueue(op, DbOperationExecutor.Priority.BACKGROUND);
     }
 
 
@@ -91,7 +90,7 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
                         + DbStructure.Column.USERNAME + "=? ",
                 new String[]{"0", username()}, null);
         op.setCallback(callback);
-        return enqueue(op);
+        return enqueue(op, DbOperationExecutor.Priority.BACKGROUND);
     }
 
     @Override
@@ -195,16 +194,12 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
     public Boolean isVideoDownloadingInSection(String enrollmentId,
                                                String chapter, String section,
                                                final DataCallback<Boolean> callback) {
-        DbOperationExists op = new DbOperationExists(false, DbStructure.Table.DOWNLOADS,
-                new String[]{DbStructure.Column.VIDEO_ID},
-                DbStructure.Column.SECTION + "=? AND " + DbStructure.Column.CHAPTER + "=? AND "
-                        + DbStructure.Column.EID + "=? AND " + DbStructure.Column.DOWNLOADED
-                        + "=? AND " + DbStructure.Column.USERNAME + "=?",
-                new String[]{section, chapter, enrollmentId,
-                        String.valueOf(DownloadedState.DOWNLOADING.ordinal()), username()}, null);
+        DbOperationExists op = new DbOperationExists(false, DbStructure.Table.SECTION_DOWNLOADS,
+                null, getSectionDownloadsWhereClause()
+                        + " AND " + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADING_COUNT + ">0",
+                new String[]{username(), enrollmentId, chapter, section}, null);
         op.setCallback(callback);
         return enqueue(op);
-
     }
 
     @Override
@@ -234,14 +229,10 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
     public int getDownloadingVideosCountForSection(String enrollmentId, String chapter,
                                                    String section,
                                                    final DataCallback<Integer> callback) {
-        DbOperationGetCount op = new DbOperationGetCount(false, DbStructure.Table.DOWNLOADS,
-                new String[]{DbStructure.Column.DM_ID},
-                DbStructure.Column.DOWNLOADED + "=? AND " + DbStructure.Column.EID + "=? AND "
-                        + DbStructure.Column.CHAPTER + "=? AND "
-                        + DbStructure.Column.SECTION + "=? AND "
-                        + DbStructure.Column.USERNAME + "=?",
-                new String[]{String.valueOf(DownloadedState.DOWNLOADING.ordinal()),
-                        enrollmentId, chapter, section, username()}, null);
+        DbOperationSingleValueByRawQuery<Integer> op = new DbOperationSingleValueByRawQuery<>(
+                getSectionDownloadsCountQuery(
+                        DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADING_COUNT),
+                new String[]{username(), enrollmentId, chapter, section}, Integer.class);
         op.setCallback(callback);
         return enqueue(op);
     }
@@ -251,14 +242,10 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
     public Boolean isVideoDownloadedInSection(String enrollmentId,
                                               String chapter, String section,
                                               final DataCallback<Boolean> callback) {
-        DbOperationExists op = new DbOperationExists(false, DbStructure.Table.DOWNLOADS,
-                new String[]{DbStructure.Column.VIDEO_ID},
-                DbStructure.Column.SECTION + "=? AND " + DbStructure.Column.CHAPTER + "=? AND "
-                        + DbStructure.Column.EID + "=? AND "
-                        + DbStructure.Column.DOWNLOADED + "=? AND "
-                        + DbStructure.Column.USERNAME + "=?",
-                new String[]{section, chapter, enrollmentId,
-                        String.valueOf(DownloadedState.DOWNLOADED.ordinal()), username()}, null);
+        DbOperationExists op = new DbOperationExists(false, DbStructure.Table.SECTION_DOWNLOADS,
+                null, getSectionDownloadsWhereClause()
+                        + " AND " + DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADED_COUNT + ">0",
+                new String[]{username(), enrollmentId, chapter, section}, null);
         op.setCallback(callback);
         return enqueue(op);
     }
@@ -289,18 +276,35 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
     public int getDownloadedVideosCountForSection(String enrollmentId, String chapter,
                                                   String section,
                                                   final DataCallback<Integer> callback) {
-        DbOperationGetCount op = new DbOperationGetCount(false, DbStructure.Table.DOWNLOADS,
-                new String[]{DbStructure.Column.DM_ID},
-                DbStructure.Column.DOWNLOADED + "=? AND " + DbStructure.Column.EID + "=? AND "
-                        + DbStructure.Column.CHAPTER + "=? AND "
-                        + DbStructure.Column.SECTION + "=? AND "
-                        + DbStructure.Column.USERNAME + "=?",
-                new String[]{String.valueOf(DownloadedState.DOWNLOADED.ordinal()),
-                        enrollmentId, chapter, section, username()}, null);
+        DbOperationSingleValueByRawQuery<Integer> op = new DbOperationSingleValueByRawQuery<>(
+                getSectionDownloadsCountQuery(
+                        DbStructure.Column.SECTION_DOWNLOADS_TB_DOWNLOADED_COUNT),
+                new String[]{username(), enrollmentId, chapter, section}, Integer.class);
         op.setCallback(callback);
         return enqueue(op);
     }
 
+    /**
+     * Returns the where clause selecting a section's row in the
+     * {@link DbStructure.Table#SECTION_DOWNLOADS} table, taking the username, enrollment id,
+     * chapter and section as arguments in that order.
+     */
+    private static String getSectionDownloadsWhereClause() {
+        return DbStructure.Column.USERNAME + "=? AND " + DbStructure.Column.EID + "=? AND "
+                + DbStructure.Column.CHAPTER + "=? AND " + DbStructure.Column.SECTION + "=?";
+    }
+
+    /**
+     * Returns a query for a count column of a section's row in the
+     * {@link DbStructure.Table#SECTION_DOWNLOADS} table, which yields 0 if there is no row for
+     * the section yet.
+     */
+    private static String getSectionDownloadsCountQuery(String countColumn) {
+        return "SELECT IFNULL(MAX(" + countColumn + "), 0) FROM "
+                + DbStructure.Table.SECTION_DOWNLOADS + " WHERE "
+                + getSectionDownloadsWhereClause();
+    }
+
     @Override
     public Integer getVideosCountBySection(String enrollmentId, String chapter,
                                            String section, final DataCallback<Integer> callback) {
@@ -346,14 +350,10 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
 
 
     @Override
-    public Integer updateVideoLastPlayedOffset(String videoId, int offset,
-                                               final DataCallback<Integer> callback) {
-        ContentValues values = new ContentValues();
-        values.put(DbStructure.Column.LAST_PLAYED_OFFSET, offset);
-
-        DbOperationUpdate op = new DbOperationUpdate(DbStructure.Table.DOWNLOADS, values,
-                DbStructure.Column.VIDEO_ID + "=? AND " + DbStructure.Column.USERNAME + "=?",
-                new String[]{videoId, username()});
+    public Integer updateVideosLastPlayedOffset(Map<String, Integer> offsets,
+                                                DataCallback<Integer> callback) {
+        DbOperationUpdateLastPlayedOffsets op =
+                new DbOperationUpdateLastPlayedOffsets(username(), offsets);
         op.setCallback(callback);
         return enqueue(op);
     }
@@ -399,6 +399,15 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
     }
 
 
+    @Override
+    public List<VideoModel> addVideosData(List<? extends VideoModel> videos,
+                                          DataCallback<List<VideoModel>> callback) {
+        DbOperationAddVideos op = new DbOperationAddVideos(username(), videos);
+        op.setCallback(callback);
+        return enqueue(op);
+    }
+
+
     /**
      * Returns download entry for given video id.
      *
@@ -486,6 +495,16 @@ public class IDatabaseImpl extends IDatabaseBaseImpl implements IDatabase {
     }
 
 
+    @Override
+    public Integer updateDownloadingVideosInfoByVideoId(List<? extends VideoModel> videos,
+                                                        DataCallback<Integer> callback) {
+        DbOperationUpdateDownloadingVideos op =
+                new DbOperationUpdateDownloadingVideos(username(), videos);
+        op.setCallback(callback);
+        return enqueue(op);
+    }
+
+
     @Override
     public Integer updateAsDownloadingByVideoId(VideoModel model,
                                                 DataCallback<Integer> callback) {
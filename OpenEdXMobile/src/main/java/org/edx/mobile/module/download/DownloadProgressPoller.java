@@ -0,0 +1,271 @@
+package org.edx.mobile.module.download;
+
+import android.app.DownloadManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.http.metrics.BandwidthEstimator;
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.model.download.NativeDownloadModel;
+import org.edx.mobile.module.db.IDatabase;
+import org.edx.mobile.util.observer.BasicObservable;
+import org.edx.mobile.util.observer.MainThreadObservable;
+import org.edx.mobile.util.observer.Observable;
+import org.edx.mobile.util.observer.Observer;
+import org.edx.mobile.util.observer.Subscription;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Polls the progress of all the ongoing downloads of the logged in user from the download
+ * manager in a single query, and publishes it as a {@link DownloadProgressSnapshot} for all the
+ * screens showing download progress to read.
+ * <p>
+ * Polling starts when an observer subscribes, a snapshot is requested or a download is enqueued.
+ * With the {@link OkHttpDownloadManager}, a poll is also made as soon as a download stops
+ * running, so that its completion or failure is shown right away.
+ * The interval between polls is doubled up to {@link #MAX_INTERVAL_MS} each time nothing has
+ * changed, and is reset to {@link #MIN_INTERVAL_MS} when something does. Polling stops when
+ * nothing is downloading anymore, or when nobody has subscribed to or read the progress for a
+ * while.
+ * <p>
+ * The bytes downloaded between polls are also fed to the {@link BandwidthEstimator}.
+ */
+@Singleton
+public class DownloadProgressPoller {
+    public static final long MIN_INTERVAL_MS = 500;
+    public static final long MAX_INTERVAL_MS = 4000;
+    /**
+     * How long polling continues after the last snapshot read while there are no subscribers.
+     */
+    private static final long READ_KEEP_ALIVE_MS = 2 * MAX_INTERVAL_MS;
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @NonNull
+    private final IDownloadManager dm;
+    @NonNull
+    private final IDatabase db;
+    @NonNull
+    private final BandwidthEstimator bandwidthEstimator;
+
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    @NonNull
+    private final BasicObservable<DownloadProgressSnapshot> observable = new BasicObservable<>();
+    @NonNull
+    private final Observable<DownloadProgressSnapshot> mainThreadObservable =
+            new MainThreadObservable<>(new Observable<DownloadProgressSnapshot>() {
+                @NonNull
+                @Override
+                public Subscription subscribe(
+                        @NonNull Observer<DownloadProgressSnapshot> observer) {
+                    synchronized (lock) {
+                        final Subscription subscription = observable.subscribe(observer);
+                        return new Subscription() {
+                            @Override
+                            public void unsubscribe() {
+                                synchronized (lock) {
+                                    subscription.unsubscribe();
+                                }
+                            }
+                        };
+                    }
+                }
+            });
+    private int subscriberCount;
+    private Handler handler;
+    private boolean polling;
+    private boolean pollRequested;
+    private long interval = MIN_INTERVAL_MS;
+
+    @NonNull
+    private volatile DownloadProgressSnapshot snapshot = DownloadProgressSnapshot.EMPTY;
+    private volatile long lastReadTime;
+
+    @NonNull
+    private final Runnable pollRunnable = new Runnable() {
+        @Override
+        public void run() {
+            poll();
+        }
+    };
+
+    @Inject
+    public DownloadProgressPoller(@NonNull IDownloadManager dm, @NonNull IDatabase db,
+                                  @NonNull BandwidthEstimator bandwidthEstimator) {
+        this.dm = dm;
+        this.db = db;
+        this.bandwidthEstimator = bandwidthEstimator;
+        if (dm instanceof OkHttpDownloadManager) {
+            ((OkHttpDownloadManager) dm).addListener(new OkHttpDownloadManager.Listener() {
+                @Override
+                public void onDownloadUpdated(@NonNull NativeDownloadModel download) {
+                    // The progress of running downloads is polled
+                    if (download.status != DownloadManager.STATUS_RUNNING) {
+                        requestPoll();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Subscribes the given observer to the progress snapshots, which are delivered on the main
+     * thread. The latest snapshot is delivered soon after subscribing, and after that only
+     * snapshots in which some progress has changed. An empty snapshot is delivered when nothing
+     * is downloading anymore.
+     */
+    @NonNull
+    public Subscription subscribe(@NonNull Observer<DownloadProgressSnapshot> observer) {
+        final Subscription subscription = mainThreadObservable.subscribe(observer);
+        synchronized (lock) {
+            subscriberCount++;
+        }
+        requestPoll();
+        return new Subscription() {
+            private boolean unsubscribed;
+
+            @Override
+            public void unsubscribe() {
+                synchronized (lock) {
+                    if (unsubscribed) return;
+                    unsubscribed = true;
+                    subscriberCount--;
+                }
+                subscription.unsubscribe();
+            }
+        };
+    }
+
+    /**
+     * @return The latest snapshot of the progress of all the ongoing downloads.
+     */
+    @NonNull
+    public DownloadProgressSnapshot getSnapshot() {
+        lastReadTime = SystemClock.elapsedRealtime();
+        ensurePolling();
+        return snapshot;
+    }
+
+    /**
+     * Returns a snapshot containing the progress of the given downloads that exist. The latest
+     * polled snapshot is returned if it's recent enough and contains all of them, otherwise
+     * they're read from the download manager directly.
+     */
+    @NonNull
+    public DownloadProgressSnapshot getSnapshot(@NonNull long[] dmIds) {
+        final long now = SystemClock.elapsedRealtime();
+        lastReadTime = now;
+        ensurePolling();
+        final DownloadProgressSnapshot snapshot = this.snapshot;
+        if (now - snapshot.getTakenAt() <= MAX_INTERVAL_MS && snapshot.containsAll(dmIds)) {
+            return snapshot;
+        }
+        if (dmIds.length == 0) {
+            return DownloadProgressSnapshot.EMPTY;
+        }
+        return new DownloadProgressSnapshot(dm.getDownloads(dmIds), now);
+    }
+
+    /**
+     * Polls immediately and publishes the result, e.g. after new downloads have been enqueued.
+     */
+    public void requestPoll() {
+        synchronized (lock) {
+            pollRequested = true;
+            interval = MIN_INTERVAL_MS;
+            final Handler handler = getHandler();
+            handler.removeCallbacks(pollRunnable);
+            handler.post(pollRunnable);
+            polling = true;
+        }
+    }
+
+    private void ensurePolling() {
+        synchronized (lock) {
+            if (!polling) {
+                interval = MIN_INTERVAL_MS;
+                getHandler().post(pollRunnable);
+                polling = true;
+            }
+        }
+    }
+
+    // Guarded by lock
+    @NonNull
+    private Handler getHandler() {
+        if (handler == null) {
+            final HandlerThread thread = new HandlerThread("edx-download-progress",
+                    Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+        return handler;
+    }
+
+    private void poll() {
+        final boolean requested;
+        synchronized (lock) {
+            requested = pollRequested;
+            pollRequested = false;
+        }
+        final DownloadProgressSnapshot previous = snapshot;
+        DownloadProgressSnapshot current;
+        try {
+            current = query();
+        } catch (Exception ex) {
+            logger.error(ex);
+            current = previous;
+        }
+        snapshot = current;
+        final long bytesDownloaded = current.getBytesDownloadedSince(previous);
+        if (bytesDownloaded >= 0) {
+            bandwidthEstimator.addSample(bytesDownloaded,
+                    current.getTakenAt() - previous.getTakenAt());
+        }
+        final boolean changed = !current.hasSameProgress(previous);
+        synchronized (lock) {
+            if (changed || requested) {
+                observable.sendData(current);
+            }
+            final Handler handler = getHandler();
+            handler.removeCallbacks(pollRunnable);
+            if (pollRequested) {
+                // Requested again while querying, so the result may already be outdated
+                handler.post(pollRunnable);
+                return;
+            }
+            final boolean idle = subscriberCount == 0 &&
+                    SystemClock.elapsedRealtime() - lastReadTime > READ_KEEP_ALIVE_MS;
+            if (current.isEmpty() || idle) {
+                polling = false;
+                return;
+            }
+            interval = changed ? MIN_INTERVAL_MS : Math.min(interval * 2, MAX_INTERVAL_MS);
+            handler.postDelayed(pollRunnable, interval);
+        }
+    }
+
+    @NonNull
+    private DownloadProgressSnapshot query() {
+        final List<Long> dmIdList = db.getAllDownloadingVideosDmidList(null);
+        final long now = SystemClock.elapsedRealtime();
+        if (dmIdList == null || dmIdList.isEmpty()) {
+            return new DownloadProgressSnapshot(Collections.<NativeDownloadModel>emptyList(), now);
+        }
+        final long[] dmIds = new long[dmIdList.size()];
+        for (int i = 0; i < dmIds.length; i++) {
+            dmIds[i] = dmIdList.get(i);
+        }
+        return new DownloadProgressSnapshot(dm.getDownloads(dmIds), now);
+    }
+}
@@ -0,0 +1,162 @@
+package org.edx.mobile.module.download;
+
+import android.app.DownloadManager;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.edx.mobile.model.download.NativeDownloadModel;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable view of the progress of a set of downloads, as read from the download manager at
+ * a single point in time.
+ */
+public final class DownloadProgressSnapshot {
+    public static final DownloadProgressSnapshot EMPTY = new DownloadProgressSnapshot(
+            Collections.<NativeDownloadModel>emptyList(), 0);
+
+    @NonNull
+    private final Map<Long, Progress> progressByDmId;
+    private final long takenAt;
+
+    /**
+     * @param downloads The downloads to take the progress of.
+     * @param takenAt   The time at which the downloads were read, in the
+     *                  {@link android.os.SystemClock#elapsedRealtime()} time base.
+     */
+    public DownloadProgressSnapshot(@NonNull Collection<NativeDownloadModel> downloads,
+                                    long takenAt) {
+        final Map<Long, Progress> progressByDmId = new HashMap<>(downloads.size() * 2);
+        for (NativeDownloadModel download : downloads) {
+            progressByDmId.put(download.dmid, new Progress(download));
+        }
+        this.progressByDmId = Collections.unmodifiableMap(progressByDmId);
+        this.takenAt = takenAt;
+    }
+
+    public long getTakenAt() {
+        return takenAt;
+    }
+
+    public boolean isEmpty() {
+        return progressByDmId.isEmpty();
+    }
+
+    @Nullable
+    public Progress get(long dmId) {
+        return progressByDmId.get(dmId);
+    }
+
+    public boolean containsAll(@NonNull long[] dmIds) {
+        for (long dmId : dmIds) {
+            if (!progressByDmId.containsKey(dmId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The average progress percentage of all the downloads in this snapshot.
+     */
+    public int getAverageProgress() {
+        if (progressByDmId.isEmpty()) {
+            return 0;
+        }
+        float aggrPercent = 0;
+        for (Progress progress : progressByDmId.values()) {
+            aggrPercent += progress.getPercent();
+        }
+        return (int) (aggrPercent / progressByDmId.size());
+    }
+
+    /**
+     * @return The average progress percentage of the given downloads, skipping the ones that
+     * aren't in this snapshot.
+     */
+    public int getAverageProgress(@NonNull long[] dmIds) {
+        float aggrPercent = 0;
+        int count = 0;
+        for (long dmId : dmIds) {
+            final Progress progress = progressByDmId.get(dmId);
+            if (progress != null) {
+                aggrPercent += progress.getPercent();
+                count++;
+            }
+        }
+        return count == 0 ? 0 : (int) (aggrPercent / count);
+    }
+
+    /**
+     * @return The number of bytes downloaded by the running downloads of this snapshot since the
+     * given earlier snapshot, or -1 if none of them were running in both snapshots.
+     */
+    public long getBytesDownloadedSince(@NonNull DownloadProgressSnapshot earlier) {
+        long bytes = -1;
+        for (Progress progress : progressByDmId.values()) {
+            final Progress earlierProgress = earlier.progressByDmId.get(progress.dmId);
+            if (earlierProgress != null
+                    && progress.status == DownloadManager.STATUS_RUNNING
+                    && earlierProgress.status == DownloadManager.STATUS_RUNNING
+                    && progress.downloadedBytes >= earlierProgress.downloadedBytes) {
+                bytes = Math.max(bytes, 0) + progress.downloadedBytes
+                        - earlierProgress.downloadedBytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return Whether the given snapshot has the same progress for the same downloads as this
+     * one, regardless of when either was taken.
+     */
+    public boolean hasSameProgress(@NonNull DownloadProgressSnapshot other) {
+        return progressByDmId.equals(other.progressByDmId);
+    }
+
+    public static final class Progress {
+        public final long dmId;
+        public final long downloadedBytes;
+        /**
+         * The size of the download, or -1 if it isn't known yet.
+         */
+        public final long totalBytes;
+        /**
+         * One of the {@link android.app.DownloadManager} STATUS_* constants.
+         */
+        public final int status;
+
+        public Progress(@NonNull NativeDownloadModel download) {
+            this.dmId = download.dmid;
+            this.downloadedBytes = download.downloaded;
+            this.totalBytes = download.size;
+            this.status = download.status;
+        }
+
+        public float getPercent() {
+            return totalBytes > 0 ? 100f * downloadedBytes / totalBytes : 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final Progress progress = (Progress) o;
+            return dmId == progress.dmId && downloadedBytes == progress.downloadedBytes
+                    && totalBytes == progress.totalBytes && status == progress.status;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (dmId ^ (dmId >>> 32));
+            result = 31 * result + (int) (downloadedBytes ^ (downloadedBytes >>> 32));
+            result = 31 * result + (int) (totalBytes ^ (totalBytes >>> 32));
+            result = 31 * result + status;
+            return result;
+        }
+    }
+}
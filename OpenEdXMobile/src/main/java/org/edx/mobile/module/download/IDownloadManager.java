@@ -1,8 +1,12 @@
 package org.edx.mobile.module.download;
 
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
 import org.edx.mobile.model.download.NativeDownloadModel;
 
 import java.io.File;
+import java.util.List;
 
 public interface IDownloadManager {
 
@@ -13,6 +17,15 @@ public interface IDownloadManager {
      * @return
      */
     NativeDownloadModel getDownload(long dmid);
+
+    /**
+     * Returns {@link org.edx.mobile.model.download.NativeDownloadModel}s for all the given dmids
+     * that exist, read in a single query.
+     * @param dmids
+     * @return
+     */
+    @NonNull
+    List<NativeDownloadModel> getDownloads(@NonNull long[] dmids);
     
     /**
      * Add a new download for the given URL and returns dmid.
@@ -26,6 +39,28 @@ public interface IDownloadManager {
      */
     long addDownload(File destFolder, String url, boolean wifiOnly, String title);
 
+    /**
+     * Add a new download for the given URL, belonging to the given course, and returns dmid.
+     * Behaves the same as {@link #addDownload(File, String, boolean, String)} otherwise.
+     * @param destFolder
+     * @param url
+     * @param wifiOnly
+     * @param title of video
+     * @param courseId The ID of the course that the video belongs to, if known.
+     * @return
+     */
+    long addDownload(File destFolder, String url, boolean wifiOnly, String title,
+                     @Nullable String courseId);
+
+    /**
+     * Sets the course whose pending downloads should be started before those of the other
+     * courses, usually the one that the user is currently looking at. Implementations that
+     * can't prioritize downloads ignore it.
+     *
+     * @param courseId The ID of the course, or null to remove the priority.
+     */
+    void setPriorityCourse(@Nullable String courseId);
+
     /**
      * Cancel downloads and remove them from the download manager.  Each download will be stopped if
      * it was running, and it will no longer be accessible through the download manager.
@@ -7,6 +7,8 @@ import android.content.Context;
 import android.content.pm.PackageManager;
 import android.database.Cursor;
 import android.net.Uri;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -16,6 +18,9 @@ import org.edx.mobile.model.download.NativeDownloadModel;
 import org.edx.mobile.util.Sha1Util;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 @Singleton
 public class IDownloadManagerImpl implements IDownloadManager {
@@ -107,6 +112,17 @@ public class IDownloadManagerImpl implements IDownloadManager {
         return dmid;
     }
 
+    @Override
+    public long addDownload(File destFolder, String url, boolean wifiOnly, String title,
+                            @Nullable String courseId) {
+        // The system download manager doesn't support priorities
+        return addDownload(destFolder, url, wifiOnly, title);
+    }
+
+    @Override
+    public void setPriorityCourse(@Nullable String courseId) {
+    }
+
     @Override
     public synchronized int removeDownloads(long... dmids) {
         //Need to check first if the download manager service is enabled
@@ -123,38 +139,55 @@ public class IDownloadManagerImpl implements IDownloadManager {
 
     @Override
     public synchronized int getAverageProgressForDownloads(long[] dmids) {
-        //Need to check first if the download manager service is enabled
-        if(!isDownloadManagerEnabled())
+        final List<NativeDownloadModel> downloads = getDownloads(dmids);
+        if (downloads.isEmpty()) {
             return 0;
+        }
+        float aggrPercent = 0;
+        for (NativeDownloadModel download : downloads) {
+            if (download.size > 0) {
+                aggrPercent += (100f * download.downloaded / download.size);
+            }
+        }
+        return (int) (aggrPercent / downloads.size());
+    }
+
+    @NonNull
+    @Override
+    public synchronized List<NativeDownloadModel> getDownloads(@NonNull long[] dmids) {
+        //Need to check first if the download manager service is enabled
+        if (dmids.length == 0 || !isDownloadManagerEnabled())
+            return Collections.emptyList();
 
         Query query = new Query();
         query.setFilterById(dmids);
         try {
             Cursor c = dm.query(query);
-            if (c.moveToFirst()) {
-                int count = c.getCount();
-                float aggrPercent = 0;
-                do {
-                    long downloaded = c
-                        .getLong(c
-                            .getColumnIndex(DownloadManager.COLUMN_BYTES_DOWNLOADED_SO_FAR));
-                    long size = c.getLong(c
-                        .getColumnIndex(DownloadManager.COLUMN_TOTAL_SIZE_BYTES));
-
-                    aggrPercent += (100f * downloaded / size);
-                } while (c.moveToNext());
-
+            try {
+                final List<NativeDownloadModel> downloads = new ArrayList<>(c.getCount());
+                final int idColumn = c.getColumnIndex(DownloadManager.COLUMN_ID);
+                final int downloadedColumn =
+                        c.getColumnIndex(DownloadManager.COLUMN_BYTES_DOWNLOADED_SO_FAR);
+                final int sizeColumn = c.getColumnIndex(DownloadManager.COLUMN_TOTAL_SIZE_BYTES);
+                final int filepathColumn = c.getColumnIndex(DownloadManager.COLUMN_LOCAL_FILENAME);
+                final int statusColumn = c.getColumnIndex(DownloadManager.COLUMN_STATUS);
+                while (c.moveToNext()) {
+                    NativeDownloadModel ndm = new NativeDownloadModel();
+                    ndm.dmid = c.getLong(idColumn);
+                    ndm.downloaded = c.getLong(downloadedColumn);
+                    ndm.size = c.getLong(sizeColumn);
+                    ndm.filepath = c.getString(filepathColumn);
+                    ndm.status = c.getInt(statusColumn);
+                    downloads.add(ndm);
+                }
+                return downloads;
+            } finally {
                 c.close();
-
-                int average = (int) (aggrPercent / count);
-                return average;
             }
-            c.close();
-        }catch (Exception ex){
+        } catch (Exception ex) {
             logger.debug(ex.getMessage());
         }
-        
-        return 0;
+        return Collections.emptyList();
     }
 
     @Override
@@ -0,0 +1,778 @@
+package org.edx.mobile.module.download;
+
+import android.app.DownloadManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.util.AtomicFile;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.http.provider.OkHttpClientProvider;
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.model.download.NativeDownloadModel;
+import org.edx.mobile.util.Config;
+import org.edx.mobile.util.NetworkUtil;
+import org.edx.mobile.util.Sha1Util;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.logging.HttpLoggingInterceptor;
+
+/**
+ * An {@link IDownloadManager} that downloads videos with the app's own HTTP stack instead of the
+ * system's download manager.
+ * <p>
+ * When the server supports range requests, each video is split into segments that are downloaded
+ * over separate connections at the same time. The progress of every segment is saved to a file,
+ * so downloads that are interrupted, even by the process being killed, resume from where they
+ * stopped. At most {@link Config.VideoDownloadConfig#getMaxConcurrentDownloads()} videos are
+ * downloaded at the same time; the pending downloads of the course set with
+ * {@link #setPriorityCourse(String)} are started first, and the others in the order they were
+ * added.
+ * <p>
+ * The statuses of the downloads are the {@link DownloadManager} ones, and their completion is
+ * broadcast to the {@link DownloadCompleteReceiver}, so the rest of the app handles them the same
+ * way as the system's downloads. Downloads wait without a network, and those interrupted by
+ * losing the network aren't counted as failed attempts; they continue when it's back.
+ */
+@Singleton
+public class OkHttpDownloadManager implements IDownloadManager {
+    public interface Listener {
+        /**
+         * Called on a download thread when the progress or the status of a download changes.
+         * Progress updates are sent about twice a second for each running download.
+         */
+        void onDownloadUpdated(@NonNull NativeDownloadModel download);
+    }
+
+    private static final String STATE_FILE_NAME = "video_downloads.json";
+    private static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final long PROGRESS_INTERVAL_MS = 500;
+    private static final long SAVE_INTERVAL_MS = 2000;
+    private static final long RETRY_DELAY_MS = 2000;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Pattern CONTENT_RANGE_PATTERN =
+            Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @NonNull
+    private final Context context;
+
+    @NonNull
+    private final OkHttpClient client;
+
+    @NonNull
+    private final AtomicFile stateFile;
+
+    private final int maxConcurrentDownloads;
+    private final int connectionsPerDownload;
+
+    @NonNull
+    private final ScheduledExecutorService executor;
+
+    @NonNull
+    private final Gson gson = new Gson();
+
+    @NonNull
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    @NonNull
+    private final Map<Long, DownloadRecord> downloads = new LinkedHashMap<>();
+    private long nextId = 1;
+    @Nullable
+    private String priorityCourseId;
+    private int runningCount;
+    private long lastSaveTime;
+
+    @Inject
+    public OkHttpDownloadManager(@NonNull Context context,
+                                 @NonNull OkHttpClientProvider clientProvider,
+                                 @NonNull Config config) {
+        this(context, createClient(clientProvider),
+                new File(context.getFilesDir(), STATE_FILE_NAME),
+                config.getVideoDownloadConfig());
+    }
+
+    public OkHttpDownloadManager(@NonNull Context context, @NonNull OkHttpClient client,
+                                 @NonNull File stateFile,
+                                 @NonNull Config.VideoDownloadConfig config) {
+        this.context = context.getApplicationContext();
+        this.client = client;
+        this.stateFile = new AtomicFile(stateFile);
+        maxConcurrentDownloads = config.getMaxConcurrentDownloads();
+        connectionsPerDownload = config.getConnectionsPerDownload();
+        // Every running download uses at most one thread per connection, plus one for retries
+        executor = new ScheduledThreadPoolExecutor(
+                maxConcurrentDownloads * connectionsPerDownload + 1, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                final Thread thread = new Thread(runnable,
+                        "edx-video-download-" + count.incrementAndGet());
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+        load();
+        this.context.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                // Start the downloads that were waiting for a network
+                scheduleDownloads();
+            }
+        }, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        scheduleDownloads();
+    }
+
+    /**
+     * The video files are written to disk directly, so they don't go through the HTTP cache, and
+     * their bodies must not be buffered for logging.
+     */
+    @NonNull
+    private static OkHttpClient createClient(@NonNull OkHttpClientProvider clientProvider) {
+        final OkHttpClient.Builder builder = clientProvider.getNonOAuthBased().newBuilder()
+                .cache(null);
+        for (Iterator<Interceptor> it = builder.interceptors().iterator(); it.hasNext(); ) {
+            if (it.next() instanceof HttpLoggingInterceptor) {
+                it.remove();
+            }
+        }
+        return builder.build();
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public synchronized NativeDownloadModel getDownload(long dmid) {
+        final DownloadRecord record = downloads.get(dmid);
+        return record != null ? record.toModel() : null;
+    }
+
+    @NonNull
+    @Override
+    public synchronized List<NativeDownloadModel> getDownloads(@NonNull long[] dmids) {
+        if (dmids.length == 0) {
+            return Collections.emptyList();
+        }
+        final List<NativeDownloadModel> models = new ArrayList<>(dmids.length);
+        for (long dmid : dmids) {
+            final DownloadRecord record = downloads.get(dmid);
+            if (record != null) {
+                models.add(record.toModel());
+            }
+        }
+        return models;
+    }
+
+    @Override
+    public long addDownload(File destFolder, String url, boolean wifiOnly, String title) {
+        return addDownload(destFolder, url, wifiOnly, title, null);
+    }
+
+    @Override
+    public long addDownload(File destFolder, String url, boolean wifiOnly, String title,
+                            @Nullable String courseId) {
+        if (url == null) {
+            return -1;
+        }
+        url = url.trim();
+        if (url.length() == 0) {
+            return -1;
+        }
+
+        logger.debug("Starting download: " + url);
+
+        final DownloadRecord record = new DownloadRecord();
+        record.url = url;
+        record.filepath = new File(destFolder, Sha1Util.SHA1(url)).getAbsolutePath();
+        record.title = title;
+        record.wifiOnly = wifiOnly;
+        record.courseId = courseId;
+        record.size = -1;
+        record.status = DownloadManager.STATUS_PENDING;
+        synchronized (this) {
+            record.id = nextId++;
+            downloads.put(record.id, record);
+            save();
+        }
+        scheduleDownloads();
+        return record.id;
+    }
+
+    @Override
+    public int removeDownloads(long... dmids) {
+        final List<DownloadRecord> removed = new ArrayList<>(dmids.length);
+        synchronized (this) {
+            for (long dmid : dmids) {
+                final DownloadRecord record = downloads.remove(dmid);
+                if (record != null) {
+                    // Running downloads stop at their next read
+                    record.cancelled = true;
+                    removed.add(record);
+                }
+            }
+            if (!removed.isEmpty()) {
+                save();
+            }
+        }
+        for (DownloadRecord record : removed) {
+            deleteFile(record);
+        }
+        return removed.size();
+    }
+
+    private void deleteFile(@NonNull DownloadRecord record) {
+        if (!new File(record.filepath).delete()) {
+            logger.debug("No file to delete for download " + record.id);
+        }
+    }
+
+    @Override
+    public int getProgressForDownload(long dmid) {
+        return getAverageProgressForDownloads(new long[]{dmid});
+    }
+
+    @Override
+    public boolean isDownloadComplete(long dmid) {
+        final NativeDownloadModel download = getDownload(dmid);
+        return download != null && download.status == DownloadManager.STATUS_SUCCESSFUL;
+    }
+
+    @Override
+    public int getAverageProgressForDownloads(long[] dmids) {
+        final List<NativeDownloadModel> downloads = getDownloads(dmids);
+        if (downloads.isEmpty()) {
+            return 0;
+        }
+        float aggrPercent = 0;
+        for (NativeDownloadModel download : downloads) {
+            if (download.size > 0) {
+                aggrPercent += (100f * download.downloaded / download.size);
+            }
+        }
+        return (int) (aggrPercent / downloads.size());
+    }
+
+    @Override
+    public boolean isDownloadManagerEnabled() {
+        return true;
+    }
+
+    @Override
+    public void setPriorityCourse(@Nullable String courseId) {
+        synchronized (this) {
+            priorityCourseId = courseId;
+        }
+        scheduleDownloads();
+    }
+
+    /**
+     * Starts as many pending downloads as the concurrency limit allows.
+     */
+    private synchronized void scheduleDownloads() {
+        while (runningCount < maxConcurrentDownloads) {
+            final DownloadRecord record = getNextDownload();
+            if (record == null) {
+                return;
+            }
+            record.status = DownloadManager.STATUS_RUNNING;
+            record.stopped = false;
+            runningCount++;
+            executor.execute(new DownloadTask(record));
+        }
+    }
+
+    /**
+     * @return The pending download that should be started next, or null if none can be started.
+     */
+    @Nullable
+    private synchronized DownloadRecord getNextDownload() {
+        if (!NetworkUtil.isConnected(context)) {
+            // Scheduled again when the network is back
+            return null;
+        }
+        final boolean isOnWifi = NetworkUtil.isConnectedWifi(context);
+        DownloadRecord next = null;
+        for (DownloadRecord record : downloads.values()) {
+            if (record.status != DownloadManager.STATUS_PENDING || (record.wifiOnly && !isOnWifi)) {
+                continue;
+            }
+            if (priorityCourseId != null && priorityCourseId.equals(record.courseId)) {
+                return record;
+            }
+            if (next == null) {
+                next = record;
+            }
+        }
+        return next;
+    }
+
+    private class DownloadTask implements Runnable {
+        @NonNull
+        private final DownloadRecord record;
+
+        DownloadTask(@NonNull DownloadRecord record) {
+            this.record = record;
+        }
+
+        @Override
+        public void run() {
+            boolean isComplete = false;
+            try {
+                download(record);
+                isComplete = !record.cancelled && !record.stopped;
+            } catch (IOException e) {
+                logger.warn("Download " + record.id + " interrupted: " + e.getMessage());
+            }
+            synchronized (OkHttpDownloadManager.this) {
+                runningCount--;
+                if (!record.cancelled) {
+                    if (isComplete) {
+                        record.status = DownloadManager.STATUS_SUCCESSFUL;
+                    } else if (record.stopped && record.wifiOnly &&
+                            !NetworkUtil.isConnectedWifi(context)) {
+                        // Not a failure, it will continue when there's a Wi-Fi network again
+                        record.status = DownloadManager.STATUS_PENDING;
+                    } else if (!NetworkUtil.isConnected(context)) {
+                        // Nor is losing the network, it will continue when it's back
+                        record.status = DownloadManager.STATUS_PENDING;
+                    } else if (++record.attempts < MAX_ATTEMPTS) {
+                        record.status = DownloadManager.STATUS_PAUSED;
+                        executor.schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                retry(record);
+                            }
+                        }, RETRY_DELAY_MS * record.attempts, TimeUnit.MILLISECONDS);
+                    } else {
+                        record.status = DownloadManager.STATUS_FAILED;
+                    }
+                    save();
+                }
+            }
+            if (!record.cancelled) {
+                notifyListeners(record);
+                if (isComplete) {
+                    context.sendBroadcast(new Intent(DownloadManager.ACTION_DOWNLOAD_COMPLETE)
+                            .setClass(context, DownloadCompleteReceiver.class)
+                            .putExtra(DownloadManager.EXTRA_DOWNLOAD_ID, record.id));
+                }
+            }
+            scheduleDownloads();
+        }
+    }
+
+    private void retry(@NonNull DownloadRecord record) {
+        synchronized (this) {
+            if (record.cancelled || record.status != DownloadManager.STATUS_PAUSED) {
+                return;
+            }
+            record.status = DownloadManager.STATUS_PENDING;
+        }
+        scheduleDownloads();
+    }
+
+    /**
+     * Downloads all the incomplete segments of the given download, the first one on the calling
+     * thread and the others on their own threads.
+     */
+    private void download(@NonNull final DownloadRecord record) throws IOException {
+        Response firstResponse = null;
+        final List<Segment> segments;
+        synchronized (this) {
+            segments = record.segments;
+        }
+        if (segments == null) {
+            firstResponse = probe(record);
+        }
+
+        final List<Future<?>> futures = new ArrayList<>();
+        Segment firstSegment = null;
+        for (final Segment segment : record.segments) {
+            if (segment.isComplete()) {
+                continue;
+            }
+            if (firstSegment == null) {
+                firstSegment = segment;
+                continue;
+            }
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    downloadSegment(record, segment, null);
+                    return null;
+                }
+            }));
+        }
+
+        IOException error = null;
+        if (firstSegment != null) {
+            try {
+                downloadSegment(record, firstSegment, firstResponse);
+            } catch (IOException e) {
+                error = e;
+            }
+        } else if (firstResponse != null) {
+            firstResponse.close();
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof IOException ?
+                            (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                record.stopped = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Requests the whole file to find out its size and whether the server supports range
+     * requests, and splits the download into segments accordingly.
+     *
+     * @return The response, whose body is the content of the first segment.
+     */
+    @NonNull
+    private Response probe(@NonNull DownloadRecord record) throws IOException {
+        final Response response = client.newCall(newRequest(record.url)
+                .header("Range", "bytes=0-")
+                .build()).execute();
+        final long size;
+        final List<Segment> segments = new ArrayList<>();
+        final String contentRange = response.header("Content-Range");
+        final Matcher matcher =
+                CONTENT_RANGE_PATTERN.matcher(contentRange != null ? contentRange : "");
+        if (response.code() == 206 && matcher.matches()) {
+            size = Long.parseLong(matcher.group(3));
+            final long count = Math.max(1, Math.min(connectionsPerDownload,
+                    size / MIN_SEGMENT_SIZE));
+            final long segmentSize = size / count;
+            for (int i = 0; i < count; i++) {
+                final long start = i * segmentSize;
+                final long end = i == count - 1 ? size - 1 : start + segmentSize - 1;
+                segments.add(new Segment(start, end));
+            }
+        } else if (response.isSuccessful()) {
+            // No range support, so the file is downloaded over a single connection
+            size = response.body().contentLength();
+            segments.add(new Segment(0, size >= 0 ? size - 1 : -1));
+        } else {
+            response.close();
+            throw new IOException("Unexpected response code " + response.code());
+        }
+
+        final File file = new File(record.filepath);
+        final File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            response.close();
+            throw new IOException("Cannot create " + parent);
+        }
+        if (size > 0) {
+            // Reserve the space for the whole file up front
+            final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                randomAccessFile.setLength(size);
+            } finally {
+                randomAccessFile.close();
+            }
+        }
+
+        synchronized (this) {
+            if (record.cancelled) {
+                // Removed during the request, when there was no file to delete yet
+                response.close();
+                deleteFile(record);
+                throw new IOException("Download " + record.id + " was removed");
+            }
+            record.size = size;
+            record.rangeSupported = response.code() == 206;
+            record.segments = segments;
+            save();
+        }
+        return response;
+    }
+
+    /**
+     * Downloads the rest of the given segment and writes it to its place in the file.
+     *
+     * @param response The response to read the segment from, or null to request it.
+     */
+    private void downloadSegment(@NonNull DownloadRecord record, @NonNull Segment segment,
+                                 @Nullable Response response) throws IOException {
+        if (record.cancelled || record.stopped) {
+            if (response != null) {
+                response.close();
+            }
+            return;
+        }
+        if (response == null) {
+            final Request.Builder request = newRequest(record.url);
+            synchronized (this) {
+                if (record.rangeSupported) {
+                    request.header("Range", "bytes=" + segment.getPosition() + "-" + segment.end);
+                } else {
+                    // The download can only be restarted from the beginning
+                    segment.downloaded = 0;
+                }
+            }
+            response = client.newCall(request.build()).execute();
+            if (record.rangeSupported ? response.code() != 206 : !response.isSuccessful()) {
+                response.close();
+                throw new IOException("Unexpected response code " + response.code());
+            }
+        }
+
+        final RandomAccessFile file = new RandomAccessFile(record.filepath, "rw");
+        synchronized (this) {
+            if (record.cancelled) {
+                // Removed during the request, so the file has just been created again
+                file.close();
+                response.close();
+                deleteFile(record);
+                return;
+            }
+        }
+        try {
+            final InputStream in = response.body().byteStream();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long position = segment.getPosition();
+            file.seek(position);
+            while (!record.cancelled && !record.stopped) {
+                final long remaining = segment.end >= 0 ? segment.end + 1 - position : BUFFER_SIZE;
+                if (remaining <= 0) {
+                    break;
+                }
+                final int read = in.read(buffer, 0, (int) Math.min(BUFFER_SIZE, remaining));
+                if (read == -1) {
+                    if (segment.end >= 0) {
+                        throw new EOFException("Unexpected end of stream at " + position);
+                    }
+                    // The size wasn't known in advance
+                    synchronized (this) {
+                        segment.end = position - 1;
+                        record.size = position;
+                    }
+                    break;
+                }
+                file.write(buffer, 0, read);
+                position += read;
+                synchronized (this) {
+                    segment.downloaded += read;
+                }
+                onProgress(record);
+            }
+        } catch (IOException e) {
+            // Let the other segments stop early too, the download will be retried as a whole
+            record.stopped = true;
+            throw e;
+        } finally {
+            file.close();
+            response.close();
+        }
+    }
+
+    private void onProgress(@NonNull DownloadRecord record) {
+        final long now = SystemClock.elapsedRealtime();
+        synchronized (this) {
+            if (now - lastSaveTime >= SAVE_INTERVAL_MS) {
+                save();
+            }
+            if (now - record.lastUpdateTime < PROGRESS_INTERVAL_MS) {
+                return;
+            }
+            record.lastUpdateTime = now;
+        }
+        if (record.wifiOnly && !NetworkUtil.isConnectedWifi(context)) {
+            record.stopped = true;
+        }
+        notifyListeners(record);
+    }
+
+    private void notifyListeners(@NonNull DownloadRecord record) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        final NativeDownloadModel model;
+        synchronized (this) {
+            model = record.toModel();
+        }
+        for (Listener listener : listeners) {
+            listener.onDownloadUpdated(model);
+        }
+    }
+
+    @NonNull
+    private static Request.Builder newRequest(@NonNull String url) {
+        // Compressed responses can't be split into ranges of the file
+        return new Request.Builder()
+                .url(url)
+                .header("Accept-Encoding", "identity");
+    }
+
+    /**
+     * Reads the downloads saved by a previous process. Those that were interrupted are queued
+     * again, to resume from the saved progress of their segments.
+     */
+    private synchronized void load() {
+        if (!stateFile.getBaseFile().exists()) {
+            return;
+        }
+        try {
+            final FileInputStream in = stateFile.openRead();
+            try {
+                final State state = gson.fromJson(new InputStreamReader(in, "UTF-8"),
+                        State.class);
+                if (state == null || state.downloads == null) {
+                    return;
+                }
+                for (DownloadRecord record : state.downloads) {
+                    if (record.status == DownloadManager.STATUS_RUNNING ||
+                            record.status == DownloadManager.STATUS_PAUSED) {
+                        record.status = DownloadManager.STATUS_PENDING;
+                    }
+                    downloads.put(record.id, record);
+                    nextId = Math.max(nextId, record.id + 1);
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException | JsonParseException e) {
+            logger.error(e);
+        }
+    }
+
+    private synchronized void save() {
+        lastSaveTime = SystemClock.elapsedRealtime();
+        final State state = new State();
+        state.downloads = new ArrayList<>(downloads.values());
+        FileOutputStream out = null;
+        try {
+            out = stateFile.startWrite();
+            out.write(gson.toJson(state).getBytes("UTF-8"));
+            stateFile.finishWrite(out);
+        } catch (IOException e) {
+            logger.error(e);
+            if (out != null) {
+                stateFile.failWrite(out);
+            }
+        }
+    }
+
+    private static class State {
+        List<DownloadRecord> downloads;
+    }
+
+    private static class DownloadRecord {
+        long id;
+        String url;
+        String filepath;
+        String title;
+        boolean wifiOnly;
+        String courseId;
+        long size;
+        int status;
+        int attempts;
+        boolean rangeSupported;
+        @Nullable
+        List<Segment> segments;
+
+        transient volatile boolean cancelled;
+        transient volatile boolean stopped;
+        transient long lastUpdateTime;
+
+        @NonNull
+        NativeDownloadModel toModel() {
+            final NativeDownloadModel model = new NativeDownloadModel();
+            model.dmid = id;
+            model.filepath = filepath;
+            model.status = status;
+            model.size = size;
+            if (segments != null) {
+                for (Segment segment : segments) {
+                    model.downloaded += segment.downloaded;
+                }
+            }
+            return model;
+        }
+    }
+
+    /**
+     * A range of the file that's downloaded over its own connection.
+     */
+    private static class Segment {
+        long start;
+        // Inclusive, or -1 if the size of the file isn't known
+        long end;
+        long downloaded;
+
+        Segment() {
+        }
+
+        Segment(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        long getPosition() {
+            return start + downloaded;
+        }
+
+        boolean isComplete() {
+            return end >= 0 && getPosition() > end;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.edx.mobile.module.download;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.http.metrics.BandwidthEstimator;
+import org.edx.mobile.model.VideoModel;
+import org.edx.mobile.util.Config;
+
+/**
+ * Chooses between the high and low quality encodings of a video based on the bandwidth
+ * estimated by the {@link BandwidthEstimator} for the current type of network, and the
+ * thresholds in the {@link Config.VideoEncodingConfig}. The low quality encoding is chosen when
+ * the bandwidth is unknown.
+ */
+@Singleton
+public class VideoEncodingSelector {
+    @NonNull
+    private final BandwidthEstimator bandwidthEstimator;
+    @NonNull
+    private final Config.VideoEncodingConfig encodingConfig;
+
+    @Inject
+    public VideoEncodingSelector(@NonNull BandwidthEstimator bandwidthEstimator,
+                                 @NonNull Config config) {
+        this.bandwidthEstimator = bandwidthEstimator;
+        this.encodingConfig = config.getVideoEncodingConfig();
+    }
+
+    /**
+     * @return The URL of the encoding to stream the given video from on the current network.
+     */
+    @Nullable
+    public String getStreamingUrl(@NonNull VideoModel video) {
+        final BandwidthEstimator.NetworkType networkType =
+                bandwidthEstimator.getCurrentNetworkType();
+        final int minKbps = networkType == BandwidthEstimator.NetworkType.CELLULAR ?
+                encodingConfig.getStreamingCellularMinKbps() :
+                encodingConfig.getStreamingWifiMinKbps();
+        return getUrl(video, networkType, minKbps);
+    }
+
+    /**
+     * @param wifiOnly Whether the download is only allowed over Wi-Fi, in which case the
+     *                 encoding is chosen for Wi-Fi regardless of the current network.
+     * @return The URL of the encoding to download the given video from.
+     */
+    @Nullable
+    public String getDownloadUrl(@NonNull VideoModel video, boolean wifiOnly) {
+        final BandwidthEstimator.NetworkType networkType = wifiOnly ?
+                BandwidthEstimator.NetworkType.WIFI : bandwidthEstimator.getCurrentNetworkType();
+        final int minKbps = networkType == BandwidthEstimator.NetworkType.CELLULAR ?
+                encodingConfig.getDownloadCellularMinKbps() :
+                encodingConfig.getDownloadWifiMinKbps();
+        return getUrl(video, networkType, minKbps);
+    }
+
+    @Nullable
+    private String getUrl(@NonNull VideoModel video,
+                          @Nullable BandwidthEstimator.NetworkType networkType, int minKbps) {
+        final float kbps = networkType == null ? BandwidthEstimator.UNKNOWN :
+                bandwidthEstimator.getEstimatedKbps(networkType);
+        final boolean high = minKbps >= 0 && kbps != BandwidthEstimator.UNKNOWN &&
+                kbps >= minKbps;
+        final String highUrl = video.getHighQualityVideoUrl();
+        final String lowUrl = video.getLowQualityVideoUrl();
+        final String preferredUrl = high ? highUrl : lowUrl;
+        if (!TextUtils.isEmpty(preferredUrl)) {
+            return preferredUrl;
+        }
+        final String otherUrl = high ? lowUrl : highUrl;
+        if (!TextUtils.isEmpty(otherUrl)) {
+            return otherUrl;
+        }
+        return video.getVideoUrl();
+    }
+}
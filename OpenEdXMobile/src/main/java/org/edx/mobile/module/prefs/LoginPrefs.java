@@ -13,6 +13,7 @@ import org.edx.mobile.model.api.ProfileModel;
 import org.edx.mobile.module.analytics.Analytics;
 import org.edx.mobile.services.EdxCookieManager;
 import org.edx.mobile.user.ProfileImage;
+import org.edx.mobile.util.Sha1Util;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -32,46 +33,71 @@ public class LoginPrefs {
     @NonNull
     private final PrefManager pref;
 
+    /**
+     * The credentials and profile stored in the preferences, loaded on first use and then kept
+     * up to date by the methods writing them, so that reading them needs no preference access or
+     * JSON parsing.
+     */
+    @Nullable
+    private volatile Snapshot snapshot;
+
     @Inject
     public LoginPrefs(@NonNull Context context) {
         pref = new PrefManager(context, PrefManager.Pref.LOGIN);
     }
 
-    public void storeAuthTokenResponse(@NonNull AuthResponse response, @NonNull AuthBackend backend) {
-        pref.put(PrefManager.Key.AUTH_JSON, gson.toJson(response));
+    public synchronized void storeAuthTokenResponse(@NonNull AuthResponse response, @NonNull AuthBackend backend) {
+        response.issuedAt = System.currentTimeMillis();
+        final String json = gson.toJson(response);
+        pref.put(PrefManager.Key.AUTH_JSON, json);
         pref.put(PrefManager.Key.ANALYTICS_KEY_BACKEND, analyticsTokenFromAuthBackend(backend));
+        final Snapshot current = getSnapshot();
+        snapshot = new Snapshot(parseAuth(json), current.socialLoginAccessToken, current.profile);
     }
 
-    public void clearAuthTokenResponse() {
+    public synchronized void clearAuthTokenResponse() {
         pref.put(PrefManager.Key.AUTH_JSON, null);
         pref.put(PrefManager.Key.ANALYTICS_KEY_BACKEND, null);
+        final Snapshot current = getSnapshot();
+        snapshot = new Snapshot(null, current.socialLoginAccessToken, current.profile);
     }
 
-    public void storeRefreshTokenResponse(@NonNull AuthResponse refreshTokenResponse) {
-        pref.put(PrefManager.Key.AUTH_JSON, gson.toJson(refreshTokenResponse));
+    public synchronized void storeRefreshTokenResponse(@NonNull AuthResponse refreshTokenResponse) {
+        refreshTokenResponse.issuedAt = System.currentTimeMillis();
+        final String json = gson.toJson(refreshTokenResponse);
+        pref.put(PrefManager.Key.AUTH_JSON, json);
+        final Snapshot current = getSnapshot();
+        snapshot = new Snapshot(parseAuth(json), current.socialLoginAccessToken, current.profile);
     }
 
-    public void storeUserProfile(@NonNull ProfileModel res) {
-        pref.put(PrefManager.Key.PROFILE_JSON, gson.toJson(res));
+    public synchronized void storeUserProfile(@NonNull ProfileModel res) {
+        final String json = gson.toJson(res);
+        pref.put(PrefManager.Key.PROFILE_JSON, json);
         clearSocialLoginToken();
+        snapshot = new Snapshot(getSnapshot().auth, null, parseProfile(json));
     }
 
-    public void clear() {
+    public synchronized void clear() {
         clearSocialLoginToken();
         setSubtitleLanguage(null);
         pref.put(PrefManager.Key.PROFILE_JSON, null);
         pref.put(PrefManager.Key.AUTH_JSON, null);
+        snapshot = new Snapshot(null, null, null);
         EdxCookieManager.getSharedInstance(MainApplication.instance()).clearWebWiewCookie();
     }
 
-    public void saveSocialLoginToken(@NonNull String accessToken, @NonNull String backend) {
+    public synchronized void saveSocialLoginToken(@NonNull String accessToken, @NonNull String backend) {
         pref.put(PrefManager.Key.AUTH_TOKEN_SOCIAL, accessToken);
         pref.put(PrefManager.Key.AUTH_TOKEN_BACKEND, backend);
+        final Snapshot current = getSnapshot();
+        snapshot = new Snapshot(current.auth, accessToken, current.profile);
     }
 
-    public void clearSocialLoginToken() {
+    public synchronized void clearSocialLoginToken() {
         pref.put(PrefManager.Key.AUTH_TOKEN_BACKEND, null);
         pref.put(PrefManager.Key.AUTH_TOKEN_SOCIAL, null);
+        final Snapshot current = getSnapshot();
+        snapshot = new Snapshot(current.auth, null, current.profile);
     }
 
     /**
@@ -92,18 +118,12 @@ public class LoginPrefs {
 
     @Nullable
     public String getAuthorizationHeader() {
-        final AuthResponse auth = getCurrentAuth();
-        if (auth == null || !auth.isSuccess()) {
-            // this might be a login with Facebook or Google
-            return getSocialLoginAccessToken();
-        } else {
-            return String.format("%s %s", auth.token_type, auth.access_token);
-        }
+        return getSnapshot().authorizationHeader;
     }
 
     @Nullable
     public String getSocialLoginAccessToken() {
-        return pref.getString(PrefManager.Key.AUTH_TOKEN_SOCIAL);
+        return getSnapshot().socialLoginAccessToken;
     }
 
     @Nullable
@@ -111,22 +131,20 @@ public class LoginPrefs {
         return pref.getString(PrefManager.Key.AUTH_TOKEN_BACKEND);
     }
 
+    /**
+     * @return The stored auth response. It's shared by all callers, so it must not be modified.
+     */
     @Nullable
     public AuthResponse getCurrentAuth() {
-        final String json = pref.getString(PrefManager.Key.AUTH_JSON);
-        if (json == null) {
-            return null;
-        }
-        return gson.fromJson(json, AuthResponse.class);
+        return getSnapshot().auth;
     }
 
+    /**
+     * @return The stored user profile. It's shared by all callers, so it must not be modified.
+     */
     @Nullable
     public ProfileModel getCurrentUserProfile() {
-        final String json = pref.getString(PrefManager.Key.PROFILE_JSON);
-        if (json == null) {
-            return null;
-        }
-        return gson.fromJson(json, ProfileModel.class);
+        return getSnapshot().profile;
     }
 
     @Nullable
@@ -135,6 +153,14 @@ public class LoginPrefs {
         return null == profileModel ? null : profileModel.username;
     }
 
+    /**
+     * @return The SHA-1 hash of the username, used to keep the data of different users apart.
+     */
+    @Nullable
+    public String getHashedUsername() {
+        return getSnapshot().hashedUsername;
+    }
+
     @Nullable
     public String getAuthBackendKeyForSegment() {
         return pref.getString(PrefManager.Key.ANALYTICS_KEY_BACKEND);
@@ -164,6 +190,34 @@ public class LoginPrefs {
         return gson.fromJson(json, ProfileImage.class);
     }
 
+    @NonNull
+    private Snapshot getSnapshot() {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = this.snapshot;
+                if (snapshot == null) {
+                    snapshot = new Snapshot(
+                            parseAuth(pref.getString(PrefManager.Key.AUTH_JSON)),
+                            pref.getString(PrefManager.Key.AUTH_TOKEN_SOCIAL),
+                            parseProfile(pref.getString(PrefManager.Key.PROFILE_JSON)));
+                    this.snapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @Nullable
+    private AuthResponse parseAuth(@Nullable String json) {
+        return json == null ? null : gson.fromJson(json, AuthResponse.class);
+    }
+
+    @Nullable
+    private ProfileModel parseProfile(@Nullable String json) {
+        return json == null ? null : gson.fromJson(json, ProfileModel.class);
+    }
+
     @NonNull
     private static String analyticsTokenFromAuthBackend(@NonNull AuthBackend backend) {
         switch (backend) {
@@ -177,4 +231,32 @@ public class LoginPrefs {
                 throw new IllegalArgumentException(backend.name());
         }
     }
+
+    private static final class Snapshot {
+        @Nullable
+        final AuthResponse auth;
+        @Nullable
+        final String socialLoginAccessToken;
+        @Nullable
+        final ProfileModel profile;
+        @Nullable
+        final String authorizationHeader;
+        @Nullable
+        final String hashedUsername;
+
+        Snapshot(@Nullable AuthResponse auth, @Nullable String socialLoginAccessToken,
+                 @Nullable ProfileModel profile) {
+            this.auth = auth;
+            this.socialLoginAccessToken = socialLoginAccessToken;
+            this.profile = profile;
+            if (auth == null || !auth.isSuccess()) {
+                // this might be a login with Facebook or Google
+                authorizationHeader = socialLoginAccessToken;
+            } else {
+                authorizationHeader = auth.token_type + " " + auth.access_token;
+            }
+            hashedUsername = profile == null || profile.username == null ?
+                    null : Sha1Util.SHA1(profile.username);
+        }
+    }
 }
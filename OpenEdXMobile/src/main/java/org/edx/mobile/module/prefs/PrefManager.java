@@ -5,7 +5,10 @@ import android.content.SharedPreferences.Editor;
 import android.support.annotation.NonNull;
 
 import org.edx.mobile.base.MainApplication;
+import org.json.JSONArray;
+import org.json.JSONException;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -217,9 +220,19 @@ public class PrefManager {
         public void setWhatsNewShown(boolean isShown) {
             super.put(Key.WHATS_NEW_SHOWN, isShown);
         }
+
+        public boolean isLegacyHttpCacheMigrated() {
+            return getBoolean(Key.LEGACY_HTTP_CACHE_MIGRATED, false);
+        }
+
+        public void setLegacyHttpCacheMigrated(boolean migrated) {
+            super.put(Key.LEGACY_HTTP_CACHE_MIGRATED, migrated);
+        }
     }
 
     public static class UserPrefManager extends PrefManager {
+        private static final int MAX_RECENTLY_ACCESSED_COURSES = 5;
+
         public UserPrefManager(Context context) {
             super(context, Pref.USER_PREF);
         }
@@ -231,6 +244,39 @@ public class PrefManager {
         public void setIsVideosCacheRestored(boolean restored) {
             super.put(Key.VIDEOS_CACHE_RESTORED, restored);
         }
+
+        /**
+         * @return IDs of the courses most recently accessed by the user, most recent first.
+         */
+        @NonNull
+        public List<String> getRecentlyAccessedCourseIds() {
+            final List<String> courseIds = new ArrayList<>();
+            final String json = getString(Key.RECENTLY_ACCESSED_COURSE_IDS);
+            if (json != null) {
+                try {
+                    final JSONArray array = new JSONArray(json);
+                    for (int i = 0; i < array.length(); i++) {
+                        courseIds.add(array.getString(i));
+                    }
+                } catch (JSONException e) {
+                    // Ignore corrupted data, it gets overwritten on the next access
+                }
+            }
+            return courseIds;
+        }
+
+        /**
+         * Moves the given course to the front of the recently accessed courses list.
+         */
+        public void addRecentlyAccessedCourseId(@NonNull String courseId) {
+            final List<String> courseIds = getRecentlyAccessedCourseIds();
+            courseIds.remove(courseId);
+            courseIds.add(0, courseId);
+            while (courseIds.size() > MAX_RECENTLY_ACCESSED_COURSES) {
+                courseIds.remove(courseIds.size() - 1);
+            }
+            super.put(Key.RECENTLY_ACCESSED_COURSE_IDS, new JSONArray(courseIds).toString());
+        }
     }
 
     /**
@@ -274,6 +320,9 @@ public class PrefManager {
         public static final String TRANSCRIPT_LANGUAGE = "transcript_language";
         public static final String ANALYTICS_KEY_BACKEND = "segment_backend";
         public static final String SPEED_TEST_KBPS = "speed_test_kbps";
+        // The last bandwidth estimates on Wi-Fi and cellular networks, in KiB per second
+        public static final String BANDWIDTH_WIFI_KBPS = "bandwidth_wifi_kbps";
+        public static final String BANDWIDTH_CELLULAR_KBPS = "bandwidth_cellular_kbps";
         public static final String APP_VERSION_NAME = "app_version_name";
         public static final String APP_VERSION_CODE = "app_version_code";
         public static final String NOTIFICATION_PROFILE_JSON = "notification_profile_json";
@@ -287,6 +336,8 @@ public class PrefManager {
          * flag which marks whether the cache has been restored
          */
         public static final String VIDEOS_CACHE_RESTORED = "VideosCacheRestored";
+        // IDs of the courses most recently accessed by the user, as a JSON array
+        public static final String RECENTLY_ACCESSED_COURSE_IDS = "RecentlyAccessedCourseIds";
 
         // Preference to save user app rating
         public static final String APP_RATING = "APP_RATING";
@@ -294,6 +345,8 @@ public class PrefManager {
         public static final String LAST_RATED_VERSION = "LAST_RATED_VERSION";
         // Preference to keep track if Whats New feature has been shown or not
         public static final String WHATS_NEW_SHOWN = "WHATS_NEW_SHOWN";
+        // Preference to keep track if the legacy HTTP cache has been imported into the OkHttp cache
+        public static final String LEGACY_HTTP_CACHE_MIGRATED = "LEGACY_HTTP_CACHE_MIGRATED";
     }
 
     public static final class Value {
@@ -12,7 +12,6 @@ import org.edx.mobile.logger.Logger;
 import org.edx.mobile.model.api.ProfileModel;
 import org.edx.mobile.util.AppConstants;
 import org.edx.mobile.util.FileUtil;
-import org.edx.mobile.util.Sha1Util;
 
 import java.io.File;
 import java.io.IOException;
@@ -55,10 +54,10 @@ public class UserPrefs {
     @Nullable
     public File getDownloadDirectory() {
         final File externalAppDir = FileUtil.getExternalAppDir(context);
-        final ProfileModel profile = getProfile();
-        if (externalAppDir != null && profile != null) {
+        final String hashedUsername = loginPrefs.getHashedUsername();
+        if (externalAppDir != null && hashedUsername != null) {
             File videosDir = new File(externalAppDir, AppConstants.Directories.VIDEOS);
-            File usersVidsDir = new File(videosDir, Sha1Util.SHA1(profile.username));
+            File usersVidsDir = new File(videosDir, hashedUsername);
             usersVidsDir.mkdirs();
             try {
                 File noMediaFile = new File(usersVidsDir, ".nomedia");
@@ -12,6 +12,7 @@ import org.edx.mobile.model.download.NativeDownloadModel;
 import org.edx.mobile.module.db.DataCallback;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public interface IStorage {
 
@@ -23,6 +24,16 @@ public interface IStorage {
      */
     long addDownload(VideoModel model);
     
+    /**
+     * Adds a list of Videos for Downloading by enqueing them in Native Download Manager, and
+     * updating them in the Database using one transaction for all the lookups and inserts,
+     * and one for all the updates
+     * @param models
+     * @return the videos that were added to download
+     */
+    @NonNull
+    <T extends VideoModel> List<T> addDownloads(@NonNull List<T> models);
+
     /**
      * Removes a Video from the database as well as NativeDownloadManager 
      * and removing the file stored in DB 
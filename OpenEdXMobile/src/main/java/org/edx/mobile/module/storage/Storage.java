@@ -25,17 +25,18 @@ import org.edx.mobile.model.download.NativeDownloadModel;
 import org.edx.mobile.module.db.DataCallback;
 import org.edx.mobile.module.db.DatabaseModelFactory;
 import org.edx.mobile.module.db.IDatabase;
-import org.edx.mobile.module.db.impl.DatabaseFactory;
+import org.edx.mobile.module.download.DownloadProgressPoller;
 import org.edx.mobile.module.download.IDownloadManager;
+import org.edx.mobile.module.download.VideoEncodingSelector;
 import org.edx.mobile.module.prefs.LoginPrefs;
 import org.edx.mobile.module.prefs.UserPrefs;
 import org.edx.mobile.util.Config;
 import org.edx.mobile.util.NetworkUtil;
-import org.edx.mobile.util.Sha1Util;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -54,6 +55,10 @@ public class Storage implements IStorage {
     @Inject
     private IDownloadManager dm;
     @Inject
+    private DownloadProgressPoller progressPoller;
+    @Inject
+    private VideoEncodingSelector encodingSelector;
+    @Inject
     private UserPrefs pref;
     @Inject
     private Config config;
@@ -80,30 +85,11 @@ public class Storage implements IStorage {
         //IVideoModel videoById = db.getVideoEntryByVideoId(model.getVideoId(), null);
 
         if (videoByUrl == null || videoByUrl.getDmId() < 0) {
-            boolean downloadPreference = pref.isDownloadOverWifiOnly();
-            if(NetworkUtil.isOnZeroRatedNetwork(context, config)){
-                //If the device has zero rated network, then allow downloading
-                //on mobile network even if user has "Only on wifi" settings as ON
-                downloadPreference = false;
-            }
-
-            // Fail the download if download directory isn't available
-            final File downloadDirectory = pref.getDownloadDirectory();
-            if (downloadDirectory == null) return -1;
-
             // there is no any download ever marked for this URL
             // so, add a download and map download info to given video
-            long dmid = dm.addDownload(downloadDirectory, model.getVideoUrl(),
-                    downloadPreference, model.getTitle());
-            if(dmid==-1){
-                //Download did not start for the video because of an issue in DownloadManager
+            if (!enqueueDownload(model)) {
                 return -1;
             }
-            NativeDownloadModel download = dm.getDownload(dmid);
-            if(download!=null){
-                // copy download info
-                model.setDownloadingInfo(download);
-            }
         } else {
             // download for this URL already exists, just map download info to given video
             model.setDownloadInfo(videoByUrl);
@@ -117,6 +103,7 @@ public class Storage implements IStorage {
                             "but seems more than one videos are updated");
                 }
                 logger.debug("Video download info updated for " + noOfRows + " videos");
+                progressPoller.requestPoll();
             }
 
             @Override
@@ -128,6 +115,100 @@ public class Storage implements IStorage {
         return model.getDmId();
     }
 
+    @Override
+    @NonNull
+    public <T extends VideoModel> List<T> addDownloads(@NonNull List<T> models) {
+        final List<T> addedModels = new ArrayList<>(models.size());
+        final List<T> validModels = new ArrayList<>(models.size());
+        for (T model : models) {
+            if (!TextUtils.isEmpty(model.getVideoUrl())) {
+                validModels.add(model);
+            }
+        }
+        if (validModels.isEmpty()) {
+            return addedModels;
+        }
+
+        final List<VideoModel> videosByUrl = db.addVideosData(validModels, null);
+        if (videosByUrl.size() != validModels.size()) {
+            // The batch insertion failed
+            return addedModels;
+        }
+
+        // Downloads enqueued in this batch, keyed by their URL
+        final Map<String, VideoModel> enqueuedByUrl = new HashMap<>();
+        for (int i = 0; i < validModels.size(); i++) {
+            final T model = validModels.get(i);
+            if (model.isVideoForWebOnly()) {
+                continue;
+            }
+            VideoModel videoByUrl = videosByUrl.get(i);
+            if (videoByUrl == null || videoByUrl.getDmId() < 0) {
+                videoByUrl = enqueuedByUrl.get(model.getVideoUrl());
+            }
+            if (videoByUrl == null) {
+                if (!enqueueDownload(model)) {
+                    continue;
+                }
+                enqueuedByUrl.put(model.getVideoUrl(), model);
+            } else {
+                model.setDownloadInfo(videoByUrl);
+            }
+            addedModels.add(model);
+        }
+
+        if (!addedModels.isEmpty()) {
+            db.updateDownloadingVideosInfoByVideoId(addedModels, new DataCallback<Integer>() {
+                @Override
+                public void onResult(Integer noOfRows) {
+                    logger.debug("Video download info updated for " + noOfRows + " videos");
+                    progressPoller.requestPoll();
+                }
+
+                @Override
+                public void onFail(Exception ex) {
+                    logger.error(ex);
+                }
+            });
+        }
+
+        return addedModels;
+    }
+
+    /**
+     * Enqueues the given video in the download manager, and copies the download info to it.
+     *
+     * @param model The video to download.
+     * @return Whether the download was enqueued successfully.
+     */
+    private boolean enqueueDownload(@NonNull VideoModel model) {
+        boolean downloadPreference = pref.isDownloadOverWifiOnly();
+        if(NetworkUtil.isOnZeroRatedNetwork(context, config)){
+            //If the device has zero rated network, then allow downloading
+            //on mobile network even if user has "Only on wifi" settings as ON
+            downloadPreference = false;
+        }
+
+        // Fail the download if download directory isn't available
+        final File downloadDirectory = pref.getDownloadDirectory();
+        if (downloadDirectory == null) return false;
+
+        // The video keeps its canonical URL, but the encoding is chosen for the network
+        final String url = encodingSelector.getDownloadUrl(model, downloadPreference);
+        long dmid = dm.addDownload(downloadDirectory, url, downloadPreference, model.getTitle(),
+                model.getEnrollmentId());
+        if(dmid==-1){
+            //Download did not start for the video because of an issue in DownloadManager
+            return false;
+        }
+        NativeDownloadModel download = dm.getDownload(dmid);
+        if(download!=null){
+            // copy download info
+            model.setDownloadingInfo(download);
+        }
+        return true;
+    }
+
     public int removeDownload(VideoModel model) {
         int count = db.getVideoCountByVideoUrl(model.getVideoUrl(), null);
         if (count <= 1) {
@@ -144,12 +225,9 @@ public class Storage implements IStorage {
     }
 
     public void removeAllDownloads() {
-        final String username = loginPrefs.getUsername();
-        final String sha1Username;
-        if (TextUtils.isEmpty(username)) {
+        final String sha1Username = loginPrefs.getHashedUsername();
+        if (TextUtils.isEmpty(sha1Username)) {
             return;
-        } else {
-            sha1Username = Sha1Util.SHA1(username);
         }
 
         // Get all on going downloads
@@ -227,7 +305,7 @@ public class Storage implements IStorage {
             for (int i=0; i< dmidList.size(); i++) {
                 dmidArray[i] = dmidList.get(i);
             }
-            int progress = dm.getAverageProgressForDownloads(dmidArray);
+            int progress = progressPoller.getSnapshot(dmidArray).getAverageProgress(dmidArray);
             callback.sendResult(progress);
         } catch(Exception ex) {
             callback.sendException(ex);
@@ -238,26 +316,12 @@ public class Storage implements IStorage {
 
     @Override
     public void getAverageDownloadProgress(final DataCallback<Integer> callback) {
-        IDatabase db = DatabaseFactory.getInstance( DatabaseFactory.TYPE_DATABASE_NATIVE );
-        db.getListOfOngoingDownloads(new DataCallback<List<VideoModel>>() {
-
-            @Override
-            public void onResult(List<VideoModel> result) {
-                long[] dmids = new long[result.size()];
-                for (int i=0; i< result.size(); i++) {
-                    dmids[i] = result.get(i).getDmId();
-                    logger.debug("xxxxxxxx =" +dmids[i]);
-                }
-
-                int averageProgress = dm.getAverageProgressForDownloads(dmids);
-                callback.onResult(averageProgress);
-            }
-
-            @Override
-            public void onFail(Exception ex) {
-                callback.onFail(ex);
-            }
-        });
+        try {
+            callback.onResult(progressPoller.getSnapshot().getAverageProgress());
+        } catch(Exception ex) {
+            logger.error(ex);
+            callback.onFail(ex);
+        }
     }
 
     @Override
@@ -270,7 +334,7 @@ public class Storage implements IStorage {
         }
 
         try {
-            int progress = dm.getAverageProgressForDownloads(dmidArray);
+            int progress = progressPoller.getSnapshot(dmidArray).getAverageProgress(dmidArray);
             callback.sendResult(progress);
         } catch(Exception ex) {
             logger.error(ex);
@@ -377,7 +441,7 @@ public class Storage implements IStorage {
             long[] dmidArray = new long[1];
             dmidArray[0] = dmId;
 
-            int progress = dm.getAverageProgressForDownloads(dmidArray);
+            int progress = progressPoller.getSnapshot(dmidArray).getAverageProgress(dmidArray);
             callback.sendResult(progress);
         } catch(Exception ex) {
             logger.error(ex);
@@ -452,7 +516,8 @@ public class Storage implements IStorage {
                     DownloadEntry e = (DownloadEntry) db.getDownloadEntryByDmId(dmId, null);
                     e.downloaded = DownloadEntry.DownloadedState.DOWNLOADED;
                     e.filepath = nm.filepath;
-                    if(e.size<=0){
+                    // The downloaded encoding may differ in size from the canonical one
+                    if(nm.size > 0){
                         e.size = nm.size;
                     }
                     e.downloadedOn = System.currentTimeMillis();
@@ -0,0 +1,105 @@
+package org.edx.mobile.player;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import subtitleFile.Caption;
+import subtitleFile.TimedTextObject;
+
+/**
+ * The start and end times of the captions of a {@link TimedTextObject} in primitive arrays, for
+ * looking up the caption shown at a playback position without walking all the captions.
+ * <p>
+ * A caption is shown from its start time to its end time, both inclusive. The captions are
+ * expected not to overlap; if they do, the one that started last is the one shown. Since
+ * lookups during playback are mostly for the same or the next caption as the previous one, the
+ * index of the last lookup is used as a hint before falling back to a binary search.
+ */
+public class CaptionTimeline {
+    /**
+     * Returned by {@link #getNextChangeTime(int)} when nothing changes after the position.
+     */
+    public static final int NO_CHANGE = Integer.MAX_VALUE;
+
+    @NonNull
+    private final Caption[] captions;
+    @NonNull
+    private final int[] starts;
+    @NonNull
+    private final int[] ends;
+    private int hint;
+
+    public CaptionTimeline(@NonNull TimedTextObject timedTextObject) {
+        // The captions are keyed by their start times, so they're sorted by them
+        final Collection<Caption> values = timedTextObject.captions.values();
+        captions = values.toArray(new Caption[values.size()]);
+        starts = new int[captions.length];
+        ends = new int[captions.length];
+        for (int i = 0; i < captions.length; i++) {
+            starts[i] = captions[i].start.getMseconds();
+            ends[i] = captions[i].end.getMseconds();
+        }
+    }
+
+    public int size() {
+        return captions.length;
+    }
+
+    @NonNull
+    public Caption getCaption(int index) {
+        return captions[index];
+    }
+
+    /**
+     * @return The index of the caption shown at the given position, or -1 if there is none.
+     */
+    public int indexAt(int positionMillis) {
+        final int index = indexOfLastStartedAt(positionMillis);
+        return index >= 0 && positionMillis <= ends[index] ? index : -1;
+    }
+
+    /**
+     * @return The earliest position after the given one at which the shown caption changes,
+     * or {@link #NO_CHANGE} if it doesn't change anymore.
+     */
+    public int getNextChangeTime(int positionMillis) {
+        final int index = indexOfLastStartedAt(positionMillis);
+        int nextChange = index + 1 < starts.length ? starts[index + 1] : NO_CHANGE;
+        if (index >= 0 && positionMillis <= ends[index] && ends[index] < nextChange) {
+            nextChange = ends[index] + 1;
+        }
+        return nextChange;
+    }
+
+    /**
+     * @return The index of the last caption starting at or before the given position, or -1 if
+     * there is none.
+     */
+    private int indexOfLastStartedAt(int positionMillis) {
+        final int hint = this.hint;
+        // Check the previous result and the one after it first, for sequential playback
+        for (int i = hint; i <= hint + 1 && i < starts.length; i++) {
+            if (starts[i] <= positionMillis
+                    && (i + 1 == starts.length || starts[i + 1] > positionMillis)) {
+                this.hint = i;
+                return i;
+            }
+        }
+        int index = Arrays.binarySearch(starts, positionMillis);
+        if (index < 0) {
+            // Not an exact start time; get the index before the insertion point
+            index = -index - 2;
+        } else {
+            // Skip to the last caption with this start time
+            while (index + 1 < starts.length && starts[index + 1] == positionMillis) {
+                index++;
+            }
+        }
+        if (index >= 0) {
+            this.hint = index;
+        }
+        return index;
+    }
+}
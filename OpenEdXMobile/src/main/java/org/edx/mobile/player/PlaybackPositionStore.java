@@ -0,0 +1,153 @@
+package org.edx.mobile.player;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.event.LogoutEvent;
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.module.db.DataCallback;
+import org.edx.mobile.module.db.IDatabase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import de.greenrobot.event.EventBus;
+
+/**
+ * A write-behind store for the playback positions of videos. The latest position of each video
+ * is kept in memory, where it's read from, and the positions that have changed are written to
+ * the database together in a single transaction when {@link #flush()} is called, which the
+ * player does when playback is paused, stopped or seeked. They're also written every
+ * {@link #FLUSH_INTERVAL_MS} while they keep changing, and when the app's UI is hidden or the
+ * system asks it to trim its memory. On logout they're written for the user that is logging out,
+ * and then forgotten.
+ */
+@Singleton
+public class PlaybackPositionStore {
+    private static final long FLUSH_INTERVAL_MS = 30 * 1000;
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @NonNull
+    private final IDatabase db;
+
+    @NonNull
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    // Guarded by this
+    @NonNull
+    private final Map<String, Integer> positions = new HashMap<>();
+    @NonNull
+    private final Map<String, Integer> unsavedPositions = new HashMap<>();
+
+    @NonNull
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    @NonNull
+    private final DataCallback<Integer> flushCallback = new DataCallback<Integer>() {
+        @Override
+        public void onResult(Integer result) {
+            logger.debug("Playback positions saved: " + result);
+        }
+
+        @Override
+        public void onFail(Exception ex) {
+            logger.error(ex);
+        }
+    };
+
+    @Inject
+    public PlaybackPositionStore(@NonNull Context context, @NonNull IDatabase db) {
+        this.db = db;
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                flush();
+            }
+        });
+        EventBus.getDefault().register(this);
+    }
+
+    /**
+     * Sets the playback position of the given video, to be written to the database later.
+     *
+     * @param videoId The ID of the video.
+     * @param offset  The playback position in milliseconds.
+     */
+    public void setPosition(@NonNull String videoId, int offset) {
+        synchronized (this) {
+            positions.put(videoId, offset);
+            final boolean scheduled = !unsavedPositions.isEmpty();
+            unsavedPositions.put(videoId, offset);
+            if (scheduled) {
+                return;
+            }
+        }
+        handler.postDelayed(flushRunnable, FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * @param videoId       The ID of the video.
+     * @param defaultOffset The position to return if none has been set for the video since the
+     *                      app was started, usually the one read from the database.
+     * @return The latest playback position of the given video in milliseconds.
+     */
+    public int getPosition(@NonNull String videoId, int defaultOffset) {
+        synchronized (this) {
+            final Integer offset = positions.get(videoId);
+            return offset != null ? offset : defaultOffset;
+        }
+    }
+
+    /**
+     * Writes the playback positions that have changed since the last flush to the database.
+     */
+    public void flush() {
+        handler.removeCallbacks(flushRunnable);
+        final Map<String, Integer> offsets;
+        synchronized (this) {
+            if (unsavedPositions.isEmpty()) {
+                return;
+            }
+            offsets = new HashMap<>(unsavedPositions);
+            unsavedPositions.clear();
+        }
+        db.updateVideosLastPlayedOffset(offsets, flushCallback);
+    }
+
+    /**
+     * Posted before the login preferences are cleared, so the positions are still written for
+     * the user that is logging out.
+     */
+    @SuppressWarnings("unused")
+    public void onEvent(LogoutEvent event) {
+        flush();
+        synchronized (this) {
+            positions.clear();
+            unsavedPositions.clear();
+        }
+    }
+}
@@ -64,7 +64,6 @@ import org.edx.mobile.view.dialog.RatingDialogFragment;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.text.ParseException;
-import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -96,6 +95,8 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
     private static final int DELAY_TIME_MS = 1000;
     private static final int UNFREEZE_DELAY_MS = 300;
     private static final int SUBTITLES_DISPLAY_DELAY_MS = 100;
+    private static final int SUBTITLES_MIN_DISPLAY_DELAY_MS = 20;
+    private static final int SUBTITLES_MAX_DISPLAY_DELAY_MS = 500;
 
     @Inject
     IEdxEnvironment environment;
@@ -121,9 +122,13 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
     private LinkedHashMap<String, TimedTextObject> srtList;
     private LinkedHashMap<String, String> langList;
     private TimedTextObject subtitlesObj;
+    @Nullable
+    private CaptionTimeline captionTimeline;
     private LayoutInflater layoutInflater;
     @Inject
     private TranscriptManager transcriptManager;
+    @Inject
+    private PlaybackPositionStore positionStore;
     private TranscriptModel transcript;
     private DownloadEntry videoEntry;
     private Object touchExplorationStateChangeListener;
@@ -646,10 +651,17 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
                 double current_time = player.getCurrentPosition()/AppConstants.MILLISECONDS_PER_SECOND ;
                 environment.getAnalyticsRegistry().trackVideoPause(videoEntry.videoId, current_time,
                         videoEntry.eid, videoEntry.lmsUrl);
+                if (callback != null) {
+                    int pos = player.getCurrentPosition();
+                    if (pos > 0) {
+                        callback.saveCurrentPlaybackPosition(pos);
+                    }
+                }
             }
         }catch(Exception e){
             logger.error(e);
         }
+        positionStore.flush();
 
         hideCCPopUp();
         hideSettingsPopUp();
@@ -853,6 +865,7 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
             callback.saveCurrentPlaybackPosition(0);
             callback.onPlaybackComplete();
         }
+        positionStore.flush();
         hideCCPopUp();
         hideSettingsPopUp();
         try{
@@ -1138,41 +1151,54 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
     }
 
     /**
-     * This runnable handles the displaying of
-     * Subtitles on the screen per 100 mili seconds
+     * This runnable handles the displaying of Subtitles on the screen. While the video is
+     * playing, it runs again when the displayed caption is due to change, and at least every
+     * {@link #SUBTITLES_MAX_DISPLAY_DELAY_MS} to keep up with pauses and layout changes.
      */
     private Runnable SUBTITLES_PROCESSOR_RUNNABLE = new Runnable() {
         @Override
         public void run() {
             //This has been reset so that previous cc will not be displayed
             resetClosedCaptioning();
+            long delay = SUBTITLES_DISPLAY_DELAY_MS;
             if (player != null && (player.isPlaying() || player.isPaused())) {
                 int currentPos = player.getCurrentPosition();
-                if (subtitlesObj != null) {
-                    Collection<Caption> subtitles = subtitlesObj.captions.values();
-                    int currentSubtitleIndex = 0;
-                    for (Caption subtitle : subtitles) {
-                        int startMillis = subtitle.start.getMseconds();
-                        int endMillis = subtitle.end.getMseconds();
-                        if (currentPos >= startMillis && currentPos <= endMillis) {
-                            setClosedCaptionData(closedCaptionsEnabled ? subtitle : null);
-                            if (transcriptListener != null) {
-                                transcriptListener.updateSelection(currentSubtitleIndex);
-                            }
-                            break;
-                        } else if (currentPos > endMillis) {
-                            setClosedCaptionData(null);
+                if (captionTimeline != null) {
+                    final int currentSubtitleIndex = captionTimeline.indexAt(currentPos);
+                    if (currentSubtitleIndex >= 0) {
+                        setClosedCaptionData(closedCaptionsEnabled ?
+                                captionTimeline.getCaption(currentSubtitleIndex) : null);
+                        if (transcriptListener != null) {
+                            transcriptListener.updateSelection(currentSubtitleIndex);
                         }
-                        currentSubtitleIndex++;
+                    } else {
+                        setClosedCaptionData(null);
+                    }
+                    delay = SUBTITLES_MAX_DISPLAY_DELAY_MS;
+                    if (player.isPlaying()) {
+                        final long nextChange = captionTimeline.getNextChangeTime(currentPos);
+                        delay = Math.max(SUBTITLES_MIN_DISPLAY_DELAY_MS,
+                                Math.min(delay, nextChange - currentPos));
                     }
                 } else {
                     setClosedCaptionData(null);
                 }
             }
-            subtitleDisplayHandler.postDelayed(this, SUBTITLES_DISPLAY_DELAY_MS);
+            subtitleDisplayHandler.postDelayed(this, delay);
         }
     };
 
+    /**
+     * Runs {@link #SUBTITLES_PROCESSOR_RUNNABLE} now, if it's running, instead of at its next
+     * scheduled time.
+     */
+    private void refreshSubtitles() {
+        if (subtitleDisplayHandler != null) {
+            subtitleDisplayHandler.removeCallbacks(SUBTITLES_PROCESSOR_RUNNABLE);
+            subtitleDisplayHandler.post(SUBTITLES_PROCESSOR_RUNNABLE);
+        }
+    }
+
     /**
      * This runnable is used the fetch the Subtitle in TimedTextObject
      */
@@ -1350,6 +1376,7 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
             subtitleDisplayHandler = null;
             hideClosedCaptioning();
             subtitlesObj = null;
+            captionTimeline = null;
             srtList = null;
         }
         if (subtitleFetchHandler != null)
@@ -1640,6 +1667,8 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
                 transcriptListener.updateTranscript(subtitlesObj);
             }
 
+            captionTimeline = subtitlesObj == null ? null : new CaptionTimeline(subtitlesObj);
+
             // Run the subtitle handler if any among transcripts or closed captions is enabled
             if (subtitlesObj != null || transcriptListener != null) {
                 if (subtitleDisplayHandler == null) {
@@ -1670,10 +1699,12 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
                 callback.saveCurrentPlaybackPosition((int) newPosition);
                 logger.debug("Current position saved: " + newPosition);
             }
+            positionStore.flush();
 
             if(isRewindClicked){
                 resetClosedCaptioning();
             }
+            refreshSubtitles();
             environment.getAnalyticsRegistry().trackVideoSeek(videoEntry.videoId,
                     lastPostion/AppConstants.MILLISECONDS_PER_SECOND,
                     newPosition/AppConstants.MILLISECONDS_PER_SECOND,
@@ -1737,6 +1768,7 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
 
             player.freeze();
         }
+        positionStore.flush();
     }
 
     /**
@@ -1800,5 +1832,6 @@ public class PlayerFragment extends BaseFragment implements IPlayerListener, Ser
      */
     public void seekToCaption(@NonNull Caption caption) {
         player.seekTo(caption.start.getMseconds());
+        refreshSubtitles();
     }
 }
@@ -1,19 +1,21 @@
 package org.edx.mobile.player;
 
 import android.content.Context;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import org.edx.mobile.R;
+import org.edx.mobile.http.HttpStatusException;
+import org.edx.mobile.http.provider.OkHttpClientProvider;
 import org.edx.mobile.logger.Logger;
 import org.edx.mobile.model.api.TranscriptModel;
 import org.edx.mobile.util.AppConstants;
 import org.edx.mobile.util.FileUtil;
 import org.edx.mobile.util.IOUtils;
 import org.edx.mobile.util.Sha1Util;
-import org.edx.mobile.util.TranscriptDownloader;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -21,13 +23,65 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Okio;
 
 @Singleton
 public class TranscriptManager {
+    /**
+     * Maximum number of transcripts that are downloaded at the same time.
+     */
+    private static final int MAX_CONCURRENT_DOWNLOADS = 2;
+
     private final Logger logger = new Logger(getClass().getName());
     private final Context context;
 
+    @Inject
+    private OkHttpClientProvider okHttpClientProvider;
+
+    /**
+     * Downloads in progress, keyed by their URLs.
+     */
+    @NonNull
+    private final Map<String, FutureTask<Boolean>> inFlightDownloads = new HashMap<>();
+
+    /**
+     * Runs the downloads of the transcripts of downloaded videos, which may be queued up for a
+     * whole course.
+     */
+    @NonNull
+    private final ThreadPoolExecutor downloadExecutor = newDownloadExecutor("edx-transcripts-");
+
+    /**
+     * Runs the downloads of the transcripts of the video that is being played, so that they
+     * don't wait behind the other downloads.
+     */
+    @NonNull
+    private final ThreadPoolExecutor playbackDownloadExecutor =
+            newDownloadExecutor("edx-playback-transcripts-");
+
     @Inject
     public TranscriptManager(Context context) {
         this.context = context;
@@ -59,10 +113,29 @@ public class TranscriptManager {
         if (transcriptDir == null) throw new IOException("Transcript directory not found");
 
         String hash = Sha1Util.SHA1(url);
-        File file = new File(transcriptDir, hash);
-        FileOutputStream out = new FileOutputStream(file);
-        out.write(response.getBytes());
-        out.close();
+        final File tempFile = File.createTempFile(hash, ".tmp", transcriptDir);
+        try {
+            FileOutputStream out = new FileOutputStream(tempFile);
+            try {
+                out.write(response.getBytes());
+            } finally {
+                out.close();
+            }
+            commit(tempFile, new File(transcriptDir, hash));
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Moves a fully written temporary file into place, so that a transcript file is never seen
+     * partially written.
+     */
+    private static void commit(@NonNull File tempFile, @NonNull File file) throws IOException {
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Unable to rename " + tempFile + " to " + file);
+        }
     }
 
 
@@ -111,67 +184,243 @@ public class TranscriptManager {
 
 
     /**
-     * This function is used to handle downloading of SRT files and saving them
+     * This function is used to handle downloading of SRT files and saving them. The downloads
+     * run on a shared pool of {@link #MAX_CONCURRENT_DOWNLOADS} threads, and a URL that is
+     * already being downloaded isn't downloaded again.
      * @param downloadLink
+     * @return A future that resolves to whether the transcript is available once the download
+     * has finished.
+     */
+    @NonNull
+    public Future<Boolean> startTranscriptDownload(@Nullable final String downloadLink) {
+        return startTranscriptDownload(downloadLink, false);
+    }
+
+    /**
+     * @param isForPlayback Whether the transcript is needed by the video that is being played,
+     *                      in which case the download runs on its own pool, and is moved there
+     *                      if it's still queued on the shared one.
      */
-    public void startTranscriptDownload(final String downloadLink) {
+    @NonNull
+    private Future<Boolean> startTranscriptDownload(@Nullable final String downloadLink,
+                                                    boolean isForPlayback) {
         //Uri target = Uri.fromFile(new File(transcriptDir, Sha1Util.SHA1(downloadLink)));
-        if(downloadLink==null){
-            return;
+        if (downloadLink == null) {
+            return completedFuture(false);
         }
 
-        //If file is not present in the Folder, then start downloading
-        if(!has(downloadLink)) {
-            TranscriptDownloader td = new TranscriptDownloader(context, downloadLink) {
-
+        synchronized (inFlightDownloads) {
+            final FutureTask<Boolean> inFlightDownload = inFlightDownloads.get(downloadLink);
+            if (inFlightDownload != null) {
+                if (isForPlayback && downloadExecutor.remove(inFlightDownload)) {
+                    playbackDownloadExecutor.execute(inFlightDownload);
+                }
+                return inFlightDownload;
+            }
+            //If file is present in the Folder, then there is nothing to download
+            if (has(downloadLink)) {
+                return completedFuture(true);
+            }
+            final FutureTask<Boolean> download = new FutureTask<>(new Callable<Boolean>() {
                 @Override
-                public void onDownloadComplete(String response) {
+                public Boolean call() throws Exception {
                     try {
-                        put(downloadLink, response);
-                    } catch (IOException e) {
-                        logger.error(e);
+                        return download(downloadLink);
+                    } finally {
+                        synchronized (inFlightDownloads) {
+                            inFlightDownloads.remove(downloadLink);
+                        }
                     }
                 }
+            });
+            inFlightDownloads.put(downloadLink, download);
+            (isForPlayback ? playbackDownloadExecutor : downloadExecutor).execute(download);
+            return download;
+        }
+    }
 
-                @Override
-                public void handle(Exception ex) {
-                    logger.error(ex);
-                }
-            };
-            Thread th = new Thread(td);
-            th.start();
+    /**
+     * Downloads the transcript, streaming it into a temporary file that is then renamed to the
+     * transcript file.
+     * @return Whether the transcript was downloaded.
+     */
+    private boolean download(@NonNull String url) {
+        final File transcriptDir = getTranscriptDir();
+        if (transcriptDir == null) {
+            logger.warn("Transcript directory not found");
+            return false;
+        }
+        File tempFile = null;
+        Response response = null;
+        try {
+            response = okHttpClientProvider.getWithOfflineCache()
+                    .newCall(new Request.Builder()
+                            .url(url)
+                            .get()
+                            .build())
+                    .execute();
+            if (!response.isSuccessful()) {
+                throw new HttpStatusException(response);
+            }
+            final String hash = Sha1Util.SHA1(url);
+            tempFile = File.createTempFile(hash, ".tmp", transcriptDir);
+            final BufferedSink sink = Okio.buffer(Okio.sink(tempFile));
+            try {
+                sink.writeAll(response.body().source());
+            } finally {
+                sink.close();
+            }
+            commit(tempFile, new File(transcriptDir, hash));
+            return true;
+        } catch (Exception e) {
+            logger.error(e);
+            return false;
+        } finally {
+            if (response != null) {
+                response.body().close();
+            }
+            if (tempFile != null) {
+                //noinspection ResultOfMethodCallIgnored
+                tempFile.delete();
+            }
         }
     }
 
     /**
-     * This function starts downloading all the srt files in a Transcript model
+     * This function starts downloading all the srt files in a Transcript model, for the video
+     * that is being played, ahead of any other transcript downloads.
      * @param transcript
+     * @return A future that resolves to the number of the transcripts that are available once
+     * their downloads have finished.
      */
-    public void downloadTranscriptsForVideo(TranscriptModel transcript){
-        if(transcript==null){
-            return;
-        }
+    @NonNull
+    public Future<Integer> downloadTranscriptsForVideo(@Nullable TranscriptModel transcript) {
+        return downloadTranscripts(transcript == null ?
+                Collections.<TranscriptModel>emptyList() : Collections.singletonList(transcript),
+                true);
+    }
 
-        if(transcript.chineseUrl!=null){
-            startTranscriptDownload(transcript.chineseUrl);
+    /**
+     * Starts downloading all the srt files of all the given Transcript models at once. Checks
+     * for the transcripts that are already downloaded, so it shouldn't be called on the main
+     * thread.
+     * @return A future that resolves to the number of the transcripts that are available once
+     * their downloads have finished.
+     */
+    @NonNull
+    public Future<Integer> downloadTranscripts(@NonNull Collection<TranscriptModel> transcripts) {
+        return downloadTranscripts(transcripts, false);
+    }
+
+    @NonNull
+    private Future<Integer> downloadTranscripts(@NonNull Collection<TranscriptModel> transcripts,
+                                                boolean isForPlayback) {
+        final Set<String> urls = new LinkedHashSet<>();
+        for (TranscriptModel transcript : transcripts) {
+            if (transcript == null) {
+                continue;
+            }
+            final String[] transcriptUrls = {transcript.chineseUrl, transcript.englishUrl,
+                    transcript.frenchUrl, transcript.germanUrl, transcript.portugueseUrl,
+                    transcript.spanishUrl, transcript.arabicUrl};
+            for (String url : transcriptUrls) {
+                if (url != null) {
+                    urls.add(url);
+                }
+            }
         }
-        if(transcript.englishUrl!=null){
-            startTranscriptDownload(transcript.englishUrl);
+        final List<Future<Boolean>> downloads = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            downloads.add(startTranscriptDownload(url, isForPlayback));
+        }
+        return new BatchFuture(downloads);
+    }
+
+    @NonNull
+    private static ThreadPoolExecutor newDownloadExecutor(@NonNull final String threadNamePrefix) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                MAX_CONCURRENT_DOWNLOADS, MAX_CONCURRENT_DOWNLOADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(@NonNull Runnable runnable) {
+                        final Thread thread = new Thread(runnable,
+                                threadNamePrefix + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @NonNull
+    private static Future<Boolean> completedFuture(final boolean result) {
+        final FutureTask<Boolean> future = new FutureTask<>(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return result;
+            }
+        });
+        future.run();
+        return future;
+    }
+
+    /**
+     * Future of a batch of transcript downloads, resolving to the number of the successful ones.
+     */
+    private static class BatchFuture implements Future<Integer> {
+        @NonNull
+        private final List<Future<Boolean>> futures;
+
+        BatchFuture(@NonNull List<Future<Boolean>> futures) {
+            this.futures = futures;
         }
-        if(transcript.frenchUrl!=null){
-            startTranscriptDownload(transcript.frenchUrl);
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            // The downloads may be shared with other callers, so they're left running
+            return false;
         }
-        if(transcript.germanUrl!=null){
-            startTranscriptDownload(transcript.germanUrl);
+
+        @Override
+        public boolean isCancelled() {
+            return false;
         }
-        if(transcript.portugueseUrl!=null){
-            startTranscriptDownload(transcript.portugueseUrl);
+
+        @Override
+        public boolean isDone() {
+            for (Future<Boolean> future : futures) {
+                if (!future.isDone()) {
+                    return false;
+                }
+            }
+            return true;
         }
-        if(transcript.spanishUrl!=null){
-            startTranscriptDownload(transcript.spanishUrl);
+
+        @Override
+        public Integer get() throws InterruptedException, ExecutionException {
+            int count = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get()) {
+                    count++;
+                }
+            }
+            return count;
         }
-        if(transcript.arabicUrl!=null){
-            startTranscriptDownload(transcript.arabicUrl);
+
+        @Override
+        public Integer get(long timeout, @NonNull TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            int count = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    count++;
+                }
+            }
+            return count;
         }
     }
 
@@ -72,6 +72,9 @@ public class VideoListFragment extends BaseFragment {
     @Inject
     private CourseAPI courseApi;
 
+    @Inject
+    private PlaybackPositionStore positionStore;
+
     private final Logger logger = new Logger(getClass().getName());
 
     @Inject
@@ -447,9 +450,8 @@ public class VideoListFragment extends BaseFragment {
         try {
             DownloadEntry v = videoModel;
             if (v != null) {
-                // mark this as partially watches, as playing has started
-                environment.getDatabase().updateVideoLastPlayedOffset(v.videoId, offset,
-                        setCurrentPositionCallback);
+                v.lastPlayedOffset = offset;
+                positionStore.setPosition(v.videoId, offset);
             }
         } catch (Exception ex) {
             logger.error(ex);
@@ -798,16 +800,4 @@ public class VideoListFragment extends BaseFragment {
             logger.error(ex);
         }
     };
-
-    private DataCallback<Integer> setCurrentPositionCallback = new DataCallback<Integer>() {
-        @Override
-        public void onResult(Integer result) {
-            logger.debug("Current Playback Position Updated");
-        }
-
-        @Override
-        public void onFail(Exception ex) {
-            logger.error(ex);
-        }
-    };
 }
@@ -1,5 +1,9 @@
 package org.edx.mobile.services;
 
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.LruCache;
@@ -9,29 +13,88 @@ import com.google.inject.Singleton;
 
 import org.edx.mobile.course.CourseAPI;
 import org.edx.mobile.logger.Logger;
-import org.edx.mobile.model.Filter;
 import org.edx.mobile.model.course.CourseComponent;
+import org.edx.mobile.model.course.IBlock;
+import org.edx.mobile.model.course.VideoBlockModel;
+import org.edx.mobile.module.prefs.PrefManager;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  *  A central place for course data model transformation
  */
 
 @Singleton
-public class CourseManager {
+public class CourseManager implements ComponentCallbacks2 {
     protected final Logger logger = new Logger(getClass().getName());
 
+    /**
+     * Fraction of the app's heap that may be used by the cached course structures.
+     */
+    private static final int CACHE_HEAP_FRACTION = 8;
+
+    /**
+     * Maximum number of recently accessed courses that are prewarmed into the cache.
+     */
+    private static final int PREWARM_COURSES_COUNT = 3;
+
+    /**
+     * Rough estimates of the heap retained by the fields of a component and of a video's data,
+     * not counting the strings.
+     */
+    private static final int COMPONENT_OVERHEAD_BYTES = 160;
+    private static final int VIDEO_DATA_OVERHEAD_BYTES = 480;
+
     private final LruCache<String, CourseComponent> cachedComponent;
 
+    @NonNull
+    private final PrefManager.UserPrefManager userPrefManager;
+
+    @NonNull
+    private final ExecutorService prewarmExecutor = Executors.newSingleThreadExecutor();
+
+    @Nullable
+    private volatile String lastAccessedCourseId;
 
     @Inject
     CourseAPI courseApi;
 
-    public CourseManager() {
-        cachedComponent = new LruCache<>(1);
+    @Inject
+    public CourseManager(@NonNull Context context) {
+        final ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        final int maxBytes = activityManager.getMemoryClass() * 1024 * 1024 / CACHE_HEAP_FRACTION;
+        cachedComponent = new LruCache<String, CourseComponent>(maxBytes) {
+            @Override
+            protected int sizeOf(String courseId, CourseComponent course) {
+                // Capped, so that the most recently used course is always kept, however large
+                return Math.min(estimateRetainedBytes(course), maxSize());
+            }
+        };
+        userPrefManager = new PrefManager.UserPrefManager(context);
+        context.getApplicationContext().registerComponentCallbacks(this);
     }
 
     @Nullable
     public CourseComponent getCourseByCourseId(@NonNull final String courseId) {
+        if (!courseId.equals(lastAccessedCourseId)) {
+            lastAccessedCourseId = courseId;
+            // The preferences are committed synchronously, so they're written off the caller's
+            // thread, in order with the reads of the prewarming
+            prewarmExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    userPrefManager.addRecentlyAccessedCourseId(courseId);
+                }
+            });
+        }
+        return loadCourse(courseId);
+    }
+
+    @Nullable
+    private CourseComponent loadCourse(@NonNull final String courseId) {
         CourseComponent component = cachedComponent.get(courseId);
         if ( component != null )
             return component;
@@ -50,12 +113,74 @@ public class CourseManager {
         CourseComponent courseComponent = getCourseByCourseId(courseId);
         if ( courseComponent == null )
             return null;
-        return courseComponent.find(new Filter<CourseComponent>() {
+        return courseComponent.findById(componentId);
+    }
+
+    /**
+     * Loads the structures of the most recently accessed courses into the cache on a background
+     * thread, if they are available offline, so that opening them doesn't need to parse them.
+     *
+     * @param enrolledCourseIds IDs of the courses the user is currently enrolled in; other
+     *                          recently accessed courses are skipped.
+     */
+    public void prewarmRecentCourses(@NonNull final List<String> enrolledCourseIds) {
+        prewarmExecutor.execute(new Runnable() {
             @Override
-            public boolean apply(CourseComponent courseComponent) {
-                return componentId.equals(courseComponent.getId());
+            public void run() {
+                int count = 0;
+                for (String courseId : userPrefManager.getRecentlyAccessedCourseIds()) {
+                    if (count == PREWARM_COURSES_COUNT) {
+                        break;
+                    }
+                    if (enrolledCourseIds.contains(courseId)) {
+                        loadCourse(courseId);
+                        count++;
+                    }
+                }
+                logger.debug("Course cache after prewarming: " + cachedComponent);
             }
         });
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            cachedComponent.evictAll();
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            cachedComponent.trimToSize(cachedComponent.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        cachedComponent.evictAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    /**
+     * @return A rough estimate of the heap retained by the course structure below the given
+     * component, including itself.
+     */
+    static int estimateRetainedBytes(@NonNull CourseComponent component) {
+        int bytes = COMPONENT_OVERHEAD_BYTES
+                + getStringBytes(component.getId())
+                + getStringBytes(component.getBlockId())
+                + getStringBytes(component.getInternalName())
+                + getStringBytes(component.getBlockUrl())
+                + getStringBytes(component.getWebUrl());
+        if (component instanceof VideoBlockModel) {
+            bytes += VIDEO_DATA_OVERHEAD_BYTES;
+        }
+        for (IBlock child : component.getChildren()) {
+            bytes += estimateRetainedBytes((CourseComponent) child);
+        }
+        return bytes;
+    }
+
+    private static int getStringBytes(@Nullable String string) {
+        return string == null ? 0 : 40 + 2 * string.length();
+    }
 }
@@ -19,6 +19,7 @@ import org.edx.mobile.module.prefs.PrefManager;
 import org.edx.mobile.util.NetworkUtil;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
@@ -132,8 +133,8 @@ public class DownloadSpeedService extends RoboService {
                     if (!response.isSuccessful()) {
                         logger.debug("Download Speed Test Failed");
                     } else {
-                        long length = response.body().string().length();
-                        double seconds = (System.nanoTime() - startTime) / NS_PER_SEC;
+                        long length = readFully(response);
+                        double seconds = (double) (System.nanoTime() - startTime) / NS_PER_SEC;
                         if( seconds != 0 ) {
                             final float downloadSpeedKps = (float) ((length / seconds) / 1024);
                             setCurrentDownloadSpeed(downloadSpeedKps);
@@ -148,6 +149,25 @@ public class DownloadSpeedService extends RoboService {
 
     }
 
+    /**
+     * Reads and discards the response body in blocks rather than buffering it as a string.
+     *
+     * @return The number of bytes read.
+     */
+    private static long readFully(Response response) throws IOException {
+        final byte[] buffer = new byte[BLOCK_SIZE];
+        long length = 0;
+        final InputStream in = response.body().byteStream();
+        try {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                length += read;
+            }
+        } finally {
+            in.close();
+        }
+        return length;
+    }
+
     private void reportDownloadSpeed(float downloadSpeedKps){
         try{
 
@@ -0,0 +1,771 @@
+package org.edx.mobile.services;
+
+import android.content.Context;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.webkit.CookieManager;
+import android.webkit.WebResourceResponse;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.event.LogoutEvent;
+import org.edx.mobile.http.HttpStatus;
+import org.edx.mobile.http.provider.OkHttpClientProvider;
+import org.edx.mobile.logger.Logger;
+import org.edx.mobile.util.NetworkUtil;
+import org.edx.mobile.util.Sha1Util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import de.greenrobot.event.EventBus;
+import okhttp3.CacheControl;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.internal.http.HttpDate;
+
+/**
+ * A disk store of the HTML unit pages of a course and their static assets, which lets the units
+ * be shown without a network, and without downloading them again every time they're shown.
+ * <p>
+ * The pages of a subsection are prefetched together with the scripts, style sheets and images
+ * that they reference, on a background thread. The {@link org.edx.mobile.view.custom.EdxWebView}
+ * that shows a unit passes its requests to {@link #intercept(String, Map)}, which serves the
+ * stored ones from disk. When there's a network the pages are revalidated with conditional
+ * requests first, since the pages of the LMS aren't cacheable by HTTP rules, while the assets
+ * are only revalidated once they're stale by their own caching headers. The least recently used
+ * entries are evicted when the store grows beyond {@link #MAX_SIZE}, and all of them are
+ * deleted on logout.
+ */
+@Singleton
+public class HtmlUnitStore {
+    private static final String DIRECTORY_NAME = "html_units";
+    private static final long MAX_SIZE = 50 * 1024 * 1024;
+    private static final String BODY_SUFFIX = ".body";
+    private static final String META_SUFFIX = ".meta";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String KEY_URL = "url";
+    private static final String KEY_CONTENT_TYPE = "contentType";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "lastModified";
+    private static final String KEY_EXPIRES_AT = "expiresAt";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final Pattern ASSET_PATTERN = Pattern.compile(
+            "<(?:script|img)\\b[^>]*?\\ssrc\\s*=\\s*[\"']([^\"']+)[\"']" +
+                    "|<link\\b[^>]*?\\shref\\s*=\\s*[\"']([^\"']+)[\"']",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @NonNull
+    private final Context context;
+
+    @NonNull
+    private final OkHttpClient client;
+
+    @NonNull
+    private final File directory;
+
+    @NonNull
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "edx-unit-store");
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+
+    /**
+     * The URLs of the unit pages, which are intercepted even if they haven't been stored yet,
+     * so that they're stored the first time they're shown.
+     */
+    @NonNull
+    private final Set<String> pageUrls =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final AtomicInteger hitCount = new AtomicInteger();
+    private final AtomicInteger missCount = new AtomicInteger();
+    private final AtomicLong size = new AtomicLong(-1);
+
+    /**
+     * Incremented on every {@link #clear()}, so that the responses requested before it aren't
+     * stored after it. Guarded by this store, like the moves of files into place.
+     */
+    private int generation;
+
+    @Inject
+    public HtmlUnitStore(@NonNull Context context, @NonNull OkHttpClientProvider clientProvider) {
+        this(context, clientProvider.getNonOAuthBased(),
+                new File(context.getFilesDir(), DIRECTORY_NAME));
+        EventBus.getDefault().register(this);
+    }
+
+    public HtmlUnitStore(@NonNull Context context, @NonNull OkHttpClient client,
+                         @NonNull File directory) {
+        this.context = context.getApplicationContext();
+        // Redirects are left to the web view to follow
+        this.client = client.newBuilder()
+                .cache(null)
+                .followRedirects(false)
+                .followSslRedirects(false)
+                .build();
+        this.directory = directory;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!HtmlUnitStore.this.directory.exists() &&
+                        !HtmlUnitStore.this.directory.mkdirs()) {
+                    logger.warn("Cannot create " + HtmlUnitStore.this.directory);
+                }
+                size.set(computeSize());
+            }
+        });
+    }
+
+    /**
+     * @return Whether the given URL is stored, so that it can be shown without a network.
+     */
+    public boolean contains(@NonNull String url) {
+        return getBodyFile(url).exists();
+    }
+
+    /**
+     * Downloads the given unit pages and their assets in the background, skipping the ones
+     * that are already stored. Nothing is downloaded without a network.
+     *
+     * @param urls The URLs of the pages.
+     * @return The future of the prefetch.
+     */
+    @NonNull
+    public Future<?> prefetch(@NonNull final List<String> urls) {
+        pageUrls.addAll(urls);
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (String url : urls) {
+                    if (!NetworkUtil.isConnected(context)) {
+                        break;
+                    }
+                    if (contains(url)) {
+                        continue;
+                    }
+                    try {
+                        if (fetch(url, null) != null) {
+                            fetchAssets(url);
+                        }
+                    } catch (IOException e) {
+                        logger.warn("Failed to prefetch " + url + ": " + e.getMessage());
+                    }
+                }
+                logger.debug("Unit store: " + getStats());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Serves a request of a web view from the store, if it's for a stored URL or a unit page.
+     * When there's a network, a stored page is revalidated first, and replaced if it has
+     * changed. A stored asset is served without a request while it's fresh by its
+     * Cache-Control or Expires headers, and revalidated like a page otherwise. Must not be
+     * called on the main thread.
+     *
+     * @param url     The URL of the request, which must be a GET request.
+     * @param headers The headers of the request, if known.
+     * @return The response, or null if the web view should load the URL itself.
+     */
+    @Nullable
+    public WebResourceResponse intercept(@NonNull final String url,
+                                         @Nullable Map<String, String> headers) {
+        final boolean isPage = pageUrls.contains(url);
+        final boolean isStored = contains(url);
+        if (!isStored && !isPage) {
+            return null;
+        }
+        Properties storedMetadata = null;
+        if (isStored) {
+            try {
+                storedMetadata = readMetadata(url);
+            } catch (IOException e) {
+                logger.error(e);
+            }
+        }
+        if (storedMetadata != null && !isPage && isFresh(storedMetadata)) {
+            try {
+                final WebResourceResponse response = open(url, storedMetadata);
+                hitCount.incrementAndGet();
+                return response;
+            } catch (IOException e) {
+                logger.error(e);
+            }
+        }
+        if (NetworkUtil.isConnected(context)) {
+            try {
+                final int generation = getGeneration();
+                final Response response = request(url, storedMetadata, headers);
+                try {
+                    final Properties metadata = store(url, storedMetadata, response, generation);
+                    if (metadata == null) {
+                        missCount.incrementAndGet();
+                        if (response.code() >= 300 && response.code() < 400) {
+                            // The web view follows the redirect itself
+                            return null;
+                        }
+                        // Served as it is, rather than having the web view request it again
+                        return toWebResourceResponse(response);
+                    }
+                    if (metadata == storedMetadata) {
+                        hitCount.incrementAndGet();
+                    } else {
+                        missCount.incrementAndGet();
+                        if (isPage) {
+                            // The assets of the new version of the page may have changed too
+                            executor.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    try {
+                                        fetchAssets(url);
+                                    } catch (IOException e) {
+                                        logger.warn("Failed to fetch the assets of " + url +
+                                                ": " + e.getMessage());
+                                    }
+                                }
+                            });
+                        }
+                    }
+                    return open(url, metadata);
+                } finally {
+                    response.close();
+                }
+            } catch (IOException e) {
+                logger.debug("Serving " + url + " from the store: " + e.getMessage());
+            }
+        }
+        if (storedMetadata != null) {
+            try {
+                final WebResourceResponse response = open(url, storedMetadata);
+                hitCount.incrementAndGet();
+                return response;
+            } catch (IOException e) {
+                logger.error(e);
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Deletes all the stored responses in the background.
+     *
+     * @return The future of the deletion.
+     */
+    @NonNull
+    public Future<?> clear() {
+        pageUrls.clear();
+        synchronized (this) {
+            // Rejects the writes of the responses that are requested before now
+            generation++;
+        }
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                synchronized (HtmlUnitStore.this) {
+                    final File[] files = directory.listFiles();
+                    if (files != null) {
+                        for (File file : files) {
+                            file.delete();
+                        }
+                    }
+                    size.set(computeSize());
+                }
+                return null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unused")
+    public void onEvent(LogoutEvent event) {
+        clear();
+    }
+
+    @NonNull
+    public Stats getStats() {
+        return new Stats(hitCount.get(), missCount.get(), size.get(), MAX_SIZE);
+    }
+
+    /**
+     * Downloads the assets referenced by the given stored page that aren't stored yet.
+     */
+    private void fetchAssets(@NonNull String pageUrl) throws IOException {
+        for (String assetUrl : findAssetUrls(pageUrl, readBody(pageUrl))) {
+            if (!contains(assetUrl)) {
+                fetch(assetUrl, null);
+            }
+        }
+    }
+
+    /**
+     * Requests the given URL, conditionally if it's stored, and stores the response if it's
+     * new.
+     *
+     * @param metadata The metadata of the stored response, if it's stored.
+     * @return The given metadata if the stored response is still valid, the metadata of the new
+     * stored response, or null if the response was an error or a redirect.
+     */
+    @Nullable
+    private Properties fetch(@NonNull String url, @Nullable Properties metadata)
+            throws IOException {
+        final int generation = getGeneration();
+        final Response response = request(url, metadata, null);
+        try {
+            return store(url, metadata, response, generation);
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Requests the given URL, conditionally if it's stored.
+     *
+     * @param metadata The metadata of the stored response, if it's stored.
+     * @return The response, which must be closed by the caller.
+     */
+    @NonNull
+    private Response request(@NonNull String url, @Nullable Properties metadata,
+                             @Nullable Map<String, String> headers) throws IOException {
+        final Request.Builder builder = new Request.Builder().url(url);
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        final String cookies = CookieManager.getInstance().getCookie(url);
+        if (cookies != null) {
+            builder.header("Cookie", cookies);
+        }
+        if (metadata != null) {
+            final String etag = metadata.getProperty(KEY_ETAG);
+            if (etag != null) {
+                builder.header("If-None-Match", etag);
+            }
+            final String lastModified = metadata.getProperty(KEY_LAST_MODIFIED);
+            if (lastModified != null) {
+                builder.header("If-Modified-Since", lastModified);
+            }
+        }
+
+        final Response response = client.newCall(builder.build()).execute();
+        for (String cookie : response.headers("Set-Cookie")) {
+            CookieManager.getInstance().setCookie(url, cookie);
+        }
+        return response;
+    }
+
+    /**
+     * Stores the given response of a request for the given URL if it's new, without closing it.
+     *
+     * @param metadata   The metadata of the stored response, if it's stored.
+     * @param generation The generation of the store when the request was made.
+     * @return The given metadata if the stored response is still valid, the metadata of the new
+     * stored response, or null if the response was an error or a redirect.
+     */
+    @Nullable
+    private Properties store(@NonNull String url, @Nullable Properties metadata,
+                             @NonNull Response response, int generation) throws IOException {
+        if (metadata != null && response.code() == HttpStatus.NOT_MODIFIED) {
+            final long expiresAt = getExpiresAt(response);
+            if (expiresAt > 0) {
+                metadata.setProperty(KEY_EXPIRES_AT, String.valueOf(expiresAt));
+                writeMetadata(url, metadata, generation);
+            }
+            return metadata;
+        }
+        if (response.code() != HttpStatus.OK) {
+            return null;
+        }
+        final Properties newMetadata = new Properties();
+        newMetadata.setProperty(KEY_URL, url);
+        final MediaType contentType = response.body().contentType();
+        newMetadata.setProperty(KEY_CONTENT_TYPE, contentType != null ?
+                contentType.toString() : DEFAULT_CONTENT_TYPE);
+        if (response.header("ETag") != null) {
+            newMetadata.setProperty(KEY_ETAG, response.header("ETag"));
+        }
+        if (response.header("Last-Modified") != null) {
+            newMetadata.setProperty(KEY_LAST_MODIFIED, response.header("Last-Modified"));
+        }
+        final long expiresAt = getExpiresAt(response);
+        if (expiresAt > 0) {
+            newMetadata.setProperty(KEY_EXPIRES_AT, String.valueOf(expiresAt));
+        }
+        write(url, response.body(), newMetadata, generation);
+        return newMetadata;
+    }
+
+    /**
+     * Writes the body and the metadata of a response to temporary files first, and moves them
+     * into place once they're complete, so that a failed write never leaves a partial entry.
+     * The temporary files are unique to each write, since the same URL may be written by a web
+     * view and by the prefetch at the same time. Nothing is moved into place if the store has
+     * been cleared since the response was requested, so that the response of a previous user
+     * isn't kept after the logout.
+     */
+    private void write(@NonNull String url, @NonNull ResponseBody body,
+                       @NonNull Properties metadata, int generation) throws IOException {
+        final File bodyFile = getBodyFile(url);
+        final File metaFile = getMetaFile(url);
+        final File tempBodyFile = File.createTempFile(bodyFile.getName(), TEMP_SUFFIX, directory);
+        final File tempMetaFile;
+        try {
+            tempMetaFile = File.createTempFile(metaFile.getName(), TEMP_SUFFIX, directory);
+        } catch (IOException e) {
+            tempBodyFile.delete();
+            throw e;
+        }
+        long newSize = 0;
+        final InputStream in = body.byteStream();
+        try {
+            final OutputStream out = new FileOutputStream(tempBodyFile);
+            try {
+                final byte[] buffer = new byte[8 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    newSize += read;
+                }
+            } finally {
+                out.close();
+            }
+            writeProperties(tempMetaFile, metadata);
+            synchronized (this) {
+                checkGeneration(url, generation);
+                final long previousSize = bodyFile.length();
+                if (!tempMetaFile.renameTo(metaFile) || !tempBodyFile.renameTo(bodyFile)) {
+                    throw new IOException("Cannot store " + url);
+                }
+                if (size.get() >= 0 && size.addAndGet(newSize - previousSize) > MAX_SIZE) {
+                    trim();
+                }
+            }
+        } finally {
+            // Left over only if the write failed
+            tempBodyFile.delete();
+            tempMetaFile.delete();
+        }
+    }
+
+    /**
+     * Replaces the metadata of a stored response, in the same way as {@link #write}.
+     */
+    private void writeMetadata(@NonNull String url, @NonNull Properties metadata,
+                               int generation) throws IOException {
+        final File metaFile = getMetaFile(url);
+        final File tempMetaFile = File.createTempFile(metaFile.getName(), TEMP_SUFFIX, directory);
+        try {
+            writeProperties(tempMetaFile, metadata);
+            synchronized (this) {
+                checkGeneration(url, generation);
+                if (!metaFile.exists() || !tempMetaFile.renameTo(metaFile)) {
+                    throw new IOException("Cannot store " + url);
+                }
+            }
+        } finally {
+            tempMetaFile.delete();
+        }
+    }
+
+    private static void writeProperties(@NonNull File file, @NonNull Properties properties)
+            throws IOException {
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            properties.store(out, null);
+        } finally {
+            out.close();
+        }
+    }
+
+    private synchronized int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @throws IOException If the store has been cleared since the given generation.
+     */
+    private synchronized void checkGeneration(@NonNull String url, int generation)
+            throws IOException {
+        if (generation != this.generation) {
+            throw new IOException("The store was cleared while requesting " + url);
+        }
+    }
+
+    /**
+     * @return Whether the given stored response may be served without revalidating it.
+     */
+    private static boolean isFresh(@NonNull Properties metadata) {
+        try {
+            return System.currentTimeMillis() <
+                    Long.parseLong(metadata.getProperty(KEY_EXPIRES_AT, "0"));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return The time in milliseconds until which the given response may be served without
+     * revalidating it, by its Cache-Control or Expires headers, or 0 if it must be revalidated
+     * every time.
+     */
+    private static long getExpiresAt(@NonNull Response response) {
+        final CacheControl cacheControl = response.cacheControl();
+        if (cacheControl.noCache() || cacheControl.noStore()) {
+            return 0;
+        }
+        if (cacheControl.maxAgeSeconds() >= 0) {
+            return System.currentTimeMillis() +
+                    TimeUnit.SECONDS.toMillis(cacheControl.maxAgeSeconds());
+        }
+        final String expires = response.header("Expires");
+        if (expires != null) {
+            final Date date = HttpDate.parse(expires);
+            if (date != null) {
+                return date.getTime();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return A response for the web view with the body of the given response, which can't be
+     * a redirect.
+     */
+    @NonNull
+    private static WebResourceResponse toWebResourceResponse(@NonNull Response response)
+            throws IOException {
+        final MediaType contentType = response.body().contentType();
+        final InputStream in = new ByteArrayInputStream(response.body().bytes());
+        final String mimeType = contentType != null ?
+                contentType.type() + "/" + contentType.subtype() : "text/html";
+        final Charset charset = contentType != null ? contentType.charset() : null;
+        final String encoding = charset != null ? charset.name() : null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            final Map<String, String> headers = new HashMap<>();
+            for (String name : response.headers().names()) {
+                headers.put(name, response.header(name));
+            }
+            final String reasonPhrase = TextUtils.isEmpty(response.message()) ?
+                    "Error" : response.message();
+            return new WebResourceResponse(mimeType, encoding, response.code(), reasonPhrase,
+                    headers, in);
+        }
+        // The status code can't be passed to older web views
+        return new WebResourceResponse(mimeType, encoding, in);
+    }
+
+    @NonNull
+    private WebResourceResponse open(@NonNull String url, @NonNull Properties metadata)
+            throws FileNotFoundException {
+        final File bodyFile = getBodyFile(url);
+        final InputStream in = new FileInputStream(bodyFile);
+        // Keeps the least recently used order for the eviction
+        bodyFile.setLastModified(System.currentTimeMillis());
+        final MediaType contentType = MediaType.parse(
+                metadata.getProperty(KEY_CONTENT_TYPE, DEFAULT_CONTENT_TYPE));
+        if (contentType == null) {
+            return new WebResourceResponse(DEFAULT_CONTENT_TYPE, null, in);
+        }
+        final Charset charset = contentType.charset();
+        return new WebResourceResponse(contentType.type() + "/" + contentType.subtype(),
+                charset != null ? charset.name() : null, in);
+    }
+
+    @NonNull
+    private Properties readMetadata(@NonNull String url) throws IOException {
+        final Properties metadata = new Properties();
+        final InputStream in = new FileInputStream(getMetaFile(url));
+        try {
+            metadata.load(in);
+        } finally {
+            in.close();
+        }
+        return metadata;
+    }
+
+    @NonNull
+    private String readBody(@NonNull String url) throws IOException {
+        final File bodyFile = getBodyFile(url);
+        final byte[] bytes = new byte[(int) bodyFile.length()];
+        final InputStream in = new FileInputStream(bodyFile);
+        try {
+            int offset = 0;
+            int read;
+            while (offset < bytes.length &&
+                    (read = in.read(bytes, offset, bytes.length - offset)) != -1) {
+                offset += read;
+            }
+        } finally {
+            in.close();
+        }
+        final MediaType contentType = MediaType.parse(
+                readMetadata(url).getProperty(KEY_CONTENT_TYPE, DEFAULT_CONTENT_TYPE));
+        final Charset charset = contentType != null ? contentType.charset() : null;
+        return new String(bytes, charset != null ? charset.name() : "UTF-8");
+    }
+
+    /**
+     * @return The absolute URLs of the scripts, style sheets and images referenced by the
+     * given page.
+     */
+    @NonNull
+    private static Set<String> findAssetUrls(@NonNull String pageUrl, @NonNull String html) {
+        final Set<String> urls = new LinkedHashSet<>();
+        final HttpUrl base = HttpUrl.parse(pageUrl);
+        if (base == null) {
+            return urls;
+        }
+        final Matcher matcher = ASSET_PATTERN.matcher(html);
+        while (matcher.find()) {
+            final String reference = matcher.group(1) != null ?
+                    matcher.group(1) : matcher.group(2);
+            final HttpUrl url = base.resolve(reference.trim());
+            if (url != null) {
+                urls.add(url.toString());
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Evicts the least recently used entries until the store is under nine tenths of its
+     * maximum size.
+     */
+    private synchronized void trim() {
+        final File[] bodyFiles = directory.listFiles();
+        if (bodyFiles == null) {
+            return;
+        }
+        final List<File> files = new ArrayList<>(Arrays.asList(bodyFiles));
+        Collections.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                final long lhsModified = lhs.lastModified();
+                final long rhsModified = rhs.lastModified();
+                return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            if (size.get() <= MAX_SIZE * 9 / 10) {
+                break;
+            }
+            final String name = file.getName();
+            if (!name.endsWith(BODY_SUFFIX)) {
+                continue;
+            }
+            final long length = file.length();
+            final String key = name.substring(0, name.length() - BODY_SUFFIX.length());
+            if (file.delete()) {
+                size.addAndGet(-length);
+                new File(directory, key + META_SUFFIX).delete();
+            }
+        }
+    }
+
+    private long computeSize() {
+        final File[] files = directory.listFiles();
+        long total = 0;
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(BODY_SUFFIX)) {
+                    total += file.length();
+                }
+            }
+        }
+        return total;
+    }
+
+    @NonNull
+    private File getBodyFile(@NonNull String url) {
+        return new File(directory, Sha1Util.SHA1(url) + BODY_SUFFIX);
+    }
+
+    @NonNull
+    private File getMetaFile(@NonNull String url) {
+        return new File(directory, Sha1Util.SHA1(url) + META_SUFFIX);
+    }
+
+    public static final class Stats {
+        /**
+         * The number of requests served from the store, including those that were revalidated.
+         */
+        public final int hitCount;
+        /**
+         * The number of requests for unit pages or stored URLs that needed a full response from
+         * the network, or couldn't be served at all.
+         */
+        public final int missCount;
+        /**
+         * The size of the stored bodies in bytes, or -1 if it hasn't been read yet.
+         */
+        public final long size;
+        public final long maxSize;
+
+        Stats(int hitCount, int missCount, long size, long maxSize) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * @return The fraction of the requests that were served from the store, or 0 if there
+         * were none.
+         */
+        public float getHitRate() {
+            final int requestCount = hitCount + missCount;
+            return requestCount > 0 ? (float) hitCount / requestCount : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, hitRate=%.2f, size=%d/%d",
+                    hitCount, missCount, getHitRate(), size, maxSize);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.edx.mobile.services;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.http.metrics.BandwidthEstimator;
+
+/**
+ * Decides how many units on each side of the one shown in the unit pager are loaded ahead of
+ * being shown, based on the memory class of the device, the free heap and the network type.
+ * Each preloaded unit holds a web view of its own, so nothing is preloaded on low memory
+ * devices or when the heap is nearly full, and more units are preloaded on Wi-Fi than on
+ * cellular networks.
+ */
+@Singleton
+public class UnitPreloadPolicy {
+    /**
+     * The memory class below which units are never preloaded, in MiB.
+     */
+    static final int MIN_MEMORY_CLASS_MB = 96;
+    /**
+     * The memory class from which two units are preloaded on each side over Wi-Fi, in MiB.
+     */
+    static final int LARGE_MEMORY_CLASS_MB = 192;
+    /**
+     * The free heap that a preloaded unit is expected to take up, in bytes.
+     */
+    static final long HEAP_PER_UNIT_BYTES = 8 * 1024 * 1024;
+    static final int MAX_DISTANCE = 2;
+
+    @NonNull
+    private final ActivityManager activityManager;
+
+    @NonNull
+    private final BandwidthEstimator bandwidthEstimator;
+
+    @Inject
+    public UnitPreloadPolicy(@NonNull Context context,
+                             @NonNull BandwidthEstimator bandwidthEstimator) {
+        this.activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        this.bandwidthEstimator = bandwidthEstimator;
+    }
+
+    /**
+     * @return The number of units to preload on each side of the shown one, for the current
+     * state of the device.
+     */
+    public int getPreloadDistance() {
+        final boolean isLowRamDevice = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT &&
+                activityManager.isLowRamDevice();
+        final Runtime runtime = Runtime.getRuntime();
+        final long freeHeapBytes =
+                runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return getPreloadDistance(isLowRamDevice ? 0 : activityManager.getMemoryClass(),
+                freeHeapBytes, bandwidthEstimator.getCurrentNetworkType());
+    }
+
+    /**
+     * @param memoryClassMb The memory class of the device in MiB, or 0 for a low RAM device.
+     * @param freeHeapBytes The heap that can still be allocated, in bytes.
+     * @param networkType   The type of the current network, or null if there's none.
+     * @return The number of units to preload on each side of the shown one.
+     */
+    public static int getPreloadDistance(int memoryClassMb, long freeHeapBytes,
+                                         @Nullable BandwidthEstimator.NetworkType networkType) {
+        // Units can't be loaded offline, except from the unit store when they're shown
+        if (networkType == null || memoryClassMb < MIN_MEMORY_CLASS_MB) {
+            return 0;
+        }
+        final int wantedDistance = networkType == BandwidthEstimator.NetworkType.WIFI &&
+                memoryClassMb >= LARGE_MEMORY_CLASS_MB ? MAX_DISTANCE : 1;
+        // Both sides have to fit in the free heap
+        final int affordableDistance = (int) (freeHeapBytes / HEAP_PER_UNIT_BYTES / 2);
+        return Math.min(wantedDistance, affordableDistance);
+    }
+}
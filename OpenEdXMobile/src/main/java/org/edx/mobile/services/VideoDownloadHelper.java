@@ -1,5 +1,6 @@
 package org.edx.mobile.services;
 
+import android.support.annotation.Nullable;
 import android.support.v4.app.DialogFragment;
 import android.support.v4.app.FragmentActivity;
 
@@ -9,6 +10,7 @@ import com.google.inject.Singleton;
 import org.edx.mobile.R;
 import org.edx.mobile.base.BaseFragmentActivity;
 import org.edx.mobile.logger.Logger;
+import org.edx.mobile.model.api.TranscriptModel;
 import org.edx.mobile.model.course.HasDownloadEntry;
 import org.edx.mobile.model.db.DownloadEntry;
 import org.edx.mobile.module.analytics.AnalyticsRegistry;
@@ -80,9 +82,15 @@ public class VideoDownloadHelper {
     private void startDownloadVideos(List<? extends HasDownloadEntry> model, FragmentActivity activity, DownloadManagerCallback callback) {
         long downloadSize = 0;
         ArrayList<DownloadEntry> downloadList = new ArrayList<DownloadEntry>();
+        // Fetched together once the download starts, including those of the videos that are
+        // already downloaded
+        final ArrayList<TranscriptModel> transcripts = new ArrayList<>();
         int downloadCount = 0;
         for (HasDownloadEntry v : model) {
             DownloadEntry de = v.getDownloadEntry(storage);
+            if (null != de) {
+                transcripts.add(de.transcript);
+            }
             if (null == de
                     || de.downloaded == DownloadEntry.DownloadedState.DOWNLOADING
                     || de.downloaded == DownloadEntry.DownloadedState.DOWNLOADED
@@ -101,20 +109,22 @@ public class VideoDownloadHelper {
             callback.updateListUI();
         } else {
             if (downloadSize < MemoryUtil.GB && !downloadList.isEmpty()) {
-                startDownload(downloadList, activity, callback);
+                startDownload(downloadList, transcripts, activity, callback);
 
                 final DownloadEntry downloadEntry = downloadList.get(0);
                 analyticsRegistry.trackSubSectionBulkVideoDownload(downloadEntry.getSectionName(),
                         downloadEntry.getChapterName(), downloadEntry.getEnrollmentId(),
                         downloadCount);
             } else {
-                showDownloadSizeExceedDialog(downloadList, downloadCount, activity, callback);
+                showDownloadSizeExceedDialog(downloadList, transcripts, downloadCount, activity,
+                        callback);
             }
         }
     }
 
     // Dialog fragment to display message to user regarding
     private void showDownloadSizeExceedDialog(final ArrayList<DownloadEntry> de,
+                                              final List<TranscriptModel> transcripts,
                                               final int noOfDownloads, final FragmentActivity activity, final DownloadManagerCallback callback) {
         Map<String, String> dialogMap = new HashMap<String, String>();
         dialogMap.put("title", activity.getString(R.string.download_exceed_title));
@@ -124,7 +134,7 @@ public class VideoDownloadHelper {
                     @Override
                     public void onPositiveClicked() {
                         if (!de.isEmpty()) {
-                            startDownload(de, activity, callback);
+                            startDownload(de, transcripts, activity, callback);
 
                             final DownloadEntry downloadEntry = de.get(0);
                             analyticsRegistry.trackSubSectionBulkVideoDownload(downloadEntry.getSectionName(),
@@ -147,17 +157,23 @@ public class VideoDownloadHelper {
     public void downloadVideo(DownloadEntry downloadEntry, final FragmentActivity activity, final DownloadManagerCallback callback) {
         List<DownloadEntry> downloadEntries = new ArrayList<>();
         downloadEntries.add(downloadEntry);
-        startDownload(downloadEntries, activity, callback);
+        startDownload(downloadEntries, null, activity, callback);
         analyticsRegistry.trackSingleVideoDownload(downloadEntry.getVideoId(),
                 downloadEntry.getEnrollmentId(), downloadEntry.getVideoUrl());
     }
 
+    /**
+     * @param transcripts The transcripts to download along with the videos, or null for those
+     *                    of the videos in the download list.
+     */
     private void startDownload(List<DownloadEntry> downloadList,
+                               @Nullable List<TranscriptModel> transcripts,
                                final FragmentActivity activity,
                                final DownloadManagerCallback callback) {
         if (downloadList.isEmpty()) return;
 
-        EnqueueDownloadTask downloadTask = new EnqueueDownloadTask(activity, downloadList) {
+        EnqueueDownloadTask downloadTask = new EnqueueDownloadTask(activity, downloadList,
+                transcripts) {
             @Override
             public void onSuccess(Long result) {
                 callback.onDownloadStarted(result);
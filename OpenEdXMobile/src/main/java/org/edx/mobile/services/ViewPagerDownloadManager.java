@@ -2,146 +2,193 @@ package org.edx.mobile.services;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.support.annotation.NonNull;
 
 import org.edx.mobile.logger.Logger;
 import org.edx.mobile.model.course.CourseComponent;
-import org.edx.mobile.util.UiUtil;
 import org.edx.mobile.util.WeakList;
 import org.edx.mobile.view.common.RunnableCourseComponent;
 import org.edx.mobile.view.common.TaskCallback;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  *  by default, ViewPager will populate UI for both current one-in-view and cached one-in-the-future.
  *  in order to improve performance, we wont download it in parallel.
- *  but it matters only for the initial load when user navigate from course outline page to detail page.
+ *  the main unit is loaded right away, and its neighbours are preloaded one at a time after it,
+ *  as many of them as the {@link UnitPreloadPolicy} allows.
  *
  */
 public class ViewPagerDownloadManager implements TaskCallback {
 
-    //TODO - current we just disable the pre-loading behavior
-    //for potential memory usage issue for certain type devices
-    //we will enable it when we can reduce javascript file size
-    //in assesssment webview
-    public static boolean USING_UI_PRELOADING = false;
-
     protected final Logger logger = new Logger(getClass().getName());
 
-    public static ViewPagerDownloadManager instance = new ViewPagerDownloadManager();
+    public static ViewPagerDownloadManager instance = new ViewPagerDownloadManager(
+            new Executor() {
+                @Override
+                public void execute(@NonNull Runnable command) {
+                    new Handler(Looper.getMainLooper()).post(command);
+                }
+            });
 
+    /**
+     * Runs the next task after the previous one is done, outside of its callback.
+     */
+    @NonNull
+    private final Executor mainThreadExecutor;
+
+    //the tasks waiting for their turn
     private WeakList<RunnableCourseComponent> runnableCourseComponentWeakList;
+    private WeakList<RunnableCourseComponent> runningTaskWeakList;
 
-    //it is the first component to show
+    //it is the first component to show, or null if nothing is preloaded
     private CourseComponent mainComponent;
-    private CourseComponent nextComponent;
-    private CourseComponent prevComponent;
-
-    private boolean taskIsRunning;
+    //the neighbours of the main component to preload, in the order they're loaded
+    @NonNull
+    private List<CourseComponent> preloadComponents = Collections.emptyList();
 
-    private ViewPagerDownloadManager(){
+    public ViewPagerDownloadManager(@NonNull Executor mainThreadExecutor) {
+        this.mainThreadExecutor = mainThreadExecutor;
         runnableCourseComponentWeakList = new WeakList<>();
+        runningTaskWeakList = new WeakList<>();
     }
 
-    public void clear(){
+    public synchronized void clear(){
         runnableCourseComponentWeakList.clear();
+        runningTaskWeakList.clear();
         mainComponent = null;
-        nextComponent = null;
-        prevComponent = null;
-        taskIsRunning = false;
+        preloadComponents = Collections.emptyList();
     }
 
     /**
-     *  specify the cache range for viewpager. we only care about the initial visualization of the viewpagers.
-     *  for the [prev, main, next] fragment UI/pages.
+     *  specify the component shown in the viewpager, and how many units on each side of it to
+     *  preload. the next units are preloaded before the previous ones, and the nearer ones
+     *  before the farther ones. waiting tasks of units out of the new range, because the user
+     *  has jumped away from them, are not run until their units are back in range.
      *
+     * @param preloadDistance The number of units to preload on each side, or 0 to not preload.
      */
-    public void setMainComponent(CourseComponent component,List<CourseComponent> unitList){
-        if ( !USING_UI_PRELOADING )
+    public synchronized void setMainComponent(CourseComponent component,
+                                              List<CourseComponent> unitList,
+                                              int preloadDistance) {
+        final int index = unitList.indexOf(component);
+        if (preloadDistance <= 0 || index < 0) {
+            mainComponent = null;
+            preloadComponents = Collections.emptyList();
             return;
-        clear();
-        this.mainComponent = component;
-        int index = unitList.indexOf(component);
-        if (index > 0 ){
-            prevComponent = unitList.get(index -1);
         }
-        if ( index < unitList.size() - 1 ){
-            nextComponent = unitList.get(index +1);
+        mainComponent = component;
+        preloadComponents = new ArrayList<>(2 * preloadDistance);
+        for (int distance = 1; distance <= preloadDistance; distance++) {
+            if (index + distance < unitList.size()) {
+                preloadComponents.add(unitList.get(index + distance));
+            }
+            if (index - distance >= 0) {
+                preloadComponents.add(unitList.get(index - distance));
+            }
         }
+        tryToRunTask();
     }
 
     /**
-     *  specify the cache range for viewpager. we only care about the initial visualization of the viewpagers.
-     *  for the [prev, main, next] fragment UI/pages.
-     *  for the viewpagers in this range, also main page is not finish downloading, it will be initial phase.
-     *  we will apply our loading policy only in initial phase
+     *  whether the component is the main one or one of the neighbours to preload, which
+     *  are loaded through this manager rather than when they're shown.
      */
     public synchronized boolean inInitialPhase(CourseComponent component){
-         if ( component != mainComponent && component != nextComponent && component != prevComponent )
-             return false;
-
-         return runnableCourseComponentWeakList.size() > 0;
+        return mainComponent != null && component != null &&
+                (component.equals(mainComponent) || preloadComponents.contains(component));
     }
 
+    /**
+     *  cancels the task if it's waiting, or frees its slot if it's running, for instance when
+     *  its unit is shown before its turn came, or destroyed.
+     */
     public synchronized void removeTask(RunnableCourseComponent callback){
         runnableCourseComponentWeakList.remove(callback);
+        if (runningTaskWeakList.remove(callback)) {
+            tryToRunTask();
+        }
     }
 
     /**
-     * if the UI is mainUI, we will kick off the downloading process for this mainUI.
-     * if mainUI is downloaded, but no task is running, we kick off the downloading process for this UI
+     * the main UI is loaded right away. the others wait for their turn, which comes when no
+     * other task is running and their units are in the preload range.
      */
     public synchronized  void addTask(RunnableCourseComponent callback){
-        runnableCourseComponentWeakList.add(callback);
-        if ( mainComponent != null && mainComponent.equals(callback.getCourseComponent())) {
-             taskIsRunning = true;
-            callback.run();
+        if (mainComponent != null && mainComponent.equals(callback.getCourseComponent())) {
+            runTask(callback);
             return;
         }
-        if ( !taskIsRunning  ){
-               taskIsRunning = true;
-               callback.run();
+        runnableCourseComponentWeakList.add(callback);
+        if (!isTaskIsRunning()) {
+            runNextTask();
         }
     }
 
     private void tryToRunTask(){
-
         if ( runnableCourseComponentWeakList.size() == 0 )
             return;
 
-        new Handler(Looper.getMainLooper()).post(new Runnable() {
+        mainThreadExecutor.execute(new Runnable() {
             @Override
             public void run() {
-                //we use only default caching policy here for ViewPager, which is caching size = 1
-                Runnable callback =  UiUtil.isLeftToRightOrientation() ? runnableCourseComponentWeakList.getLastValid() : runnableCourseComponentWeakList.getFirstValid();
-                if ( callback == null ) {
-                    tryToRunTask(); //if we are in some kind of race condition for GC, let's retry.
-                    //it wont run into infinite loop as we check the list size at the very beginning
-                } else {
-                    taskIsRunning = true;
-                    callback.run();
+                synchronized (ViewPagerDownloadManager.this) {
+                    if (!isTaskIsRunning()) {
+                        runNextTask();
+                    }
                 }
             }
         });
+    }
 
+    /**
+     * runs the waiting task with the highest priority, the main one first, if it's in range.
+     */
+    private void runNextTask() {
+        if (mainComponent == null) {
+            return;
+        }
+        final List<CourseComponent> components = new ArrayList<>(preloadComponents.size() + 1);
+        components.add(mainComponent);
+        components.addAll(preloadComponents);
+        for (CourseComponent component : components) {
+            for (int i = 0; i < runnableCourseComponentWeakList.size(); i++) {
+                final RunnableCourseComponent task = runnableCourseComponentWeakList.get(i);
+                if (task != null && component.equals(task.getCourseComponent())) {
+                    runnableCourseComponentWeakList.remove(task);
+                    runTask(task);
+                    return;
+                }
+            }
+        }
     }
 
+    private void runTask(@NonNull RunnableCourseComponent task) {
+        runningTaskWeakList.add(task);
+        task.run();
+    }
 
     @Override
     public synchronized  void done(Runnable task, boolean success) {
         RunnableCourseComponent runnableCourseComponent
              = (RunnableCourseComponent)task;
-        if( runnableCourseComponentWeakList.remove(runnableCourseComponent) ){
-            taskIsRunning = false;
+        if (runningTaskWeakList.remove(runnableCourseComponent) && !isTaskIsRunning()) {
             tryToRunTask();
         }
     }
 
-    public boolean isTaskIsRunning(){
-        return taskIsRunning;
+    public synchronized boolean isTaskRunning(RunnableCourseComponent task){
+        return runningTaskWeakList.has(task);
+    }
+
+    public synchronized boolean isTaskIsRunning(){
+        return runningTaskWeakList.size() > 0;
     }
 
-    public int numTaskInStack(){
+    public synchronized int numTaskInStack(){
         return runnableCourseComponentWeakList.size();
     }
 
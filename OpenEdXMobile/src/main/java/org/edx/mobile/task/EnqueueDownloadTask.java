@@ -2,12 +2,15 @@ package org.edx.mobile.task;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.google.inject.Inject;
 
+import org.edx.mobile.model.api.TranscriptModel;
 import org.edx.mobile.model.db.DownloadEntry;
 import org.edx.mobile.player.TranscriptManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class EnqueueDownloadTask extends Task<Long> {
@@ -16,21 +19,35 @@ public abstract class EnqueueDownloadTask extends Task<Long> {
     TranscriptManager transcriptManager;
     @NonNull
     List<DownloadEntry> downloadList;
+    @Nullable
+    List<TranscriptModel> transcripts;
 
     public EnqueueDownloadTask(@NonNull Context context, @NonNull List<DownloadEntry> downloadList) {
+        this(context, downloadList, null);
+    }
+
+    /**
+     * @param transcripts The transcripts to download along with the videos, in addition to
+     *                    those of the videos that are added.
+     */
+    public EnqueueDownloadTask(@NonNull Context context, @NonNull List<DownloadEntry> downloadList,
+                               @Nullable List<TranscriptModel> transcripts) {
         super(context);
         this.downloadList = downloadList;
+        this.transcripts = transcripts;
     }
 
     @Override
     public Long call() throws Exception {
-        int count = 0;
-        for (DownloadEntry de : downloadList) {
-            if (environment.getStorage().addDownload(de) != -1) {
-                count++;
-                transcriptManager.downloadTranscriptsForVideo(de.transcript);
-            }
+        final List<DownloadEntry> addedList = environment.getStorage().addDownloads(downloadList);
+        final List<TranscriptModel> transcripts = new ArrayList<>(addedList.size());
+        for (DownloadEntry de : addedList) {
+            transcripts.add(de.transcript);
+        }
+        if (this.transcripts != null) {
+            transcripts.addAll(this.transcripts);
         }
-        return (long) count;
+        transcriptManager.downloadTranscripts(transcripts);
+        return (long) addedList.size();
     }
 }
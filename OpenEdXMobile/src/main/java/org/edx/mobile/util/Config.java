@@ -56,6 +56,9 @@ public class Config {
     private static final String SEGMENT_IO = "SEGMENT_IO";
     private static final String PUSH_NOTIFICATIONS_FLAG = "PUSH_NOTIFICATIONS";
     private static final String WHITE_LIST_OF_DOMAINS = "WHITE_LIST_OF_DOMAINS";
+    private static final String HTTP_CACHE = "HTTP_CACHE";
+    private static final String VIDEO_ENCODING = "VIDEO_ENCODING";
+    private static final String VIDEO_DOWNLOAD = "VIDEO_DOWNLOAD";
 
     // Features
     private static final String USER_PROFILES_ENABLED = "USER_PROFILES_ENABLED";
@@ -361,6 +364,143 @@ public class Config {
         }
     }
 
+    public static class HttpCacheConfig {
+        private static final int DEFAULT_COURSE_STRUCTURE_MAX_SIZE_MB = 40;
+        private static final int DEFAULT_DISCUSSION_MAX_SIZE_MB = 10;
+        private static final int DEFAULT_METADATA_MAX_SIZE_MB = 10;
+        private static final int DEFAULT_MAX_FREE_SPACE_PERCENT = 5;
+
+        @SerializedName("COURSE_STRUCTURE_MAX_SIZE_MB")
+        private int mCourseStructureMaxSizeMb;
+
+        @SerializedName("DISCUSSION_MAX_SIZE_MB")
+        private int mDiscussionMaxSizeMb;
+
+        @SerializedName("METADATA_MAX_SIZE_MB")
+        private int mMetadataMaxSizeMb;
+
+        @SerializedName("MAX_FREE_SPACE_PERCENT")
+        private int mMaxFreeSpacePercent;
+
+        /**
+         * @return The maximum size of the cache partition for course structures, in MiB.
+         */
+        public int getCourseStructureMaxSizeMb() {
+            return mCourseStructureMaxSizeMb > 0 ?
+                    mCourseStructureMaxSizeMb : DEFAULT_COURSE_STRUCTURE_MAX_SIZE_MB;
+        }
+
+        /**
+         * @return The maximum size of the cache partition for discussion pages, in MiB.
+         */
+        public int getDiscussionMaxSizeMb() {
+            return mDiscussionMaxSizeMb > 0 ?
+                    mDiscussionMaxSizeMb : DEFAULT_DISCUSSION_MAX_SIZE_MB;
+        }
+
+        /**
+         * @return The maximum size of the cache partition for all the other responses, in MiB.
+         */
+        public int getMetadataMaxSizeMb() {
+            return mMetadataMaxSizeMb > 0 ?
+                    mMetadataMaxSizeMb : DEFAULT_METADATA_MAX_SIZE_MB;
+        }
+
+        /**
+         * @return The percentage of the free disk space that the cache partitions may take up
+         * together, after which their sizes are scaled down.
+         */
+        public int getMaxFreeSpacePercent() {
+            return mMaxFreeSpacePercent > 0 && mMaxFreeSpacePercent <= 100 ?
+                    mMaxFreeSpacePercent : DEFAULT_MAX_FREE_SPACE_PERCENT;
+        }
+    }
+
+    /**
+     * The minimum estimated bandwidths, in KiB per second, at which the high quality encoding of
+     * a video is chosen over the low quality one. A negative threshold means that the high
+     * quality encoding is never chosen on that type of network.
+     */
+    public static class VideoEncodingConfig {
+        private static final int DEFAULT_STREAMING_WIFI_MIN_KBPS = 150;
+        private static final int DEFAULT_STREAMING_CELLULAR_MIN_KBPS = 300;
+        private static final int DEFAULT_DOWNLOAD_WIFI_MIN_KBPS = 150;
+        private static final int DEFAULT_DOWNLOAD_CELLULAR_MIN_KBPS = -1;
+
+        @SerializedName("STREAMING_WIFI_MIN_KBPS")
+        private Integer mStreamingWifiMinKbps;
+
+        @SerializedName("STREAMING_CELLULAR_MIN_KBPS")
+        private Integer mStreamingCellularMinKbps;
+
+        @SerializedName("DOWNLOAD_WIFI_MIN_KBPS")
+        private Integer mDownloadWifiMinKbps;
+
+        @SerializedName("DOWNLOAD_CELLULAR_MIN_KBPS")
+        private Integer mDownloadCellularMinKbps;
+
+        public int getStreamingWifiMinKbps() {
+            return mStreamingWifiMinKbps != null ?
+                    mStreamingWifiMinKbps : DEFAULT_STREAMING_WIFI_MIN_KBPS;
+        }
+
+        public int getStreamingCellularMinKbps() {
+            return mStreamingCellularMinKbps != null ?
+                    mStreamingCellularMinKbps : DEFAULT_STREAMING_CELLULAR_MIN_KBPS;
+        }
+
+        public int getDownloadWifiMinKbps() {
+            return mDownloadWifiMinKbps != null ?
+                    mDownloadWifiMinKbps : DEFAULT_DOWNLOAD_WIFI_MIN_KBPS;
+        }
+
+        public int getDownloadCellularMinKbps() {
+            return mDownloadCellularMinKbps != null ?
+                    mDownloadCellularMinKbps : DEFAULT_DOWNLOAD_CELLULAR_MIN_KBPS;
+        }
+    }
+
+    /**
+     * Selects the engine that downloads videos, either the system's download manager
+     * ({@code "SYSTEM"}, the default) or the app's own segmented downloader ({@code "IN_APP"}),
+     * and configures the latter.
+     */
+    public static class VideoDownloadConfig {
+        private static final String ENGINE_IN_APP = "IN_APP";
+        private static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 2;
+        private static final int DEFAULT_CONNECTIONS_PER_DOWNLOAD = 3;
+
+        @SerializedName("ENGINE")
+        private String mEngine;
+
+        @SerializedName("MAX_CONCURRENT_DOWNLOADS")
+        private int mMaxConcurrentDownloads;
+
+        @SerializedName("CONNECTIONS_PER_DOWNLOAD")
+        private int mConnectionsPerDownload;
+
+        public boolean isInAppEngineEnabled() {
+            return ENGINE_IN_APP.equalsIgnoreCase(mEngine);
+        }
+
+        /**
+         * @return The maximum number of videos downloaded at the same time by the in-app engine.
+         */
+        public int getMaxConcurrentDownloads() {
+            return mMaxConcurrentDownloads > 0 ?
+                    mMaxConcurrentDownloads : DEFAULT_MAX_CONCURRENT_DOWNLOADS;
+        }
+
+        /**
+         * @return The maximum number of connections that the in-app engine opens for each video,
+         * each downloading a different range of it.
+         */
+        public int getConnectionsPerDownload() {
+            return mConnectionsPerDownload > 0 ?
+                    mConnectionsPerDownload : DEFAULT_CONNECTIONS_PER_DOWNLOAD;
+        }
+    }
+
     @Inject
     public Config(Context context) {
         try {
@@ -575,6 +715,21 @@ public class Config {
         return getObjectOrNewInstance(SEGMENT_IO, SegmentConfig.class);
     }
 
+    @NonNull
+    public HttpCacheConfig getHttpCacheConfig() {
+        return getObjectOrNewInstance(HTTP_CACHE, HttpCacheConfig.class);
+    }
+
+    @NonNull
+    public VideoEncodingConfig getVideoEncodingConfig() {
+        return getObjectOrNewInstance(VIDEO_ENCODING, VideoEncodingConfig.class);
+    }
+
+    @NonNull
+    public VideoDownloadConfig getVideoDownloadConfig() {
+        return getObjectOrNewInstance(VIDEO_DOWNLOAD, VideoDownloadConfig.class);
+    }
+
     @NonNull
     public EndToEndConfig getEndToEndConfig() {
         return getObjectOrNewInstance(END_TO_END_TEST, EndToEndConfig.class);
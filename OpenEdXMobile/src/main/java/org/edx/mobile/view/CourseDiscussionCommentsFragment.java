@@ -19,6 +19,7 @@ import org.edx.mobile.base.BaseFragment;
 import org.edx.mobile.base.BaseFragmentActivity;
 import org.edx.mobile.discussion.DiscussionComment;
 import org.edx.mobile.discussion.DiscussionCommentPostedEvent;
+import org.edx.mobile.discussion.DiscussionHtmlRenderer;
 import org.edx.mobile.discussion.DiscussionRequestFields;
 import org.edx.mobile.discussion.DiscussionService;
 import org.edx.mobile.discussion.DiscussionService.FlagBody;
@@ -74,6 +75,9 @@ public class CourseDiscussionCommentsFragment extends BaseFragment implements Di
     @Inject
     private DiscussionService discussionService;
 
+    @Inject
+    private DiscussionHtmlRenderer htmlRenderer;
+
     @Inject
     AnalyticsRegistry analyticsRegistry;
 
@@ -140,16 +144,24 @@ public class CourseDiscussionCommentsFragment extends BaseFragment implements Di
                 DiscussionRequestFields.PROFILE_IMAGE.getQueryParamValue());
         getCommentsListCall = discussionService.getCommentsList(
                 discussionResponse.getIdentifier(), nextPage, requestedFields);
+        final Call<Page<DiscussionComment>> call = getCommentsListCall;
         final Activity activity = getActivity();
         final TaskMessageCallback mCallback = activity instanceof TaskMessageCallback ? (TaskMessageCallback) activity : null;
         getCommentsListCall.enqueue(new ErrorHandlingCallback<Page<DiscussionComment>>(activity,
                 null, mCallback, CallTrigger.LOADING_UNCACHED) {
             @Override
             protected void onResponse(@NonNull final Page<DiscussionComment> threadCommentsPage) {
-                ++nextPage;
-                callback.onPageLoaded(threadCommentsPage);
-                discussionCommentsAdapter.notifyDataSetChanged();
-                hasMorePages = threadCommentsPage.hasNext();
+                // The comments are shown once their bodies are rendered in the background
+                htmlRenderer.prerenderComments(threadCommentsPage.getResults(), new Runnable() {
+                    @Override
+                    public void run() {
+                        if (getView() == null || call != getCommentsListCall) return;
+                        ++nextPage;
+                        callback.onPageLoaded(threadCommentsPage);
+                        discussionCommentsAdapter.notifyDataSetChanged();
+                        hasMorePages = threadCommentsPage.hasNext();
+                    }
+                });
             }
 
             @Override
@@ -26,11 +26,13 @@ import org.edx.mobile.R;
 import org.edx.mobile.discussion.CourseDiscussionInfo;
 import org.edx.mobile.discussion.CourseTopics;
 import org.edx.mobile.discussion.DiscussionCommentPostedEvent;
+import org.edx.mobile.discussion.DiscussionHtmlRenderer;
 import org.edx.mobile.discussion.DiscussionPostsFilter;
 import org.edx.mobile.discussion.DiscussionPostsSort;
 import org.edx.mobile.discussion.DiscussionRequestFields;
 import org.edx.mobile.discussion.DiscussionService;
 import org.edx.mobile.discussion.DiscussionThread;
+import org.edx.mobile.discussion.DiscussionThreadPageCache;
 import org.edx.mobile.discussion.DiscussionThreadPostedEvent;
 import org.edx.mobile.discussion.DiscussionThreadUpdatedEvent;
 import org.edx.mobile.discussion.DiscussionTopic;
@@ -85,6 +87,12 @@ public class CourseDiscussionPostsThreadFragment extends CourseDiscussionPostsBa
     @Inject
     private DiscussionService discussionService;
 
+    @Inject
+    private DiscussionThreadPageCache threadPageCache;
+
+    @Inject
+    private DiscussionHtmlRenderer htmlRenderer;
+
     private DiscussionPostsFilter postsFilter = DiscussionPostsFilter.ALL;
     private DiscussionPostsSort postsSort = DiscussionPostsSort.LAST_ACTIVITY_AT;
 
@@ -338,18 +346,24 @@ public class CourseDiscussionPostsThreadFragment extends CourseDiscussionPostsBa
             getThreadListCall.cancel();
         }
 
-        final List<String> requestedFields = Collections.singletonList(
-                DiscussionRequestFields.PROFILE_IMAGE.getQueryParamValue());
-        if (!discussionTopic.isFollowingType()) {
-            getThreadListCall = discussionService.getThreadList(courseData.getCourse().getId(),
-                    getAllTopicIds(), postsFilter.getQueryParamValue(),
-                    postsSort.getQueryParamValue(), nextPage, requestedFields);
-        } else {
-            getThreadListCall = discussionService.getFollowingThreadList(
-                    courseData.getCourse().getId(), postsFilter.getQueryParamValue(),
-                    postsSort.getQueryParamValue(), nextPage, requestedFields);
+        final DiscussionThreadPageCache.Key cacheKey = new DiscussionThreadPageCache.Key(
+                courseData.getCourse().getId(), getAllTopicIds(),
+                discussionTopic.isFollowingType(), postsFilter, postsSort, nextPage);
+        // Silent refreshes are meant to get the latest threads from the server
+        if (!callback.isRefreshingSilently()) {
+            final DiscussionThreadPageCache.Entry cachedPage = threadPageCache.get(cacheKey);
+            if (cachedPage != null) {
+                if (cachedPage.isStale()) {
+                    threadPageCache.revalidate(cacheKey, createThreadListCall(nextPage));
+                }
+                onThreadsPageLoaded(cachedPage.page, callback);
+                return;
+            }
         }
 
+        getThreadListCall = createThreadListCall(nextPage);
+        final int cacheGeneration = threadPageCache.getGeneration();
+
         final Activity activity = getActivity();
         final TaskMessageCallback mCallback = activity instanceof TaskMessageCallback ? (TaskMessageCallback) activity : null;
         final boolean isRefreshingSilently = callback.isRefreshingSilently();
@@ -360,21 +374,9 @@ public class CourseDiscussionPostsThreadFragment extends CourseDiscussionPostsBa
                         new ProgressViewController(loadingIndicator),mCallback, CallTrigger.LOADING_UNCACHED) {
             @Override
             protected void onResponse(@NonNull final Page<DiscussionThread> threadsPage) {
+                threadPageCache.put(cacheKey, threadsPage, cacheGeneration);
                 if (getView() == null) return;
-                ++nextPage;
-                callback.onPageLoaded(threadsPage);
-
-                if (discussionPostsAdapter.getCount() == 0) {
-                    if (discussionTopic.isAllType()) {
-                        setScreenStateUponError(EmptyQueryResultsFor.COURSE);
-                    } else if (discussionTopic.isFollowingType()) {
-                        setScreenStateUponError(EmptyQueryResultsFor.FOLLOWING);
-                    } else {
-                        setScreenStateUponError(EmptyQueryResultsFor.CATEGORY);
-                    }
-                } else {
-                    setScreenStateUponResult();
-                }
+                onThreadsPageLoaded(threadsPage, callback);
             }
 
             @Override
@@ -392,6 +394,41 @@ public class CourseDiscussionPostsThreadFragment extends CourseDiscussionPostsBa
         });
     }
 
+    @NonNull
+    private Call<Page<DiscussionThread>> createThreadListCall(int page) {
+        final List<String> requestedFields = Collections.singletonList(
+                DiscussionRequestFields.PROFILE_IMAGE.getQueryParamValue());
+        if (!discussionTopic.isFollowingType()) {
+            return discussionService.getThreadList(courseData.getCourse().getId(),
+                    getAllTopicIds(), postsFilter.getQueryParamValue(),
+                    postsSort.getQueryParamValue(), page, requestedFields);
+        } else {
+            return discussionService.getFollowingThreadList(
+                    courseData.getCourse().getId(), postsFilter.getQueryParamValue(),
+                    postsSort.getQueryParamValue(), page, requestedFields);
+        }
+    }
+
+    private void onThreadsPageLoaded(@NonNull Page<DiscussionThread> threadsPage,
+                                     @NonNull InfiniteScrollUtils.PageLoadCallback<DiscussionThread> callback) {
+        ++nextPage;
+        // So that a thread's body is ready by the time it's opened
+        htmlRenderer.prerenderThreads(threadsPage.getResults());
+        callback.onPageLoaded(threadsPage);
+
+        if (discussionPostsAdapter.getCount() == 0) {
+            if (discussionTopic.isAllType()) {
+                setScreenStateUponError(EmptyQueryResultsFor.COURSE);
+            } else if (discussionTopic.isFollowingType()) {
+                setScreenStateUponError(EmptyQueryResultsFor.FOLLOWING);
+            } else {
+                setScreenStateUponError(EmptyQueryResultsFor.CATEGORY);
+            }
+        } else {
+            setScreenStateUponResult();
+        }
+    }
+
     private void setScreenStateUponError(@NonNull EmptyQueryResultsFor query) {
         String resultsText = "";
         boolean isAllPostsFilter = (postsFilter == DiscussionPostsFilter.ALL);
@@ -18,6 +18,7 @@ import org.edx.mobile.base.BaseFragment;
 import org.edx.mobile.base.BaseFragmentActivity;
 import org.edx.mobile.discussion.DiscussionComment;
 import org.edx.mobile.discussion.DiscussionCommentPostedEvent;
+import org.edx.mobile.discussion.DiscussionHtmlRenderer;
 import org.edx.mobile.discussion.DiscussionRequestFields;
 import org.edx.mobile.discussion.DiscussionService;
 import org.edx.mobile.discussion.DiscussionService.ReadBody;
@@ -206,6 +207,9 @@ public class CourseDiscussionResponsesFragment extends BaseFragment implements C
         @Inject
         private DiscussionService discussionService;
 
+        @Inject
+        private DiscussionHtmlRenderer htmlRenderer;
+
         @Nullable
         private Call<Page<DiscussionComment>> getResponsesListCall;
         private int nextPage = 1;
@@ -237,6 +241,7 @@ public class CourseDiscussionResponsesFragment extends BaseFragment implements C
                         threadId, nextPage, requestedFields);
             }
 
+            final Call<Page<DiscussionComment>> call = getResponsesListCall;
             final TaskMessageCallback mCallback = context instanceof TaskMessageCallback ? (TaskMessageCallback) context : null;
             getResponsesListCall.enqueue(new ErrorHandlingCallback<Page<DiscussionComment>>(
                     context, null, mCallback, CallTrigger.LOADING_UNCACHED) {
@@ -274,11 +279,22 @@ public class CourseDiscussionResponsesFragment extends BaseFragment implements C
                             }
                         }
                     };
-                    if (isFrozen) {
-                        deferredDeliveryRunnable = deliverResultRunnable;
-                    } else {
-                        deliverResultRunnable.run();
-                    }
+                    // The responses are shown once their bodies are rendered in the background
+                    htmlRenderer.prerenderComments(threadResponsesPage.getResults(),
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    if (call != getResponsesListCall) {
+                                        // The loader has been reset in the meantime
+                                        return;
+                                    }
+                                    if (isFrozen) {
+                                        deferredDeliveryRunnable = deliverResultRunnable;
+                                    } else {
+                                        deliverResultRunnable.run();
+                                    }
+                                }
+                            });
                 }
 
                 @Override
@@ -36,6 +36,7 @@ public class CourseOutlineActivity extends CourseVideoListActivity {
 
     public void onResume(){
         super.onResume();
+        environment.getDownloadManager().setPriorityCourse(courseData.getCourse().getId());
 
         if (isOnCourseOutline()) {
             setTitle(courseData.getCourse().getName());
@@ -18,13 +18,18 @@ import org.edx.mobile.base.MainApplication;
 import org.edx.mobile.logger.Logger;
 import org.edx.mobile.model.course.BlockType;
 import org.edx.mobile.model.course.CourseComponent;
+import org.edx.mobile.model.course.HtmlBlockModel;
 import org.edx.mobile.module.analytics.Analytics;
 import org.edx.mobile.module.prefs.PrefManager;
+import org.edx.mobile.services.EdxCookieManager;
+import org.edx.mobile.services.HtmlUnitStore;
 import org.edx.mobile.services.LastAccessManager;
+import org.edx.mobile.services.UnitPreloadPolicy;
 import org.edx.mobile.services.ViewPagerDownloadManager;
 import org.edx.mobile.view.adapters.CourseUnitPagerAdapter;
 import org.edx.mobile.view.common.PageViewStateCallback;
 import org.edx.mobile.view.custom.DisableableViewPager;
+import org.edx.mobile.view.custom.EdxWebViewPool;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -60,8 +65,21 @@ public class CourseUnitNavigationActivity extends CourseBaseActivity implements
     @Inject
     LastAccessManager lastAccessManager;
 
+    @Inject
+    HtmlUnitStore unitStore;
+
+    @Inject
+    EdxWebViewPool webViewPool;
+
+    @Inject
+    UnitPreloadPolicy unitPreloadPolicy;
+
+    private String prefetchedSubsectionId;
+
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Most units are shown in web views, so have some ready for paging through them
+        webViewPool.prewarm();
         RelativeLayout insertPoint = (RelativeLayout) findViewById(R.id.fragment_container);
         LayoutInflater inflater = (LayoutInflater) getSystemService(Context.LAYOUT_INFLATER_SERVICE);
 
@@ -164,6 +182,9 @@ public class CourseUnitNavigationActivity extends CourseBaseActivity implements
 
         lastAccessManager.setLastAccessed(selectedUnit.getCourseId(), this.selectedUnit.getId());
 
+        prefetchHtmlUnits();
+        updatePreloading();
+
         Intent resultData = new Intent();
         resultData.putExtra(Router.EXTRA_COURSE_COMPONENT_ID, courseComponentId);
         setResult(RESULT_OK, resultData);
@@ -174,6 +195,42 @@ public class CourseUnitNavigationActivity extends CourseBaseActivity implements
                 courseData.getCourse().getId(), selectedUnit.getBlockId());
     }
 
+    /**
+     * Stores the HTML units of the current subsection in the background, so that they load
+     * faster and can be shown offline.
+     */
+    private void prefetchHtmlUnits() {
+        final CourseComponent subsection =
+                selectedUnit.getAncestor(EnumSet.of(BlockType.SEQUENTIAL));
+        if (subsection == null || subsection.getId().equals(prefetchedSubsectionId) ||
+                EdxCookieManager.getSharedInstance(this).isSessionCookieMissingOrExpired()) {
+            return;
+        }
+        prefetchedSubsectionId = subsection.getId();
+        final List<CourseComponent> leaves = new ArrayList<>();
+        subsection.fetchAllLeafComponents(leaves, EnumSet.allOf(BlockType.class));
+        final List<String> urls = new ArrayList<>();
+        for (CourseComponent leaf : leaves) {
+            if (leaf instanceof HtmlBlockModel && leaf.isMultiDevice()) {
+                urls.add(leaf.getBlockUrl());
+            }
+        }
+        if (!urls.isEmpty()) {
+            unitStore.prefetch(urls);
+        }
+    }
+
+    /**
+     * Preloads as many units around the current one as the device and network can afford, and
+     * keeps their pages alive in the pager.
+     */
+    private void updatePreloading() {
+        final int preloadDistance = unitPreloadPolicy.getPreloadDistance();
+        ViewPagerDownloadManager.instance.setMainComponent(selectedUnit, unitList,
+                preloadDistance);
+        pager.setOffscreenPageLimit(Math.max(1, preloadDistance));
+    }
+
     private void tryToUpdateForEndOfSequential() {
         int curIndex = pager.getCurrentItem();
         setCurrentUnit(pagerAdapter.getUnit(curIndex));
@@ -230,7 +287,7 @@ public class CourseUnitNavigationActivity extends CourseBaseActivity implements
         unitList.addAll(leaves);
         pagerAdapter.notifyDataSetChanged();
 
-        ViewPagerDownloadManager.instance.setMainComponent(selectedUnit, unitList);
+        updatePreloading();
 
         int index = unitList.indexOf(selectedUnit);
         if (index >= 0) {
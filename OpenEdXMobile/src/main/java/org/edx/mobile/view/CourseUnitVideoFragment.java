@@ -34,6 +34,7 @@ import org.edx.mobile.model.db.DownloadEntry;
 import org.edx.mobile.module.db.DataCallback;
 import org.edx.mobile.module.db.impl.DatabaseFactory;
 import org.edx.mobile.player.IPlayerEventCallback;
+import org.edx.mobile.player.PlaybackPositionStore;
 import org.edx.mobile.player.PlayerFragment;
 import org.edx.mobile.player.TranscriptListener;
 import org.edx.mobile.services.ViewPagerDownloadManager;
@@ -87,6 +88,9 @@ public class CourseUnitVideoFragment extends CourseUnitFragment
     @Inject
     private CourseAPI courseApi;
 
+    @Inject
+    private PlaybackPositionStore positionStore;
+
     /**
      * Create a new instance of fragment
      */
@@ -343,7 +347,8 @@ public class CourseUnitVideoFragment extends CourseUnitFragment
             String filepath = getVideoPath(video);
 
 
-            playerFragment.prepare(filepath, video.lastPlayedOffset,
+            playerFragment.prepare(filepath,
+                positionStore.getPosition(video.videoId, video.lastPlayedOffset),
                 video.getTitle(), transcript, video);
 
 
@@ -519,9 +524,8 @@ public class CourseUnitVideoFragment extends CourseUnitFragment
         try {
             DownloadEntry v = videoModel;
             if (v != null) {
-                // mark this as partially watches, as playing has started
-                DatabaseFactory.getInstance( DatabaseFactory.TYPE_DATABASE_NATIVE ).updateVideoLastPlayedOffset(v.videoId, offset,
-                    setCurrentPositionCallback);
+                v.lastPlayedOffset = offset;
+                positionStore.setPosition(v.videoId, offset);
             }
         } catch (Exception ex) {
             logger.error(ex);
@@ -591,18 +595,6 @@ public class CourseUnitVideoFragment extends CourseUnitFragment
         }
     };
 
-    private DataCallback<Integer> setCurrentPositionCallback = new DataCallback<Integer>() {
-        @Override
-        public void onResult(Integer result) {
-            logger.debug("Current Playback Position Updated");
-        }
-
-        @Override
-        public void onFail(Exception ex) {
-            logger.error(ex);
-        }
-    };
-
     @Override
     public void onConfigurationChanged(Configuration newConfig) {
         super.onConfigurationChanged(newConfig);
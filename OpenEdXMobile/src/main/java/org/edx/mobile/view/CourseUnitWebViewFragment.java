@@ -4,8 +4,10 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.StringRes;
+import android.support.v4.content.ContextCompat;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -29,8 +31,11 @@ import org.edx.mobile.model.course.CourseComponent;
 import org.edx.mobile.model.course.HtmlBlockModel;
 import org.edx.mobile.module.prefs.LoginPrefs;
 import org.edx.mobile.services.EdxCookieManager;
+import org.edx.mobile.services.HtmlUnitStore;
 import org.edx.mobile.services.ViewPagerDownloadManager;
 import org.edx.mobile.util.NetworkUtil;
+import org.edx.mobile.view.custom.EdxWebView;
+import org.edx.mobile.view.custom.EdxWebViewPool;
 import org.edx.mobile.view.custom.URLInterceptorWebViewClient;
 
 import java.util.HashMap;
@@ -50,8 +55,21 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
     @InjectView(R.id.loading_indicator)
     private ProgressBar progressWheel;
 
-    @InjectView(R.id.course_unit_webView)
-    private WebView webView;
+    @InjectView(R.id.course_unit_webview_container)
+    private ViewGroup webViewContainer;
+
+    private EdxWebView webView;
+
+    /**
+     * Whether the web view was taken from the pool's idle web views, rather than created.
+     */
+    private boolean isWebViewPooled;
+
+    /**
+     * When the unit was last shown to the user, for measuring the time until its page is first
+     * drawn, or -1 if it isn't shown or has been measured already.
+     */
+    private long visibleTime = -1;
 
     @InjectView(R.id.content_unavailable_error_text)
     private TextView errorTextView;
@@ -59,6 +77,12 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
     @Inject
     private LoginPrefs loginPrefs;
 
+    @Inject
+    private HtmlUnitStore unitStore;
+
+    @Inject
+    private EdxWebViewPool webViewPool;
+
     public static CourseUnitWebViewFragment newInstance(HtmlBlockModel unit) {
         CourseUnitWebViewFragment f = new CourseUnitWebViewFragment();
 
@@ -81,6 +105,13 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
         super.onActivityCreated(savedInstanceState);
         //should we recover here?
 
+        isWebViewPooled = webViewPool.hasIdleWebView();
+        webView = webViewPool.acquire(getActivity());
+        webView.setId(R.id.course_unit_webView);
+        webView.setBackgroundColor(ContextCompat.getColor(getContext(), R.color.white));
+        webViewContainer.addView(webView, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
         webView.clearCache(true);
         webView.getSettings().setJavaScriptEnabled(true);
         URLInterceptorWebViewClient client =
@@ -121,9 +152,18 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
                         }
                     }
 
+                    @Override
+                    @TargetApi(Build.VERSION_CODES.M)
+                    public void onPageCommitVisible(WebView view, String url) {
+                        if (url != null && !url.startsWith("data:")) {
+                            onPageDrawn();
+                        }
+                    }
+
                     public void onPageFinished(WebView view, String url) {
                         if (didReceiveError) {
                             didReceiveError = false;
+                            ViewPagerDownloadManager.instance.done(CourseUnitWebViewFragment.this, false);
                             return;
                         }
                         if (url != null && url.equals("data:text/html," + EMPTY_HTML)) {
@@ -131,6 +171,7 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
                         } else {
                             pageIsLoaded = true;
                             hideErrorMessage();
+                            onPageDrawn();
                         }
 
                         //TODO -disable it for now. as it causes some issues for assessment
@@ -142,14 +183,10 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
                     }
                 };
         client.setAllLinksAsExternal(true);
+        webView.setUnitStore(unitStore);
 
-        if (ViewPagerDownloadManager.USING_UI_PRELOADING) {
-            if (ViewPagerDownloadManager.instance.inInitialPhase(unit)) {
-                ViewPagerDownloadManager.instance.addTask(this);
-            } else {
-                tryToLoadWebView(true);
-            }
-        }
+        // The unit is loaded now if it's the main one, or when its turn to be preloaded comes
+        ViewPagerDownloadManager.instance.addTask(this);
     }
 
     @Override
@@ -158,7 +195,10 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
         webView.onResume();
         if (hasComponentCallback != null) {
             CourseComponent component = hasComponentCallback.getComponent();
-            if (component != null && component.equals(unit)) {
+            // Unless it's being loaded already
+            if (component != null && component.equals(unit) &&
+                    !ViewPagerDownloadManager.instance.isTaskRunning(this)) {
+                ViewPagerDownloadManager.instance.removeTask(this);
                 try {
                     tryToLoadWebView(false);
                 } catch (Exception ex) {
@@ -180,12 +220,10 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
         if (EventBus.getDefault().isRegistered(this)) {
             EventBus.getDefault().unregister(this);
         }
-    }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-        webView.destroy();
+        ViewPagerDownloadManager.instance.removeTask(this);
+        webViewPool.release(webView);
+        webView = null;
+        pageIsLoaded = false;
     }
 
     @SuppressWarnings("unused")
@@ -203,6 +241,7 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
             tryToLoadWebView(false);
         } else {
             hideLoadingProgress();
+            ViewPagerDownloadManager.instance.done(this, false);
         }
     }
 
@@ -238,9 +277,7 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
     }
 
     private void tryToLoadWebView(boolean forceLoad) {
-        System.gc(); //there is a well known Webview Memory Issue With Galaxy S3 With 4.3 Update
-
-        if ((!forceLoad && pageIsLoaded) || progressWheel == null) {
+        if ((!forceLoad && pageIsLoaded) || progressWheel == null || webView == null) {
             return;
         }
 
@@ -248,8 +285,10 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
             EventBus.getDefault().register(this);
         }
 
-        if (!NetworkUtil.isConnected(getContext())) {
+        final boolean isOffline = !NetworkUtil.isConnected(getContext());
+        if (isOffline && (unit == null || !unitStore.contains(unit.getBlockUrl()))) {
             showErrorMessage(R.string.reset_no_network_message, FontAwesomeIcons.fa_wifi);
+            ViewPagerDownloadManager.instance.done(this, false);
             return;
         }
 
@@ -264,7 +303,8 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
 
             // Requery the session cookie if unavailable or expired.
             final EdxCookieManager cookieManager = EdxCookieManager.getSharedInstance(getContext());
-            if (cookieManager.isSessionCookieMissingOrExpired()) {
+            // The stored page doesn't need a session
+            if (!isOffline && cookieManager.isSessionCookieMissingOrExpired()) {
                 cookieManager.tryToRefreshSessionCookie();
             } else {
                 webView.loadUrl(unit.getBlockUrl(), map);
@@ -295,17 +335,34 @@ public class CourseUnitWebViewFragment extends CourseUnitFragment {
     @Override
     public void setUserVisibleHint(boolean isVisibleToUser) {
         super.setUserVisibleHint(isVisibleToUser);
-        if (ViewPagerDownloadManager.USING_UI_PRELOADING)
-            return;
-        if (ViewPagerDownloadManager.instance.inInitialPhase(unit))
-            return;
+        visibleTime = isVisibleToUser && !pageIsLoaded ? SystemClock.elapsedRealtime() : -1;
         if (isVisibleToUser) {
-            tryToLoadWebView(false);
-        } else {
+            // A unit that's being preloaded is shown once it's loaded
+            if (!ViewPagerDownloadManager.instance.isTaskRunning(this)) {
+                ViewPagerDownloadManager.instance.removeTask(this);
+                tryToLoadWebView(false);
+            }
+        } else if (!ViewPagerDownloadManager.instance.inInitialPhase(unit)) {
+            // Keep the preloaded units, and release the memory of the others
+            ViewPagerDownloadManager.instance.removeTask(this);
             tryToClearWebView();
         }
     }
 
+    /**
+     * Logs the time from the unit being shown to its page being drawn, the first time it's
+     * drawn after being shown.
+     */
+    private void onPageDrawn() {
+        if (visibleTime < 0) {
+            return;
+        }
+        logger.debug("Unit " + unit.getId() + " drawn in " +
+                (SystemClock.elapsedRealtime() - visibleTime) + " ms with a " +
+                (isWebViewPooled ? "pooled" : "new") + " web view");
+        visibleTime = -1;
+    }
+
     private void showLoadingProgress() {
         progressWheel.setVisibility(View.VISIBLE);
     }
@@ -8,15 +8,18 @@ import android.support.annotation.Nullable;
 import android.view.MenuItem;
 import android.widget.ListView;
 
+import com.google.inject.Inject;
+
 import org.edx.mobile.R;
 import org.edx.mobile.base.BaseFragmentActivity;
 import org.edx.mobile.model.VideoModel;
 import org.edx.mobile.model.db.DownloadEntry;
-import org.edx.mobile.model.download.NativeDownloadModel;
 import org.edx.mobile.module.analytics.Analytics;
 import org.edx.mobile.module.db.DataCallback;
 import org.edx.mobile.module.db.IDbCallback;
 import org.edx.mobile.module.db.ObservableDataCallback;
+import org.edx.mobile.module.download.DownloadProgressPoller;
+import org.edx.mobile.module.download.DownloadProgressSnapshot;
 import org.edx.mobile.view.adapters.DownloadEntryAdapter;
 
 import java.util.ArrayList;
@@ -26,6 +29,9 @@ public class DownloadListActivity extends BaseFragmentActivity {
 
     public static int REFRESH_INTERVAL_IN_MILLISECONDS = 3000;
 
+    @Inject
+    private DownloadProgressPoller downloadProgressPoller;
+
     @Nullable
     private DownloadEntryAdapter adapter;
 
@@ -127,12 +133,17 @@ public class DownloadListActivity extends BaseFragmentActivity {
         environment.getDatabase().getListOfOngoingDownloads(new DataCallback<List<VideoModel>>(false) {
             @Override
             public void onResult(List<VideoModel> result) {
+                final long[] dmIds = new long[result.size()];
+                for (int i = 0; i < dmIds.length; i++) {
+                    dmIds[i] = result.get(i).getDmId();
+                }
+                final DownloadProgressSnapshot snapshot = downloadProgressPoller.getSnapshot(dmIds);
                 final List<DownloadEntryAdapter.Item> downloadItems = new ArrayList<>(result.size());
                 for (VideoModel model : result) {
                     final DownloadEntry downloadEntry = (DownloadEntry) model;
-                    final NativeDownloadModel nativeModel = environment.getStorage().getNativeDownload(downloadEntry.dmId);
-                    if (null != nativeModel) {
-                        downloadItems.add(new DownloadItem(downloadEntry, nativeModel));
+                    final DownloadProgressSnapshot.Progress progress = snapshot.get(downloadEntry.dmId);
+                    if (null != progress) {
+                        downloadItems.add(new DownloadItem(downloadEntry, progress));
                     }
                 }
                 observable.sendResult(downloadItems);
@@ -151,21 +162,21 @@ public class DownloadListActivity extends BaseFragmentActivity {
         private final DownloadEntry model;
 
         @NonNull
-        private final NativeDownloadModel nativeModel;
+        private final DownloadProgressSnapshot.Progress progress;
 
-        public DownloadItem(@NonNull DownloadEntry model, @NonNull NativeDownloadModel nativeModel) {
+        public DownloadItem(@NonNull DownloadEntry model, @NonNull DownloadProgressSnapshot.Progress progress) {
             this.model = model;
-            this.nativeModel = nativeModel;
+            this.progress = progress;
         }
 
         @Override
         @Nullable
         public Long getTotalByteCount() {
             if (model.size <= 0) {
-                if (nativeModel.size <= 0) {
+                if (progress.totalBytes <= 0) {
                     return null; // Size not known
                 }
-                return nativeModel.size;
+                return progress.totalBytes;
             }
             return model.size;
         }
@@ -184,17 +195,17 @@ public class DownloadListActivity extends BaseFragmentActivity {
 
         @Override
         public long getDownloadedByteCount() {
-            return nativeModel.downloaded;
+            return progress.downloadedBytes;
         }
 
         @Override
         @NonNull
         public Status getStatus() {
-            if (nativeModel.status == DownloadManager.STATUS_FAILED) {
+            if (progress.status == DownloadManager.STATUS_FAILED) {
                 return Status.FAILED;
             }
-            if (nativeModel.status == DownloadManager.STATUS_PENDING
-                    || nativeModel.size == -1) {
+            if (progress.status == DownloadManager.STATUS_PENDING
+                    || progress.totalBytes == -1) {
                 return Status.PENDING;
             }
             return Status.DOWNLOADING;
@@ -202,7 +213,7 @@ public class DownloadListActivity extends BaseFragmentActivity {
 
         @Override
         public int getPercent() {
-            return nativeModel.getPercentDownloaded();
+            return (int) progress.getPercent();
         }
     }
 }
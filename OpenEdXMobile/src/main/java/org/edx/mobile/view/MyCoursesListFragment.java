@@ -33,6 +33,7 @@ import org.edx.mobile.logger.Logger;
 import org.edx.mobile.model.api.EnrolledCoursesResponse;
 import org.edx.mobile.module.analytics.Analytics;
 import org.edx.mobile.module.prefs.LoginPrefs;
+import org.edx.mobile.services.CourseManager;
 import org.edx.mobile.task.RestoreVideosCacheDataTask;
 import org.edx.mobile.util.NetworkUtil;
 import org.edx.mobile.view.adapters.MyCoursesAdapter;
@@ -61,6 +62,9 @@ public class MyCoursesListFragment extends BaseFragment
     @Inject
     private LoginPrefs loginPrefs;
 
+    @Inject
+    private CourseManager courseManager;
+
     private FullScreenErrorNotification errorNotification;
 
     private SnackbarErrorNotification snackbarErrorNotification;
@@ -169,6 +173,12 @@ public class MyCoursesListFragment extends BaseFragment
             if (result.getResult().size() > 0) {
                 adapter.setItems(newItems);
                 adapter.notifyDataSetChanged();
+
+                final List<String> courseIds = new ArrayList<>(newItems.size());
+                for (EnrolledCoursesResponse course : newItems) {
+                    courseIds.add(course.getCourse().getId());
+                }
+                courseManager.prewarmRecentCourses(courseIds);
             }
 
             if (adapter.isEmpty() && !environment.getConfig().getCourseDiscoveryConfig().isCourseDiscoveryEnabled()) {
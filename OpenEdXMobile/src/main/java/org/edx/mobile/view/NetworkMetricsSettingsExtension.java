@@ -0,0 +1,46 @@
+package org.edx.mobile.view;
+
+import android.support.annotation.NonNull;
+import android.support.v7.app.AlertDialog;
+import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.edx.mobile.R;
+import org.edx.mobile.http.metrics.NetworkMetrics;
+
+import java.util.List;
+
+/**
+ * Adds an item to the settings screen that shows the metrics of the network calls made since
+ * the app was started, for debugging.
+ */
+public class NetworkMetricsSettingsExtension implements SettingsExtension {
+    @NonNull
+    private final NetworkMetrics networkMetrics;
+
+    public NetworkMetricsSettingsExtension(@NonNull NetworkMetrics networkMetrics) {
+        this.networkMetrics = networkMetrics;
+    }
+
+    @Override
+    public void onCreateSettingsView(@NonNull ViewGroup parent) {
+        final View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.settings_network_metrics, parent, false);
+        view.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                final List<NetworkMetrics.RouteStats> snapshot = networkMetrics.getSnapshot();
+                new AlertDialog.Builder(v.getContext())
+                        .setTitle(R.string.settings_network_metrics)
+                        .setMessage(snapshot.isEmpty() ?
+                                v.getContext().getString(R.string.settings_network_metrics_empty) :
+                                TextUtils.join("\n\n", snapshot))
+                        .setPositiveButton(android.R.string.ok, null)
+                        .show();
+            }
+        });
+        parent.addView(view);
+    }
+}
@@ -292,10 +292,11 @@ public class Router {
      * @see #performManualLogout(Context, AnalyticsRegistry, NotificationDelegate)
      */
     public void forceLogout(Context context, AnalyticsRegistry analyticsRegistry, NotificationDelegate delegate) {
-        loginPrefs.clear();
-
+        // Posted first, so that the subscribers can still save the data of the user
         EventBus.getDefault().post(new LogoutEvent());
 
+        loginPrefs.clear();
+
         analyticsRegistry.trackUserLogout();
         analyticsRegistry.resetIdentifyUser();
 
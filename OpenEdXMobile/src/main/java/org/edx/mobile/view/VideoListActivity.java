@@ -20,6 +20,7 @@ import org.edx.mobile.course.CourseAPI;
 import org.edx.mobile.model.api.TranscriptModel;
 import org.edx.mobile.model.db.DownloadEntry;
 import org.edx.mobile.player.IPlayerEventCallback;
+import org.edx.mobile.player.PlaybackPositionStore;
 import org.edx.mobile.player.PlayerFragment;
 import org.edx.mobile.player.VideoListFragment;
 import org.edx.mobile.player.VideoListFragment.VideoListCallback;
@@ -41,6 +42,9 @@ public class VideoListActivity extends BaseVideosDownloadStateActivity
     @Inject
     private CourseAPI courseApi;
 
+    @Inject
+    private PlaybackPositionStore positionStore;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -230,7 +234,8 @@ public class VideoListActivity extends BaseVideosDownloadStateActivity
                 filepath = video.getBestEncodingUrl(this);
             }
 
-            playerFragment.play(filepath, video.lastPlayedOffset,
+            playerFragment.play(filepath,
+                    positionStore.getPosition(video.videoId, video.lastPlayedOffset),
                     video.getTitle(), transcript, video);
         } catch (Exception ex) {
             logger.error(ex);
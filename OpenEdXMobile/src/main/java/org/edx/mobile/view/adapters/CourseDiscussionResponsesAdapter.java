@@ -20,6 +20,7 @@ import com.joanzapata.iconify.fonts.FontAwesomeIcons;
 
 import org.edx.mobile.R;
 import org.edx.mobile.discussion.DiscussionComment;
+import org.edx.mobile.discussion.DiscussionHtmlRenderer;
 import org.edx.mobile.discussion.DiscussionService;
 import org.edx.mobile.discussion.DiscussionService.FlagBody;
 import org.edx.mobile.discussion.DiscussionService.FollowBody;
@@ -64,6 +65,9 @@ public class CourseDiscussionResponsesAdapter extends RecyclerView.Adapter imple
     @Inject
     private LoginPrefs loginPrefs;
 
+    @Inject
+    private DiscussionHtmlRenderer htmlRenderer;
+
     @NonNull
     private final Context context;
 
@@ -170,7 +174,7 @@ public class CourseDiscussionResponsesAdapter extends RecyclerView.Adapter imple
 
         holder.threadTitleTextView.setText(discussionThread.getTitle());
 
-        DiscussionTextUtils.renderHtml(holder.threadBodyTextView, discussionThread.getRenderedBody());
+        htmlRenderer.setText(holder.threadBodyTextView, discussionThread);
 
         String groupName = discussionThread.getGroupName();
         if (groupName == null) {
@@ -307,7 +311,7 @@ public class CourseDiscussionResponsesAdapter extends RecyclerView.Adapter imple
             holder.responseAnswerAuthorTextView.setVisibility(View.GONE);
         }
 
-        DiscussionTextUtils.renderHtml(holder.responseCommentBodyTextView, comment.getRenderedBody());
+        htmlRenderer.setText(holder.responseCommentBodyTextView, comment);
 
         if (discussionThread.isClosed() && comment.getChildCount() == 0) {
             holder.addCommentLayout.setEnabled(false);
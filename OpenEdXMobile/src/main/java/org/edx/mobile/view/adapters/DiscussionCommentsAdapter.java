@@ -17,6 +17,7 @@ import com.joanzapata.iconify.fonts.FontAwesomeIcons;
 
 import org.edx.mobile.R;
 import org.edx.mobile.discussion.DiscussionComment;
+import org.edx.mobile.discussion.DiscussionHtmlRenderer;
 import org.edx.mobile.discussion.DiscussionTextUtils;
 import org.edx.mobile.discussion.DiscussionThread;
 import org.edx.mobile.module.prefs.LoginPrefs;
@@ -36,6 +37,9 @@ public class DiscussionCommentsAdapter extends RecyclerView.Adapter implements I
     @Inject
     private LoginPrefs loginPrefs;
 
+    @Inject
+    private DiscussionHtmlRenderer htmlRenderer;
+
     @NonNull
     private final Context context;
 
@@ -164,7 +168,7 @@ public class DiscussionCommentsAdapter extends RecyclerView.Adapter implements I
         TextViewCompat.setCompoundDrawablesRelativeWithIntrinsicBounds(
                 holder.discussionCommentCountReportTextView, iconDrawable, null, null, null);
 
-        DiscussionTextUtils.renderHtml(holder.discussionCommentBody, discussionComment.getRenderedBody());
+        htmlRenderer.setText(holder.discussionCommentBody, discussionComment);
     }
 
     @Override
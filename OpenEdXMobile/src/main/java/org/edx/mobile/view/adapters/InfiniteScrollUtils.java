@@ -1,5 +1,6 @@
 package org.edx.mobile.view.adapters;
 
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
@@ -10,6 +11,7 @@ import android.widget.ArrayAdapter;
 import android.widget.ListView;
 
 import org.edx.mobile.R;
+import org.edx.mobile.http.constants.ApiConstants;
 import org.edx.mobile.model.Page;
 
 import java.util.List;
@@ -17,6 +19,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class InfiniteScrollUtils {
     private static final int VISIBILITY_THRESHOLD = 2; // Load more when only this number of items exists off-screen
+    private static final long READ_AHEAD_MILLIS = 1500; // Load more this long before the end is reached at the current scroll speed
 
     public static <T> InfiniteListController configureListViewWithInfiniteList(@NonNull final ListView list, @NonNull final ArrayAdapter<T> adapter, @NonNull final PageLoader<T> pageLoader) {
         final PageLoadController controller = new PageLoadController<>(
@@ -238,9 +241,50 @@ public class InfiniteScrollUtils {
         }
     }
 
+    /**
+     * Tracks the speed of scrolling through a list, and extends the number of off-screen items
+     * at which the next page is loaded, so that it's loaded before a fast scroll reaches the end
+     * of the list. The extension is capped at a page, so at most one page is read ahead.
+     */
+    public static class ReadAheadThreshold {
+        private int lastFirstVisibleItem = -1;
+        private long lastChangeTime;
+        private float itemsPerMilli;
+
+        /**
+         * @param firstVisibleItem The position of the first visible item.
+         * @param timeMillis       The current time, in milliseconds.
+         * @return The number of off-screen items at which the next page should be loaded.
+         */
+        public int update(int firstVisibleItem, long timeMillis) {
+            if (firstVisibleItem != lastFirstVisibleItem) {
+                if (lastFirstVisibleItem >= 0 && timeMillis > lastChangeTime) {
+                    // Only scrolling towards the end matters, smoothed over the last changes
+                    final float velocity = Math.max(0f,
+                            (float) (firstVisibleItem - lastFirstVisibleItem) /
+                                    (timeMillis - lastChangeTime));
+                    itemsPerMilli = (itemsPerMilli + velocity) / 2;
+                }
+                lastFirstVisibleItem = firstVisibleItem;
+                lastChangeTime = timeMillis;
+            }
+            return VISIBILITY_THRESHOLD + Math.min(ApiConstants.STANDARD_PAGE_SIZE,
+                    Math.round(itemsPerMilli * READ_AHEAD_MILLIS));
+        }
+
+        /**
+         * Forgets the speed when the scrolling stops.
+         */
+        public void reset() {
+            itemsPerMilli = 0;
+        }
+    }
+
     public static class ListViewOnScrollListener implements AbsListView.OnScrollListener {
         @NonNull
         private final Runnable onScrollPastVisibilityThreshold;
+        @NonNull
+        private final ReadAheadThreshold readAheadThreshold = new ReadAheadThreshold();
 
         public ListViewOnScrollListener(@NonNull Runnable onScrollPastVisibilityThreshold) {
             this.onScrollPastVisibilityThreshold = onScrollPastVisibilityThreshold;
@@ -248,13 +292,18 @@ public class InfiniteScrollUtils {
 
         @Override
         public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
-            if (firstVisibleItem + visibleItemCount >= totalItemCount - VISIBILITY_THRESHOLD) {
+            final int threshold = readAheadThreshold.update(firstVisibleItem,
+                    SystemClock.uptimeMillis());
+            if (firstVisibleItem + visibleItemCount >= totalItemCount - threshold) {
                 onScrollPastVisibilityThreshold.run();
             }
         }
 
         @Override
         public void onScrollStateChanged(AbsListView view, int scrollState) {
+            if (scrollState == SCROLL_STATE_IDLE) {
+                readAheadThreshold.reset();
+            }
         }
     }
 
@@ -264,6 +313,8 @@ public class InfiniteScrollUtils {
         private final LinearLayoutManager mLinearLayoutManager;
         @NonNull
         private final Runnable onScrollPastLoadThreshold;
+        @NonNull
+        private final ReadAheadThreshold readAheadThreshold = new ReadAheadThreshold();
 
         public RecyclerViewOnScrollListener(@NonNull LinearLayoutManager linearLayoutManager, @NonNull Runnable onScrollPastLoadThreshold) {
             this.mLinearLayoutManager = linearLayoutManager;
@@ -278,10 +329,20 @@ public class InfiniteScrollUtils {
             final int totalItemCount = mLinearLayoutManager.getItemCount();
             final int firstVisibleItem = mLinearLayoutManager.findFirstVisibleItemPosition();
 
+            final int threshold = readAheadThreshold.update(firstVisibleItem,
+                    SystemClock.uptimeMillis());
             if ((totalItemCount - visibleItemCount)
-                    <= (firstVisibleItem + VISIBILITY_THRESHOLD)) {
+                    <= (firstVisibleItem + threshold)) {
                 onScrollPastLoadThreshold.run();
             }
         }
+
+        @Override
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+            super.onScrollStateChanged(recyclerView, newState);
+            if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                readAheadThreshold.reset();
+            }
+        }
     }
 }
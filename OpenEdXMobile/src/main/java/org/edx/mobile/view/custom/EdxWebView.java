@@ -2,14 +2,23 @@ package org.edx.mobile.view.custom;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.AttributeSet;
+import android.webkit.WebResourceResponse;
 import android.webkit.WebSettings;
 import android.webkit.WebView;
 
 import org.edx.mobile.BuildConfig;
 import org.edx.mobile.R;
+import org.edx.mobile.services.HtmlUnitStore;
+
+import java.util.Map;
 
 public class EdxWebView extends WebView {
+    @Nullable
+    private volatile HtmlUnitStore unitStore;
+
     @SuppressLint("SetJavaScriptEnabled")
     public EdxWebView(Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -27,4 +36,24 @@ public class EdxWebView extends WebView {
                         BuildConfig.VERSION_NAME
         );
     }
+
+    /**
+     * Sets the store to serve the requests of this web view from, when it has them.
+     */
+    public void setUnitStore(@Nullable HtmlUnitStore unitStore) {
+        this.unitStore = unitStore;
+    }
+
+    /**
+     * Called by the {@link URLInterceptorWebViewClient} for every GET request of this web view,
+     * on a background thread.
+     *
+     * @return The response to use for the request, or null to let the web view load it.
+     */
+    @Nullable
+    public WebResourceResponse interceptRequest(@NonNull String url,
+                                                @Nullable Map<String, String> headers) {
+        final HtmlUnitStore store = unitStore;
+        return store != null ? store.intercept(url, headers) : null;
+    }
 }
@@ -0,0 +1,184 @@
+package org.edx.mobile.view.custom;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.content.res.Configuration;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.NonNull;
+import android.view.ViewGroup;
+import android.webkit.WebView;
+import android.webkit.WebViewClient;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.edx.mobile.logger.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A small pool of initialized {@link EdxAssessmentWebView}s for the course unit pages, so that
+ * paging through the units doesn't construct a new web view for each of them. The idle web
+ * views are created while the main thread is idle, and are destroyed when the system asks the
+ * app to trim its memory, after which the pool stays smaller until the next
+ * {@link #prewarm()}.
+ * <p>
+ * The web views are created with a {@link MutableContextWrapper} of the application context,
+ * whose base context is switched to the activity that borrows them, so that the pool never
+ * holds on to an activity. All the methods must be called on the main thread.
+ */
+@Singleton
+public class EdxWebViewPool {
+    private static final int MAX_IDLE_COUNT = 2;
+    private static final String BLANK_URL = "about:blank";
+
+    /**
+     * The client of the idle web views, which clears the history once the blank page that
+     * replaces the page of the last user has loaded, since loading it is asynchronous.
+     */
+    private static final WebViewClient BLANK_PAGE_CLIENT = new WebViewClient() {
+        @Override
+        public void onPageFinished(WebView view, String url) {
+            if (BLANK_URL.equals(url)) {
+                view.clearHistory();
+            }
+        }
+    };
+
+    private final Logger logger = new Logger(getClass().getName());
+
+    @NonNull
+    private final Context context;
+
+    @NonNull
+    private final Deque<EdxWebView> idleWebViews = new ArrayDeque<>(MAX_IDLE_COUNT);
+
+    private int maxIdleCount = MAX_IDLE_COUNT;
+    private boolean isPrewarmScheduled;
+
+    @Inject
+    public EdxWebViewPool(@NonNull Context context) {
+        this.context = context.getApplicationContext();
+        this.context.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                if (level == TRIM_MEMORY_UI_HIDDEN) {
+                    // Only means that the app went to the background, which isn't memory
+                    // pressure by itself
+                    return;
+                }
+                if (level >= TRIM_MEMORY_MODERATE || (level >= TRIM_MEMORY_RUNNING_LOW &&
+                        level < TRIM_MEMORY_UI_HIDDEN)) {
+                    trimTo(0);
+                } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+                    trimTo(MAX_IDLE_COUNT / 2);
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                trimTo(0);
+            }
+        });
+    }
+
+    /**
+     * Lets the pool grow back to its full size if it was trimmed, and fills it with idle web
+     * views, one at a time whenever the main thread is idle. Meant to be called when an
+     * activity that shows units is created, which is when the memory is taken to have
+     * recovered from the last trim.
+     */
+    public void prewarm() {
+        maxIdleCount = MAX_IDLE_COUNT;
+        fill();
+    }
+
+    /**
+     * Fills the pool up to its current size, one web view at a time whenever the main thread
+     * is idle.
+     */
+    private void fill() {
+        if (isPrewarmScheduled || idleWebViews.size() >= maxIdleCount) {
+            return;
+        }
+        isPrewarmScheduled = true;
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (idleWebViews.size() < maxIdleCount) {
+                    idleWebViews.push(create());
+                }
+                isPrewarmScheduled = idleWebViews.size() < maxIdleCount;
+                return isPrewarmScheduled;
+            }
+        });
+    }
+
+    /**
+     * @return Whether {@link #acquire(Context)} would return an idle web view from the pool,
+     * instead of creating a new one.
+     */
+    public boolean hasIdleWebView() {
+        return !idleWebViews.isEmpty();
+    }
+
+    /**
+     * Borrows a web view from the pool, or creates one if the pool is empty. It must be given
+     * back with {@link #release(EdxWebView)} when it's no longer used.
+     *
+     * @param activityContext The context that the web view is shown in.
+     */
+    @NonNull
+    public EdxWebView acquire(@NonNull Context activityContext) {
+        EdxWebView webView = idleWebViews.poll();
+        if (webView == null) {
+            logger.debug("Web view pool is empty");
+            webView = create();
+        }
+        ((MutableContextWrapper) webView.getContext()).setBaseContext(activityContext);
+        fill();
+        return webView;
+    }
+
+    /**
+     * Takes back a borrowed web view, resetting it for the next user, or destroys it if the
+     * pool is full.
+     */
+    public void release(@NonNull EdxWebView webView) {
+        if (webView.getParent() != null) {
+            ((ViewGroup) webView.getParent()).removeView(webView);
+        }
+        webView.stopLoading();
+        webView.setWebViewClient(BLANK_PAGE_CLIENT);
+        webView.setWebChromeClient(null);
+        webView.setUnitStore(null);
+        ((MutableContextWrapper) webView.getContext()).setBaseContext(context);
+        if (idleWebViews.size() >= maxIdleCount) {
+            webView.destroy();
+            return;
+        }
+        // Releases the memory of the page. The history is cleared once the blank page has
+        // loaded, so that the next page can't go back to it.
+        webView.loadUrl(BLANK_URL);
+        idleWebViews.push(webView);
+    }
+
+    private void trimTo(int count) {
+        maxIdleCount = count;
+        while (idleWebViews.size() > count) {
+            idleWebViews.removeLast().destroy();
+        }
+    }
+
+    @NonNull
+    private EdxWebView create() {
+        return new EdxAssessmentWebView(new MutableContextWrapper(context), null);
+    }
+}
@@ -24,6 +24,8 @@ import org.edx.mobile.util.StandardCharsets;
 import org.edx.mobile.util.links.EdxCourseInfoLink;
 import org.edx.mobile.util.links.EdxEnrollLink;
 
+import java.util.Map;
+
 import roboguice.RoboGuice;
 
 /**
@@ -160,6 +162,28 @@ public class URLInterceptorWebViewClient extends WebViewClient {
     @Override
     @SuppressWarnings("deprecation")
     public WebResourceResponse shouldInterceptRequest(WebView view, String url) {
+        final WebResourceResponse response = suppressExternalLinkOnZeroRatedNetwork(view, url);
+        if (response != null) {
+            return response;
+        }
+        // The request method isn't known before Lollipop, but only the URLs of pages and
+        // their assets are served from the store
+        return interceptRequest(view, url, null);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    @Override
+    public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+        final String url = request.getUrl().toString();
+        final WebResourceResponse response = suppressExternalLinkOnZeroRatedNetwork(view, url);
+        if (response != null || !"GET".equals(request.getMethod())) {
+            return response;
+        }
+        return interceptRequest(view, url, request.getRequestHeaders());
+    }
+
+    @Nullable
+    private WebResourceResponse suppressExternalLinkOnZeroRatedNetwork(WebView view, String url) {
         Context context = view.getContext().getApplicationContext();
 
         // suppress external links on ZeroRated network
@@ -169,13 +193,20 @@ public class URLInterceptorWebViewClient extends WebViewClient {
                 && NetworkUtil.isConnectedMobile(context)) {
             return new WebResourceResponse("text/html", StandardCharsets.UTF_8.name(), null);
         }
-        return super.shouldInterceptRequest(view, url);
+        return null;
     }
 
-    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
-    @Override
-    public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
-        return shouldInterceptRequest(view, request.getUrl().toString());
+    /**
+     * Serves the request from the store of the web view, if it's an {@link EdxWebView} that
+     * has one.
+     */
+    @Nullable
+    private WebResourceResponse interceptRequest(WebView view, String url,
+                                                 @Nullable Map<String, String> headers) {
+        if (view instanceof EdxWebView) {
+            return ((EdxWebView) view).interceptRequest(url, headers);
+        }
+        return null;
     }
 
     /**
@@ -33,6 +33,7 @@ import org.edx.mobile.module.db.DataCallback;
 import org.edx.mobile.module.storage.DownloadCompletedEvent;
 import org.edx.mobile.module.storage.DownloadedVideoDeletedEvent;
 import org.edx.mobile.player.IPlayerEventCallback;
+import org.edx.mobile.player.PlaybackPositionStore;
 import org.edx.mobile.player.PlayerFragment;
 import org.edx.mobile.services.LastAccessManager;
 import org.edx.mobile.task.GetRecentDownloadedVideosTask;
@@ -75,6 +76,9 @@ public class MyRecentVideosFragment extends BaseFragment
     @Inject
     private CourseAPI courseApi;
 
+    @Inject
+    private PlaybackPositionStore positionStore;
+
     @Override
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -335,7 +339,8 @@ public class MyRecentVideosFragment extends BaseFragment
             filepath = videoModel.getBestEncodingUrl(getContext());
         }
 
-        playerFragment.play(filepath, videoModel.lastPlayedOffset,
+        playerFragment.play(filepath,
+                positionStore.getPosition(videoModel.videoId, videoModel.lastPlayedOffset),
                 videoModel.getTitle(), transcript, videoModel);
 
         adapter.setVideoId(this.videoModel.videoId);
@@ -536,9 +541,8 @@ public class MyRecentVideosFragment extends BaseFragment
     public void saveCurrentPlaybackPosition(int offset) {
         DownloadEntry v = videoModel;
         if (v != null) {
-            // mark this as partially watches, as playing has started
-            environment.getDatabase().updateVideoLastPlayedOffset(v.videoId, offset,
-                    setCurrentPositionCallback);
+            v.lastPlayedOffset = offset;
+            positionStore.setPosition(v.videoId, offset);
         }
         notifyAdapter();
     }
@@ -699,18 +703,6 @@ public class MyRecentVideosFragment extends BaseFragment
         }
     };
 
-    private DataCallback<Integer> setCurrentPositionCallback = new DataCallback<Integer>() {
-        @Override
-        public void onResult(Integer result) {
-            logger.debug("Current Playback Position Updated");
-        }
-
-        @Override
-        public void onFail(Exception ex) {
-            logger.error(ex);
-        }
-    };
-
     public void onEventMainThread(DownloadCompletedEvent e) {
         addToRecentAdapter();
     }
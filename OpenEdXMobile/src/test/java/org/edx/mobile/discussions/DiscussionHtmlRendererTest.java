@@ -0,0 +1,94 @@
+package org.edx.mobile.discussions;
+
+import android.support.annotation.NonNull;
+import android.text.Spanned;
+import android.text.style.URLSpan;
+import android.widget.TextView;
+
+import com.google.gson.Gson;
+import com.google.inject.Injector;
+
+import org.edx.mobile.discussion.DiscussionComment;
+import org.edx.mobile.discussion.DiscussionHtmlRenderer;
+import org.edx.mobile.discussion.DiscussionTextUtils;
+import org.edx.mobile.test.BaseTestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class DiscussionHtmlRendererTest extends BaseTestCase {
+    private Gson gson;
+
+    @Override
+    protected void inject(Injector injector) throws Exception {
+        super.inject(injector);
+        gson = injector.getInstance(Gson.class);
+    }
+
+    @Test
+    public void testRenderHtml() {
+        final Spanned renderedHtml = DiscussionTextUtils.renderHtml(
+                "<p>See <a href=\"https://example.com/page\">this page</a> " +
+                        "or https://www.edx.org</p>\n");
+        assertEquals("See this page or https://www.edx.org", renderedHtml.toString());
+        final URLSpan[] urlSpans = renderedHtml.getSpans(0, renderedHtml.length(),
+                URLSpan.class);
+        assertEquals(2, urlSpans.length);
+        final List<String> urls = new ArrayList<>();
+        for (URLSpan urlSpan : urlSpans) {
+            urls.add(urlSpan.getURL());
+        }
+        assertTrue(urls.contains("https://example.com/page"));
+        assertTrue(urls.contains("https://www.edx.org"));
+    }
+
+    @Test
+    public void testCommentsArePrerendered() {
+        final List<Runnable> pendingRenders = new ArrayList<>();
+        final DiscussionHtmlRenderer renderer = new DiscussionHtmlRenderer(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                pendingRenders.add(command);
+            }
+        }, new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        });
+        final DiscussionComment comment = createComment("2016-01-01T00:00:00Z", "<p>First</p>");
+        final boolean[] isRendered = new boolean[1];
+        renderer.prerenderComments(Collections.singletonList(comment), new Runnable() {
+            @Override
+            public void run() {
+                isRendered[0] = true;
+            }
+        });
+        assertEquals(1, pendingRenders.size());
+        pendingRenders.get(0).run();
+        assertTrue(isRendered[0]);
+
+        final TextView textView = new TextView(context);
+        renderer.setText(textView, comment);
+        assertEquals("First", textView.getText().toString());
+
+        // The cached result is used for as long as the comment isn't updated
+        renderer.setText(textView, createComment("2016-01-01T00:00:00Z", "<p>Cached</p>"));
+        assertEquals("First", textView.getText().toString());
+        renderer.setText(textView, createComment("2016-01-02T00:00:00Z", "<p>Edited</p>"));
+        assertEquals("Edited", textView.getText().toString());
+    }
+
+    @NonNull
+    private DiscussionComment createComment(@NonNull String updatedAt,
+                                            @NonNull String renderedBody) {
+        return gson.fromJson("{\"id\": \"comment-1\", \"updated_at\": \"" + updatedAt + "\", " +
+                "\"rendered_body\": \"" + renderedBody + "\"}", DiscussionComment.class);
+    }
+}
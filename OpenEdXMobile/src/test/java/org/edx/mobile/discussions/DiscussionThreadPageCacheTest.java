@@ -0,0 +1,168 @@
+package org.edx.mobile.discussions;
+
+import android.support.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.inject.Injector;
+
+import org.edx.mobile.discussion.DiscussionPostsFilter;
+import org.edx.mobile.discussion.DiscussionPostsSort;
+import org.edx.mobile.discussion.DiscussionThread;
+import org.edx.mobile.discussion.DiscussionThreadPageCache;
+import org.edx.mobile.model.Page;
+import org.edx.mobile.test.BaseTestCase;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class DiscussionThreadPageCacheTest extends BaseTestCase {
+    private static final String COURSE_ID = "course-v1:edX+DemoX+Demo_Course";
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    private Gson gson;
+
+    @Override
+    protected void inject(Injector injector) throws Exception {
+        super.inject(injector);
+        gson = injector.getInstance(Gson.class);
+    }
+
+    @Test
+    public void testPageIsRestoredFromDisk() {
+        final DiscussionThreadPageCache.Key key = createKey(DiscussionPostsFilter.ALL, 1);
+        put(createCache(), key, createPage("thread-1"));
+
+        // A new instance only has the pages on disk
+        final DiscussionThreadPageCache.Entry entry = createCache().get(key);
+        assertNotNull(entry);
+        assertFalse(entry.isStale());
+        assertEquals(1, entry.page.getResults().size());
+        assertEquals("thread-1", entry.page.getResults().get(0).getIdentifier());
+        assertEquals(COURSE_ID, entry.page.getResults().get(0).getCourseId());
+        assertTrue(entry.page.hasNext());
+
+        assertNull(createCache().get(createKey(DiscussionPostsFilter.UNREAD, 1)));
+        assertNull(createCache().get(createKey(DiscussionPostsFilter.ALL, 2)));
+    }
+
+    @Test
+    public void testOldPageIsStale() {
+        final DiscussionThreadPageCache.Key key = createKey(DiscussionPostsFilter.ALL, 1);
+        put(createCache(), key, createPage("thread-1"));
+        final File[] courseDirectories = getDirectory().listFiles();
+        assertNotNull(courseDirectories);
+        final File[] pageFiles = courseDirectories[0].listFiles();
+        assertNotNull(pageFiles);
+        assertEquals(1, pageFiles.length);
+        assertTrue(pageFiles[0].setLastModified(System.currentTimeMillis() -
+                2 * DiscussionThreadPageCache.FRESH_MILLIS));
+
+        final DiscussionThreadPageCache.Entry entry = createCache().get(key);
+        assertNotNull(entry);
+        assertTrue(entry.isStale());
+
+        // Too old to be shown at all
+        assertTrue(pageFiles[0].setLastModified(System.currentTimeMillis() -
+                2 * DiscussionThreadPageCache.MAX_AGE_MILLIS));
+        assertNull(createCache().get(key));
+    }
+
+    @Test
+    public void testFetchedPageDropsLaterPages() {
+        final DiscussionThreadPageCache cache = createCache();
+        final DiscussionThreadPageCache.Key firstKey = createKey(DiscussionPostsFilter.ALL, 1);
+        final DiscussionThreadPageCache.Key secondKey = createKey(DiscussionPostsFilter.ALL, 2);
+        final DiscussionThreadPageCache.Key otherListKey =
+                createKey(DiscussionPostsFilter.UNREAD, 2);
+        put(cache, firstKey, createPage("thread-1"));
+        put(cache, secondKey, createPage("thread-2"));
+        put(cache, otherListKey, createPage("thread-3"));
+
+        // The second page may be from an older snapshot of the list than the new first page
+        put(cache, firstKey, createPage("thread-4"));
+        assertEquals("thread-4", cache.get(firstKey).page.getResults().get(0).getIdentifier());
+        assertNull(cache.get(secondKey));
+        assertNull(createCache().get(secondKey));
+        assertNotNull(cache.get(otherListKey));
+    }
+
+    @Test
+    public void testPageRequestedBeforeClearIsNotCached() {
+        final DiscussionThreadPageCache cache = createCache();
+        final DiscussionThreadPageCache.Key key = createKey(DiscussionPostsFilter.ALL, 1);
+        final int generation = cache.getGeneration();
+
+        cache.clear();
+        cache.put(key, createPage("thread-1"), generation);
+        assertNull(cache.get(key));
+        assertNull(createCache().get(key));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final DiscussionThreadPageCache cache = createCache();
+        final DiscussionThreadPageCache.Key key = createKey(DiscussionPostsFilter.ALL, 1);
+        final DiscussionThreadPageCache.Key otherCourseKey = new DiscussionThreadPageCache.Key(
+                "other", Collections.<String>emptyList(), false, DiscussionPostsFilter.ALL,
+                DiscussionPostsSort.LAST_ACTIVITY_AT, 1);
+        put(cache, key, createPage("thread-1"));
+        put(cache, otherCourseKey, createPage("thread-2"));
+
+        cache.invalidate(COURSE_ID);
+        assertNull(cache.get(key));
+        assertNull(createCache().get(key));
+        assertNotNull(cache.get(otherCourseKey));
+
+        cache.clear();
+        assertNull(cache.get(otherCourseKey));
+        assertNull(createCache().get(otherCourseKey));
+    }
+
+    @NonNull
+    private DiscussionThreadPageCache createCache() {
+        return new DiscussionThreadPageCache(gson, getDirectory(), DIRECT_EXECUTOR);
+    }
+
+    private static void put(@NonNull DiscussionThreadPageCache cache,
+                            @NonNull DiscussionThreadPageCache.Key key,
+                            @NonNull Page<DiscussionThread> page) {
+        cache.put(key, page, cache.getGeneration());
+    }
+
+    @NonNull
+    private File getDirectory() {
+        return new File(context.getCacheDir(), "discussion_threads");
+    }
+
+    @NonNull
+    private static DiscussionThreadPageCache.Key createKey(@NonNull DiscussionPostsFilter filter,
+                                                          int page) {
+        return new DiscussionThreadPageCache.Key(COURSE_ID, Collections.singletonList("topic"),
+                false, filter, DiscussionPostsSort.LAST_ACTIVITY_AT, page);
+    }
+
+    @NonNull
+    private Page<DiscussionThread> createPage(@NonNull String threadId) {
+        final String json = "{\"results\": [{\"id\": \"" + threadId + "\", " +
+                "\"course_id\": \"" + COURSE_ID + "\", \"title\": \"Title\", " +
+                "\"created_at\": \"2016-01-01T00:00:00Z\"}], " +
+                "\"pagination\": {\"count\": 21, \"num_pages\": 2, \"previous\": null, " +
+                "\"next\": \"https://example.com/api/discussion/v1/threads?page=2\"}}";
+        return gson.fromJson(json, new TypeToken<Page<DiscussionThread>>() {
+        }.getType());
+    }
+}
@@ -0,0 +1,73 @@
+package org.edx.mobile.module.analytics;
+
+import org.edx.mobile.test.BaseTestCase;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class AnalyticsRegistryTest extends BaseTestCase {
+    private static final long TIMEOUT_MS = 2000;
+
+    private AnalyticsRegistry analyticsRegistry;
+    private Analytics service;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        analyticsRegistry = new AnalyticsRegistry();
+        service = mock(Analytics.class);
+        analyticsRegistry.addAnalyticsProvider(service);
+    }
+
+    @Test
+    public void testEventsAreDelegatedInOrder() {
+        analyticsRegistry.trackUserLogin("password");
+        analyticsRegistry.trackUserLogout();
+        verify(service, timeout(TIMEOUT_MS)).trackUserLogout();
+        final InOrder inOrder = inOrder(service);
+        inOrder.verify(service).trackUserLogin("password");
+        inOrder.verify(service).trackUserLogout();
+    }
+
+    @Test
+    public void testSeeksAreCoalesced() {
+        analyticsRegistry.trackVideoSeek("video", 10.0, 20.0, "course", "unit", true);
+        analyticsRegistry.trackVideoSeek("video", 20.0, 30.0, "course", "unit", true);
+        analyticsRegistry.trackVideoSeek("video", 30.0, 25.0, "course", "unit", false);
+        // The seek from the first position to the last one is the only one sent
+        verify(service, timeout(TIMEOUT_MS))
+                .trackVideoSeek("video", 10.0, 25.0, "course", "unit", false);
+        verify(service).trackVideoSeek(anyString(), anyDouble(), anyDouble(), anyString(),
+                anyString(), anyBoolean());
+    }
+
+    @Test
+    public void testPlaybackTogglesAreCoalesced() {
+        analyticsRegistry.trackVideoPlaying("video", 1.0, "course", "unit");
+        analyticsRegistry.trackVideoPause("video", 2.0, "course", "unit");
+        analyticsRegistry.trackVideoPlaying("video", 2.0, "course", "unit");
+        verify(service, timeout(TIMEOUT_MS)).trackVideoPlaying("video", 2.0, "course", "unit");
+        // Any earlier toggle would have been sent before the last one
+        verify(service, never())
+                .trackVideoPause(anyString(), anyDouble(), anyString(), anyString());
+    }
+
+    @Test
+    public void testCoalescedEventsAreSentBeforeLaterEvents() {
+        analyticsRegistry.trackVideoPause("video", 2.0, "course", "unit");
+        analyticsRegistry.trackVideoStop("video", 2.0, "course", "unit");
+        verify(service, timeout(TIMEOUT_MS)).trackVideoStop("video", 2.0, "course", "unit");
+        final InOrder inOrder = inOrder(service);
+        inOrder.verify(service).trackVideoPause("video", 2.0, "course", "unit");
+        inOrder.verify(service).trackVideoStop("video", 2.0, "course", "unit");
+    }
+}
@@ -0,0 +1,74 @@
+package org.edx.mobile.player;
+
+import org.edx.mobile.event.LogoutEvent;
+import org.edx.mobile.module.db.DataCallback;
+import org.edx.mobile.module.db.IDatabase;
+import org.edx.mobile.test.BaseTestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PlaybackPositionStoreTest extends BaseTestCase {
+    private IDatabase db;
+    private PlaybackPositionStore positionStore;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        db = mock(IDatabase.class);
+        positionStore = new PlaybackPositionStore(context, db);
+    }
+
+    @Test
+    public void testPositionsAreReadFromMemory() {
+        assertEquals(5000, positionStore.getPosition("video", 5000));
+        positionStore.setPosition("video", 1000);
+        positionStore.setPosition("video", 2000);
+        assertEquals(2000, positionStore.getPosition("video", 5000));
+        verify(db, never()).updateVideosLastPlayedOffset(anyMapOf(String.class, Integer.class),
+                any(DataCallback.class));
+    }
+
+    @Test
+    public void testFlushWritesLatestPositionsOnce() {
+        positionStore.setPosition("video1", 1000);
+        positionStore.setPosition("video1", 2000);
+        positionStore.setPosition("video2", 3000);
+        positionStore.flush();
+        // Nothing has changed since the last flush
+        positionStore.flush();
+
+        final Map<String, Integer> expected = new HashMap<>();
+        expected.put("video1", 2000);
+        expected.put("video2", 3000);
+        verify(db, times(1)).updateVideosLastPlayedOffset(eq(expected), any(DataCallback.class));
+        // Still read from memory after flushing
+        assertEquals(2000, positionStore.getPosition("video1", 0));
+    }
+
+    @Test
+    public void testLogoutFlushesAndForgetsPositions() {
+        positionStore.setPosition("video", 1000);
+        positionStore.onEvent(new LogoutEvent());
+        verify(db, times(1)).updateVideosLastPlayedOffset(
+                eq(Collections.singletonMap("video", 1000)), any(DataCallback.class));
+
+        // The next user doesn't get the positions of the previous one
+        assertEquals(5000, positionStore.getPosition("video", 5000));
+        positionStore.flush();
+        verify(db, times(1)).updateVideosLastPlayedOffset(anyMapOf(String.class, Integer.class),
+                any(DataCallback.class));
+    }
+}
@@ -0,0 +1,177 @@
+package org.edx.mobile.player;
+
+import android.support.annotation.NonNull;
+
+import com.google.inject.Injector;
+
+import org.edx.mobile.http.provider.OkHttpClientProvider;
+import org.edx.mobile.model.api.TranscriptModel;
+import org.edx.mobile.test.BaseTestCase;
+import org.edx.mobile.util.AppConstants;
+import org.edx.mobile.util.FileUtil;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.edx.mobile.test.util.OkHttpTestUtil.defaultClient;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TranscriptManagerTest extends BaseTestCase {
+    private static final String TRANSCRIPT = "1\n00:00:00,000 --> 00:00:01,000\nHello\n";
+
+    @Rule
+    public final MockWebServer mockServer = new MockWebServer();
+
+    private TranscriptManager transcriptManager;
+
+    @Override
+    protected void addBindings() {
+        super.addBindings();
+        final OkHttpClient client = defaultClient();
+        module.addBinding(OkHttpClientProvider.class, new OkHttpClientProvider() {
+            @NonNull
+            @Override
+            public OkHttpClient get() {
+                return client;
+            }
+
+            @NonNull
+            @Override
+            public OkHttpClient getWithOfflineCache() {
+                return client;
+            }
+
+            @NonNull
+            @Override
+            public OkHttpClient getNonOAuthBased() {
+                return client;
+            }
+        });
+    }
+
+    @Override
+    protected void inject(Injector injector) throws Exception {
+        super.inject(injector);
+        transcriptManager = injector.getInstance(TranscriptManager.class);
+    }
+
+    @Test
+    public void testConcurrentDownloadsAreMerged() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                release.await(10, TimeUnit.SECONDS);
+                return new MockResponse().setBody(TRANSCRIPT);
+            }
+        });
+        final String url = mockServer.url("/transcript/en.srt").toString();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final List<Future<Future<Boolean>>> starts = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                starts.add(executor.submit(new Callable<Future<Boolean>>() {
+                    @Override
+                    public Future<Boolean> call() {
+                        return transcriptManager.startTranscriptDownload(url);
+                    }
+                }));
+            }
+            final List<Future<Boolean>> downloads = new ArrayList<>();
+            for (Future<Future<Boolean>> start : starts) {
+                downloads.add(start.get(10, TimeUnit.SECONDS));
+            }
+            release.countDown();
+            for (Future<Boolean> download : downloads) {
+                assertTrue(download.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, mockServer.getRequestCount());
+        assertEquals(TRANSCRIPT, transcriptManager.get(url));
+        // Only the transcript itself is left in the directory
+        final String[] fileNames = getTranscriptDir().list();
+        assertNotNull(fileNames);
+        assertEquals(1, fileNames.length);
+        assertFalse(fileNames[0].endsWith(".tmp"));
+    }
+
+    @Test
+    public void testInterruptedDownloadLeavesNoFile() throws Exception {
+        mockServer.enqueue(new MockResponse()
+                .setBody(TRANSCRIPT)
+                .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+        final String url = mockServer.url("/transcript/en.srt").toString();
+
+        assertFalse(transcriptManager.startTranscriptDownload(url).get(10, TimeUnit.SECONDS));
+        assertFalse(transcriptManager.has(url));
+        final String[] fileNames = getTranscriptDir().list();
+        assertNotNull(fileNames);
+        assertEquals(0, fileNames.length);
+    }
+
+    @Test
+    public void testPlaybackDownloadIsNotQueuedBehindOtherDownloads() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (request.getPath().startsWith("/blocked/")) {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setBody(TRANSCRIPT);
+            }
+        });
+        try {
+            // The first two take up all the threads of the shared pool, and the last one is
+            // queued behind them
+            final List<TranscriptModel> transcripts = new ArrayList<>();
+            for (String path : new String[]{"/blocked/0/en.srt", "/blocked/1/en.srt",
+                    "/queued/en.srt"}) {
+                final TranscriptModel transcript = new TranscriptModel();
+                transcript.englishUrl = mockServer.url(path).toString();
+                transcripts.add(transcript);
+            }
+            final Future<Integer> bulkDownload = transcriptManager.downloadTranscripts(transcripts);
+
+            final TranscriptModel transcript = new TranscriptModel();
+            transcript.englishUrl = mockServer.url("/playback/en.srt").toString();
+            transcript.frenchUrl = transcripts.get(2).englishUrl;
+            assertEquals(2, transcriptManager.downloadTranscriptsForVideo(transcript)
+                    .get(10, TimeUnit.SECONDS).intValue());
+            assertFalse(bulkDownload.isDone());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @NonNull
+    private File getTranscriptDir() {
+        final File videosDir = new File(FileUtil.getExternalAppDir(context),
+                AppConstants.Directories.VIDEOS);
+        return new File(videosDir, AppConstants.Directories.SUBTITLES);
+    }
+}
@@ -6,6 +6,7 @@ import com.google.inject.Injector;
 import org.edx.mobile.authentication.AuthResponse;
 import org.edx.mobile.http.HttpStatus;
 import org.edx.mobile.http.authenticator.OauthRefreshTokenAuthenticator;
+import org.edx.mobile.http.authenticator.OauthTokenManager;
 import org.edx.mobile.module.prefs.LoginPrefs;
 import org.edx.mobile.test.util.MockDataUtil;
 import org.junit.Before;
@@ -38,6 +39,8 @@ public final class AuthenticationTests extends BaseTestCase {
     private OkHttpClient client = defaultClient();
 
     private LoginPrefs loginPrefs;
+    private Injector injector;
+    private volatile boolean isRefreshFailing;
 
     @Before
     public void setUp() throws Exception {
@@ -48,6 +51,7 @@ public final class AuthenticationTests extends BaseTestCase {
     @Override
     protected void inject(Injector injector) throws Exception {
         super.inject(injector);
+        this.injector = injector;
         loginPrefs = injector.getInstance(LoginPrefs.class);
         loginPrefs.storeAuthTokenResponse(MockDataUtil.getMockResponse("post_oauth2_access_token", AuthResponse.class), LoginPrefs.AuthBackend.PASSWORD);
     }
@@ -130,6 +134,46 @@ public final class AuthenticationTests extends BaseTestCase {
         assertEquals("expired_token", response.request().header("Authorization"));
     }
 
+    @Test
+    public void testTokenManager_refreshesAheadOfExpiry() throws Exception {
+        final AuthResponse expiringAuth = MockDataUtil.getMockResponse("post_oauth2_access_token", AuthResponse.class);
+        expiringAuth.access_token = "expiring";
+        expiringAuth.expires_in = 10;
+        loginPrefs.storeAuthTokenResponse(expiringAuth, LoginPrefs.AuthBackend.PASSWORD);
+
+        final OauthTokenManager tokenManager = injector.getInstance(OauthTokenManager.class);
+        // The token expires within the margin, so the request waits for the refresh
+        assertEquals("Bearer dummy", tokenManager.getAuthorizationHeader());
+        assertEquals("/oauth2/access_token/", mockServer.takeRequest().getPath());
+
+        // A request that failed with the replaced token is retried without refreshing again
+        assertEquals("Bearer dummy", tokenManager.refreshAfterExpiry("Bearer expiring"));
+        assertEquals("Bearer dummy", tokenManager.getAuthorizationHeader());
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    @Test
+    public void testTokenManager_backsOffAfterFailedRefresh() throws Exception {
+        final AuthResponse expiringAuth = MockDataUtil.getMockResponse("post_oauth2_access_token", AuthResponse.class);
+        expiringAuth.access_token = "expiring";
+        expiringAuth.expires_in = 10;
+        loginPrefs.storeAuthTokenResponse(expiringAuth, LoginPrefs.AuthBackend.PASSWORD);
+        isRefreshFailing = true;
+
+        final OauthTokenManager tokenManager = injector.getInstance(OauthTokenManager.class);
+        assertEquals("Bearer expiring", tokenManager.getAuthorizationHeader());
+        assertEquals(1, mockServer.getRequestCount());
+
+        // Not refreshed again ahead of the expiry until the backoff has passed
+        assertEquals("Bearer expiring", tokenManager.getAuthorizationHeader());
+        assertEquals(1, mockServer.getRequestCount());
+
+        // But still refreshed after a request has failed with the token
+        isRefreshFailing = false;
+        assertEquals("Bearer dummy", tokenManager.refreshAfterExpiry("Bearer expiring"));
+        assertEquals(2, mockServer.getRequestCount());
+    }
+
     final Dispatcher dispatcher = new Dispatcher() {
 
         @Override
@@ -141,7 +185,9 @@ public final class AuthenticationTests extends BaseTestCase {
 
             response.setResponseCode(HttpStatus.NOT_FOUND);
             try {
-                if (path.equals("/oauth2/access_token/")) {
+                if (path.equals("/oauth2/access_token/") && isRefreshFailing) {
+                    response.setResponseCode(HttpStatus.INTERNAL_SERVER_ERROR);
+                } else if (path.equals("/oauth2/access_token/")) {
                     response.setResponseCode(HttpStatus.OK).setBody(MockDataUtil.getMockResponse("post_oauth2_access_token"));
                 } else if (path.equals("/dummy/endpoint/")) {
                     switch (header) {
@@ -0,0 +1,62 @@
+package org.edx.mobile.test;
+
+import org.edx.mobile.player.CaptionTimeline;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import subtitleFile.FormatSRT;
+
+import static org.junit.Assert.assertEquals;
+
+public class CaptionTimelineTest {
+
+    private static final String SRT = "1\n" +
+            "00:00:01,000 --> 00:00:02,000\n" +
+            "First\n" +
+            "\n" +
+            "2\n" +
+            "00:00:02,500 --> 00:00:04,000\n" +
+            "Second\n" +
+            "\n" +
+            "3\n" +
+            "00:00:04,000 --> 00:00:06,000\n" +
+            "Third\n" +
+            "\n";
+
+    private CaptionTimeline timeline;
+
+    @Before
+    public void setUp() throws Exception {
+        timeline = new CaptionTimeline(new FormatSRT().parseFile("test.srt",
+                new ByteArrayInputStream(SRT.getBytes("UTF-8"))));
+    }
+
+    @Test
+    public void testIndexAt() {
+        assertEquals(3, timeline.size());
+        assertEquals(-1, timeline.indexAt(0));
+        assertEquals(0, timeline.indexAt(1000));
+        assertEquals(0, timeline.indexAt(2000));
+        assertEquals(-1, timeline.indexAt(2200));
+        assertEquals(1, timeline.indexAt(3000));
+        // The caption that started last wins when they touch
+        assertEquals(2, timeline.indexAt(4000));
+        assertEquals(2, timeline.indexAt(6000));
+        assertEquals(-1, timeline.indexAt(7000));
+        // Seeking backwards falls back to the binary search
+        assertEquals(0, timeline.indexAt(1500));
+        assertEquals(2500, timeline.getCaption(timeline.indexAt(2500)).start.getMseconds());
+    }
+
+    @Test
+    public void testNextChangeTime() {
+        assertEquals(1000, timeline.getNextChangeTime(0));
+        assertEquals(2001, timeline.getNextChangeTime(1500));
+        assertEquals(2500, timeline.getNextChangeTime(2200));
+        assertEquals(4000, timeline.getNextChangeTime(3000));
+        assertEquals(6001, timeline.getNextChangeTime(4500));
+        assertEquals(CaptionTimeline.NO_CHANGE, timeline.getNextChangeTime(6500));
+    }
+}
@@ -34,6 +34,9 @@ public class ConfigTests extends BaseTestCase {
     private static final String NEW_RELIC = "NEW_RELIC";
     private static final String SEGMENT_IO = "SEGMENT_IO";
     private static final String WHITE_LIST_OF_DOMAINS = "WHITE_LIST_OF_DOMAINS";
+    private static final String HTTP_CACHE = "HTTP_CACHE";
+    private static final String VIDEO_ENCODING = "VIDEO_ENCODING";
+    private static final String VIDEO_DOWNLOAD = "VIDEO_DOWNLOAD";
 
     private static final String ENABLED = "ENABLED";
     private static final String DISABLED_CARRIERS = "DISABLED_CARRIERS";
@@ -51,6 +54,12 @@ public class ConfigTests extends BaseTestCase {
     private static final String NEW_RELIC_KEY = "NEW_RELIC_KEY";
     private static final String SEGMENT_IO_WRITE_KEY = "SEGMENT_IO_WRITE_KEY";
     private static final String DOMAINS = "DOMAINS";
+    private static final String COURSE_STRUCTURE_MAX_SIZE_MB = "COURSE_STRUCTURE_MAX_SIZE_MB";
+    private static final String MAX_FREE_SPACE_PERCENT = "MAX_FREE_SPACE_PERCENT";
+    private static final String STREAMING_CELLULAR_MIN_KBPS = "STREAMING_CELLULAR_MIN_KBPS";
+    private static final String DOWNLOAD_WIFI_MIN_KBPS = "DOWNLOAD_WIFI_MIN_KBPS";
+    private static final String ENGINE = "ENGINE";
+    private static final String MAX_CONCURRENT_DOWNLOADS = "MAX_CONCURRENT_DOWNLOADS";
 
     private static final String PARSE = "PARSE";
     private static final String PARSE_ENABLED = "NOTIFICATIONS_ENABLED";
@@ -426,4 +435,79 @@ public class ConfigTests extends BaseTestCase {
         assertTrue(config.getSegmentConfig().isEnabled());
         assertEquals(key, config.getSegmentConfig().getSegmentWriteKey());
     }
+
+    @Test
+    public void testHttpCacheNoConfig() {
+        JsonObject configBase = new JsonObject();
+        Config config = new Config(configBase);
+        assertEquals(40, config.getHttpCacheConfig().getCourseStructureMaxSizeMb());
+        assertEquals(10, config.getHttpCacheConfig().getDiscussionMaxSizeMb());
+        assertEquals(10, config.getHttpCacheConfig().getMetadataMaxSizeMb());
+        assertEquals(5, config.getHttpCacheConfig().getMaxFreeSpacePercent());
+    }
+
+    @Test
+    public void testHttpCacheConfig() {
+        JsonObject httpCacheConfig = new JsonObject();
+        httpCacheConfig.add(COURSE_STRUCTURE_MAX_SIZE_MB, new JsonPrimitive(100));
+        // Invalid values fall back to the defaults
+        httpCacheConfig.add(MAX_FREE_SPACE_PERCENT, new JsonPrimitive(200));
+
+        JsonObject configBase = new JsonObject();
+        configBase.add(HTTP_CACHE, httpCacheConfig);
+
+        Config config = new Config(configBase);
+        assertEquals(100, config.getHttpCacheConfig().getCourseStructureMaxSizeMb());
+        assertEquals(10, config.getHttpCacheConfig().getDiscussionMaxSizeMb());
+        assertEquals(5, config.getHttpCacheConfig().getMaxFreeSpacePercent());
+    }
+
+    @Test
+    public void testVideoEncodingNoConfig() {
+        JsonObject configBase = new JsonObject();
+        Config config = new Config(configBase);
+        assertEquals(150, config.getVideoEncodingConfig().getStreamingWifiMinKbps());
+        assertEquals(300, config.getVideoEncodingConfig().getStreamingCellularMinKbps());
+        assertEquals(150, config.getVideoEncodingConfig().getDownloadWifiMinKbps());
+        assertEquals(-1, config.getVideoEncodingConfig().getDownloadCellularMinKbps());
+    }
+
+    @Test
+    public void testVideoEncodingConfig() {
+        JsonObject videoEncodingConfig = new JsonObject();
+        videoEncodingConfig.add(STREAMING_CELLULAR_MIN_KBPS, new JsonPrimitive(-1));
+        videoEncodingConfig.add(DOWNLOAD_WIFI_MIN_KBPS, new JsonPrimitive(0));
+
+        JsonObject configBase = new JsonObject();
+        configBase.add(VIDEO_ENCODING, videoEncodingConfig);
+
+        Config config = new Config(configBase);
+        assertEquals(150, config.getVideoEncodingConfig().getStreamingWifiMinKbps());
+        assertEquals(-1, config.getVideoEncodingConfig().getStreamingCellularMinKbps());
+        assertEquals(0, config.getVideoEncodingConfig().getDownloadWifiMinKbps());
+    }
+
+    @Test
+    public void testVideoDownloadNoConfig() {
+        JsonObject configBase = new JsonObject();
+        Config config = new Config(configBase);
+        assertFalse(config.getVideoDownloadConfig().isInAppEngineEnabled());
+        assertEquals(2, config.getVideoDownloadConfig().getMaxConcurrentDownloads());
+        assertEquals(3, config.getVideoDownloadConfig().getConnectionsPerDownload());
+    }
+
+    @Test
+    public void testVideoDownloadConfig() {
+        JsonObject videoDownloadConfig = new JsonObject();
+        videoDownloadConfig.add(ENGINE, new JsonPrimitive("IN_APP"));
+        videoDownloadConfig.add(MAX_CONCURRENT_DOWNLOADS, new JsonPrimitive(4));
+
+        JsonObject configBase = new JsonObject();
+        configBase.add(VIDEO_DOWNLOAD, videoDownloadConfig);
+
+        Config config = new Config(configBase);
+        assertTrue(config.getVideoDownloadConfig().isInAppEngineEnabled());
+        assertEquals(4, config.getVideoDownloadConfig().getMaxConcurrentDownloads());
+        assertEquals(3, config.getVideoDownloadConfig().getConnectionsPerDownload());
+    }
 }
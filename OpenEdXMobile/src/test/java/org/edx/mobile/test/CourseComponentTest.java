@@ -149,6 +149,44 @@ public class CourseComponentTest {
 
     }
 
+    @Test
+    public void testFindById() throws Exception {
+        // Without an index the tree is searched
+        assertTrue("findById failed", course.findById(unit3.getId()) == unit3);
+        assertTrue("findById failed", chapter1.findById(unit3.getId()) == null);
+
+        course.buildIndex();
+        assertTrue("findById failed", course.findById(unit3.getId()) == unit3);
+        assertTrue("findById failed", chapter2.findById(unit3.getId()) == unit3);
+        assertTrue("findById failed", unit3.findById(unit3.getId()) == unit3);
+        assertTrue("findById failed", chapter1.findById(unit3.getId()) == null);
+        assertTrue("findById failed", course.findById("nonexistent") == null);
+    }
+
+    @Test
+    public void testIndexedGetVideosAndLeaves() throws Exception {
+        course.buildIndex();
+        assertTrue("getVideos failed", course.getVideos().size() == 2);
+        assertTrue("getVideos failed", course.getVideos().get(0) == unit1);
+        assertTrue("getVideos failed", course.getVideos().get(1) == unit3);
+        assertTrue("getVideos failed", chapter2.getVideos().size() == 1);
+        assertTrue("getVideos failed", unit2.getVideos().size() == 0);
+
+        List<CourseComponent> leaves = new ArrayList<>();
+        chapter2.fetchAllLeafComponents(leaves, EnumSet.allOf(BlockType.class));
+        assertTrue("fetchAllLeafComponents failed", leaves.size() == 2);
+        assertTrue("fetchAllLeafComponents failed", leaves.get(0) == unit3);
+        assertTrue("fetchAllLeafComponents failed", leaves.get(1) == unit4);
+
+        // Adding a node discards the index
+        BlockModel bm = Mockito.mock(BlockModel.class);
+        bm.type = BlockType.VIDEO;
+        bm.id = UUID.randomUUID().toString();
+        CourseComponent unit5 = new VideoBlockModel(bm, vertical2);
+        assertTrue("getVideos failed", course.getVideos().size() == 3);
+        assertTrue("findById failed", course.findById(unit5.getId()) == unit5);
+    }
+
     @Test
     public void testIisLastChild() throws Exception {
         assertTrue("isLastChild failed", unit1.isLastChild() == false);
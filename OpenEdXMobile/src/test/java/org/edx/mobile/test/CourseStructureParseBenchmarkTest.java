@@ -0,0 +1,328 @@
+package org.edx.mobile.test;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import org.edx.mobile.course.CourseAPI;
+import org.edx.mobile.model.course.BlockData;
+import org.edx.mobile.model.course.BlockList;
+import org.edx.mobile.model.course.BlockListTypeAdapter;
+import org.edx.mobile.model.course.BlockModel;
+import org.edx.mobile.model.course.BlockType;
+import org.edx.mobile.model.course.CourseComponent;
+import org.edx.mobile.model.course.CourseStructureV1Model;
+import org.edx.mobile.model.course.DiscussionBlockModel;
+import org.edx.mobile.model.course.DiscussionData;
+import org.edx.mobile.model.course.HtmlBlockModel;
+import org.edx.mobile.model.course.IBlock;
+import org.edx.mobile.model.course.VideoBlockModel;
+import org.edx.mobile.model.course.VideoData;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the streaming course blocks parser against the previous path, which built a
+ * JsonObject tree before binding it and allocated a list per container while normalizing, on a
+ * synthetic course with over 5,000 blocks.
+ */
+public class CourseStructureParseBenchmarkTest extends BaseTestCase {
+
+    private static final String COURSE_ID = "course-v1:edX+Bench+2016";
+    private static final int CHAPTERS = 10;
+    private static final int SEQUENTIALS_PER_CHAPTER = 10;
+    private static final int VERTICALS_PER_SEQUENTIAL = 5;
+    private static final int UNITS_PER_VERTICAL = 9;
+    private static final int ITERATIONS = 10;
+
+    @Test
+    public void testStreamingParserMatchesLegacyParser() throws Exception {
+        final String json = generateCourseJson();
+        final CourseComponent legacy = parseLegacy(createLegacyGson(), json);
+        final CourseComponent streamed = parseStreaming(createStreamingGson(), json);
+
+        final List<CourseComponent> legacyComponents = flatten(legacy, new ArrayList<CourseComponent>());
+        final List<CourseComponent> streamedComponents = flatten(streamed, new ArrayList<CourseComponent>());
+        assertEquals(1 + CHAPTERS * (1 + SEQUENTIALS_PER_CHAPTER * (1 + VERTICALS_PER_SEQUENTIAL
+                * (1 + UNITS_PER_VERTICAL))), streamedComponents.size());
+        assertEquals(legacyComponents.size(), streamedComponents.size());
+        for (int i = 0; i < legacyComponents.size(); i++) {
+            final CourseComponent expected = legacyComponents.get(i);
+            final CourseComponent actual = streamedComponents.get(i);
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getBlockId(), actual.getBlockId());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getInternalName(), actual.getInternalName());
+            assertEquals(expected.isGraded(), actual.isGraded());
+            assertEquals(expected.isMultiDevice(), actual.isMultiDevice());
+            assertEquals(expected.getBlockUrl(), actual.getBlockUrl());
+            assertEquals(expected.getWebUrl(), actual.getWebUrl());
+            assertEquals(expected.getFormat(), actual.getFormat());
+            assertEquals(expected.getBlockCount().videoCount, actual.getBlockCount().videoCount);
+            if (expected instanceof VideoBlockModel) {
+                assertEquals(((VideoBlockModel) expected).getData(),
+                        ((VideoBlockModel) actual).getData());
+            } else if (expected instanceof DiscussionBlockModel) {
+                assertEquals(((DiscussionBlockModel) expected).getData(),
+                        ((DiscussionBlockModel) actual).getData());
+            }
+        }
+        assertTrue(streamed.getVideos().size() > 0);
+        assertNotNull(streamed.findById(streamedComponents.get(streamedComponents.size() - 1).getId()));
+    }
+
+    @Test
+    public void testVideoWithNullEncodedVideosHasVideoData() throws Exception {
+        final String rootId = "block-v1:edX+Bench+2016+type@course+block@course";
+        final String videoId = "block-v1:edX+Bench+2016+type@video+block@video";
+        final String json = "{\"root\":\"" + rootId + "\",\"blocks\":{"
+                + block(videoId, "video", null, "\"student_view_data\":{\"duration\":600,"
+                + "\"only_on_web\":true,\"encoded_videos\":null},") + ","
+                + block(rootId, "course", Collections.singletonList(videoId), "") + "}}";
+
+        final BlockModel legacy = createLegacyGson().fromJson(json, CourseStructureV1Model.class)
+                .getBlockById(videoId);
+        final BlockModel streamed = createStreamingGson().fromJson(json,
+                CourseStructureV1Model.class).getBlockById(videoId);
+        assertTrue(legacy.data instanceof VideoData);
+        assertTrue(streamed.data instanceof VideoData);
+        final VideoData data = (VideoData) streamed.data;
+        assertEquals(600, data.duration);
+        assertTrue(data.onlyOnWeb);
+        // Read like empty encoded videos
+        assertNotNull(data.encodedVideos);
+        assertNull(data.encodedVideos.getPreferredVideoInfo());
+    }
+
+    @Test
+    public void testBenchmarkStreamingParserAgainstLegacyParser() throws Exception {
+        final String json = generateCourseJson();
+        final Gson legacyGson = createLegacyGson();
+        final Gson streamingGson = createStreamingGson();
+        // Warm up both paths
+        parseLegacy(legacyGson, json);
+        parseStreaming(streamingGson, json);
+
+        long legacyBytes = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseLegacy(legacyGson, json);
+        }
+        final long legacyMillis = (System.nanoTime() - start) / 1000000 / ITERATIONS;
+        legacyBytes = (getAllocatedBytes() - legacyBytes) / ITERATIONS;
+
+        long streamingBytes = getAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parseStreaming(streamingGson, json);
+        }
+        final long streamingMillis = (System.nanoTime() - start) / 1000000 / ITERATIONS;
+        streamingBytes = (getAllocatedBytes() - streamingBytes) / ITERATIONS;
+
+        print("Parsing " + json.length() + " chars of course blocks: legacy path took "
+                + legacyMillis + "ms and allocated " + legacyBytes / 1024
+                + "KB, streaming path took " + streamingMillis + "ms and allocated "
+                + streamingBytes / 1024 + "KB");
+    }
+
+    private static CourseComponent parseStreaming(Gson gson, String json) {
+        final CourseStructureV1Model model = gson.fromJson(json, CourseStructureV1Model.class);
+        return (CourseComponent) CourseAPI.normalizeCourseStructure(model, COURSE_ID);
+    }
+
+    /**
+     * The parsing path used before the streaming parser, kept here for comparison.
+     */
+    private static CourseComponent parseLegacy(Gson gson, String json) {
+        final CourseStructureV1Model model = gson.fromJson(json, CourseStructureV1Model.class);
+        final BlockModel topBlock = model.getBlockById(model.root);
+        final CourseComponent course = new CourseComponent(topBlock, null);
+        course.setCourseId(COURSE_ID);
+        for (BlockModel m : model.getDescendants(topBlock)) {
+            normalizeLegacy(model, m, course);
+        }
+        course.buildIndex();
+        return course;
+    }
+
+    private static void normalizeLegacy(CourseStructureV1Model model, BlockModel block,
+                                        CourseComponent parent) {
+        if (block.isContainer()) {
+            final CourseComponent child = new CourseComponent(block, parent);
+            for (BlockModel m : model.getDescendants(block)) {
+                normalizeLegacy(model, m, child);
+            }
+        } else if (BlockType.VIDEO == block.type && block.data instanceof VideoData) {
+            new VideoBlockModel(block, parent);
+        } else if (BlockType.DISCUSSION == block.type && block.data instanceof DiscussionData) {
+            new DiscussionBlockModel(block, parent);
+        } else {
+            new HtmlBlockModel(block, parent);
+        }
+    }
+
+    private static GsonBuilder createGsonBuilder() {
+        return new GsonBuilder()
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+                .registerTypeAdapter(BlockData.class, new BlockData.Deserializer())
+                .registerTypeAdapter(BlockType.class, new BlockType.Deserializer())
+                .serializeNulls();
+    }
+
+    private static Gson createStreamingGson() {
+        return createGsonBuilder()
+                .registerTypeAdapterFactory(BlockListTypeAdapter.FACTORY)
+                .create();
+    }
+
+    private static Gson createLegacyGson() {
+        return createGsonBuilder()
+                .registerTypeAdapter(BlockList.class, new JsonDeserializer<BlockList>() {
+                    @Override
+                    public BlockList deserialize(JsonElement json, Type typeOfT,
+                                                 JsonDeserializationContext context)
+                            throws JsonParseException {
+                        Type mapType = new TypeToken<Map<String, BlockModel>>() {}.getType();
+                        Map<String, BlockModel> map =
+                                context.deserialize(json.getAsJsonObject(), mapType);
+                        return new BlockList(map);
+                    }
+                })
+                .create();
+    }
+
+    private static List<CourseComponent> flatten(CourseComponent component,
+                                                 List<CourseComponent> components) {
+        components.add(component);
+        for (IBlock child : component.getChildren()) {
+            flatten((CourseComponent) child, components);
+        }
+        return components;
+    }
+
+    /**
+     * @return The bytes allocated by the current thread so far, or 0 if the JVM can't tell.
+     */
+    private static long getAllocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Generates a course blocks response, listing the blocks in reverse order so that the
+     * children come before their parents, as they may in the real responses.
+     */
+    private static String generateCourseJson() {
+        final List<String> blocks = new ArrayList<>();
+        final List<String> chapterIds = new ArrayList<>();
+        int unitCount = 0;
+        for (int c = 0; c < CHAPTERS; c++) {
+            final List<String> sequentialIds = new ArrayList<>();
+            for (int s = 0; s < SEQUENTIALS_PER_CHAPTER; s++) {
+                final List<String> verticalIds = new ArrayList<>();
+                for (int v = 0; v < VERTICALS_PER_SEQUENTIAL; v++) {
+                    final List<String> unitIds = new ArrayList<>();
+                    for (int u = 0; u < UNITS_PER_VERTICAL; u++) {
+                        final String unitId = "block-v1:edX+Bench+2016+type@unit+block@" + unitCount;
+                        switch (unitCount++ % 3) {
+                            case 0:
+                                blocks.add(block(unitId, "video", null,
+                                        "\"student_view_data\":{\"duration\":600,"
+                                                + "\"only_on_web\":false,"
+                                                + "\"transcripts\":{\"en\":\"https://example.com/"
+                                                + unitCount + "/en.srt\"},"
+                                                + "\"encoded_videos\":{\"mobile_low\":{"
+                                                + "\"url\":\"https://example.com/" + unitCount
+                                                + "/low.mp4\",\"file_size\":1048576}}},"));
+                                break;
+                            case 1:
+                                blocks.add(block(unitId, "discussion", null,
+                                        "\"student_view_data\":{\"topic_id\":\"topic-"
+                                                + unitCount + "\"},"));
+                                break;
+                            default:
+                                blocks.add(block(unitId, "html", null, ""));
+                        }
+                        unitIds.add(unitId);
+                    }
+                    final String verticalId = "block-v1:edX+Bench+2016+type@vertical+block@"
+                            + c + "-" + s + "-" + v;
+                    blocks.add(block(verticalId, "vertical", unitIds, ""));
+                    verticalIds.add(verticalId);
+                }
+                final String sequentialId = "block-v1:edX+Bench+2016+type@sequential+block@"
+                        + c + "-" + s;
+                blocks.add(block(sequentialId, "sequential", verticalIds, ""));
+                sequentialIds.add(sequentialId);
+            }
+            final String chapterId = "block-v1:edX+Bench+2016+type@chapter+block@" + c;
+            blocks.add(block(chapterId, "chapter", sequentialIds, ""));
+            chapterIds.add(chapterId);
+        }
+        final String rootId = "block-v1:edX+Bench+2016+type@course+block@course";
+        blocks.add(block(rootId, "course", chapterIds, ""));
+
+        final StringBuilder json = new StringBuilder("{\"root\":\"").append(rootId)
+                .append("\",\"blocks\":{");
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            json.append(blocks.get(i));
+            if (i > 0) {
+                json.append(',');
+            }
+        }
+        return json.append("}}").toString();
+    }
+
+    private static String block(String id, String type, List<String> descendants,
+                                String extraFields) {
+        final StringBuilder json = new StringBuilder();
+        json.append('"').append(id).append("\":{")
+                .append("\"id\":\"").append(id).append("\",")
+                .append("\"block_id\":\"").append(id.substring(id.lastIndexOf('@') + 1))
+                .append("\",")
+                .append("\"type\":\"").append(type).append("\",")
+                .append("\"display_name\":\"Block ").append(id).append("\",")
+                .append("\"graded\":false,")
+                .append("\"student_view_multi_device\":true,")
+                .append("\"student_view_url\":\"https://example.com/xblock/").append(id)
+                .append("\",")
+                .append("\"lms_web_url\":\"https://example.com/jump_to/").append(id)
+                .append("\",")
+                .append("\"block_counts\":{\"video\":1},")
+                .append(extraFields);
+        if (descendants != null) {
+            json.append("\"descendants\":[");
+            for (int i = 0; i < descendants.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append('"').append(descendants.get(i)).append('"');
+            }
+            json.append("],");
+        }
+        json.append("\"format\":null}");
+        return json.toString();
+    }
+}
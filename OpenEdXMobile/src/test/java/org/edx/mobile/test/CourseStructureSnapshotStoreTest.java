@@ -0,0 +1,128 @@
+package org.edx.mobile.test;
+
+import org.edx.mobile.course.CourseStructureSnapshotStore;
+import org.edx.mobile.model.api.TranscriptModel;
+import org.edx.mobile.model.course.BlockData;
+import org.edx.mobile.model.course.BlockModel;
+import org.edx.mobile.model.course.BlockType;
+import org.edx.mobile.model.course.CourseComponent;
+import org.edx.mobile.model.course.DiscussionBlockModel;
+import org.edx.mobile.model.course.DiscussionData;
+import org.edx.mobile.model.course.EncodedVideos;
+import org.edx.mobile.model.course.HtmlBlockModel;
+import org.edx.mobile.model.course.VideoBlockModel;
+import org.edx.mobile.model.course.VideoData;
+import org.edx.mobile.model.course.VideoInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CourseStructureSnapshotStoreTest extends BaseTestCase {
+
+    private static final String USERNAME = "unittest";
+    private static final String COURSE_ID = "course-v1:edX+Snapshot+2016";
+
+    @Test
+    public void testSnapshotRoundTrip() throws Exception {
+        final CourseStructureSnapshotStore store = new CourseStructureSnapshotStore(context);
+        final CourseComponent course = createCourse();
+        store.write(USERNAME, COURSE_ID, "\"etag-1\"", course);
+
+        final CourseComponent restored = store.read(USERNAME, COURSE_ID, "\"etag-1\"");
+        assertNotNull(restored);
+        assertEquals(COURSE_ID, restored.getCourseId());
+        assertEquals(course.getId(), restored.getId());
+        assertEquals(course.getInternalName(), restored.getInternalName());
+
+        final List<CourseComponent> leaves = new ArrayList<>();
+        course.fetchAllLeafComponents(leaves, EnumSet.allOf(BlockType.class));
+        final List<CourseComponent> restoredLeaves = new ArrayList<>();
+        restored.fetchAllLeafComponents(restoredLeaves, EnumSet.allOf(BlockType.class));
+        assertEquals(4, leaves.size());
+        assertEquals(leaves.size(), restoredLeaves.size());
+        for (int i = 0; i < leaves.size(); i++) {
+            final CourseComponent leaf = leaves.get(i);
+            final CourseComponent restoredLeaf = restoredLeaves.get(i);
+            assertEquals(leaf.getClass(), restoredLeaf.getClass());
+            assertEquals(leaf.getId(), restoredLeaf.getId());
+            assertEquals(leaf.getType(), restoredLeaf.getType());
+            assertEquals(leaf.isGraded(), restoredLeaf.isGraded());
+            assertEquals(leaf.isMultiDevice(), restoredLeaf.isMultiDevice());
+            assertEquals(leaf.getBlockUrl(), restoredLeaf.getBlockUrl());
+            assertEquals(leaf.getFormat(), restoredLeaf.getFormat());
+        }
+        final VideoBlockModel video = (VideoBlockModel) restored.getVideos().get(0);
+        assertEquals(((VideoBlockModel) course.getVideos().get(0)).getData(), video.getData());
+        assertNotNull(restored.findById(video.getId()));
+
+        final List<CourseComponent> discussions = new ArrayList<>();
+        restored.fetchAllLeafComponents(discussions, EnumSet.of(BlockType.DISCUSSION));
+        assertEquals("topic", ((DiscussionBlockModel) discussions.get(0)).getData().topicId);
+        assertTrue(restored.getChildren().size() > 0);
+    }
+
+    @Test
+    public void testSnapshotInvalidatedByValidator() throws Exception {
+        final CourseStructureSnapshotStore store = new CourseStructureSnapshotStore(context);
+        store.write(USERNAME, COURSE_ID, "\"etag-1\"", createCourse());
+        assertNull(store.read(USERNAME, COURSE_ID, "\"etag-2\""));
+        // The stale snapshot is discarded
+        assertNull(store.read(USERNAME, COURSE_ID, "\"etag-1\""));
+        assertNull(store.read("otheruser", COURSE_ID, "\"etag-1\""));
+    }
+
+    private static CourseComponent createCourse() {
+        final CourseComponent course = new CourseComponent(
+                createBlock("course", BlockType.COURSE, null), null);
+        course.setCourseId(COURSE_ID);
+        final CourseComponent chapter = new CourseComponent(
+                createBlock("chapter", BlockType.CHAPTER, null), course);
+        final CourseComponent sequential = new CourseComponent(
+                createBlock("sequential", BlockType.SEQUENTIAL, null), chapter);
+        final CourseComponent vertical = new CourseComponent(
+                createBlock("vertical", BlockType.VERTICAL, null), sequential);
+
+        final VideoData videoData = new VideoData();
+        videoData.duration = 600;
+        videoData.transcripts = new TranscriptModel();
+        videoData.transcripts.englishUrl = "https://example.com/en.srt";
+        videoData.encodedVideos = new EncodedVideos();
+        videoData.encodedVideos.mobileLow = new VideoInfo();
+        videoData.encodedVideos.mobileLow.url = "https://example.com/low.mp4";
+        videoData.encodedVideos.mobileLow.fileSize = 5L * 1024 * 1024 * 1024;
+        new VideoBlockModel(createBlock("video", BlockType.VIDEO, videoData), vertical);
+
+        final DiscussionData discussionData = new DiscussionData();
+        discussionData.topicId = "topic";
+        new DiscussionBlockModel(createBlock("discussion", BlockType.DISCUSSION, discussionData),
+                vertical);
+
+        final BlockModel problem = createBlock("problem", BlockType.PROBLEM, new BlockData());
+        problem.graded = true;
+        problem.format = "Homework";
+        new HtmlBlockModel(problem, vertical);
+        new HtmlBlockModel(createBlock("html", BlockType.HTML, null), vertical);
+        course.buildIndex();
+        return course;
+    }
+
+    private static BlockModel createBlock(String name, BlockType type, BlockData data) {
+        final BlockModel block = new BlockModel();
+        block.id = "block-v1:edX+Snapshot+2016+type@" + name + "+block@" + name;
+        block.blockId = name;
+        block.type = type;
+        block.displayName = "Block " + name;
+        block.studentViewMultiDevice = true;
+        block.studentViewUrl = "https://example.com/xblock/" + block.id;
+        block.lmsWebUrl = "https://example.com/jump_to/" + block.id;
+        block.data = data;
+        return block;
+    }
+}
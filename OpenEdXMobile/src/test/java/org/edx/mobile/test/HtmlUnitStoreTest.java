@@ -0,0 +1,210 @@
+package org.edx.mobile.test;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.support.annotation.NonNull;
+import android.webkit.WebResourceResponse;
+
+import org.edx.mobile.services.HtmlUnitStore;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.robolectric.Shadows;
+import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetworkInfo;
+
+import java.io.File;
+import java.util.Collections;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.edx.mobile.test.util.OkHttpTestUtil.defaultClient;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HtmlUnitStoreTest extends BaseTestCase {
+    private static final String HTML_CONTENT_TYPE = "text/html; charset=utf-8";
+
+    @Rule
+    public final MockWebServer mockServer = new MockWebServer();
+
+    private HtmlUnitStore unitStore;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        setNetworkConnected(true);
+        unitStore = new HtmlUnitStore(context, defaultClient(),
+                new File(context.getFilesDir(), "html_units"));
+    }
+
+    @Test
+    public void testPrefetchedUnitIsServedOffline() throws Exception {
+        final String page = "<html><head>" +
+                "<script type=\"text/javascript\" src=\"/static/unit.js\"></script>" +
+                "<link rel=\"stylesheet\" href=\"unit.css\">" +
+                "</head><body>Unit</body></html>";
+        mockServer.enqueue(new MockResponse()
+                .setHeader("Content-Type", HTML_CONTENT_TYPE)
+                .setBody(page));
+        mockServer.enqueue(new MockResponse().setBody("var unit;"));
+        mockServer.enqueue(new MockResponse().setBody("body {}"));
+        final String pageUrl = mockServer.url("/xblock/unit/").toString();
+
+        unitStore.prefetch(Collections.singletonList(pageUrl)).get();
+        assertEquals(3, mockServer.getRequestCount());
+        assertTrue(unitStore.contains(pageUrl));
+        assertTrue(unitStore.contains(mockServer.url("/static/unit.js").toString()));
+        assertTrue(unitStore.contains(mockServer.url("/xblock/unit/unit.css").toString()));
+
+        setNetworkConnected(false);
+        final WebResourceResponse response = unitStore.intercept(pageUrl, null);
+        assertNotNull(response);
+        assertEquals("text/html", response.getMimeType());
+        assertEquals("UTF-8", response.getEncoding());
+        assertEquals(page, readBody(response));
+        assertNotNull(unitStore.intercept(mockServer.url("/static/unit.js").toString(), null));
+        assertEquals(2, unitStore.getStats().hitCount);
+        assertEquals(3, mockServer.getRequestCount());
+    }
+
+    @Test
+    public void testStoredUnitIsRevalidated() throws Exception {
+        mockServer.enqueue(new MockResponse()
+                .setHeader("Content-Type", HTML_CONTENT_TYPE)
+                .setHeader("ETag", "\"v1\"")
+                .setBody("first"));
+        mockServer.enqueue(new MockResponse().setResponseCode(304));
+        mockServer.enqueue(new MockResponse()
+                .setHeader("Content-Type", HTML_CONTENT_TYPE)
+                .setHeader("ETag", "\"v2\"")
+                .setBody("second"));
+        final String pageUrl = mockServer.url("/xblock/unit/").toString();
+        unitStore.prefetch(Collections.singletonList(pageUrl)).get();
+        mockServer.takeRequest();
+
+        // Still valid
+        WebResourceResponse response = unitStore.intercept(pageUrl, null);
+        assertNotNull(response);
+        assertEquals("first", readBody(response));
+        assertEquals("\"v1\"", mockServer.takeRequest().getHeader("If-None-Match"));
+
+        // Changed
+        response = unitStore.intercept(pageUrl, null);
+        assertNotNull(response);
+        assertEquals("second", readBody(response));
+
+        final HtmlUnitStore.Stats stats = unitStore.getStats();
+        assertEquals(1, stats.hitCount);
+        assertEquals(1, stats.missCount);
+        assertEquals(0.5f, stats.getHitRate(), 0);
+    }
+
+    @Test
+    public void testFreshAssetIsNotRevalidated() throws Exception {
+        final String page = "<html><head>" +
+                "<script src=\"/static/fresh.js\"></script>" +
+                "<script src=\"/static/stale.js\"></script>" +
+                "</head><body>Unit</body></html>";
+        mockServer.enqueue(new MockResponse()
+                .setHeader("Content-Type", HTML_CONTENT_TYPE)
+                .setBody(page));
+        mockServer.enqueue(new MockResponse()
+                .setHeader("Cache-Control", "max-age=3600")
+                .setBody("var fresh;"));
+        mockServer.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setBody("var stale;"));
+        mockServer.enqueue(new MockResponse().setResponseCode(304));
+        final String pageUrl = mockServer.url("/xblock/unit/").toString();
+        unitStore.prefetch(Collections.singletonList(pageUrl)).get();
+        assertEquals(3, mockServer.getRequestCount());
+
+        WebResourceResponse response = unitStore.intercept(
+                mockServer.url("/static/fresh.js").toString(), null);
+        assertNotNull(response);
+        assertEquals("var fresh;", readBody(response));
+        assertEquals(3, mockServer.getRequestCount());
+
+        response = unitStore.intercept(mockServer.url("/static/stale.js").toString(), null);
+        assertNotNull(response);
+        assertEquals("var stale;", readBody(response));
+        assertEquals(4, mockServer.getRequestCount());
+        assertEquals(2, unitStore.getStats().hitCount);
+    }
+
+    @Test
+    public void testPageErrorIsServedWithoutSecondRequest() throws Exception {
+        mockServer.enqueue(new MockResponse()
+                .setResponseCode(404)
+                .setHeader("Content-Type", HTML_CONTENT_TYPE)
+                .setBody("Not found"));
+        final String pageUrl = mockServer.url("/xblock/unit/").toString();
+        unitStore.prefetch(Collections.singletonList(pageUrl)).get();
+        assertFalse(unitStore.contains(pageUrl));
+
+        mockServer.enqueue(new MockResponse()
+                .setResponseCode(404)
+                .setHeader("Content-Type", HTML_CONTENT_TYPE)
+                .setBody("Not found"));
+        final WebResourceResponse response = unitStore.intercept(pageUrl, null);
+        assertNotNull(response);
+        assertEquals("text/html", response.getMimeType());
+        assertEquals("Not found", readBody(response));
+        assertEquals(2, mockServer.getRequestCount());
+        assertFalse(unitStore.contains(pageUrl));
+        assertEquals(1, unitStore.getStats().missCount);
+    }
+
+    @Test
+    public void testClearOnLogout() throws Exception {
+        mockServer.enqueue(new MockResponse()
+                .setHeader("Content-Type", HTML_CONTENT_TYPE)
+                .setBody("unit"));
+        final String pageUrl = mockServer.url("/xblock/unit/").toString();
+        unitStore.prefetch(Collections.singletonList(pageUrl)).get();
+        assertTrue(unitStore.contains(pageUrl));
+        assertEquals(4, unitStore.getStats().size);
+
+        unitStore.clear().get();
+        assertFalse(unitStore.contains(pageUrl));
+        assertEquals(0, unitStore.getStats().size);
+        final String[] fileNames = new File(context.getFilesDir(), "html_units").list();
+        assertNotNull(fileNames);
+        assertEquals(0, fileNames.length);
+    }
+
+    @Test
+    public void testOtherUrlsAreNotIntercepted() {
+        assertNull(unitStore.intercept(mockServer.url("/other/").toString(), null));
+        assertEquals(0, mockServer.getRequestCount());
+    }
+
+    @NonNull
+    private static String readBody(@NonNull WebResourceResponse response) throws Exception {
+        try {
+            return new Buffer().readFrom(response.getData()).readUtf8();
+        } finally {
+            response.getData().close();
+        }
+    }
+
+    private void setNetworkConnected(boolean isConnected) {
+        final ShadowConnectivityManager shadowConnectivityManager = Shadows.shadowOf(
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE));
+        final NetworkInfo.DetailedState state = isConnected ?
+                NetworkInfo.DetailedState.CONNECTED : NetworkInfo.DetailedState.DISCONNECTED;
+        shadowConnectivityManager.setNetworkInfo(ConnectivityManager.TYPE_WIFI,
+                ShadowNetworkInfo.newInstance(state, ConnectivityManager.TYPE_WIFI, 0,
+                        true, isConnected));
+        shadowConnectivityManager.setNetworkInfo(ConnectivityManager.TYPE_MOBILE,
+                ShadowNetworkInfo.newInstance(NetworkInfo.DetailedState.DISCONNECTED,
+                        ConnectivityManager.TYPE_MOBILE, 0, true, false));
+    }
+}
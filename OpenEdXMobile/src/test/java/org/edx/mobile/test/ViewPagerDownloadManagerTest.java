@@ -1,6 +1,10 @@
 package org.edx.mobile.test;
 
+import android.support.annotation.NonNull;
+
+import org.edx.mobile.http.metrics.BandwidthEstimator;
 import org.edx.mobile.model.course.CourseComponent;
+import org.edx.mobile.services.UnitPreloadPolicy;
 import org.edx.mobile.services.ViewPagerDownloadManager;
 import org.edx.mobile.view.common.RunnableCourseComponent;
 import org.junit.Before;
@@ -10,13 +14,18 @@ import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
 
 
 @RunWith(MockitoJUnitRunner.class)
 public class ViewPagerDownloadManagerTest {
+    private static final long MB = 1024 * 1024;
+
     final CourseComponent mainComponent = Mockito.mock(CourseComponent.class);
     final CourseComponent prevComponent = Mockito.mock(CourseComponent.class);
     final CourseComponent nextComponent = Mockito.mock(CourseComponent.class);
@@ -26,51 +35,43 @@ public class ViewPagerDownloadManagerTest {
     RunnableCourseComponent nextComponentUI;
     RunnableCourseComponent otherComponentUI;
 
+    ViewPagerDownloadManager manager;
+    //the components in the order their tasks were run
+    List<CourseComponent> runComponents;
+    //whether the tasks finish as soon as they're run
+    boolean finishTasks;
+
     @Before
     public  void setUp() throws Exception {
-        //use mockito.answer is a little inconvenience, let's use fake approach
-        mainComponentUI = new RunnableCourseComponent(){
-            @Override
-            public CourseComponent getCourseComponent() {
-                return mainComponent;
-            }
-            @Override
-            public void run() {
-                ViewPagerDownloadManager.instance.done(this, true);
-            }
-        };
-        prevComponentUI = new RunnableCourseComponent(){
-            @Override
-            public CourseComponent getCourseComponent() {
-                return prevComponent;
-            }
-            @Override
-            public void run() {
-                ViewPagerDownloadManager.instance.done(this, true);
-            }
-        };
-        nextComponentUI = new RunnableCourseComponent(){
+        manager = new ViewPagerDownloadManager(new Executor() {
             @Override
-            public CourseComponent getCourseComponent() {
-                return nextComponent;
-            }
-            @Override
-            public void run() {
-                ViewPagerDownloadManager.instance.done(this, true);
+            public void execute(@NonNull Runnable command) {
+                command.run();
             }
-        };
+        });
+        runComponents = new ArrayList<>();
+        finishTasks = true;
+        //use mockito.answer is a little inconvenience, let's use fake approach
+        mainComponentUI = createComponentUI(mainComponent);
+        prevComponentUI = createComponentUI(prevComponent);
+        nextComponentUI = createComponentUI(nextComponent);
+        otherComponentUI = createComponentUI(otherComponent);
+    }
 
-        otherComponentUI = new RunnableCourseComponent(){
+    private RunnableCourseComponent createComponentUI(final CourseComponent component) {
+        return new RunnableCourseComponent(){
             @Override
             public CourseComponent getCourseComponent() {
-                return otherComponent;
+                return component;
             }
             @Override
             public void run() {
-                ViewPagerDownloadManager.instance.done(this, true);
+                runComponents.add(component);
+                if (finishTasks) {
+                    manager.done(this, true);
+                }
             }
         };
-        ViewPagerDownloadManager.USING_UI_PRELOADING = true;
     }
 
     @Test
@@ -80,19 +81,23 @@ public class ViewPagerDownloadManagerTest {
         unitlist.add(prevComponent);
         unitlist.add(mainComponent);
         unitlist.add(nextComponent);
-        ViewPagerDownloadManager.instance.setMainComponent(mainComponent, unitlist);
+        unitlist.add(otherComponent);
+        manager.setMainComponent(mainComponent, unitlist, 1);
 
-        assertTrue("InInitialPhase() op failed",  !ViewPagerDownloadManager.instance.inInitialPhase(prevComponent) );
-        assertTrue("InInitialPhase() op failed",  !ViewPagerDownloadManager.instance.inInitialPhase(mainComponent) );
-        assertTrue("InInitialPhase() op failed",  !ViewPagerDownloadManager.instance.inInitialPhase(nextComponent) );
-        assertTrue("InInitialPhase() op failed",  !ViewPagerDownloadManager.instance.inInitialPhase(otherComponent) );
+        assertTrue("InInitialPhase() op failed",  manager.inInitialPhase(prevComponent) );
+        assertTrue("InInitialPhase() op failed",  manager.inInitialPhase(mainComponent) );
+        assertTrue("InInitialPhase() op failed",  manager.inInitialPhase(nextComponent) );
+        assertTrue("InInitialPhase() op failed",  !manager.inInitialPhase(otherComponent) );
 
-        ViewPagerDownloadManager.instance.addTask(prevComponentUI);
-        assertTrue("InInitialPhase() op failed",  !ViewPagerDownloadManager.instance.inInitialPhase(otherComponent) );
+        manager.addTask(prevComponentUI);
+        assertTrue("InInitialPhase() op failed",  !manager.inInitialPhase(otherComponent) );
 
-        ViewPagerDownloadManager.instance.addTask(mainComponentUI);
-        assertTrue("InInitialPhase() op failed",  !ViewPagerDownloadManager.instance.inInitialPhase(otherComponent) );
+        manager.addTask(mainComponentUI);
+        assertTrue("InInitialPhase() op failed",  !manager.inInitialPhase(otherComponent) );
 
+        manager.setMainComponent(mainComponent, unitlist, 0);
+        assertTrue("InInitialPhase() op failed without preloading",  !manager.inInitialPhase(mainComponent) );
+        assertTrue("InInitialPhase() op failed without preloading",  !manager.inInitialPhase(nextComponent) );
     }
 
 
@@ -103,20 +108,87 @@ public class ViewPagerDownloadManagerTest {
         unitlist.add(prevComponent);
         unitlist.add(mainComponent);
         unitlist.add(nextComponent);
-        ViewPagerDownloadManager.instance.setMainComponent(mainComponent, unitlist);
+        manager.setMainComponent(mainComponent, unitlist, 1);
 
-        ViewPagerDownloadManager.instance.addTask(prevComponentUI);
-        assertTrue("addTask() op failed",  !ViewPagerDownloadManager.instance.isTaskIsRunning() );
-        assertTrue("addTask() op failed",  ViewPagerDownloadManager.instance.numTaskInStack() == 0 );
+        manager.addTask(prevComponentUI);
+        assertTrue("addTask() op failed",  !manager.isTaskIsRunning() );
+        assertTrue("addTask() op failed",  manager.numTaskInStack() == 0 );
 
-        ViewPagerDownloadManager.instance.addTask(mainComponentUI);
-        assertTrue("addTask() op failed for add main component",   ViewPagerDownloadManager.instance.numTaskInStack() == 0 );
+        manager.addTask(mainComponentUI);
+        assertTrue("addTask() op failed for add main component",   manager.numTaskInStack() == 0 );
 
-        assertTrue("addTask() op failed for add main component",   !ViewPagerDownloadManager.instance.isTaskIsRunning() );
+        assertTrue("addTask() op failed for add main component",   !manager.isTaskIsRunning() );
 
-        ViewPagerDownloadManager.instance.addTask(nextComponentUI);
-        assertTrue("addTask() op failed for add main component",   ViewPagerDownloadManager.instance.numTaskInStack() == 0 );
+        manager.addTask(nextComponentUI);
+        assertTrue("addTask() op failed for add main component",   manager.numTaskInStack() == 0 );
 
 
     }
+
+    @Test
+    public void testTasksRunInPriorityOrder() throws Exception {
+        final CourseComponent farPrevComponent = Mockito.mock(CourseComponent.class);
+        final List<CourseComponent> unitlist = Arrays.asList(farPrevComponent, prevComponent,
+                mainComponent, nextComponent, otherComponent);
+        manager.setMainComponent(mainComponent, unitlist, 2);
+
+        finishTasks = false;
+        manager.addTask(mainComponentUI);
+        manager.addTask(createComponentUI(farPrevComponent));
+        manager.addTask(prevComponentUI);
+        manager.addTask(otherComponentUI);
+        manager.addTask(nextComponentUI);
+        //the main one runs first, and the others wait for it
+        assertEquals(Arrays.asList(mainComponent), runComponents);
+        assertEquals(4, manager.numTaskInStack());
+
+        finishTasks = true;
+        manager.done(mainComponentUI, true);
+        assertEquals(Arrays.asList(mainComponent, nextComponent, prevComponent,
+                otherComponent, farPrevComponent), runComponents);
+        assertTrue(!manager.isTaskIsRunning());
+        assertEquals(0, manager.numTaskInStack());
+    }
+
+    @Test
+    public void testTasksOutOfRangeAreNotRun() throws Exception {
+        final List<CourseComponent> unitlist = Arrays.asList(prevComponent,
+                mainComponent, nextComponent, otherComponent);
+        manager.setMainComponent(mainComponent, unitlist, 1);
+
+        finishTasks = false;
+        manager.addTask(mainComponentUI);
+        manager.addTask(prevComponentUI);
+        manager.addTask(otherComponentUI);
+        assertTrue(manager.isTaskRunning(mainComponentUI));
+
+        //the user jumps away before the main unit is loaded
+        manager.setMainComponent(otherComponent, unitlist, 1);
+        manager.done(mainComponentUI, true);
+        assertEquals(Arrays.asList(mainComponent, otherComponent), runComponents);
+        assertTrue(manager.isTaskRunning(otherComponentUI));
+        assertEquals(1, manager.numTaskInStack());
+
+        //it's shown before its turn came
+        manager.removeTask(otherComponentUI);
+        assertTrue(!manager.isTaskIsRunning());
+        assertEquals(Arrays.asList(mainComponent, otherComponent), runComponents);
+    }
+
+    @Test
+    public void testPreloadDistance() throws Exception {
+        final BandwidthEstimator.NetworkType wifi = BandwidthEstimator.NetworkType.WIFI;
+        final BandwidthEstimator.NetworkType cellular = BandwidthEstimator.NetworkType.CELLULAR;
+        assertEquals(2, UnitPreloadPolicy.getPreloadDistance(256, 200 * MB, wifi));
+        assertEquals(1, UnitPreloadPolicy.getPreloadDistance(256, 200 * MB, cellular));
+        assertEquals(1, UnitPreloadPolicy.getPreloadDistance(128, 100 * MB, wifi));
+        //not enough free heap
+        assertEquals(1, UnitPreloadPolicy.getPreloadDistance(256, 20 * MB, wifi));
+        assertEquals(0, UnitPreloadPolicy.getPreloadDistance(256, 10 * MB, wifi));
+        //low memory device
+        assertEquals(0, UnitPreloadPolicy.getPreloadDistance(64, 200 * MB, wifi));
+        assertEquals(0, UnitPreloadPolicy.getPreloadDistance(0, 200 * MB, wifi));
+        //offline
+        assertEquals(0, UnitPreloadPolicy.getPreloadDistance(256, 200 * MB, null));
+    }
 }
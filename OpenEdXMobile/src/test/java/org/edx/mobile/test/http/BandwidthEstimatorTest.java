@@ -0,0 +1,47 @@
+package org.edx.mobile.test.http;
+
+import org.edx.mobile.http.metrics.BandwidthEstimator;
+import org.edx.mobile.module.prefs.PrefManager;
+import org.edx.mobile.test.BaseTestCase;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BandwidthEstimatorTest extends BaseTestCase {
+    private static final long KIB = 1024;
+
+    @Test
+    public void testNoSamples() {
+        final BandwidthEstimator estimator = new BandwidthEstimator(context);
+        assertEquals(BandwidthEstimator.UNKNOWN,
+                estimator.getEstimatedKbps(BandwidthEstimator.NetworkType.WIFI), 0);
+
+        // Falls back to the result of the last speed test
+        new PrefManager(context, PrefManager.Pref.WIFI).put(PrefManager.Key.SPEED_TEST_KBPS, 50f);
+        assertEquals(50, estimator.getEstimatedKbps(BandwidthEstimator.NetworkType.WIFI), 0);
+    }
+
+    @Test
+    public void testSamplesPerNetworkType() {
+        final BandwidthEstimator estimator = new BandwidthEstimator(context);
+        estimator.addSample(BandwidthEstimator.NetworkType.WIFI, 100 * KIB, 1000);
+        estimator.addSample(BandwidthEstimator.NetworkType.WIFI, 300 * KIB, 1000);
+        // Too short to be useful
+        estimator.addSample(BandwidthEstimator.NetworkType.WIFI, 100 * KIB, 10);
+        estimator.addSample(BandwidthEstimator.NetworkType.CELLULAR, 20 * KIB, 2000);
+
+        assertEquals(200, estimator.getEstimatedKbps(BandwidthEstimator.NetworkType.WIFI), 0.01);
+        assertEquals(10, estimator.getEstimatedKbps(BandwidthEstimator.NetworkType.CELLULAR),
+                0.01);
+    }
+
+    @Test
+    public void testEstimateIsSaved() {
+        new BandwidthEstimator(context)
+                .addSample(BandwidthEstimator.NetworkType.WIFI, 100 * KIB, 1000);
+        final BandwidthEstimator estimator = new BandwidthEstimator(context);
+        assertEquals(100, estimator.getEstimatedKbps(BandwidthEstimator.NetworkType.WIFI), 0.01);
+        assertEquals(BandwidthEstimator.UNKNOWN,
+                estimator.getEstimatedKbps(BandwidthEstimator.NetworkType.CELLULAR), 0);
+    }
+}
@@ -0,0 +1,105 @@
+package org.edx.mobile.test.http;
+
+import org.edx.mobile.http.metrics.BandwidthEstimator;
+import org.edx.mobile.http.metrics.Histogram;
+import org.edx.mobile.http.metrics.MetricsDns;
+import org.edx.mobile.http.metrics.MetricsInterceptor;
+import org.edx.mobile.http.metrics.MetricsNetworkInterceptor;
+import org.edx.mobile.http.metrics.NetworkMetrics;
+import org.edx.mobile.module.analytics.AnalyticsRegistry;
+import org.edx.mobile.test.BaseTestCase;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+
+public class NetworkMetricsTest extends BaseTestCase {
+
+    @Rule
+    public final MockWebServer mockServer = new MockWebServer();
+
+    @Test
+    public void testRouteTemplate() {
+        assertEquals("/api/courses/v1/blocks/", NetworkMetrics.getRouteTemplate(
+                HttpUrl.parse("https://example.com/api/courses/v1/blocks/?course_id=x")));
+        assertEquals("/api/mobile/v0.5/users/{username}/course_status_info/{id}",
+                NetworkMetrics.getRouteTemplate(HttpUrl.parse("https://example.com/api/mobile/"
+                        + "v0.5/users/staff/course_status_info/course-v1:edX+DemoX+Demo")));
+        assertEquals("/api/user/v1/accounts/{username}/image", NetworkMetrics.getRouteTemplate(
+                HttpUrl.parse("https://example.com/api/user/v1/accounts/staff/image")));
+        assertEquals("/api/discussion/v1/threads/{id}/", NetworkMetrics.getRouteTemplate(
+                HttpUrl.parse("https://example.com/api/discussion/v1/threads/5a1b2c3d4e/")));
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        final Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 10);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(505, histogram.getMean());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500, histogram.getPercentile(50));
+        assertEquals(1000, histogram.getPercentile(90));
+        histogram.clear();
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void testCallsAreRecordedPerRoute() throws Exception {
+        final NetworkMetrics networkMetrics = new NetworkMetrics(new AnalyticsRegistry(),
+                new BandwidthEstimator(context));
+        final OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        builder.interceptors().add(new MetricsInterceptor(networkMetrics));
+        builder.networkInterceptors().add(new MetricsNetworkInterceptor());
+        builder.dns(new MetricsDns());
+        final OkHttpClient client = builder.build();
+
+        mockServer.enqueue(new MockResponse().setBody("first"));
+        mockServer.enqueue(new MockResponse().setBody("second"));
+        mockServer.enqueue(new MockResponse().setResponseCode(503));
+        execute(client, new Request.Builder()
+                .url(mockServer.url("/api/discussion/v1/threads/1/")));
+        execute(client, new Request.Builder()
+                .url(mockServer.url("/api/discussion/v1/threads/2/")));
+        execute(client, new Request.Builder()
+                .url(mockServer.url("/api/discussion/v1/comments/"))
+                .post(RequestBody.create(MediaType.parse("application/json"), "{}")));
+
+        final List<NetworkMetrics.RouteStats> snapshot = networkMetrics.getSnapshot();
+        assertEquals(2, snapshot.size());
+        for (NetworkMetrics.RouteStats stats : snapshot) {
+            switch (stats.route) {
+                case "/api/discussion/v1/threads/{id}/":
+                    assertEquals(2, stats.requestCount);
+                    assertEquals(0, stats.failureCount);
+                    assertEquals("first".length() + "second".length(), stats.bytesIn);
+                    assertEquals(0, stats.bytesOut);
+                    break;
+                case "/api/discussion/v1/comments/":
+                    assertEquals(1, stats.requestCount);
+                    assertEquals(1, stats.failureCount);
+                    assertEquals(2, stats.bytesOut);
+                    break;
+                default:
+                    throw new AssertionError("Unexpected route: " + stats.route);
+            }
+        }
+    }
+
+    private static void execute(OkHttpClient client, Request.Builder request) throws Exception {
+        client.newCall(request.build()).execute().body().string();
+    }
+}
@@ -0,0 +1,141 @@
+package org.edx.mobile.test.http;
+
+import org.edx.mobile.http.cache.HttpCachePartition;
+import org.edx.mobile.http.cache.PartitionedHttpCache;
+import org.edx.mobile.test.BaseTestCase;
+import org.edx.mobile.util.Config;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Map;
+
+import okhttp3.CacheControl;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionedHttpCacheTest extends BaseTestCase {
+    private static final long MIB = 1024 * 1024;
+
+    @Rule
+    public final MockWebServer mockServer = new MockWebServer();
+
+    @Test
+    public void testPartitionForUrl() {
+        assertEquals(HttpCachePartition.COURSE_STRUCTURE, HttpCachePartition.forUrl(
+                HttpUrl.parse("https://example.com/api/courses/v1/blocks/?course_id=x")));
+        assertEquals(HttpCachePartition.DISCUSSION, HttpCachePartition.forUrl(
+                HttpUrl.parse("https://example.com/api/discussion/v1/threads?course_id=x")));
+        assertEquals(HttpCachePartition.METADATA, HttpCachePartition.forUrl(
+                HttpUrl.parse("https://example.com/api/discussion/v1/course_topics/x")));
+        assertEquals(HttpCachePartition.METADATA, HttpCachePartition.forUrl(
+                HttpUrl.parse("https://example.com/api/mobile/v0.5/users/x/course_enrollments")));
+    }
+
+    @Test
+    public void testMaxSizesScaleWithAvailableSpace() {
+        final Config.HttpCacheConfig cacheConfig = config.getHttpCacheConfig();
+        final long totalSize = (cacheConfig.getCourseStructureMaxSizeMb()
+                + cacheConfig.getDiscussionMaxSizeMb() + cacheConfig.getMetadataMaxSizeMb()) * MIB;
+
+        Map<HttpCachePartition, Long> maxSizes = PartitionedHttpCache.getMaxSizes(cacheConfig,
+                totalSize * 100 / cacheConfig.getMaxFreeSpacePercent() * 2);
+        assertEquals(cacheConfig.getCourseStructureMaxSizeMb() * MIB,
+                (long) maxSizes.get(HttpCachePartition.COURSE_STRUCTURE));
+        assertEquals(cacheConfig.getMetadataMaxSizeMb() * MIB,
+                (long) maxSizes.get(HttpCachePartition.METADATA));
+
+        maxSizes = PartitionedHttpCache.getMaxSizes(cacheConfig,
+                totalSize * 100 / cacheConfig.getMaxFreeSpacePercent() / 2);
+        assertEquals(cacheConfig.getCourseStructureMaxSizeMb() * MIB / 2,
+                (long) maxSizes.get(HttpCachePartition.COURSE_STRUCTURE));
+        assertEquals(cacheConfig.getMetadataMaxSizeMb() * MIB / 2,
+                (long) maxSizes.get(HttpCachePartition.METADATA));
+
+        // The partitions don't shrink below a minimum size
+        maxSizes = PartitionedHttpCache.getMaxSizes(cacheConfig, 0);
+        assertEquals(MIB, (long) maxSizes.get(HttpCachePartition.DISCUSSION));
+    }
+
+    @Test
+    public void testResponsesAreCachedInTheirPartition() throws Exception {
+        final File cacheDirectory = new File(context.getCacheDir(), "partitioned-cache-test");
+        final PartitionedHttpCache cache = new PartitionedHttpCache(cacheDirectory,
+                config.getHttpCacheConfig());
+        final OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        cache.setOn(builder);
+        final OkHttpClient client = builder.build();
+
+        for (int i = 0; i < 2; i++) {
+            mockServer.enqueue(new MockResponse()
+                    .setHeader("Cache-Control", "max-age=60")
+                    .setBody("{}"));
+        }
+        final String blocksPath = "/api/courses/v1/blocks/?course_id=x";
+        assertEquals("{}", execute(client, blocksPath));
+        assertEquals("{}", execute(client, blocksPath));
+        assertEquals("{}", execute(client, "/api/mobile/v0.5/users/x/course_enrollments"));
+        // The second request for the blocks is served from the cache
+        assertEquals(2, mockServer.getRequestCount());
+
+        for (PartitionedHttpCache.Stats stats : cache.getStats()) {
+            switch (stats.partition) {
+                case COURSE_STRUCTURE:
+                    assertEquals(1, stats.hitCount);
+                    assertEquals(1, stats.missCount);
+                    assertEquals(1, stats.writeCount);
+                    assertEquals(2, stats.bytesWritten);
+                    assertTrue(stats.size > 0);
+                    break;
+                case METADATA:
+                    assertEquals(0, stats.hitCount);
+                    assertEquals(1, stats.missCount);
+                    assertEquals(1, stats.writeCount);
+                    break;
+                case DISCUSSION:
+                    assertEquals(0, stats.missCount);
+                    assertEquals(0, stats.writeCount);
+                    assertEquals(0, stats.size);
+                    break;
+            }
+            assertEquals(0, stats.evictionCount);
+        }
+    }
+
+    @Test
+    public void testOnlyIfCachedMiss() throws Exception {
+        final File cacheDirectory = new File(context.getCacheDir(), "partitioned-cache-test");
+        final PartitionedHttpCache cache = new PartitionedHttpCache(cacheDirectory,
+                config.getHttpCacheConfig());
+        final OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        cache.setOn(builder);
+        final OkHttpClient client = builder.build();
+
+        final Response response = client.newCall(new Request.Builder()
+                .url(mockServer.url("/api/courses/v1/blocks/?course_id=uncached"))
+                .cacheControl(CacheControl.FORCE_CACHE)
+                .build()).execute();
+        assertEquals(504, response.code());
+        response.body().close();
+        assertEquals(0, mockServer.getRequestCount());
+        for (PartitionedHttpCache.Stats stats : cache.getStats()) {
+            if (stats.partition == HttpCachePartition.COURSE_STRUCTURE) {
+                assertEquals(0, stats.hitCount);
+                assertEquals(1, stats.missCount);
+            }
+        }
+    }
+
+    private String execute(OkHttpClient client, String path) throws Exception {
+        return client.newCall(new Request.Builder()
+                .url(mockServer.url(path))
+                .build()).execute().body().string();
+    }
+}
@@ -0,0 +1,264 @@
+package org.edx.mobile.test.http;
+
+import org.edx.mobile.http.interceptor.RequestCoalescingInterceptor;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescingInterceptorTest {
+
+    @Rule
+    public final MockWebServer mockServer = new MockWebServer();
+
+    @Test
+    public void testIdenticalRequestsAreMerged() throws Exception {
+        final CountDownLatch received = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                received.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return new MockResponse().setBody("body of " + request.getPath());
+            }
+        });
+        final CountDownLatch merged = new CountDownLatch(1);
+        final RequestCoalescingInterceptor interceptor =
+                new RequestCoalescingInterceptor(createMergedCallCount(merged));
+        final OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .build();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> first = executor.submit(createCall(client, "/courses/"));
+            // Wait for the first request to reach the server before making the second one
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+            final Future<String> second = executor.submit(createCall(client, "/courses/"));
+            assertTrue(merged.await(10, TimeUnit.SECONDS));
+            release.countDown();
+
+            assertEquals("body of /courses/", first.get(10, TimeUnit.SECONDS));
+            assertEquals("body of /courses/", second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, interceptor.getMergedCallCount());
+            assertEquals(1, mockServer.getRequestCount());
+
+            // Requests made after the response arrived make their own exchange
+            assertEquals("body of /courses/", createCall(client, "/courses/").call());
+            assertEquals(2, mockServer.getRequestCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWaitingRequestIsMadeAgainWhenFirstIsCancelled() throws Exception {
+        final CountDownLatch received = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger dispatchCount = new AtomicInteger();
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (dispatchCount.getAndIncrement() == 0) {
+                    // The first request never gets a response before it's cancelled
+                    received.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setBody("body of " + request.getPath());
+            }
+        });
+        final CountDownLatch merged = new CountDownLatch(1);
+        final RequestCoalescingInterceptor interceptor =
+                new RequestCoalescingInterceptor(createMergedCallCount(merged));
+        final OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .build();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Call firstCall = client.newCall(new Request.Builder()
+                    .url(mockServer.url("/courses/"))
+                    .build());
+            final Future<Response> first = executor.submit(new Callable<Response>() {
+                @Override
+                public Response call() throws Exception {
+                    return firstCall.execute();
+                }
+            });
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+            final Future<String> second = executor.submit(createCall(client, "/courses/"));
+            assertTrue(merged.await(10, TimeUnit.SECONDS));
+            assertEquals(1, interceptor.getMergedCallCount());
+
+            firstCall.cancel();
+            try {
+                first.get(10, TimeUnit.SECONDS);
+                fail("The cancelled request should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+            assertEquals("body of /courses/", second.get(10, TimeUnit.SECONDS));
+            assertEquals(2, mockServer.getRequestCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWaitingRequestIsMadeOnItsOwnAfterTimeout() throws Exception {
+        final CountDownLatch received = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger dispatchCount = new AtomicInteger();
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (dispatchCount.getAndIncrement() == 0) {
+                    received.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setBody("body of " + request.getPath());
+            }
+        });
+        final RequestCoalescingInterceptor interceptor = new RequestCoalescingInterceptor(
+                new AtomicInteger(), 100, TimeUnit.MILLISECONDS);
+        final OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .build();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            final Future<String> first = executor.submit(createCall(client, "/courses/"));
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+
+            // Doesn't wait for the first request, which is still in flight
+            assertEquals("body of /courses/", createCall(client, "/courses/").call());
+            assertEquals(0, interceptor.getMergedCallCount());
+            assertEquals(2, mockServer.getRequestCount());
+
+            release.countDown();
+            assertEquals("body of /courses/", first.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRequestsWithNoCoalescingHeaderAreNotMerged() throws Exception {
+        final CountDownLatch received = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                received.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return new MockResponse().setBody("body of " + request.getPath());
+            }
+        });
+        final RequestCoalescingInterceptor interceptor = new RequestCoalescingInterceptor();
+        final OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .build();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> first = executor.submit(createStreamingCall(client, "/blocks/"));
+            final Future<String> second = executor.submit(createStreamingCall(client, "/blocks/"));
+            // Both reach the server while the other one is in flight
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+            release.countDown();
+
+            assertEquals("body of /blocks/", first.get(10, TimeUnit.SECONDS));
+            assertEquals("body of /blocks/", second.get(10, TimeUnit.SECONDS));
+            assertEquals(0, interceptor.getMergedCallCount());
+            assertNull(mockServer.takeRequest().getHeader(
+                    RequestCoalescingInterceptor.NO_COALESCING_HEADER));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDifferentRequestsAreNotMerged() throws Exception {
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                return new MockResponse().setBody("body of " + request.getPath());
+            }
+        });
+        final RequestCoalescingInterceptor interceptor = new RequestCoalescingInterceptor();
+        final OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(interceptor)
+                .build();
+        assertEquals("body of /a/", createCall(client, "/a/").call());
+        assertEquals("body of /b/", createCall(client, "/b/").call());
+        assertEquals(0, interceptor.getMergedCallCount());
+        assertTrue(mockServer.getRequestCount() == 2);
+    }
+
+    /**
+     * @return A merged call counter that also counts down the given latch when a request is
+     * merged, so that the tests can wait for that.
+     */
+    private static AtomicInteger createMergedCallCount(final CountDownLatch merged) {
+        return new AtomicInteger() {
+            @Override
+            public int incrementAndGet() {
+                final int count = super.incrementAndGet();
+                merged.countDown();
+                return count;
+            }
+        };
+    }
+
+    private Callable<String> createCall(final OkHttpClient client, final String path) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                final Response response = client.newCall(new Request.Builder()
+                        .url(mockServer.url(path))
+                        .build()).execute();
+                return response.body().string();
+            }
+        };
+    }
+
+    private Callable<String> createStreamingCall(final OkHttpClient client, final String path) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                final Response response = client.newCall(new Request.Builder()
+                        .url(mockServer.url(path))
+                        .header(RequestCoalescingInterceptor.NO_COALESCING_HEADER, "true")
+                        .build()).execute();
+                return response.body().string();
+            }
+        };
+    }
+}
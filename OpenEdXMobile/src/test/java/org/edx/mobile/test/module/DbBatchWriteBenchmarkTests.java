@@ -0,0 +1,149 @@
+package org.edx.mobile.test.module;
+
+import com.google.inject.Injector;
+
+import org.edx.mobile.model.VideoModel;
+import org.edx.mobile.model.api.ProfileModel;
+import org.edx.mobile.model.db.DownloadEntry;
+import org.edx.mobile.model.db.DownloadEntry.DownloadedState;
+import org.edx.mobile.module.db.IDatabase;
+import org.edx.mobile.module.db.impl.DatabaseFactory;
+import org.edx.mobile.module.prefs.LoginPrefs;
+import org.edx.mobile.test.BaseTestCase;
+import org.junit.Test;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Compares the batch write path used when enqueuing multiple videos for download against the
+ * previous per-row path, on 10, 100 and 1000 entries.
+ */
+public class DbBatchWriteBenchmarkTests extends BaseTestCase {
+
+    private static final int[] BATCH_SIZES = {10, 100, 1000};
+
+    private IDatabase db;
+    private final String username = "unittest";
+    private LoginPrefs loginPrefs;
+
+    @Override
+    protected void inject(Injector injector) throws Exception {
+        super.inject(injector);
+        loginPrefs = injector.getInstance(LoginPrefs.class);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        db = DatabaseFactory.getInstance(DatabaseFactory.TYPE_DATABASE_NATIVE, RuntimeEnvironment
+                .application);
+
+        // Our database makes use of the authenticated user's username, so we must mock it.
+        final ProfileModel profileModel = new ProfileModel();
+        profileModel.username = username;
+        loginPrefs.storeUserProfile(profileModel);
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        db.release();
+    }
+
+    @Test
+    public void testBatchWriteMatchesPerRowWrite() throws Exception {
+        db.clearDataByUser(username);
+        final List<DownloadEntry> videos = getDummyVideoModels("batch", 10);
+        // Make the last video share its URL with the first one
+        videos.get(9).url = videos.get(0).url;
+
+        final List<VideoModel> videosByUrl = db.addVideosData(videos, null);
+        assertEquals(videos.size(), videosByUrl.size());
+        for (VideoModel videoByUrl : videosByUrl) {
+            // None of the videos were downloading before
+            assertNull(videoByUrl);
+        }
+
+        for (int i = 0; i < videos.size(); i++) {
+            final DownloadEntry de = videos.get(i);
+            de.dmId = i;
+            de.downloaded = DownloadedState.DOWNLOADING;
+        }
+        assertEquals(videos.size(), (int) db.updateDownloadingVideosInfoByVideoId(videos, null));
+
+        for (DownloadEntry de : videos) {
+            final VideoModel video = db.getVideoEntryByVideoId(de.videoId, null);
+            assertNotNull(video);
+            assertEquals(de.dmId, video.getDmId());
+            assertEquals(DownloadedState.DOWNLOADING.ordinal(), video.getDownloadedStateOrdinal());
+        }
+
+        // Adding the same videos again shouldn't insert duplicates, and should find the downloads
+        final List<VideoModel> secondVideosByUrl = db.addVideosData(videos, null);
+        for (VideoModel videoByUrl : secondVideosByUrl) {
+            assertNotNull(videoByUrl);
+        }
+        assertEquals(videos.size(), (int) db.getVideosDownloadedCount(null)
+                + db.getListOfOngoingDownloads(null).size());
+    }
+
+    @Test
+    public void testBenchmarkBatchWriteAgainstPerRowWrite() throws Exception {
+        for (int size : BATCH_SIZES) {
+            db.clearDataByUser(username);
+            final List<DownloadEntry> perRowVideos = getDummyVideoModels("row" + size, size);
+            long start = System.nanoTime();
+            for (DownloadEntry de : perRowVideos) {
+                db.getVideoByVideoUrl(de.url, null);
+                db.addVideoData(de, null);
+                de.downloaded = DownloadedState.DOWNLOADING;
+                db.updateDownloadingVideoInfoByVideoId(de, null);
+            }
+            final long perRowMillis = (System.nanoTime() - start) / 1000000;
+
+            db.clearDataByUser(username);
+            final List<DownloadEntry> batchVideos = getDummyVideoModels("batch" + size, size);
+            start = System.nanoTime();
+            db.addVideosData(batchVideos, null);
+            for (DownloadEntry de : batchVideos) {
+                de.downloaded = DownloadedState.DOWNLOADING;
+            }
+            db.updateDownloadingVideosInfoByVideoId(batchVideos, null);
+            final long batchMillis = (System.nanoTime() - start) / 1000000;
+
+            assertEquals(size, db.getListOfOngoingDownloads(null).size());
+            print("Enqueuing " + size + " videos: per-row path took " + perRowMillis
+                    + "ms, batch path took " + batchMillis + "ms");
+        }
+        db.clearDataByUser(username);
+    }
+
+    private List<DownloadEntry> getDummyVideoModels(String prefix, int count) {
+        final List<DownloadEntry> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DownloadEntry de = new DownloadEntry();
+            de.username = username;
+            de.title = "title";
+            de.videoId = prefix + "-videoId-" + i;
+            de.size = 1024;
+            de.duration = 3600;
+            de.filepath = "/fakepath";
+            de.url = "http://fake/url/" + prefix + "/" + i;
+            de.eid = "fake_eid";
+            de.chapter = "fake_chapter";
+            de.section = "fake_section";
+            de.lastPlayedOffset = 0;
+            de.lmsUrl = "http://fake/lms/url";
+            de.isCourseActive = 1;
+            de.downloaded = DownloadedState.ONLINE;
+            list.add(de);
+        }
+        return list;
+    }
+}
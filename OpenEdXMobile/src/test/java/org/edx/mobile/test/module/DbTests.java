@@ -8,6 +8,7 @@ import org.edx.mobile.model.db.DownloadEntry;
 import org.edx.mobile.model.db.DownloadEntry.DownloadedState;
 import org.edx.mobile.model.db.DownloadEntry.WatchedState;
 import org.edx.mobile.module.db.DataCallback;
+import org.edx.mobile.module.db.DbQueueStats;
 import org.edx.mobile.module.db.IDatabase;
 import org.edx.mobile.module.db.impl.DatabaseFactory;
 import org.edx.mobile.module.prefs.LoginPrefs;
@@ -15,7 +16,10 @@ import org.edx.mobile.test.BaseTestCase;
 import org.junit.Test;
 import org.robolectric.RuntimeEnvironment;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -93,6 +97,43 @@ public class DbTests extends BaseTestCase {
         lock();
     }
 
+    @Test
+    public void testQueueStats() throws Exception {
+        DownloadEntry de = getDummyVideoModel();
+        db.addVideoData(de, new DataCallback<Long>() {
+            @Override
+            public void onResult(Long result) {
+            }
+
+            @Override
+            public void onFail(Exception ex) {
+                fail(ex.getMessage());
+            }
+        });
+        // Operations are processed in order, and the latencies of each one are recorded before
+        // the next one runs
+        final CountDownLatch processed = new CountDownLatch(1);
+        db.getAllVideos(username, new DataCallback<List<VideoModel>>() {
+            @Override
+            public void onResult(List<VideoModel> result) {
+                processed.countDown();
+            }
+
+            @Override
+            public void onFail(Exception ex) {
+                fail(ex.getMessage());
+            }
+        });
+        assertTrue(processed.await(5, TimeUnit.SECONDS));
+
+        DbQueueStats stats = db.getQueueStats();
+        print("Database queue stats: " + stats);
+        DbQueueStats.OperationLatency latency = stats.latencies.get("DbOperationInsert");
+        assertNotNull(latency);
+        assertTrue(latency.count > 0);
+        assertTrue(stats.maxQueueDepth > 0);
+    }
+
     @Test
     public void testPrintTable() throws Exception {
         db.getAllVideos("shahid", new DataCallback<List<VideoModel>>() {
@@ -735,6 +776,33 @@ public class DbTests extends BaseTestCase {
         lock();
     }
 
+    @Test
+    public void testSectionDownloadCounts() throws Exception {
+        db.clearDataByUser(username);
+        DownloadEntry de = getDummyVideoModel();
+        de.dmId = 424242;
+        de.downloaded = DownloadedState.DOWNLOADING;
+        db.addVideoData(de, null);
+        assertEquals(1, db.getDownloadingVideosCountForSection(de.eid, de.chapter, de.section,
+                null));
+        assertEquals(0, db.getDownloadedVideosCountForSection(de.eid, de.chapter, de.section,
+                null));
+        assertTrue(db.isVideoDownloadingInSection(de.eid, de.chapter, de.section, null));
+
+        de.downloaded = DownloadedState.DOWNLOADED;
+        db.updateDownloadCompleteInfoByDmId(de.dmId, de, null);
+        assertEquals(0, db.getDownloadingVideosCountForSection(de.eid, de.chapter, de.section,
+                null));
+        assertEquals(1, db.getDownloadedVideosCountForSection(de.eid, de.chapter, de.section,
+                null));
+        assertTrue(db.isVideoDownloadedInSection(de.eid, de.chapter, de.section, null));
+
+        db.deleteVideoByVideoId(de, null);
+        assertEquals(0, db.getDownloadedVideosCountForSection(de.eid, de.chapter, de.section,
+                null));
+        assertFalse(db.isVideoDownloadedInSection(de.eid, de.chapter, de.section, null));
+    }
+
     @Test
     public void testgetDownloadingVideoDmIdsForSection() throws Exception {
         db.clearDataByUser(username);
@@ -891,7 +959,7 @@ public class DbTests extends BaseTestCase {
         db.clearDataByUser(username);
         String videoId = "videoId";
         int offset = 1;
-        db.updateVideoLastPlayedOffset(videoId, offset,
+        db.updateVideosLastPlayedOffset(Collections.singletonMap(videoId, offset),
                 new DataCallback<Integer>() {
 
             @Override
@@ -913,7 +981,7 @@ public class DbTests extends BaseTestCase {
         de.videoId=videoId;
         int Offset=2;
         db.addVideoData(de, null);
-        db.updateVideoLastPlayedOffset(videoId, Offset,
+        db.updateVideosLastPlayedOffset(Collections.singletonMap(videoId, Offset),
                 new DataCallback<Integer>() {
 
             @Override
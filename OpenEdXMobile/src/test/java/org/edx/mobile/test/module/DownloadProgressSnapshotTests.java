@@ -0,0 +1,61 @@
+package org.edx.mobile.test.module;
+
+import android.app.DownloadManager;
+
+import org.edx.mobile.model.download.NativeDownloadModel;
+import org.edx.mobile.module.download.DownloadProgressSnapshot;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DownloadProgressSnapshotTests {
+
+    @Test
+    public void testAverageProgress() {
+        final DownloadProgressSnapshot snapshot = new DownloadProgressSnapshot(Arrays.asList(
+                createDownload(1, 50, 100, DownloadManager.STATUS_RUNNING),
+                createDownload(2, 100, 100, DownloadManager.STATUS_SUCCESSFUL),
+                createDownload(3, 0, -1, DownloadManager.STATUS_PENDING)), 1000);
+        assertFalse(snapshot.isEmpty());
+        assertEquals(1000, snapshot.getTakenAt());
+        assertEquals(50, snapshot.getAverageProgress());
+        assertEquals(75, snapshot.getAverageProgress(new long[]{1, 2}));
+        // Downloads that aren't in the snapshot are skipped
+        assertEquals(50, snapshot.getAverageProgress(new long[]{1, 4}));
+        assertEquals(0, snapshot.getAverageProgress(new long[]{4}));
+        assertTrue(snapshot.containsAll(new long[]{1, 2, 3}));
+        assertFalse(snapshot.containsAll(new long[]{1, 4}));
+
+        final DownloadProgressSnapshot.Progress progress = snapshot.get(3);
+        assertNotNull(progress);
+        assertEquals(-1, progress.totalBytes);
+        assertEquals(DownloadManager.STATUS_PENDING, progress.status);
+        assertEquals(0, progress.getPercent(), 0);
+        assertNull(snapshot.get(4));
+    }
+
+    @Test
+    public void testSameProgress() {
+        final DownloadProgressSnapshot snapshot = new DownloadProgressSnapshot(Arrays.asList(
+                createDownload(1, 50, 100, DownloadManager.STATUS_RUNNING)), 1000);
+        assertTrue(snapshot.hasSameProgress(new DownloadProgressSnapshot(Arrays.asList(
+                createDownload(1, 50, 100, DownloadManager.STATUS_RUNNING)), 2000)));
+        assertFalse(snapshot.hasSameProgress(new DownloadProgressSnapshot(Arrays.asList(
+                createDownload(1, 60, 100, DownloadManager.STATUS_RUNNING)), 2000)));
+        assertFalse(snapshot.hasSameProgress(DownloadProgressSnapshot.EMPTY));
+        assertTrue(DownloadProgressSnapshot.EMPTY.isEmpty());
+        assertEquals(0, DownloadProgressSnapshot.EMPTY.getAverageProgress());
+    }
+
+    private static NativeDownloadModel createDownload(long dmid, long downloaded, long size,
+                                                      int status) {
+        final NativeDownloadModel download = new NativeDownloadModel();
+        download.dmid = dmid;
+        download.downloaded = downloaded;
+        download.size = size;
+        download.status = status;
+        return download;
+    }
+}
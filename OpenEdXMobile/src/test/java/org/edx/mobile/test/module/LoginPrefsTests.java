@@ -0,0 +1,58 @@
+package org.edx.mobile.test.module;
+
+import org.edx.mobile.authentication.AuthResponse;
+import org.edx.mobile.model.api.ProfileModel;
+import org.edx.mobile.module.prefs.LoginPrefs;
+import org.edx.mobile.test.BaseTestCase;
+import org.edx.mobile.util.Sha1Util;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LoginPrefsTests extends BaseTestCase {
+
+    @Test
+    public void testSnapshotWriteThrough() throws Exception {
+        final LoginPrefs loginPrefs = new LoginPrefs(context);
+        loginPrefs.clear();
+        assertNull(loginPrefs.getAuthorizationHeader());
+        assertNull(loginPrefs.getHashedUsername());
+
+        loginPrefs.saveSocialLoginToken("social-token", "facebook");
+        assertEquals("social-token", loginPrefs.getAuthorizationHeader());
+
+        final AuthResponse auth = new AuthResponse();
+        auth.token_type = "Bearer";
+        auth.access_token = "access-token";
+        auth.refresh_token = "refresh-token";
+        loginPrefs.storeAuthTokenResponse(auth, LoginPrefs.AuthBackend.PASSWORD);
+        // Changes to the stored object don't leak into the snapshot
+        auth.access_token = "modified";
+        assertEquals("Bearer access-token", loginPrefs.getAuthorizationHeader());
+        assertEquals("refresh-token", loginPrefs.getCurrentAuth().refresh_token);
+
+        final ProfileModel profile = new ProfileModel();
+        profile.username = "unittest";
+        loginPrefs.storeUserProfile(profile);
+        assertEquals("unittest", loginPrefs.getUsername());
+        assertEquals(Sha1Util.SHA1("unittest"), loginPrefs.getHashedUsername());
+        assertNull(loginPrefs.getSocialLoginAccessToken());
+
+        final AuthResponse refreshed = new AuthResponse();
+        refreshed.token_type = "Bearer";
+        refreshed.access_token = "refreshed-token";
+        loginPrefs.storeRefreshTokenResponse(refreshed);
+        assertEquals("Bearer refreshed-token", loginPrefs.getAuthorizationHeader());
+
+        // A new instance loads the same values from the preferences
+        final LoginPrefs reloaded = new LoginPrefs(context);
+        assertEquals("Bearer refreshed-token", reloaded.getAuthorizationHeader());
+        assertEquals("unittest", reloaded.getUsername());
+
+        loginPrefs.clear();
+        assertNull(loginPrefs.getAuthorizationHeader());
+        assertNull(loginPrefs.getCurrentUserProfile());
+        assertNull(loginPrefs.getHashedUsername());
+    }
+}
@@ -0,0 +1,303 @@
+package org.edx.mobile.test.module;
+
+import android.app.DownloadManager;
+import android.content.Context;
+import android.content.Intent;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.support.annotation.NonNull;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import org.edx.mobile.model.download.NativeDownloadModel;
+import org.edx.mobile.module.download.OkHttpDownloadManager;
+import org.edx.mobile.test.BaseTestCase;
+import org.edx.mobile.util.Config;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.robolectric.Shadows;
+import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetworkInfo;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+import static org.edx.mobile.test.util.OkHttpTestUtil.defaultClient;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OkHttpDownloadManagerTest extends BaseTestCase {
+    private static final int MIB = 1024 * 1024;
+    private static final long TIMEOUT_SECONDS = 20;
+    private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(\\d+)-(\\d*)");
+
+    @Rule
+    public final MockWebServer mockServer = new MockWebServer();
+
+    private File downloadDir;
+    private File stateFile;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        downloadDir = new File(context.getFilesDir(), "videos");
+        stateFile = new File(context.getFilesDir(), "downloads.json");
+    }
+
+    @Test
+    public void testSegmentedDownload() throws Exception {
+        final byte[] content = createContent(3 * MIB + 5);
+        mockServer.setDispatcher(new RangeDispatcher(content, true));
+        final OkHttpDownloadManager downloadManager = createDownloadManager(3);
+
+        final NativeDownloadModel download = downloadAndWait(downloadManager);
+        assertEquals(content.length, download.size);
+        assertEquals(content.length, download.downloaded);
+        assertArrayEquals(content, readFile(download.filepath));
+        assertEquals(100, downloadManager.getProgressForDownload(download.dmid));
+
+        // One connection for each segment of the file
+        assertEquals(3, mockServer.getRequestCount());
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(mockServer.takeRequest().getHeader("Range"));
+        }
+    }
+
+    @Test
+    public void testDownloadWithoutRangeSupport() throws Exception {
+        final byte[] content = createContent(3 * MIB);
+        mockServer.setDispatcher(new RangeDispatcher(content, false));
+        final OkHttpDownloadManager downloadManager = createDownloadManager(3);
+
+        final NativeDownloadModel download = downloadAndWait(downloadManager);
+        assertEquals(content.length, download.size);
+        assertArrayEquals(content, readFile(download.filepath));
+        assertEquals(1, mockServer.getRequestCount());
+    }
+
+    @Test
+    public void testDownloadResumesAfterInterruption() throws Exception {
+        final byte[] content = createContent(256 * 1024);
+        final RangeDispatcher dispatcher = new RangeDispatcher(content, true);
+        dispatcher.truncateNextResponse.set(true);
+        mockServer.setDispatcher(dispatcher);
+        final OkHttpDownloadManager downloadManager = createDownloadManager(1);
+
+        final NativeDownloadModel download = downloadAndWait(downloadManager);
+        assertArrayEquals(content, readFile(download.filepath));
+
+        // The second request continues from where the first one was cut off
+        assertEquals(2, mockServer.getRequestCount());
+        assertEquals("bytes=0-", mockServer.takeRequest().getHeader("Range"));
+        final Matcher matcher =
+                RANGE_PATTERN.matcher(mockServer.takeRequest().getHeader("Range"));
+        assertTrue(matcher.matches());
+        assertTrue(Long.parseLong(matcher.group(1)) > 0);
+        assertEquals(String.valueOf(content.length - 1), matcher.group(2));
+    }
+
+    @Test
+    public void testDownloadIsRetriedAfterDisconnection() throws Exception {
+        final byte[] content = createContent(256 * 1024);
+        final RangeDispatcher dispatcher = new RangeDispatcher(content, true);
+        dispatcher.disconnectNextResponse.set(true);
+        mockServer.setDispatcher(dispatcher);
+        final OkHttpDownloadManager downloadManager = createDownloadManager(1);
+
+        final NativeDownloadModel download = downloadAndWait(downloadManager);
+        assertArrayEquals(content, readFile(download.filepath));
+
+        // The retry requests the rest of the file
+        assertEquals(2, mockServer.getRequestCount());
+        assertEquals("bytes=0-", mockServer.takeRequest().getHeader("Range"));
+        final Matcher matcher =
+                RANGE_PATTERN.matcher(mockServer.takeRequest().getHeader("Range"));
+        assertTrue(matcher.matches());
+        assertEquals(String.valueOf(content.length - 1), matcher.group(2));
+    }
+
+    @Test
+    public void testDownloadWaitsForNetwork() throws Exception {
+        final byte[] content = createContent(64 * 1024);
+        mockServer.setDispatcher(new RangeDispatcher(content, true));
+        setNetworkConnected(false);
+        final OkHttpDownloadManager downloadManager = createDownloadManager(1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        downloadManager.addListener(new OkHttpDownloadManager.Listener() {
+            @Override
+            public void onDownloadUpdated(@NonNull NativeDownloadModel download) {
+                if (download.status == DownloadManager.STATUS_SUCCESSFUL) {
+                    latch.countDown();
+                }
+            }
+        });
+        final long dmid = downloadManager.addDownload(downloadDir,
+                mockServer.url("/video.mp4").toString(), false, "Video", "course");
+        final NativeDownloadModel pendingDownload = downloadManager.getDownload(dmid);
+        assertNotNull(pendingDownload);
+        assertEquals(DownloadManager.STATUS_PENDING, pendingDownload.status);
+        assertEquals(0, mockServer.getRequestCount());
+
+        // It starts when the network is back
+        setNetworkConnected(true);
+        context.sendBroadcast(new Intent(ConnectivityManager.CONNECTIVITY_ACTION));
+        assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertArrayEquals(content, readFile(downloadManager.getDownload(dmid).filepath));
+    }
+
+    @Test
+    public void testDownloadsAreRestored() throws Exception {
+        final byte[] content = createContent(64 * 1024);
+        mockServer.setDispatcher(new RangeDispatcher(content, true));
+        final NativeDownloadModel download = downloadAndWait(createDownloadManager(1));
+
+        final OkHttpDownloadManager restoredDownloadManager = createDownloadManager(1);
+        final NativeDownloadModel restoredDownload =
+                restoredDownloadManager.getDownload(download.dmid);
+        assertNotNull(restoredDownload);
+        assertEquals(DownloadManager.STATUS_SUCCESSFUL, restoredDownload.status);
+        assertEquals(download.filepath, restoredDownload.filepath);
+        assertEquals(content.length, restoredDownload.downloaded);
+        // Completed downloads aren't downloaded again
+        assertEquals(1, mockServer.getRequestCount());
+
+        assertEquals(1, restoredDownloadManager.removeDownloads(download.dmid));
+        assertNull(restoredDownloadManager.getDownload(download.dmid));
+        assertTrue(!new File(download.filepath).exists());
+    }
+
+    @NonNull
+    private OkHttpDownloadManager createDownloadManager(int connectionsPerDownload) {
+        final JsonObject videoDownloadConfig = new JsonObject();
+        videoDownloadConfig.add("ENGINE", new JsonPrimitive("IN_APP"));
+        videoDownloadConfig.add("CONNECTIONS_PER_DOWNLOAD",
+                new JsonPrimitive(connectionsPerDownload));
+        final JsonObject configBase = new JsonObject();
+        configBase.add("VIDEO_DOWNLOAD", videoDownloadConfig);
+        return new OkHttpDownloadManager(context, defaultClient(), stateFile,
+                new Config(configBase).getVideoDownloadConfig());
+    }
+
+    @NonNull
+    private NativeDownloadModel downloadAndWait(@NonNull OkHttpDownloadManager downloadManager)
+            throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        downloadManager.addListener(new OkHttpDownloadManager.Listener() {
+            @Override
+            public void onDownloadUpdated(@NonNull NativeDownloadModel download) {
+                if (download.status == DownloadManager.STATUS_SUCCESSFUL) {
+                    latch.countDown();
+                }
+            }
+        });
+        final long dmid = downloadManager.addDownload(downloadDir,
+                mockServer.url("/video.mp4").toString(), false, "Video", "course");
+        assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        final NativeDownloadModel download = downloadManager.getDownload(dmid);
+        assertNotNull(download);
+        assertTrue(downloadManager.isDownloadComplete(dmid));
+        return download;
+    }
+
+    private void setNetworkConnected(boolean isConnected) {
+        final ShadowConnectivityManager shadowConnectivityManager = Shadows.shadowOf(
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE));
+        final NetworkInfo.DetailedState state = isConnected ?
+                NetworkInfo.DetailedState.CONNECTED : NetworkInfo.DetailedState.DISCONNECTED;
+        shadowConnectivityManager.setNetworkInfo(ConnectivityManager.TYPE_WIFI,
+                ShadowNetworkInfo.newInstance(state, ConnectivityManager.TYPE_WIFI, 0,
+                        true, isConnected));
+        shadowConnectivityManager.setNetworkInfo(ConnectivityManager.TYPE_MOBILE,
+                ShadowNetworkInfo.newInstance(NetworkInfo.DetailedState.DISCONNECTED,
+                        ConnectivityManager.TYPE_MOBILE, 0, true, false));
+    }
+
+    @NonNull
+    private static byte[] createContent(int size) {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    @NonNull
+    private static byte[] readFile(@NonNull String path) throws Exception {
+        final RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            final byte[] content = new byte[(int) file.length()];
+            file.readFully(content);
+            return content;
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Serves the given content, honoring the range requests if it's set to.
+     */
+    private static class RangeDispatcher extends Dispatcher {
+        @NonNull
+        private final byte[] content;
+        private final boolean supportsRanges;
+        /**
+         * Whether to cut the connection off halfway through the body of the next response.
+         */
+        final AtomicBoolean truncateNextResponse = new AtomicBoolean();
+        /**
+         * Whether to drop the connection while the body of the next response is being sent.
+         */
+        final AtomicBoolean disconnectNextResponse = new AtomicBoolean();
+
+        RangeDispatcher(@NonNull byte[] content, boolean supportsRanges) {
+            this.content = content;
+            this.supportsRanges = supportsRanges;
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            final String range = request.getHeader("Range");
+            final Matcher matcher = RANGE_PATTERN.matcher(range != null ? range : "");
+            if (!supportsRanges || !matcher.matches()) {
+                return new MockResponse().setBody(new Buffer().write(content));
+            }
+            final int start = Integer.parseInt(matcher.group(1));
+            final int end = matcher.group(2).isEmpty() ?
+                    content.length - 1 : Integer.parseInt(matcher.group(2));
+            final int length = end - start + 1;
+            final MockResponse response = new MockResponse()
+                    .setResponseCode(206)
+                    .setHeader("Content-Range",
+                            "bytes " + start + "-" + end + "/" + content.length);
+            if (truncateNextResponse.getAndSet(false)) {
+                return response
+                        .setBody(new Buffer().write(
+                                Arrays.copyOfRange(content, start, start + length / 2)))
+                        .setHeader("Content-Length", length)
+                        .setSocketPolicy(SocketPolicy.DISCONNECT_AT_END);
+            }
+            response.setBody(new Buffer().write(content, start, length));
+            if (disconnectNextResponse.getAndSet(false)) {
+                response.setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+            }
+            return response;
+        }
+    }
+}
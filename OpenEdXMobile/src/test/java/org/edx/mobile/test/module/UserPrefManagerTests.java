@@ -0,0 +1,31 @@
+package org.edx.mobile.test.module;
+
+import org.edx.mobile.module.prefs.PrefManager;
+import org.edx.mobile.test.BaseTestCase;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class UserPrefManagerTests extends BaseTestCase {
+
+    @Test
+    public void testRecentlyAccessedCourseIds() throws Exception {
+        PrefManager.UserPrefManager prefManager = new PrefManager.UserPrefManager(context);
+        assertEquals(Collections.<String>emptyList(), prefManager.getRecentlyAccessedCourseIds());
+
+        prefManager.addRecentlyAccessedCourseId("course1");
+        prefManager.addRecentlyAccessedCourseId("course2");
+        prefManager.addRecentlyAccessedCourseId("course1");
+        assertEquals(Arrays.asList("course1", "course2"),
+                prefManager.getRecentlyAccessedCourseIds());
+
+        for (int i = 3; i <= 7; i++) {
+            prefManager.addRecentlyAccessedCourseId("course" + i);
+        }
+        assertEquals(Arrays.asList("course7", "course6", "course5", "course4", "course3"),
+                prefManager.getRecentlyAccessedCourseIds());
+    }
+}